@@ -0,0 +1,89 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import com.google.common.collect.ImmutableList;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CoreComponentsFactory;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.algorithm.Algorithm;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Everything that is needed to run one analysis (given by a configuration file) on one program
+ * from test/programs. All benchmarks share this class such that their inputs are created in
+ * exactly the same way as in a regular run of CPAchecker, except that no output is written and no
+ * specification is checked (the full state space is explored).
+ */
+final class AnalysisSetup {
+
+  final Configuration config;
+  final LogManager logger = LogManager.createNullLogManager();
+  final ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+  final CFA cfa;
+  final ConfigurableProgramAnalysis cpa;
+  final CoreComponentsFactory factory;
+
+  AnalysisSetup(String pConfigFile, String pProgram) throws Exception {
+    config = TestDataTools.configurationForTest().loadFromFile(pConfigFile).build();
+    cfa =
+        new CFACreator(config, logger, shutdownNotifier)
+            .parseFileAndCreateCFA(ImmutableList.of(pProgram));
+    GlobalInfo.getInstance().storeCFA(cfa);
+    factory =
+        new CoreComponentsFactory(config, logger, shutdownNotifier, new AggregatedReachedSets());
+    cpa = factory.createCPA(cfa, Specification.alwaysSatisfied());
+    GlobalInfo.getInstance().setUpInfoFromCPA(cpa);
+  }
+
+  Algorithm createAlgorithm() throws Exception {
+    return factory.createAlgorithm(cpa, cfa, Specification.alwaysSatisfied());
+  }
+
+  /** Create a fresh reached set that contains only the initial state. */
+  ReachedSet createInitialReachedSet() throws InterruptedException {
+    CFANode main = cfa.getMainFunction();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    ReachedSet reached = factory.createReachedSet();
+    reached.add(cpa.getInitialState(main, partition), cpa.getInitialPrecision(main, partition));
+    return reached;
+  }
+
+  /** Run the analysis to completion and return the resulting reached set. */
+  ReachedSet explore() throws Exception {
+    ReachedSet reached = createInitialReachedSet();
+    createAlgorithm().run(reached);
+    return reached;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.core.algorithm.Algorithm;
+import org.sosy_lab.cpachecker.core.algorithm.AlgorithmStatus;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+
+/**
+ * Measures a complete run of the main CPA loop ({@link
+ * org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm}) on a program. Besides the time per run,
+ * the number of created states is reported as secondary metric "states" such that JMH can compute
+ * the throughput per state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xss16m", "-Xmx4g"})
+public class CPAAlgorithmBenchmark {
+
+  @Param({"config/valueAnalysis-NoCegar.properties", "config/predicateAnalysis.properties"})
+  public String configFile;
+
+  @Param({
+    "test/programs/simple/loop1.c",
+    "test/programs/simple/minepump_spec5_product62.c",
+    "test/programs/simple/ssh_s3_clnt_errorpath.c"
+  })
+  public String program;
+
+  private AnalysisSetup setup;
+  private Algorithm algorithm;
+
+  /** Counts the number of states per invocation, reported as rate by JMH. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ExploredStates {
+    public long states;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      states = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    setup = new AnalysisSetup(configFile, program);
+    algorithm = setup.createAlgorithm();
+  }
+
+  @Benchmark
+  public AlgorithmStatus run(ExploredStates pCounter) throws Exception {
+    ReachedSet reached = setup.createInitialReachedSet();
+    AlgorithmStatus status = algorithm.run(reached);
+    pCounter.states += reached.size();
+    return status;
+  }
+}
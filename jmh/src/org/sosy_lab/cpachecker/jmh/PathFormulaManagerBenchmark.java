@@ -0,0 +1,162 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Measures {@link PathFormulaManagerImpl#makeAnd(PathFormula, CFAEdge)} by encoding every edge of
+ * a program once, in breadth-first order starting from the program entry (each edge is appended
+ * to the path formula of the first path that reached its predecessor). The number of encoded
+ * edges is reported as secondary metric "edges".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xss16m", "-Xmx4g"})
+public class PathFormulaManagerBenchmark {
+
+  @Param({
+    "test/programs/simple/minepump_spec5_product62.c",
+    "test/programs/simple/ssh_s3_clnt_errorpath.c"
+  })
+  public String program;
+
+  /** Java-only solver, such that the benchmark does not depend on native libraries. */
+  @Param({"SMTINTERPOL"})
+  public String solverName;
+
+  private Solver solver;
+  private PathFormulaManager pfmgr;
+  private CFANode entry;
+  private final List<CFAEdge> edges = new ArrayList<>();
+
+  /** Counts the number of encoded edges per invocation, reported as rate by JMH. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedEdges {
+    public long edges;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      edges = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("solver.solver", solverName)
+            // SMTInterpol does not support bitvectors
+            .setOption("cpa.predicate.encodeBitvectorAs", "INTEGER")
+            .build();
+    LogManager logger = LogManager.createNullLogManager();
+    ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+
+    CFA cfa =
+        new CFACreator(config, logger, shutdownNotifier)
+            .parseFileAndCreateCFA(ImmutableList.of(program));
+    solver = Solver.create(config, logger, shutdownNotifier);
+    pfmgr =
+        new PathFormulaManagerImpl(
+            solver.getFormulaManager(),
+            config,
+            logger,
+            shutdownNotifier,
+            cfa,
+            AnalysisDirection.FORWARD);
+
+    entry = cfa.getMainFunction();
+    Set<CFANode> visited = new HashSet<>();
+    Queue<CFANode> queue = new ArrayDeque<>();
+    visited.add(entry);
+    queue.add(entry);
+    while (!queue.isEmpty()) {
+      CFANode node = queue.remove();
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        edges.add(edge);
+        if (visited.add(edge.getSuccessor())) {
+          queue.add(edge.getSuccessor());
+        }
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    solver.close();
+  }
+
+  @Benchmark
+  public Map<CFANode, PathFormula> makeAnd(EncodedEdges pCounter) throws Exception {
+    Map<CFANode, PathFormula> formulas = new HashMap<>();
+    formulas.put(entry, pfmgr.makeEmptyPathFormula());
+    for (CFAEdge edge : edges) {
+      PathFormula result = pfmgr.makeAnd(formulas.get(edge.getPredecessor()), edge);
+      formulas.putIfAbsent(edge.getSuccessor(), result);
+    }
+    pCounter.edges += edges.size();
+    return formulas;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+
+/**
+ * Measures {@link ReachedSet#add(AbstractState, Precision)} and the partition lookup done by the
+ * stop operator, using real states produced by an analysis of a program. The number of added
+ * states is reported as secondary metric "states" such that JMH can compute the throughput per
+ * state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xss16m", "-Xmx4g"})
+public class ReachedSetBenchmark {
+
+  @Param({"config/valueAnalysis-NoCegar.properties"})
+  public String configFile;
+
+  @Param({"test/programs/simple/ssh_s3_clnt_errorpath.c"})
+  public String program;
+
+  /** Values of the option analysis.reachedSet */
+  @Param({"NORMAL", "LOCATIONMAPPED", "PARTITIONED"})
+  public String reachedSetType;
+
+  private final List<AbstractState> states = new ArrayList<>();
+  private final List<Precision> precisions = new ArrayList<>();
+  private ReachedSetFactory reachedSetFactory;
+
+  /** Counts the number of added states per invocation, reported as rate by JMH. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class AddedStates {
+    public long states;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      states = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    ReachedSet reached = new AnalysisSetup(configFile, program).explore();
+    for (AbstractState state : reached) {
+      states.add(state);
+      precisions.add(reached.getPrecision(state));
+    }
+    reachedSetFactory =
+        new ReachedSetFactory(
+            Configuration.builder().setOption("analysis.reachedSet", reachedSetType).build(),
+            LogManager.createNullLogManager());
+  }
+
+  @Benchmark
+  public ReachedSet add(AddedStates pCounter) {
+    ReachedSet reached = reachedSetFactory.create();
+    for (int i = 0; i < states.size(); i++) {
+      reached.add(states.get(i), precisions.get(i));
+    }
+    pCounter.states += states.size();
+    return reached;
+  }
+
+  @Benchmark
+  public int addAndLookup(AddedStates pCounter) {
+    ReachedSet reached = reachedSetFactory.create();
+    int sum = 0;
+    for (int i = 0; i < states.size(); i++) {
+      AbstractState state = states.get(i);
+      sum += reached.getReached(state).size();
+      reached.add(state, precisions.get(i));
+    }
+    pCounter.states += states.size();
+    return sum;
+  }
+}
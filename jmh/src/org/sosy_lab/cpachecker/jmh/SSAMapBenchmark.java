@@ -0,0 +1,96 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.collect.MapsDifference;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+
+/**
+ * Measures {@link SSAMap#merge(SSAMap, SSAMap, MapsDifference.Visitor)} on two maps that were
+ * derived from a common ancestor by updating a given fraction of the variables, as it happens
+ * when two branches of the program are merged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SSAMapBenchmark {
+
+  @Param({"10", "100", "10000"})
+  public int variables;
+
+  /** Percentage of variables that were updated in each branch. */
+  @Param({"1", "10", "50"})
+  public int updatedPercentage;
+
+  private SSAMap left;
+  private SSAMap right;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0); // fixed seed for reproducible inputs
+
+    SSAMapBuilder common = SSAMap.emptySSAMap().builder();
+    for (int i = 0; i < variables; i++) {
+      common.setIndex("main::x" + i, CNumericTypes.INT, 1 + random.nextInt(10));
+    }
+    SSAMap ancestor = common.build();
+
+    left = updateRandomVariables(ancestor, random);
+    right = updateRandomVariables(ancestor, random);
+  }
+
+  private SSAMap updateRandomVariables(SSAMap pSsa, Random pRandom) {
+    SSAMapBuilder builder = pSsa.builder();
+    int updates = Math.max(1, variables * updatedPercentage / 100);
+    for (int i = 0; i < updates; i++) {
+      String var = "main::x" + pRandom.nextInt(variables);
+      builder.setIndex(var, CNumericTypes.INT, builder.getFreshIndex(var));
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public SSAMap merge() {
+    return SSAMap.merge(left, right, MapsDifference.ignoreMapsDifference());
+  }
+}
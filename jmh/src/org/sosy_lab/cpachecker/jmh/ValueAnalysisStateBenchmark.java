@@ -0,0 +1,132 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Measures {@link ValueAnalysisState#isLessOrEqual(ValueAnalysisState)} and {@link
+ * ValueAnalysisState#join(ValueAnalysisState)} on all pairs of states that the value analysis
+ * produced for the same program location (these are exactly the pairs that the stop and merge
+ * operators compare). The number of compared pairs is reported as secondary metric "pairs".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xss16m", "-Xmx4g"})
+public class ValueAnalysisStateBenchmark {
+
+  /** Upper bound for pairs per location, such that one location cannot dominate. */
+  private static final int MAX_PAIRS_PER_LOCATION = 1000;
+
+  @Param({"config/valueAnalysis-NoCegar.properties"})
+  public String configFile;
+
+  @Param({
+    "test/programs/simple/minepump_spec5_product62.c",
+    "test/programs/simple/ssh_s3_clnt_errorpath.c"
+  })
+  public String program;
+
+  private final List<ValueAnalysisState> left = new ArrayList<>();
+  private final List<ValueAnalysisState> right = new ArrayList<>();
+
+  /** Counts the number of compared pairs per invocation, reported as rate by JMH. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ComparedPairs {
+    public long pairs;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      pairs = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    ListMultimap<CFANode, ValueAnalysisState> statesPerLocation = ArrayListMultimap.create();
+    for (AbstractState state : new AnalysisSetup(configFile, program).explore()) {
+      statesPerLocation.put(
+          AbstractStates.extractLocation(state),
+          AbstractStates.extractStateByType(state, ValueAnalysisState.class));
+    }
+
+    for (Collection<ValueAnalysisState> states : statesPerLocation.asMap().values()) {
+      int pairs = 0;
+      outer:
+      for (ValueAnalysisState s1 : states) {
+        for (ValueAnalysisState s2 : states) {
+          if (pairs++ >= MAX_PAIRS_PER_LOCATION) {
+            break outer;
+          }
+          left.add(s1);
+          // a copy is equal, but not identical, which is the expensive case
+          right.add(s1 == s2 ? ValueAnalysisState.copyOf(s2) : s2);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public void isLessOrEqual(ComparedPairs pCounter, Blackhole pBlackhole) {
+    for (int i = 0; i < left.size(); i++) {
+      pBlackhole.consume(left.get(i).isLessOrEqual(right.get(i)));
+    }
+    pCounter.pairs += left.size();
+  }
+
+  @Benchmark
+  public void join(ComparedPairs pCounter, Blackhole pBlackhole) {
+    for (int i = 0; i < left.size(); i++) {
+      pBlackhole.consume(left.get(i).join(right.get(i)));
+    }
+    pCounter.pairs += left.size();
+  }
+}
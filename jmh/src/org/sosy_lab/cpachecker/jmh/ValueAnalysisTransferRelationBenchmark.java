@@ -0,0 +1,130 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.core.defaults.precision.VariableTrackingPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisCPA;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.cpachecker.util.Precisions;
+
+/**
+ * Measures the transfer relation of the value analysis (i.e., mostly the evaluation of integer
+ * expressions and casts) on all edges leaving the states that the value analysis produced for
+ * programs with many loop iterations. The number of computed transfers is reported as secondary
+ * metric "transfers".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xss16m", "-Xmx4g"})
+public class ValueAnalysisTransferRelationBenchmark {
+
+  /** Upper bound for the number of transfers per invocation. */
+  private static final int MAX_TRANSFERS = 50_000;
+
+  @Param({"config/valueAnalysis-NoCegar.properties"})
+  public String configFile;
+
+  @Param({"test/programs/simple/loop1.c", "test/programs/policyiteration/loop_bounds.c"})
+  public String program;
+
+  private TransferRelation transferRelation;
+
+  private final List<ValueAnalysisState> states = new ArrayList<>();
+  private final List<VariableTrackingPrecision> precisions = new ArrayList<>();
+  private final List<CFAEdge> edges = new ArrayList<>();
+
+  /** Counts the number of computed transfers per invocation, reported as rate by JMH. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ComputedTransfers {
+    public long transfers;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      transfers = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    AnalysisSetup setup = new AnalysisSetup(configFile, program);
+    transferRelation = CPAs.retrieveCPA(setup.cpa, ValueAnalysisCPA.class).getTransferRelation();
+
+    ReachedSet reached = setup.explore();
+    outer:
+    for (AbstractState state : reached) {
+      ValueAnalysisState valueState =
+          AbstractStates.extractStateByType(state, ValueAnalysisState.class);
+      VariableTrackingPrecision precision =
+          Precisions.extractPrecisionByType(
+              reached.getPrecision(state), VariableTrackingPrecision.class);
+      for (CFAEdge edge : CFAUtils.leavingEdges(AbstractStates.extractLocation(state))) {
+        if (edges.size() >= MAX_TRANSFERS) {
+          break outer;
+        }
+        states.add(valueState);
+        precisions.add(precision);
+        edges.add(edge);
+      }
+    }
+  }
+
+  @Benchmark
+  public void getAbstractSuccessorsForEdge(ComputedTransfers pCounter, Blackhole pBlackhole)
+      throws Exception {
+    for (int i = 0; i < edges.size(); i++) {
+      pBlackhole.consume(
+          transferRelation.getAbstractSuccessorsForEdge(
+              states.get(i), precisions.get(i), edges.get(i)));
+    }
+    pCounter.transfers += edges.size();
+  }
+}
@@ -0,0 +1,143 @@
+#!/usr/bin/env python3
+
+"""
+CPAchecker is a tool for configurable software verification.
+This file is part of CPAchecker.
+
+Copyright (C) 2007-2020  Dirk Beyer
+All rights reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+
+CPAchecker web page:
+  http://cpachecker.sosy-lab.org
+"""
+
+DESCRIPTION = """
+Compare two result files of the JMH benchmarks in jmh/
+(as produced by "ant run-jmh", i.e., JMH's JSON result format)
+and report for each benchmark the change in the primary score
+and in the normalized allocation rate (bytes per operation).
+
+Exits with status 1 if any benchmark regressed by more than the given threshold,
+such that this script can be used for gating changes.
+"""
+
+import argparse
+import json
+import sys
+
+ALLOCATION_METRIC = "·gc.alloc.rate.norm"
+
+# For these modes, a higher score is better, for all others (avgt, sample, ss) lower is better.
+HIGHER_IS_BETTER = {"thrpt"}
+
+
+def parse_arguments(argv):
+    parser = argparse.ArgumentParser(description=DESCRIPTION)
+    parser.add_argument("baseline", help="JMH result file (JSON) of the baseline")
+    parser.add_argument("result", help="JMH result file (JSON) to compare")
+    parser.add_argument(
+        "--threshold",
+        type=float,
+        default=0.05,
+        help="relative slowdown or allocation increase that counts as regression "
+        "(default: %(default)s)",
+    )
+    return parser.parse_args(argv)
+
+
+def load_results(path):
+    with open(path) as f:
+        results = {}
+        for entry in json.load(f):
+            params = ",".join(
+                "{}={}".format(k, v) for k, v in sorted(entry.get("params", {}).items())
+            )
+            key = (entry["benchmark"], entry["mode"], params)
+            results[key] = entry
+        return results
+
+
+def relative_change(old, new):
+    if old == 0:
+        return 0.0 if new == 0 else float("inf")
+    return (new - old) / old
+
+
+def get_allocation(entry):
+    metric = entry.get("secondaryMetrics", {}).get(ALLOCATION_METRIC)
+    return metric["score"] if metric else None
+
+
+def compare(baseline, result, threshold):
+    regressions = []
+    for key in sorted(result):
+        name, mode, params = key
+        label = name.rsplit(".", 2)[-2] + "." + name.rsplit(".", 1)[-1]
+        if params:
+            label += " [" + params + "]"
+
+        if key not in baseline:
+            print("{:<100} (new)".format(label))
+            continue
+
+        old, new = baseline[key], result[key]
+        old_score = old["primaryMetric"]["score"]
+        new_score = new["primaryMetric"]["score"]
+        unit = new["primaryMetric"]["scoreUnit"]
+        change = relative_change(old_score, new_score)
+        slowdown = -change if mode in HIGHER_IS_BETTER else change
+
+        line = "{:<100} {:>12.3f} -> {:>12.3f} {:<8} {:>+7.1%}".format(
+            label, old_score, new_score, unit, change
+        )
+        regressed = slowdown > threshold
+
+        old_alloc, new_alloc = get_allocation(old), get_allocation(new)
+        if old_alloc is not None and new_alloc is not None:
+            alloc_change = relative_change(old_alloc, new_alloc)
+            line += "   alloc {:>12.1f} -> {:>12.1f} B/op {:>+7.1%}".format(
+                old_alloc, new_alloc, alloc_change
+            )
+            regressed = regressed or alloc_change > threshold
+
+        if regressed:
+            line += "   REGRESSION"
+            regressions.append(label)
+        print(line)
+
+    for key in sorted(set(baseline) - set(result)):
+        print("{:<100} (missing)".format(key[0]))
+
+    return regressions
+
+
+def main(argv=None):
+    args = parse_arguments(argv)
+    regressions = compare(
+        load_results(args.baseline), load_results(args.result), args.threshold
+    )
+    if regressions:
+        print(
+            "\n{} benchmark(s) regressed by more than {:.0%}.".format(
+                len(regressions), args.threshold
+            )
+        )
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
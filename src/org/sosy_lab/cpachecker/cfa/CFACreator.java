@@ -25,6 +25,9 @@ package org.sosy_lab.cpachecker.cfa;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+import com.google.common.hash.HashCode;
 import com.google.common.io.MoreFiles;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -43,8 +46,10 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.Concurrency;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -220,6 +225,35 @@ public class CFACreator {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path serializeCfaFile = Paths.get("cfa.ser.gz");
 
+  @Option(
+    secure = true,
+    name = "cfa.snapshot",
+    description =
+        "write a snapshot of the post-processed CFA that can be loaded with cfa.load"
+            + " by later runs on the same program"
+  )
+  private boolean writeSnapshot = false;
+
+  @Option(
+    secure = true,
+    name = "cfa.snapshotFile",
+    description = "file name for the snapshot of the CFA"
+  )
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path snapshotFile = Paths.get("cfa.snapshot");
+
+  @Option(
+    secure = true,
+    name = "cfa.load",
+    description =
+        "load the CFA from this snapshot file (created with cfa.snapshot) instead of parsing"
+            + " the program. The snapshot is only used if it was created from the same source"
+            + " files with the same CFA-related options and CPAchecker version,"
+            + " otherwise the program is parsed as usual."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path loadSnapshotFile = null;
+
   @Option(
     secure = true,
     name = "cfa.pixelGraphicFile",
@@ -293,6 +327,9 @@ public class CFACreator {
 
   private final LogManager logger;
   private final Parser parser;
+
+  /** The preprocessor used by the parser, if any. */
+  private @Nullable CPreprocessor preprocessor = null;
   private final ShutdownNotifier shutdownNotifier;
 
   private static class CFACreatorStatistics implements Statistics {
@@ -304,6 +341,8 @@ public class CFACreator {
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
     private final Timer exportTime = new Timer();
+    private final Timer snapshotLoadTime = new Timer();
+    private final Timer snapshotWriteTime = new Timer();
     private final List<Statistics> statisticsCollection;
     private final LogManager logger;
 
@@ -329,6 +368,12 @@ public class CFACreator {
       if (exportTime.getNumberOfIntervals() > 0) {
         out.println("    Time for CFA export:      " + exportTime);
       }
+      if (snapshotLoadTime.getNumberOfIntervals() > 0) {
+        out.println("    Time for snapshot loading:" + snapshotLoadTime);
+      }
+      if (snapshotWriteTime.getNumberOfIntervals() > 0) {
+        out.println("    Time for snapshot writing:" + snapshotWriteTime);
+      }
 
       for (Statistics st : statisticsCollection) {
         StatisticsUtils.printStatistics(st, out, logger, pResult, pReached);
@@ -372,7 +417,7 @@ public class CFACreator {
               config, logger, outerParser, readLineDirectives || usePreprocessor);
 
       if (usePreprocessor) {
-        CPreprocessor preprocessor = new CPreprocessor(config, logger);
+        preprocessor = new CPreprocessor(config, logger);
         outerParser = new CParserWithPreprocessor(outerParser, preprocessor);
       }
 
@@ -411,7 +456,7 @@ public class CFACreator {
       FunctionEntryNode mainFunction = parseResult.getFunctions().get(mainFunctionName);
       assert mainFunction != null : "program lacks main function.";
 
-      CFA cfa = createCFA(parseResult, mainFunction);
+      CFA cfa = createCFA(parseResult, mainFunction, null);
 
       return cfa;
     } finally {
@@ -435,6 +480,18 @@ public class CFACreator {
 
     stats.totalTime.start();
     try {
+      HashCode sourceKey = null;
+      if (loadSnapshotFile != null || (writeSnapshot && snapshotFile != null)) {
+        sourceKey = CFASnapshot.computeSourceKey(sourceFiles, config, preprocessor);
+      }
+
+      if (loadSnapshotFile != null) {
+        Optional<CFA> loadedCfa = loadSnapshot(loadSnapshotFile, sourceKey);
+        if (loadedCfa.isPresent()) {
+          return loadedCfa.orElseThrow();
+        }
+      }
+
       // FIRST, parse file(s) and create CFAs for each function
       logger.log(Level.FINE, "Starting parsing of file(s)");
 
@@ -455,14 +512,73 @@ public class CFACreator {
         throw new AssertionError();
       }
 
-      return createCFA(c, mainFunction);
+      return createCFA(c, mainFunction, sourceKey);
 
     } finally {
       stats.totalTime.stop();
     }
   }
 
-  private CFA createCFA(ParseResult pParseResult, FunctionEntryNode pMainFunction) throws InvalidConfigurationException, InterruptedException, ParserException {
+  /**
+   * Load a CFA from a snapshot file and recompute the information that is not part of snapshots.
+   *
+   * @return the CFA, or an empty optional if the snapshot is missing or does not match.
+   */
+  private Optional<CFA> loadSnapshot(Path pFile, HashCode pSourceKey)
+      throws InvalidConfigurationException, InterruptedException {
+    logger.log(Level.FINE, "Loading CFA snapshot from", pFile);
+    stats.snapshotLoadTime.start();
+    final Optional<CFASnapshot.Content> snapshot;
+    try {
+      snapshot = CFASnapshot.read(pFile, pSourceKey, logger);
+    } finally {
+      stats.snapshotLoadTime.stop();
+    }
+    if (!snapshot.isPresent()) {
+      return Optional.empty();
+    }
+
+    ImmutableCFA cfa = snapshot.orElseThrow().cfa;
+    if (findLiveVariables
+        && (cfa.getVarClassification().isPresent() || cfa.getLanguage() != Language.C)) {
+      stats.processingTime.start();
+      try {
+        SortedSetMultimap<String, CFANode> nodes = TreeMultimap.create();
+        for (CFANode node : cfa.getAllNodes()) {
+          nodes.put(node.getFunctionName(), node);
+        }
+        MutableCFA mutableCfa =
+            new MutableCFA(
+                cfa.getMachineModel(),
+                new TreeMap<>(cfa.getAllFunctions()),
+                nodes,
+                cfa.getMainFunction(),
+                cfa.getFileNames(),
+                cfa.getLanguage());
+        cfa.getLoopStructure().ifPresent(mutableCfa::setLoopStructure);
+        mutableCfa.setLiveVariables(
+            LiveVariables.create(
+                cfa.getVarClassification(),
+                snapshot.orElseThrow().globalDeclarations,
+                mutableCfa,
+                logger,
+                shutdownNotifier,
+                config));
+        cfa = mutableCfa.makeImmutableCFA(cfa.getVarClassification(), cfa.getDependenceGraph());
+      } finally {
+        stats.processingTime.stop();
+      }
+    }
+
+    exportCFAAsyncIfRequested(cfa);
+
+    logger.log(Level.FINE, "DONE, CFA for", cfa.getNumberOfFunctions(), "functions loaded.");
+    return Optional.of(cfa);
+  }
+
+  private CFA createCFA(
+      ParseResult pParseResult, FunctionEntryNode pMainFunction, @Nullable HashCode pSourceKey)
+      throws InvalidConfigurationException, InterruptedException, ParserException {
 
     FunctionEntryNode mainFunction = pMainFunction;
 
@@ -585,13 +701,18 @@ public class CFACreator {
     assert CFACheck.check(mainFunction, null, machineModel);
     stats.checkTime.stop();
 
-    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
-        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
-        || ((exportFunctionCallsUsedFile != null) && exportFunctionCalls)
-        || ((serializeCfaFile != null) && serializeCfa)
-        || (exportCfaPixelFile != null)
-        || (exportCfaToCFile != null && exportCfaToC)) {
-      exportCFAAsync(immutableCFA);
+    exportCFAAsyncIfRequested(immutableCFA);
+
+    if (pSourceKey != null && writeSnapshot && snapshotFile != null) {
+      stats.snapshotWriteTime.start();
+      try {
+        CFASnapshot.write(
+            snapshotFile, pSourceKey, immutableCFA, pParseResult.getGlobalDeclarations());
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write CFA snapshot");
+      } finally {
+        stats.snapshotWriteTime.stop();
+      }
     }
 
     logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
@@ -996,6 +1117,17 @@ v.addInitializer(initializer);
     }
   }
 
+  private void exportCFAAsyncIfRequested(final CFA cfa) {
+    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
+        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
+        || ((exportFunctionCallsUsedFile != null) && exportFunctionCalls)
+        || ((serializeCfaFile != null) && serializeCfa)
+        || (exportCfaPixelFile != null)
+        || (exportCfaToCFile != null && exportCfaToC)) {
+      exportCFAAsync(cfa);
+    }
+  }
+
   private void exportCFAAsync(final CFA cfa) {
     // Execute asynchronously, this may take several seconds for large programs on slow disks.
     // This is safe because we don't modify the CFA from this point on.
@@ -0,0 +1,287 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.exceptions.CParserException;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * Reading and writing of CFA snapshots, i.e., of a fully post-processed {@link ImmutableCFA}
+ * together with its derived information (loop structure, variable classification, dependence
+ * graph) and the global declarations, such that later runs on the same program can skip parsing
+ * and post-processing completely.
+ *
+ * <p>File format: a header consisting of {@link #MAGIC}, the format version, and the source key,
+ * followed by the deflated Java serialization of the CFA and the global declarations. The source
+ * key is a hash over the version of CPAchecker, all configuration options that influence CFA
+ * creation, and the names and contents of all source files including the files they include (or
+ * the output of the preprocessor, if it is used). A snapshot is only used if its key
+ * matches, otherwise the program is parsed as usual. Live variables are not stored but recomputed
+ * after loading, because they are cheap to compute compared to the rest.
+ */
+final class CFASnapshot {
+
+  private static final long MAGIC = 0x4350414346536e70L; // "CPACFSnp"
+  private static final int FORMAT_VERSION = 1;
+  private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+  /** Matches include directives, the group is the name of the included file. */
+  private static final Pattern INCLUDE_DIRECTIVE =
+      Pattern.compile("^\\s*#\\s*include\\s*[<\"]([^>\"]+)[>\"]", Pattern.MULTILINE);
+
+  /** Options with these prefixes influence the CFA and are thus part of the source key. */
+  private static final ImmutableSet<String> RELEVANT_OPTION_PREFIXES =
+      ImmutableSet.of(
+          "analysis.entryFunction",
+          "analysis.functionPointerCalls",
+          "analysis.interprocedural",
+          "analysis.machineModel",
+          "analysis.threadOperationsTransform",
+          "analysis.useGlobalVars",
+          "analysis.useLoopStructure",
+          "cfa.",
+          "dependencegraph.",
+          "language",
+          "liveVar.",
+          "parser.");
+
+  /** Options with these prefixes only control output and are not part of the source key. */
+  private static final ImmutableSet<String> IRRELEVANT_OPTION_PREFIXES =
+      ImmutableSet.of(
+          "cfa.callgraph.",
+          "cfa.export",
+          "cfa.file",
+          "cfa.load",
+          "cfa.pixelGraphicFile",
+          "cfa.serialize",
+          "cfa.snapshot");
+
+  /** The content of a snapshot. */
+  static final class Content {
+    final ImmutableCFA cfa;
+    final ImmutableList<Pair<ADeclaration, String>> globalDeclarations;
+
+    private Content(
+        ImmutableCFA pCfa, ImmutableList<Pair<ADeclaration, String>> pGlobalDeclarations) {
+      cfa = pCfa;
+      globalDeclarations = pGlobalDeclarations;
+    }
+  }
+
+  private CFASnapshot() {}
+
+  /**
+   * Compute the key that identifies the CFA created from the given files and configuration.
+   *
+   * @param pPreprocessor the preprocessor that is used for parsing, if any. In this case the
+   *     output of the preprocessor is hashed, otherwise the source files and the files included by
+   *     them (as far as they can be found relative to the including file).
+   */
+  static HashCode computeSourceKey(
+      List<String> pSourceFiles, Configuration pConfig, @Nullable CPreprocessor pPreprocessor)
+      throws IOException, CParserException, InterruptedException {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    hasher.putString(CPAchecker.getPlainVersion(), UTF_8).putChar('\n');
+
+    List<String> options = new ArrayList<>();
+    for (String line : Splitter.on('\n').omitEmptyStrings().split(pConfig.asPropertiesString())) {
+      line = line.trim();
+      if (isRelevantOption(line)) {
+        options.add(line);
+      }
+    }
+    options.sort(null);
+    for (String option : options) {
+      hasher.putString(option, UTF_8).putChar('\n');
+    }
+
+    Set<Path> hashedFiles = new HashSet<>();
+    for (String sourceFile : pSourceFiles) {
+      hasher.putString(sourceFile, UTF_8).putChar('\n');
+      if (pPreprocessor != null) {
+        hasher.putString(pPreprocessor.preprocess(sourceFile), UTF_8);
+      } else {
+        hashFileWithIncludes(Paths.get(sourceFile), hasher, hashedFiles);
+      }
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Hash the content of the given file and, recursively, of all files that it includes. Included
+   * files that cannot be found next to the including file (e.g., system headers, which the parser
+   * does not find either) are represented by their name only.
+   */
+  private static void hashFileWithIncludes(Path pFile, Hasher pHasher, Set<Path> pHashedFiles)
+      throws IOException {
+    if (!pHashedFiles.add(pFile.toAbsolutePath().normalize())) {
+      // content was already hashed
+      pHasher.putString(pFile.toString(), UTF_8).putChar('\n');
+      return;
+    }
+    byte[] content = Files.readAllBytes(pFile);
+    pHasher.putInt(content.length).putBytes(content);
+
+    Path directory = pFile.toAbsolutePath().getParent();
+    Matcher matcher = INCLUDE_DIRECTIVE.matcher(new String(content, UTF_8));
+    while (matcher.find()) {
+      String includedName = matcher.group(1);
+      pHasher.putString("#include " + includedName, UTF_8).putChar('\n');
+      Path included = directory != null ? directory.resolve(includedName) : null;
+      if (included != null && Files.isRegularFile(included)) {
+        hashFileWithIncludes(included, pHasher, pHashedFiles);
+      }
+    }
+  }
+
+  private static boolean isRelevantOption(String pLine) {
+    return RELEVANT_OPTION_PREFIXES.stream().anyMatch(pLine::startsWith)
+        && IRRELEVANT_OPTION_PREFIXES.stream().noneMatch(pLine::startsWith);
+  }
+
+  /**
+   * Write a snapshot of the given CFA. The file is written to a temporary file first and then
+   * moved, such that concurrent readers never see a partially written snapshot.
+   */
+  static void write(
+      Path pFile,
+      HashCode pSourceKey,
+      ImmutableCFA pCfa,
+      List<Pair<ADeclaration, String>> pGlobalDeclarations)
+      throws IOException {
+    Path parent = pFile.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Path tmpFile = Files.createTempFile(parent, pFile.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeLong(MAGIC);
+        header.writeInt(FORMAT_VERSION);
+        header.write(pSourceKey.asBytes());
+        header.flush();
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (ObjectOutputStream oos =
+            new ObjectOutputStream(new DeflaterOutputStream(out, deflater, 1 << 16))) {
+          oos.writeObject(pCfa);
+          oos.writeObject(ImmutableList.copyOf(pGlobalDeclarations));
+        } finally {
+          deflater.end();
+        }
+      }
+      Files.move(tmpFile, pFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
+  /**
+   * Read a snapshot if it exists and matches the given source key.
+   *
+   * @return the content of the snapshot, or an empty optional if the snapshot cannot be used
+   */
+  @SuppressWarnings("unchecked")
+  static Optional<Content> read(Path pFile, HashCode pSourceKey, LogManager pLogger) {
+    if (!Files.isReadable(pFile)) {
+      pLogger.log(Level.INFO, "CFA snapshot", pFile, "does not exist, parsing program.");
+      return Optional.empty();
+    }
+
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(pFile))) {
+      DataInputStream header = new DataInputStream(in);
+      byte[] key = new byte[pSourceKey.bits() / Byte.SIZE];
+      if (header.readLong() != MAGIC || header.readInt() != FORMAT_VERSION) {
+        pLogger.log(Level.INFO, "CFA snapshot", pFile, "has unknown format, parsing program.");
+        return Optional.empty();
+      }
+      header.readFully(key);
+      if (!HashCode.fromBytes(key).equals(pSourceKey)) {
+        pLogger.log(
+            Level.INFO,
+            "CFA snapshot",
+            pFile,
+            "was created for a different program or configuration, parsing program.");
+        return Optional.empty();
+      }
+
+      try (ObjectInputStream ois = new ObjectInputStream(new InflaterInputStream(in))) {
+        ImmutableCFA cfa = (ImmutableCFA) ois.readObject();
+        ImmutableList<Pair<ADeclaration, String>> globals =
+            (ImmutableList<Pair<ADeclaration, String>>) ois.readObject();
+
+        // Loaded nodes keep their ids, new nodes need to get different ones.
+        CFANode.reserveIdsUpTo(
+            cfa.getAllNodes().stream().mapToInt(CFANode::getNodeNumber).max().orElse(0));
+        return Optional.of(new Content(cfa, globals));
+      }
+
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // e.g., InvalidClassException if the snapshot was written by an incompatible version
+      pLogger.logUserException(
+          Level.INFO, e, "Could not read CFA snapshot " + pFile + ", parsing program");
+      return Optional.empty();
+    }
+  }
+}
@@ -65,7 +65,8 @@ class ImmutableCFA implements CFA, Serializable {
   private final FunctionEntryNode mainFunction;
   private final @Nullable LoopStructure loopStructure;
   private final @Nullable VariableClassification varClassification;
-  private final @Nullable LiveVariables liveVariables;
+  // not serialized, can be recomputed cheaply after loading (cf. CFASnapshot)
+  private final transient @Nullable LiveVariables liveVariables;
   private final @Nullable DependenceGraph dependenceGraph;
   private final Language language;
 
@@ -36,7 +36,7 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import org.sosy_lab.common.UniqueIdGenerator;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.sosy_lab.cpachecker.cfa.ast.AFunctionDeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
@@ -47,7 +47,9 @@ public class CFANode implements Comparable<CFANode>, Serializable {
 
   private static final long serialVersionUID = 5168350921309486536L;
 
-  private static final UniqueIdGenerator idGenerator = new UniqueIdGenerator();
+  // the next id to use; an AtomicInteger instead of a UniqueIdGenerator, such that ids can be
+  // reserved in one step (see reserveIdsUpTo)
+  private static final AtomicInteger idGenerator = new AtomicInteger();
 
   private final int nodeNumber;
 
@@ -86,7 +88,15 @@ public class CFANode implements Comparable<CFANode>, Serializable {
 
   public CFANode(AFunctionDeclaration pFunction) {
     function = pFunction;
-    nodeNumber = idGenerator.getFreshId();
+    nodeNumber = idGenerator.getAndIncrement();
+  }
+
+  /**
+   * Ensure that all nodes created from now on get an id that is larger than the given one. This
+   * is necessary after deserializing nodes, because they keep their original ids.
+   */
+  public static void reserveIdsUpTo(int pMaxId) {
+    idGenerator.accumulateAndGet(pMaxId + 1, Math::max);
   }
 
   public int getNodeNumber() {
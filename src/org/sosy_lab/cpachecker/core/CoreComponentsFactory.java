@@ -53,9 +53,11 @@ import org.sosy_lab.cpachecker.core.algorithm.CounterexampleStoreAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.CustomInstructionRequirementsExtractingAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.ExceptionHandlingAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.ExternalCBMCAlgorithm;
+import org.sosy_lab.cpachecker.core.algorithm.IncrementalVerificationAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.InterleavedAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.NoopAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.ParallelAlgorithm;
+import org.sosy_lab.cpachecker.core.algorithm.ParallelCPAAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.ProgramSplitAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RestartAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RestartWithConditionsAlgorithm;
@@ -262,6 +264,22 @@ public class CoreComponentsFactory {
   @Option(secure = true, name = "algorithm.useParallelBAM", description = "run the parallel BAM algortihm.")
   private boolean useParallelBAM = false;
 
+  @Option(
+      secure = true,
+      name = "algorithm.parallelCPA",
+      description =
+          "use the parallel variant of the CPA algorithm, which computes the successors "
+              + "of several states concurrently (cf. options cpa.parallel.*)")
+  private boolean useParallelCPAAlgorithm = false;
+
+  @Option(
+      secure = true,
+      name = "algorithm.incrementalVerification",
+      description =
+          "re-verify only the parts of the program that are affected by changes "
+              + "with respect to a previously verified version (cf. option differential.program)")
+  private boolean useIncrementalVerification = false;
+
   @Option(secure=true, name="unknownIfUnrestrictedProgram",
       description="stop the analysis with the result unknown if the program does not satisfies certain restrictions.")
   private boolean unknownIfUnrestrictedProgram = false;
@@ -412,7 +430,11 @@ public class CoreComponentsFactory {
               aggregatedReachedSets);
 
     } else {
-      algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+      if (useParallelCPAAlgorithm) {
+        algorithm = new ParallelCPAAlgorithm(cpa, config, logger, shutdownNotifier);
+      } else {
+        algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+      }
 
       if (constructResidualProgram) {
         algorithm = new ResidualProgramConstructionAlgorithm(cfa, config, logger, shutdownNotifier,
@@ -441,6 +463,11 @@ public class CoreComponentsFactory {
                 .newInstance();
       }
 
+      if (useIncrementalVerification) {
+        algorithm =
+            new IncrementalVerificationAlgorithm(algorithm, cfa, config, logger, shutdownNotifier);
+      }
+
       if (usePDR) {
         algorithm =
             new PdrAlgorithm(
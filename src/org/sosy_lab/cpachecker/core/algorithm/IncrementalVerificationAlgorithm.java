@@ -0,0 +1,231 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.collect.ImmutableList;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.ForwardingReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.modifications.CFADifference;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+
+/**
+ * Algorithm for re-verifying a program after a change. The CFA of the program is compared to the
+ * CFA of a previous version, which is assumed to be already verified for the same specification.
+ * States at locations that are not affected by the changes (cf. {@link CFADifference}) are added to
+ * the reached set, but not explored further, because all paths through them exist in the previous
+ * version, too.
+ *
+ * <p>Together with the predicate precision of the previous run (cf. option
+ * cpa.predicate.abstraction.initialPredicates), the effort of the analysis depends mainly on the
+ * size of the change instead of the size of the program.
+ */
+@Options(prefix = "differential")
+public class IncrementalVerificationAlgorithm implements Algorithm, StatisticsProvider {
+
+  @Option(
+      secure = true,
+      description = "Program to check against",
+      name = "program",
+      required = true)
+  @FileOption(FileOption.Type.REQUIRED_INPUT_FILE)
+  private Path originalProgram = null;
+
+  @Option(
+      secure = true,
+      description =
+          "ignore declarations when detecting modifications, "
+              + "be careful when variables are renamed (could be unsound)")
+  private boolean ignoreDeclarations = false;
+
+  private final Algorithm algorithm;
+  private final CFA cfa;
+  private final CFA originalCfa;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  private final IncrementalVerificationStatistics stats = new IncrementalVerificationStatistics();
+
+  private static class IncrementalVerificationStatistics implements Statistics {
+
+    private final Timer differenceTime = new Timer();
+    private int modifiedNodes = 0;
+    private int affectedNodes = 0;
+    private final StatCounter prunedStates =
+        new StatCounter("Number of states at unaffected locations");
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsUtils.write(pOut, 0, 50, "Time for computing CFA difference", differenceTime);
+      StatisticsUtils.write(pOut, 0, 50, "Number of modified locations", modifiedNodes);
+      StatisticsUtils.write(pOut, 0, 50, "Number of affected locations", affectedNodes);
+      StatisticsUtils.write(pOut, 0, 50, prunedStates);
+    }
+
+    @Override
+    public @Nullable String getName() {
+      return "Incremental Verification";
+    }
+  }
+
+  // originalProgram != null checked through REQUIRED_INPUT_FILE annotation
+  @SuppressFBWarnings("NP")
+  public IncrementalVerificationAlgorithm(
+      Algorithm pAlgorithm,
+      CFA pCfa,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException, InterruptedException {
+    pConfig.inject(this);
+    algorithm = pAlgorithm;
+    cfa = pCfa;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+
+    CFACreator cfaCreator = new CFACreator(pConfig, pLogger, pShutdownNotifier);
+    try {
+      originalCfa = cfaCreator.parseFileAndCreateCFA(ImmutableList.of(originalProgram.toString()));
+    } catch (ParserException e) {
+      throw new InvalidConfigurationException("Parser error for original program", e);
+    } catch (IOException e) {
+      throw new InvalidConfigurationException(
+          "Could not read original program: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public AlgorithmStatus run(ReachedSet pReachedSet) throws CPAException, InterruptedException {
+    final CFADifference difference;
+    stats.differenceTime.start();
+    try {
+      difference = CFADifference.compute(cfa, originalCfa, ignoreDeclarations, shutdownNotifier);
+    } finally {
+      stats.differenceTime.stop();
+    }
+    stats.modifiedNodes = difference.getModifiedNodes().size();
+    stats.affectedNodes = difference.getAffectedNodes().size();
+    logger.log(
+        Level.INFO,
+        "Found",
+        stats.modifiedNodes,
+        "modified locations, restricting analysis to",
+        stats.affectedNodes,
+        "affected locations.");
+
+    AffectedLocationsReachedSet reached = new AffectedLocationsReachedSet(pReachedSet, difference);
+    reached.pruneWaitlist();
+    return algorithm.run(reached);
+  }
+
+  /**
+   * Reached set that keeps states at unaffected locations out of the waitlist, such that they are
+   * not explored by the wrapped algorithm. Such states are still added to the reached set and thus
+   * available for coverage checks.
+   */
+  private class AffectedLocationsReachedSet extends ForwardingReachedSet {
+
+    private final CFADifference difference;
+
+    AffectedLocationsReachedSet(ReachedSet pDelegate, CFADifference pDifference) {
+      super(pDelegate);
+      difference = pDifference;
+    }
+
+    private boolean isAffected(AbstractState pState) {
+      CFANode location = AbstractStates.extractLocation(pState);
+      return location == null || difference.isAffected(location);
+    }
+
+    private void prune(AbstractState pState) {
+      if (!isAffected(pState)) {
+        stats.prunedStates.inc();
+        super.removeOnlyFromWaitlist(pState);
+      }
+    }
+
+    void pruneWaitlist() {
+      List<AbstractState> waitlist = new ArrayList<>(getWaitlist());
+      waitlist.forEach(this::prune);
+    }
+
+    @Override
+    public void add(AbstractState pState, Precision pPrecision) {
+      super.add(pState, pPrecision);
+      prune(pState);
+    }
+
+    @Override
+    public void addAll(Iterable<Pair<AbstractState, Precision>> pToAdd) {
+      super.addAll(pToAdd);
+      for (Pair<AbstractState, Precision> p : pToAdd) {
+        prune(p.getFirst());
+      }
+    }
+
+    @Override
+    public void reAddToWaitlist(AbstractState pState) {
+      super.reAddToWaitlist(pState);
+      prune(pState);
+    }
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(stats);
+    if (algorithm instanceof StatisticsProvider) {
+      ((StatisticsProvider) algorithm).collectStatistics(pStatsCollection);
+    }
+  }
+}
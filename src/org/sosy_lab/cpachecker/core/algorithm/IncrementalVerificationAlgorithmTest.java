@@ -0,0 +1,106 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class IncrementalVerificationAlgorithmTest {
+
+  private static final String CONFIGURATION_FILE = "config/incrementalPredicateAnalysis.properties";
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  /**
+   * A program with a changeable body of function f, and a function g with an error that is only
+   * reached in another branch than f.
+   */
+  private String writeProgram(String pName, String pBodyOfF) throws Exception {
+    List<String> lines = new ArrayList<>();
+    lines.add("extern int __VERIFIER_nondet_int();");
+    lines.add("extern void __assert_fail();");
+    lines.add("int f(int x) {");
+    lines.add(pBodyOfF);
+    lines.add("  return 0;");
+    lines.add("}");
+    lines.add("int g(int x) {");
+    lines.add("  if (x > 0) {");
+    lines.add("    __assert_fail();");
+    lines.add("  }");
+    lines.add("  return x;");
+    lines.add("}");
+    lines.add("int main() {");
+    lines.add("  if (__VERIFIER_nondet_int()) {");
+    lines.add("    return f(1);");
+    lines.add("  }");
+    lines.add("  return g(1);");
+    lines.add("}");
+    Path program = tempFolder.getRoot().toPath().resolve(pName);
+    Files.write(program, lines, StandardCharsets.UTF_8);
+    return program.toString();
+  }
+
+  private TestResults run(String pOriginalBodyOfF, String pBodyOfF) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(CONFIGURATION_FILE)
+            .setOption("differential.program", writeProgram("original.c", pOriginalBodyOfF))
+            .build();
+    return CPATestRunner.run(config, writeProgram("changed.c", pBodyOfF));
+  }
+
+  @Test
+  public void errorInChangedFunctionIsFound() throws Exception {
+    TestResults results = run("  x = x + 1;", "  if (x > 0) { __assert_fail(); }");
+    results.assertIsUnsafe();
+    assertThat(results.getLog()).contains("restricting analysis to");
+  }
+
+  @Test
+  public void unaffectedPathsAreNotReverified() throws Exception {
+    // The error in g is also reachable in the original program, which is assumed to be verified.
+    // Only the paths through the changed function f are explored, which are safe.
+    TestResults results = run("  x = x + 1;", "  x = x + 2;");
+    results.assertIsSafe();
+  }
+
+  @Test
+  public void unchangedProgramIsNotReverified() throws Exception {
+    TestResults results = run("  x = x + 1;", "  x = x + 1;");
+    results.assertIsSafe();
+    assertThat(results.getLog()).contains("Found 0 modified locations");
+  }
+}
@@ -0,0 +1,619 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.base.Functions;
+import com.google.common.base.Throwables;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ConcurrentPartitionedReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+
+/**
+ * Variant of {@link CPAAlgorithm} that computes the successors of several states concurrently.
+ *
+ * <p>In each round, up to {@link #batchSize} states are taken from the waitlist, and a fork-join
+ * pool computes their successors (transfer relation and precision adjustment), which are often the
+ * expensive and independent parts of the analysis. Each worker thread takes the next unhandled
+ * state of the round, so the work is balanced dynamically between the threads. Merge, stop, and
+ * adding to the reached set are done sequentially by the thread that runs the algorithm, either in
+ * the order in which the states were taken from the waitlist (deterministic mode), or as soon as
+ * the successors of any state are available.
+ *
+ * <p>If the reached set is thread-safe ({@link ConcurrentPartitionedReachedSet}) and the merge
+ * operator is merge-sep, merge and stop are done while the workers still compute the successors of
+ * other states. Otherwise, all successors of a round are computed before the first one is
+ * handled, because precision adjustment may read the reached set.
+ *
+ * <p>Transfer relations are often not thread-safe (e.g., all that extend {@link
+ * org.sosy_lab.cpachecker.core.defaults.ForwardingTransferRelation} store the current state in a
+ * field), and precision adjustments often share a solver (e.g., predicate abstraction). So by
+ * default the operators of the CPA are called by one thread at a time, unless {@link
+ * #threadSafeTransferRelation} or {@link #threadSafePrecisionAdjustment} is set. Forced covering is
+ * not supported.
+ *
+ * <p>If the analysis stops within a round (because of BREAK or an exception), the successors that
+ * were computed for states of the round but not handled are removed from the ARG, and their
+ * predecessors are re-added to the waitlist.
+ */
+@Options(prefix = "cpa.parallel")
+public class ParallelCPAAlgorithm implements Algorithm, StatisticsProvider {
+
+  @Option(
+      secure = true,
+      description =
+          "number of threads for computing successors, positive values match exactly, "
+              + "with -1 we use the number of available cores of the machine.")
+  private int numberOfThreads = -1;
+
+  @Option(
+      secure = true,
+      description = "maximum number of states that are taken from the waitlist in each round")
+  @IntegerOption(min = 1)
+  private int batchSize = 256;
+
+  @Option(
+      secure = true,
+      description =
+          "handle successors in the order in which their predecessors were taken from the "
+              + "waitlist, such that the result does not depend on thread scheduling. "
+              + "Otherwise successors are handled as soon as they are available.")
+  private boolean deterministic = true;
+
+  @Option(
+      secure = true,
+      description =
+          "call the transfer relation from several threads concurrently. "
+              + "Enable this only if the transfer relations of all used CPAs are thread-safe.")
+  private boolean threadSafeTransferRelation = false;
+
+  @Option(
+      secure = true,
+      description =
+          "call the precision adjustment from several threads concurrently. "
+              + "Enable this only if the precision adjustments of all used CPAs are thread-safe.")
+  private boolean threadSafePrecisionAdjustment = false;
+
+  private static class ParallelCPAStatistics implements Statistics {
+
+    private final StatTimer totalTimer = new StatTimer("Total time for parallel CPA algorithm");
+    private final StatTimer chooseTimer = new StatTimer("Time for choose from waitlist");
+    private final StatTimer waitTimer = new StatTimer("Time for waiting for successors");
+    private final ThreadSafeTimerContainer transferTimer =
+        new ThreadSafeTimerContainer("Time for transfer relation (all threads)");
+    private final ThreadSafeTimerContainer precisionTimer =
+        new ThreadSafeTimerContainer("Time for precision adjustment (all threads)");
+    private final StatTimer mergeTimer = new StatTimer("Time for merge operator");
+    private final StatTimer stopTimer = new StatTimer("Time for stop operator");
+    private final StatTimer addTimer = new StatTimer("Time for adding to reached set");
+
+    private final StatInt roundSize = new StatInt(StatKind.AVG, "States per round");
+    private final StatInt countSuccessors =
+        new StatInt(StatKind.SUM, "Number of computed successors");
+    private final StatCounter countMerge = new StatCounter("Number of times merged");
+    private final StatCounter countStop = new StatCounter("Number of times stopped");
+    private final StatCounter countBreak = new StatCounter("Number of times breaked");
+    private final StatCounter countObsolete =
+        new StatCounter("Number of states removed before handling their successors");
+
+    @Override
+    public String getName() {
+      return "Parallel CPA algorithm";
+    }
+
+    @Override
+    public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsUtils.write(out, 0, 50, roundSize);
+      StatisticsUtils.write(out, 0, 50, countSuccessors);
+      StatisticsUtils.write(out, 0, 50, countMerge);
+      StatisticsUtils.write(out, 0, 50, countStop);
+      StatisticsUtils.write(out, 0, 50, countBreak);
+      StatisticsUtils.write(out, 0, 50, countObsolete);
+      out.println();
+      StatisticsUtils.write(out, 0, 50, totalTimer);
+      StatisticsUtils.write(out, 1, 50, chooseTimer);
+      StatisticsUtils.write(out, 1, 50, waitTimer);
+      StatisticsUtils.write(out, 1, 50, transferTimer);
+      StatisticsUtils.write(out, 1, 50, precisionTimer);
+      if (mergeTimer.getUpdateCount() > 0) {
+        StatisticsUtils.write(out, 1, 50, mergeTimer);
+      }
+      StatisticsUtils.write(out, 1, 50, stopTimer);
+      StatisticsUtils.write(out, 1, 50, addTimer);
+    }
+  }
+
+  /** The successors of one state, after precision adjustment (computed by a worker). */
+  private static class Successors {
+    private final AbstractState state;
+    private final Collection<? extends AbstractState> successors;
+    private final List<PrecisionAdjustmentResult> adjustedSuccessors;
+
+    private Successors(
+        AbstractState pState,
+        Collection<? extends AbstractState> pSuccessors,
+        List<PrecisionAdjustmentResult> pAdjustedSuccessors) {
+      state = pState;
+      successors = pSuccessors;
+      adjustedSuccessors = pAdjustedSuccessors;
+    }
+
+    /**
+     * Remove the successors from the ARG (if there is one), such that they are not duplicated when
+     * the successors of the state are computed again.
+     */
+    private void removeFromARG() {
+      // precision adjustment may have replaced some successors in the ARG
+      List<AbstractState> toRemove = new ArrayList<>(successors);
+      for (PrecisionAdjustmentResult result : adjustedSuccessors) {
+        toRemove.add(result.abstractState());
+      }
+      for (AbstractState successor : toRemove) {
+        ARGState argState = AbstractStates.extractStateByType(successor, ARGState.class);
+        if (argState != null && !argState.isDestroyed()) {
+          argState.removeFromARG();
+        }
+      }
+    }
+  }
+
+  private final ParallelCPAStatistics stats = new ParallelCPAStatistics();
+
+  private final TransferRelation transferRelation;
+  private final MergeOperator mergeOperator;
+  private final StopOperator stopOperator;
+  private final PrecisionAdjustment precisionAdjustment;
+
+  /** Protects the operators of the CPA that are not declared to be thread-safe. */
+  private final Lock cpaLock = new ReentrantLock();
+
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  public ParallelCPAAlgorithm(
+      ConfigurableProgramAnalysis pCpa,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (numberOfThreads < 1 && numberOfThreads != -1) {
+      throw new InvalidConfigurationException(
+          "Number of threads can only be a positive number or -1.");
+    }
+    if (pConfig.getProperty("cpa.forcedCovering") != null) {
+      throw new InvalidConfigurationException(
+          "Forced covering is not supported by the parallel CPA algorithm.");
+    }
+    transferRelation = pCpa.getTransferRelation();
+    mergeOperator = pCpa.getMergeOperator();
+    stopOperator = pCpa.getStopOperator();
+    precisionAdjustment = pCpa.getPrecisionAdjustment();
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  private int getNumberOfThreads() {
+    return numberOfThreads > 0 ? numberOfThreads : Runtime.getRuntime().availableProcessors();
+  }
+
+  @Override
+  public AlgorithmStatus run(final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    ForkJoinPool pool = new ForkJoinPool(getNumberOfThreads());
+    stats.totalTimer.start();
+    try {
+      return run0(reachedSet, pool);
+    } finally {
+      pool.shutdownNow();
+      stats.totalTimer.stop();
+    }
+  }
+
+  private AlgorithmStatus run0(final ReachedSet reachedSet, final ForkJoinPool pool)
+      throws CPAException, InterruptedException {
+    final boolean overlapping =
+        reachedSet instanceof ConcurrentPartitionedReachedSet
+            && mergeOperator == MergeSepOperator.getInstance();
+
+    while (reachedSet.hasWaitingState()) {
+      shutdownNotifier.shutdownIfNecessary();
+
+      stats.chooseTimer.start();
+      List<Pair<AbstractState, Precision>> round = new ArrayList<>();
+      while (round.size() < batchSize && reachedSet.hasWaitingState()) {
+        AbstractState state = reachedSet.popFromWaitlist();
+        round.add(Pair.of(state, reachedSet.getPrecision(state)));
+      }
+      stats.chooseTimer.stop();
+      stats.roundSize.setNextValue(round.size());
+      logger.log(Level.FINER, "Retrieved", round.size(), "states from waitlist");
+
+      if (handleRound(round, reachedSet, pool, overlapping)) {
+        // Prec operator requested break
+        return AlgorithmStatus.SOUND_AND_PRECISE;
+      }
+    }
+
+    return AlgorithmStatus.SOUND_AND_PRECISE;
+  }
+
+  /**
+   * Compute the successors of all given states concurrently and handle them.
+   *
+   * @return true if analysis should terminate, false if analysis should continue
+   */
+  private boolean handleRound(
+      final List<Pair<AbstractState, Precision>> round,
+      final ReachedSet reachedSet,
+      final ForkJoinPool pool,
+      final boolean overlapping)
+      throws CPAException, InterruptedException {
+    final int size = round.size();
+    final List<CompletableFuture<Successors>> results = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      results.add(new CompletableFuture<>());
+    }
+    final BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+    final AtomicInteger next = new AtomicInteger(0);
+    final AtomicBoolean cancelled = new AtomicBoolean(false);
+    final boolean[] handled = new boolean[size];
+
+    final List<ForkJoinTask<?>> workers = new ArrayList<>();
+    for (int w = 0; w < Math.min(size, pool.getParallelism()); w++) {
+      workers.add(
+          pool.submit(() -> processRound(round, results, finished, next, cancelled, reachedSet)));
+    }
+
+    try {
+      if (!overlapping) {
+        stats.waitTimer.start();
+        try {
+          for (ForkJoinTask<?> worker : workers) {
+            worker.quietlyJoin();
+          }
+        } finally {
+          stats.waitTimer.stop();
+        }
+      }
+
+      for (int k = 0; k < size; k++) {
+        final int i;
+        final Successors successors;
+        stats.waitTimer.start();
+        try {
+          i = deterministic ? k : finished.take();
+          successors = getResult(results.get(i));
+        } finally {
+          stats.waitTimer.stop();
+        }
+
+        if (!reachedSet.contains(successors.state)) {
+          // the state was merged into another state while its successors were computed,
+          // so its successors would not have been computed by the sequential algorithm
+          stats.countObsolete.inc();
+          successors.removeFromARG();
+          handled[i] = true;
+          continue;
+        }
+
+        // like CPAAlgorithm, leave the state alone if handling its successors fails,
+        // because some of them may already be in the reached set
+        handled[i] = true;
+        boolean breakAnalysis = handleSuccessors(successors, round.get(i).getSecond(), reachedSet);
+        if (breakAnalysis) {
+          return true;
+        }
+      }
+      return false;
+
+    } finally {
+      // stop workers, and wait until they do not access the reached set or the CPA anymore
+      cancelled.set(true);
+      for (ForkJoinTask<?> worker : workers) {
+        worker.quietlyJoin();
+      }
+
+      // Re-add states whose successors were not handled,
+      // otherwise they would be forgotten (which would be unsound).
+      // Their successors are already part of the ARG and would be duplicated.
+      for (int i = 0; i < size; i++) {
+        if (!handled[i]) {
+          CompletableFuture<Successors> result = results.get(i);
+          if (result.isDone() && !result.isCompletedExceptionally()) {
+            result.join().removeFromARG();
+          }
+          AbstractState state = round.get(i).getFirst();
+          if (reachedSet.contains(state)) {
+            reachedSet.reAddToWaitlist(state);
+          }
+        }
+      }
+    }
+  }
+
+  private static Successors getResult(CompletableFuture<Successors> pResult)
+      throws CPAException, InterruptedException {
+    try {
+      return pResult.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.throwIfInstanceOf(cause, CPAException.class);
+      Throwables.throwIfInstanceOf(cause, InterruptedException.class);
+      Throwables.throwIfUnchecked(cause);
+      throw new AssertionError("Unexpected exception while computing successors", cause);
+    }
+  }
+
+  /** Work loop of one worker thread: compute successors of states of the round until none left. */
+  private void processRound(
+      List<Pair<AbstractState, Precision>> pRound,
+      List<CompletableFuture<Successors>> pResults,
+      BlockingQueue<Integer> pFinished,
+      AtomicInteger pNext,
+      AtomicBoolean pCancelled,
+      UnmodifiableReachedSet pReachedSet) {
+    TimerWrapper transferTimer = stats.transferTimer.getNewTimer();
+    TimerWrapper precisionTimer = stats.precisionTimer.getNewTimer();
+    int i;
+    while ((i = pNext.getAndIncrement()) < pRound.size()) {
+      if (pCancelled.get()) {
+        return;
+      }
+      CompletableFuture<Successors> result = pResults.get(i);
+      try {
+        AbstractState state = pRound.get(i).getFirst();
+        Precision precision = pRound.get(i).getSecond();
+        result.complete(
+            computeSuccessors(state, precision, pReachedSet, transferTimer, precisionTimer));
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      } finally {
+        pFinished.add(i);
+      }
+    }
+  }
+
+  private Successors computeSuccessors(
+      AbstractState pState,
+      Precision pPrecision,
+      UnmodifiableReachedSet pReachedSet,
+      TimerWrapper pTransferTimer,
+      TimerWrapper pPrecisionTimer)
+      throws CPAException, InterruptedException {
+    shutdownNotifier.shutdownIfNecessary();
+
+    Collection<? extends AbstractState> successors;
+    pTransferTimer.start();
+    try {
+      lockUnless(threadSafeTransferRelation);
+      try {
+        successors = transferRelation.getAbstractSuccessors(pState, pPrecision);
+      } finally {
+        unlockUnless(threadSafeTransferRelation);
+      }
+    } finally {
+      pTransferTimer.stop();
+    }
+
+    List<PrecisionAdjustmentResult> adjustedSuccessors = new ArrayList<>(successors.size());
+    pPrecisionTimer.start();
+    try {
+      lockUnless(threadSafePrecisionAdjustment);
+      try {
+        for (AbstractState successor : successors) {
+          Optional<PrecisionAdjustmentResult> precAdjustmentResult =
+              precisionAdjustment.prec(
+                  successor, pPrecision, pReachedSet, Functions.identity(), successor);
+          precAdjustmentResult.ifPresent(adjustedSuccessors::add);
+        }
+      } finally {
+        unlockUnless(threadSafePrecisionAdjustment);
+      }
+    } catch (CPAException | InterruptedException | RuntimeException e) {
+      new Successors(pState, successors, adjustedSuccessors).removeFromARG();
+      throw e;
+    } finally {
+      pPrecisionTimer.stop();
+    }
+    return new Successors(pState, successors, adjustedSuccessors);
+  }
+
+  private void lockUnless(boolean pThreadSafe) {
+    if (!pThreadSafe) {
+      cpaLock.lock();
+    }
+  }
+
+  private void unlockUnless(boolean pThreadSafe) {
+    if (!pThreadSafe) {
+      cpaLock.unlock();
+    }
+  }
+
+  /**
+   * Merge, stop, and add the (already adjusted) successors of one state, like {@link
+   * CPAAlgorithm} does.
+   *
+   * @return true if analysis should terminate, false if analysis should continue
+   */
+  private boolean handleSuccessors(
+      Successors pSuccessors, Precision pPrecision, ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    logger.log(Level.FINER, "Current state has", pSuccessors.successors.size(), "successors");
+    stats.countSuccessors.setNextValue(pSuccessors.successors.size());
+
+    // merge and stop may run concurrently with the workers and share their solver etc.
+    final boolean threadSafeOperators = threadSafeTransferRelation && threadSafePrecisionAdjustment;
+    List<PrecisionAdjustmentResult> adjustedSuccessors = pSuccessors.adjustedSuccessors;
+    for (int s = 0; s < adjustedSuccessors.size(); s++) {
+      shutdownNotifier.shutdownIfNecessary();
+      AbstractState successor = adjustedSuccessors.get(s).abstractState();
+      Precision successorPrecision = adjustedSuccessors.get(s).precision();
+      Action action = adjustedSuccessors.get(s).action();
+
+      if (action == Action.BREAK) {
+        boolean stop;
+        stats.stopTimer.start();
+        try {
+          lockUnless(threadSafeOperators);
+          try {
+            stop =
+                stopOperator.stop(successor, reachedSet.getReached(successor), successorPrecision);
+          } finally {
+            unlockUnless(threadSafeOperators);
+          }
+        } finally {
+          stats.stopTimer.stop();
+        }
+
+        if (AbstractStates.isTargetState(successor) && stop) {
+          // don't signal BREAK for covered states
+          stats.countStop.inc();
+          logger.log(Level.FINER, "Break was signalled but ignored because the state is covered.");
+          continue;
+
+        } else {
+          stats.countBreak.inc();
+          logger.log(Level.FINER, "Break signalled, ParallelCPAAlgorithm will stop.");
+          reachedSet.add(successor, successorPrecision);
+          if (s + 1 < adjustedSuccessors.size()) {
+            // there are unhandled successors left that otherwise would be forgotten
+            reachedSet.reAddToWaitlist(pSuccessors.state);
+          }
+          return true;
+        }
+      }
+      assert action == Action.CONTINUE : "Enum Action has unhandled values!";
+
+      Collection<AbstractState> reached = reachedSet.getReached(successor);
+
+      if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
+        stats.mergeTimer.start();
+        try {
+          List<AbstractState> toRemove = new ArrayList<>();
+          List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
+          lockUnless(threadSafeOperators);
+          try {
+            for (AbstractState reachedState : reached) {
+              shutdownNotifier.shutdownIfNecessary();
+              AbstractState mergedState =
+                  mergeOperator.merge(successor, reachedState, successorPrecision);
+              if (!mergedState.equals(reachedState)) {
+                stats.countMerge.inc();
+                toRemove.add(reachedState);
+                toAdd.add(Pair.of(mergedState, successorPrecision));
+              }
+            }
+          } finally {
+            unlockUnless(threadSafeOperators);
+            // keep reached set consistent for ARGCPA even if we terminate
+            reachedSet.removeAll(toRemove);
+            reachedSet.addAll(toAdd);
+          }
+
+          if (mergeOperator instanceof ARGMergeJoinCPAEnabledAnalysis) {
+            ((ARGMergeJoinCPAEnabledAnalysis) mergeOperator).cleanUp(reachedSet);
+          }
+        } finally {
+          stats.mergeTimer.stop();
+        }
+      }
+
+      boolean stop;
+      stats.stopTimer.start();
+      try {
+        lockUnless(threadSafeOperators);
+        try {
+          stop = stopOperator.stop(successor, reached, successorPrecision);
+        } finally {
+          unlockUnless(threadSafeOperators);
+        }
+      } finally {
+        stats.stopTimer.stop();
+      }
+
+      if (stop) {
+        stats.countStop.inc();
+      } else {
+        stats.addTimer.start();
+        reachedSet.add(successor, successorPrecision);
+        stats.addTimer.stop();
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(stats);
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.core.CPABuilder;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class ParallelCPAAlgorithmTest {
+
+  /**
+   * Each iteration appends one nondeterministic bit to {@code s}, so every abstract state has a
+   * unique predecessor and the ARG does not depend on the exploration order.
+   */
+  private static final String[] PROGRAM = {
+    "int main() {",
+    "  int s = 1;",
+    "  for (int i = 0; i < 4; i++) {",
+    "    int c = __VERIFIER_nondet_int();",
+    "    if (c) {",
+    "      s = 2 * s;",
+    "    } else {",
+    "      s = 2 * s + 1;",
+    "    }",
+    "  }",
+    "  return s;",
+    "}"
+  };
+
+  private static final ImmutableMap<String, String> ANALYSIS =
+      ImmutableMap.of(
+          "cpa", "cpa.arg.ARGCPA",
+          "ARGCPA.cpa", "cpa.composite.CompositeCPA",
+          "CompositeCPA.cpas",
+              "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.value.ValueAnalysisCPA");
+
+  private final LogManager logger = LogManager.createTestLogManager();
+  private final ShutdownNotifier notifier = ShutdownNotifier.createDummy();
+
+  private CFA cfa;
+  private Multiset<String> expectedReached;
+  private Multiset<String> expectedARG;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa = TestDataTools.makeCFA(PROGRAM);
+
+    Configuration config = TestDataTools.configurationForTest().setOptions(ANALYSIS).build();
+    ConfigurableProgramAnalysis cpa = createCPA(config);
+    ReachedSet reached = createReachedSet(cpa, config);
+    CPAAlgorithm.create(cpa, logger, config, notifier).run(reached);
+    expectedReached = describeReached(reached);
+    expectedARG = describeARG(reached);
+  }
+
+  private ConfigurableProgramAnalysis createCPA(Configuration pConfig) throws Exception {
+    return new CPABuilder(pConfig, logger, notifier, new ReachedSetFactory(pConfig, logger))
+        .buildCPAs(cfa, Specification.alwaysSatisfied(), new AggregatedReachedSets());
+  }
+
+  private ReachedSet createReachedSet(ConfigurableProgramAnalysis pCpa, Configuration pConfig)
+      throws Exception {
+    ReachedSet reached = new ReachedSetFactory(pConfig, logger).create();
+    FunctionEntryNode main = cfa.getMainFunction();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    reached.add(
+        pCpa.getInitialState(main, partition), pCpa.getInitialPrecision(main, partition));
+    return reached;
+  }
+
+  private static String describe(AbstractState pState) {
+    return ((ARGState) pState).getWrappedState().toString();
+  }
+
+  private static Multiset<String> describeReached(ReachedSet pReached) {
+    Multiset<String> result = HashMultiset.create();
+    for (AbstractState state : pReached) {
+      result.add(describe(state));
+    }
+    return result;
+  }
+
+  /** Each state of the ARG together with its children, independent of the state identities. */
+  private static Multiset<String> describeARG(ReachedSet pReached) {
+    Multiset<String> result = HashMultiset.create();
+    for (AbstractState state : pReached) {
+      List<String> children = new ArrayList<>();
+      for (ARGState child : ((ARGState) state).getChildren()) {
+        children.add(describe(child));
+      }
+      Collections.sort(children);
+      result.add(describe(state) + " -> " + children);
+    }
+    return result;
+  }
+
+  private void checkParallelAnalysis(Map<String, String> pOptions) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest().setOptions(ANALYSIS).setOptions(pOptions).build();
+    ConfigurableProgramAnalysis cpa = createCPA(config);
+    ReachedSet reached = createReachedSet(cpa, config);
+
+    AlgorithmStatus status = new ParallelCPAAlgorithm(cpa, config, logger, notifier).run(reached);
+
+    assertThat(status).isEqualTo(AlgorithmStatus.SOUND_AND_PRECISE);
+    assertThat(reached.hasWaitingState()).isFalse();
+    assertThat(describeReached(reached)).isEqualTo(expectedReached);
+    assertThat(describeARG(reached)).isEqualTo(expectedARG);
+  }
+
+  @Test
+  public void deterministic() throws Exception {
+    checkParallelAnalysis(
+        ImmutableMap.of(
+            "cpa.parallel.numberOfThreads", "4",
+            "cpa.parallel.batchSize", "3",
+            "cpa.parallel.deterministic", "true"));
+  }
+
+  @Test
+  public void overlappingDeterministic() throws Exception {
+    checkParallelAnalysis(
+        ImmutableMap.of(
+            "analysis.reachedSet", "CONCURRENT",
+            "cpa.parallel.numberOfThreads", "4",
+            "cpa.parallel.batchSize", "3",
+            "cpa.parallel.deterministic", "true"));
+  }
+
+  @Test
+  public void overlappingNondeterministic() throws Exception {
+    checkParallelAnalysis(
+        ImmutableMap.of(
+            "analysis.reachedSet", "CONCURRENT",
+            "cpa.parallel.numberOfThreads", "4",
+            "cpa.parallel.batchSize", "3",
+            "cpa.parallel.deterministic", "false"));
+  }
+
+  @Test(expected = InvalidConfigurationException.class)
+  public void forcedCoveringIsRejected() throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOptions(ANALYSIS)
+            .setOption("cpa.forcedCovering", "cpa.predicate.PredicateForcedCovering")
+            .build();
+    new ParallelCPAAlgorithm(createCPA(config), config, logger, notifier);
+  }
+}
@@ -66,6 +66,7 @@ import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.FileOption.Type;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -117,6 +118,7 @@ import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
@@ -181,6 +183,32 @@ abstract class AbstractBMCAlgorithm
   )
   private boolean usePropertyDirection = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Number of independent provers that check the step case of the candidate invariants in"
+              + " parallel, each with its own copy of the step-case analysis and its own solver."
+              + " -1 uses the number of available processors, 0 and 1 check all candidates"
+              + " sequentially with a single prover.")
+  @IntegerOption(min = -1)
+  private int inductionThreads = 1;
+
+  @Option(
+      secure = true,
+      description =
+          "SMT solvers for the parallel step-case provers (see bmc.inductionThreads), which are"
+              + " assigned to the provers in round-robin order. If empty, all provers use the"
+              + " configured solver. May only be set if bmc.inductionThreads is greater than 1.")
+  private List<Solvers> inductionSolvers = ImmutableList.of();
+
+  @Option(
+      secure = true,
+      description =
+          "Check candidate invariants whose step case failed for a smaller k on all parallel"
+              + " step-case provers at once and use the first result"
+              + " (most useful together with bmc.inductionSolvers).")
+  private boolean raceHardCandidates = false;
+
   protected final BMCStatistics stats;
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
@@ -188,6 +216,9 @@ abstract class AbstractBMCAlgorithm
   private final @Nullable ConfigurableProgramAnalysis stepCaseCPA;
   private final @Nullable Algorithm stepCaseAlgorithm;
 
+  /** Step-case analyses of the additional provers if {@link #inductionThreads} is used. */
+  private final ImmutableList<StepCaseAnalysis> additionalStepCases;
+
   protected final InvariantGenerator invariantGenerator;
   private final InvariantGeneratorHeadStart invariantGeneratorHeadStart;
 
@@ -259,16 +290,43 @@ abstract class AbstractBMCAlgorithm
     }
 
     if (induction) {
+      int threads =
+          inductionThreads == -1 ? Runtime.getRuntime().availableProcessors() : inductionThreads;
+      if (threads > 1 && usePropertyDirection) {
+        throw new InvalidConfigurationException(
+            "Parallel step-case provers (bmc.inductionThreads) cannot be used together with"
+                + " bmc.usePropertyDirection");
+      }
+      if (threads <= 1 && !inductionSolvers.isEmpty()) {
+        throw new InvalidConfigurationException(
+            "SMT solvers for the step-case provers (bmc.inductionSolvers) can only be used"
+                + " together with parallel step-case provers (bmc.inductionThreads > 1)");
+      }
       LogManager stepCaseLogger = logger.withComponentName("InductionStepCase");
+      Configuration stepCaseConfig = getStepCaseConfig(pConfig, 0);
       CPABuilder builder =
           new CPABuilder(
-              pConfig, stepCaseLogger, pShutdownManager.getNotifier(), pReachedSetFactory);
+              stepCaseConfig, stepCaseLogger, pShutdownManager.getNotifier(), pReachedSetFactory);
       stepCaseCPA = builder.buildCPAs(cfa, pSpecification, new AggregatedReachedSets());
       stepCaseAlgorithm =
-          CPAAlgorithm.create(stepCaseCPA, stepCaseLogger, pConfig, pShutdownManager.getNotifier());
+          CPAAlgorithm.create(
+              stepCaseCPA, stepCaseLogger, stepCaseConfig, pShutdownManager.getNotifier());
+
+      ImmutableList.Builder<StepCaseAnalysis> additionalStepCasesBuilder = ImmutableList.builder();
+      for (int i = 1; i < threads; i++) {
+        additionalStepCasesBuilder.add(
+            new StepCaseAnalysis(
+                getStepCaseConfig(pConfig, i),
+                logger.withComponentName("InductionStepCase" + i),
+                pShutdownManager.getNotifier(),
+                pReachedSetFactory,
+                i));
+      }
+      additionalStepCases = additionalStepCasesBuilder.build();
     } else {
       stepCaseCPA = null;
       stepCaseAlgorithm = null;
+      additionalStepCases = ImmutableList.of();
       invariantGenerationStrategy = InvariantGeneratorFactory.DO_NOTHING;
       invariantGeneratorHeadStartStrategy = InvariantGeneratorHeadStartFactories.NONE;
     }
@@ -368,6 +426,9 @@ abstract class AbstractBMCAlgorithm
 
     AlgorithmStatus status;
 
+    // only used with parallel step-case provers, which are always kept across bounds
+    KInductionProverPool inductionProverPool = null;
+
     try (ProverEnvironmentWithFallback prover =
         new ProverEnvironmentWithFallback(solver, ProverOptions.GENERATE_MODELS)) {
       invariantGeneratorHeadStart.waitForInvariantGenerator();
@@ -437,10 +498,18 @@ abstract class AbstractBMCAlgorithm
                 ctiBlockingClauses.clear();
               }
             }
-            try (@SuppressWarnings("resource")
-                KInductionProver kInductionProver = createInductionProver()) {
-            sound =
-                checkStepCase(reachedSet, candidateGenerator, kInductionProver, ctiBlockingClauses);
+            if (!additionalStepCases.isEmpty()) {
+              if (inductionProverPool == null) {
+                inductionProverPool = createInductionProverPool();
+              }
+              sound = checkStepCase(reachedSet, candidateGenerator, inductionProverPool);
+            } else {
+              try (@SuppressWarnings("resource")
+                  KInductionProver kInductionProver = createInductionProver()) {
+                sound =
+                    checkStepCase(
+                        reachedSet, candidateGenerator, kInductionProver, ctiBlockingClauses);
+              }
             }
           }
           if (invariantGenerator.isProgramSafe()
@@ -455,6 +524,10 @@ abstract class AbstractBMCAlgorithm
         }
       }
       while (status.isSound() && adjustConditions());
+    } finally {
+      if (inductionProverPool != null) {
+        inductionProverPool.close();
+      }
     }
 
     return AlgorithmStatus.UNSOUND_AND_PRECISE;
@@ -561,6 +634,47 @@ abstract class AbstractBMCAlgorithm
     return sound;
   }
 
+  /**
+   * Checks the step case of all candidates in parallel. In contrast to the sequential check, the
+   * candidates that are confirmed here are not used as assumptions for the other candidates of the
+   * same bound, and CTI blocking clauses are not supported.
+   */
+  private boolean checkStepCase(
+      final ReachedSet reachedSet,
+      final CandidateGenerator candidateGenerator,
+      KInductionProverPool pProverPool)
+      throws InterruptedException, CPAException, SolverException {
+
+    final int k = CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations();
+
+    Set<Object> checkedKeys = getCheckedKeys(reachedSet);
+    Predicate<CandidateInvariant> isApplicable =
+        getCandidateApplicabilityPredicate(reachedSet, checkedKeys);
+    List<CandidateInvariant> candidates = from(candidateGenerator).filter(isApplicable).toList();
+
+    shutdownNotifier.shutdownIfNecessary();
+
+    List<InductionResult<CandidateInvariant>> results =
+        pProverPool.checkAll(candidates, confirmedCandidates, k, checkedKeys);
+
+    boolean sound = true;
+    for (int i = 0; i < candidates.size(); i++) {
+      CandidateInvariant candidate = candidates.get(i);
+      if (results.get(i).isSuccessful()) {
+        Iterables.addAll(
+            confirmedCandidates, CandidateInvariantCombination.getConjunctiveParts(candidate));
+        candidateGenerator.confirmCandidates(
+            CandidateInvariantCombination.getConjunctiveParts(candidate));
+        if (candidate == TargetLocationCandidateInvariant.INSTANCE) {
+          return true;
+        }
+      } else {
+        sound = false;
+      }
+    }
+    return sound;
+  }
+
   /**
    * Gets all keys of loop-iteration reporting states that were reached by unrolling.
    *
@@ -827,6 +941,9 @@ abstract class AbstractBMCAlgorithm
       ((StatisticsProvider)algorithm).collectStatistics(pStatsCollection);
     }
     pStatsCollection.add(stats);
+    for (StepCaseAnalysis stepCase : additionalStepCases) {
+      pStatsCollection.add(stepCase.stats);
+    }
     if (invariantGenerator instanceof StatisticsProvider) {
       ((StatisticsProvider)invariantGenerator).collectStatistics(pStatsCollection);
     }
@@ -834,19 +951,78 @@ abstract class AbstractBMCAlgorithm
 
   protected KInductionProver createInductionProver() {
     assert induction;
+    return createInductionProver(stepCaseAlgorithm, stepCaseCPA, stats);
+  }
+
+  private KInductionProver createInductionProver(
+      Algorithm pStepCaseAlgorithm,
+      ConfigurableProgramAnalysis pStepCaseCPA,
+      BMCStatistics pStats) {
     return new KInductionProver(
         cfa,
         logger,
-        stepCaseAlgorithm,
-        stepCaseCPA,
+        pStepCaseAlgorithm,
+        pStepCaseCPA,
         invariantGenerator,
-        stats,
+        pStats,
         reachedSetFactory,
         shutdownNotifier,
         getLoopHeads(),
         usePropertyDirection);
   }
 
+  /**
+   * Creates a pool with the prover of the default step-case analysis and one prover for each of
+   * the {@link #additionalStepCases}.
+   */
+  private KInductionProverPool createInductionProverPool() {
+    List<KInductionProver> provers = new ArrayList<>(1 + additionalStepCases.size());
+    provers.add(createInductionProver());
+    for (StepCaseAnalysis stepCase : additionalStepCases) {
+      provers.add(createInductionProver(stepCase.algorithm, stepCase.cpa, stepCase.stats));
+    }
+    return new KInductionProverPool(provers, raceHardCandidates);
+  }
+
+  /** Returns the configuration for the step-case analysis of the parallel prover with the index. */
+  private Configuration getStepCaseConfig(Configuration pConfig, int pIndex)
+      throws InvalidConfigurationException {
+    if (inductionSolvers.isEmpty()) {
+      return pConfig;
+    }
+    return Configuration.builder()
+        .copyFrom(pConfig)
+        .setOption("solver.solver", inductionSolvers.get(pIndex % inductionSolvers.size()).name())
+        .build();
+  }
+
+  /** An additional copy of the step-case analysis, for the parallel step-case provers. */
+  private class StepCaseAnalysis {
+
+    private final ConfigurableProgramAnalysis cpa;
+    private final Algorithm algorithm;
+    private final BMCStatistics stats;
+
+    private StepCaseAnalysis(
+        Configuration pConfig,
+        LogManager pLogger,
+        ShutdownNotifier pShutdownNotifier,
+        ReachedSetFactory pReachedSetFactory,
+        int pIndex)
+        throws InvalidConfigurationException, CPAException, InterruptedException {
+      CPABuilder builder = new CPABuilder(pConfig, pLogger, pShutdownNotifier, pReachedSetFactory);
+      cpa = builder.buildCPAs(cfa, specification, new AggregatedReachedSets());
+      algorithm = CPAAlgorithm.create(cpa, pLogger, pConfig, pShutdownNotifier);
+      stats =
+          new BMCStatistics() {
+            @Override
+            public String getName() {
+              return "Induction step-case prover " + pIndex;
+            }
+          };
+    }
+  }
+
   /**
    * Gets the potential target locations.
    *
@@ -0,0 +1,109 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class BMCAlgorithmTest {
+
+  private static final String CONFIGURATION_FILE = "config/kInduction.properties";
+
+  private static final String SAFE_PROGRAM = "test/programs/induction/induction1.c";
+
+  /** The error is only reachable after several loop iterations, i.e., at a higher bound. */
+  private static final String[] UNSAFE_PROGRAM = {
+    "extern void __assert_fail();",
+    "int main() {",
+    "  int x = 0;",
+    "  while (1) {",
+    "    x++;",
+    "    if (x == 5) {",
+    "      __assert_fail();",
+    "      return 1;",
+    "    }",
+    "  }",
+    "  return 0;",
+    "}"
+  };
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static Configuration config() throws Exception {
+    return TestDataTools.configurationForTest().loadFromFile(CONFIGURATION_FILE).build();
+  }
+
+  private static Configuration config(String pInductionThreads, String pInductionSolvers)
+      throws Exception {
+    return TestDataTools.configurationForTest()
+        .loadFromFile(CONFIGURATION_FILE)
+        .setOption("bmc.inductionThreads", pInductionThreads)
+        .setOption("bmc.inductionSolvers", pInductionSolvers)
+        .build();
+  }
+
+  private String writeUnsafeProgram() throws Exception {
+    Path program = tempFolder.newFile("unsafe.c").toPath();
+    Files.write(program, Arrays.asList(UNSAFE_PROGRAM), StandardCharsets.UTF_8);
+    return program.toString();
+  }
+
+  @Test
+  public void safe() throws Exception {
+    TestResults results = CPATestRunner.run(config(), SAFE_PROGRAM);
+    results.assertIsSafe();
+  }
+
+  @Test
+  public void unsafe() throws Exception {
+    TestResults results = CPATestRunner.run(config(), writeUnsafeProgram());
+    results.assertIsUnsafe();
+  }
+
+  @Test
+  public void safeWithParallelProvers() throws Exception {
+    TestResults results = CPATestRunner.run(config("2", "SMTINTERPOL"), SAFE_PROGRAM);
+    results.assertIsSafe();
+  }
+
+  @Test
+  public void inductionSolversRequireParallelProvers() throws Exception {
+    // otherwise the solver would silently be used for the only step-case prover
+    TestResults results = CPATestRunner.run(config("1", "SMTINTERPOL"), SAFE_PROGRAM);
+    results.assertIs(Result.NOT_YET_STARTED);
+    assertThat(results.getLog()).contains("bmc.inductionSolvers");
+  }
+}
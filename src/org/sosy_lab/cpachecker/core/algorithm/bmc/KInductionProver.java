@@ -114,7 +114,7 @@ import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
  * Instances of this class are used to prove the safety of a program by
  * applying an inductive approach based on k-induction.
  */
-class KInductionProver implements AutoCloseable {
+class KInductionProver implements KInductionProverPool.StepCaseProver {
 
   private final CFA cfa;
 
@@ -308,6 +308,7 @@ class KInductionProver implements AutoCloseable {
    * @throws InterruptedException if the bounded analysis constructing the step case was
    *     interrupted.
    */
+  @Override
   public final InductionResult<CandidateInvariant> check(
       Iterable<CandidateInvariant> pPredecessorAssumptions,
       int pK,
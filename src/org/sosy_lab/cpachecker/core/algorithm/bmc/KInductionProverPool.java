@@ -0,0 +1,230 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.CandidateInvariant;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * A pool of independent {@link KInductionProver} instances that check the step case of candidate
+ * invariants in parallel.
+ *
+ * <p>Each prover has its own step-case analysis and solver and is only ever used by one thread, so
+ * the provers do not need to be thread-safe. The candidates are distributed round-robin over the
+ * provers. Candidates whose step case failed in an earlier call (i.e., for a smaller k) are
+ * considered to be hard and can optionally be checked by all provers at once (which is useful if
+ * the provers use different solvers), in which case the first result is used. Provers that lost
+ * such a race are not interrupted, because this would leave their solver stack in an undefined
+ * state, but their result is ignored.
+ *
+ * <p>The provers are kept across calls, such that their unrolled step-case reached sets can be
+ * reused for the next k.
+ */
+final class KInductionProverPool implements AutoCloseable {
+
+  /** The step-case check of a single prover, as implemented by {@link KInductionProver}. */
+  interface StepCaseProver extends AutoCloseable {
+
+    InductionResult<CandidateInvariant> check(
+        Iterable<CandidateInvariant> pPredecessorAssumptions,
+        int pK,
+        CandidateInvariant pCandidateInvariant,
+        Set<Object> pCheckedKeys)
+        throws CPAException, InterruptedException, SolverException;
+
+    @Override
+    void close();
+  }
+
+  private static final class Worker {
+
+    private final StepCaseProver prover;
+    private final ListeningExecutorService executor;
+
+    private Worker(StepCaseProver pProver, int pIndex) {
+      prover = pProver;
+      executor =
+          listeningDecorator(
+              Executors.newSingleThreadExecutor(
+                  new ThreadFactoryBuilder()
+                      .setDaemon(true)
+                      .setNameFormat("KInductionProver-" + pIndex)
+                      .build()));
+    }
+
+    private void close() {
+      // after all checks that are still running
+      executor.execute(prover::close);
+      executor.shutdown();
+    }
+  }
+
+  private final ImmutableList<Worker> workers;
+  private final boolean raceHardCandidates;
+
+  private final Set<CandidateInvariant> hardCandidates = new HashSet<>();
+  private int nextWorker = 0;
+  private boolean closed = false;
+
+  /**
+   * Create a new pool.
+   *
+   * @param pProvers the provers, which should not share any solver. They are closed together
+   *     with this pool and must not be used otherwise in the meantime.
+   * @param pRaceHardCandidates whether candidates that failed before should be checked by all
+   *     provers at once.
+   */
+  KInductionProverPool(List<? extends StepCaseProver> pProvers, boolean pRaceHardCandidates) {
+    checkArgument(!pProvers.isEmpty());
+    ImmutableList.Builder<Worker> builder = ImmutableList.builder();
+    for (int i = 0; i < pProvers.size(); i++) {
+      builder.add(new Worker(pProvers.get(i), i));
+    }
+    workers = builder.build();
+    raceHardCandidates = pRaceHardCandidates;
+  }
+
+  /**
+   * Check the step case of all given candidates in parallel.
+   *
+   * @param pCandidates the candidate invariants to check.
+   * @param pConfirmedCandidates the already confirmed invariants, which are assumed at the
+   *     predecessors for each check together with the checked candidate itself. Candidates that
+   *     are confirmed during this call are not used for the other candidates of the same call.
+   * @param pK the k value to use in the checks.
+   * @param pCheckedKeys the keys of loop-iteration reporting states that were checked by BMC.
+   * @return the induction results, in the same order as the given candidates.
+   */
+  List<InductionResult<CandidateInvariant>> checkAll(
+      List<CandidateInvariant> pCandidates,
+      Iterable<CandidateInvariant> pConfirmedCandidates,
+      int pK,
+      Set<Object> pCheckedKeys)
+      throws CPAException, InterruptedException, SolverException {
+    checkState(!closed);
+    ImmutableSet<CandidateInvariant> confirmedCandidates =
+        ImmutableSet.copyOf(pConfirmedCandidates);
+    ImmutableSet<Object> checkedKeys = ImmutableSet.copyOf(pCheckedKeys);
+
+    List<List<ListenableFuture<InductionResult<CandidateInvariant>>>> futures =
+        new ArrayList<>(pCandidates.size());
+    try {
+      for (CandidateInvariant candidate : pCandidates) {
+        ImmutableSet<CandidateInvariant> assumptions =
+            ImmutableSet.<CandidateInvariant>builder()
+                .addAll(confirmedCandidates)
+                .add(candidate)
+                .build();
+        List<ListenableFuture<InductionResult<CandidateInvariant>>> candidateFutures =
+            new ArrayList<>(1);
+        if (raceHardCandidates && hardCandidates.contains(candidate)) {
+          for (Worker worker : workers) {
+            candidateFutures.add(submit(worker, assumptions, pK, candidate, checkedKeys));
+          }
+        } else {
+          Worker worker = workers.get(nextWorker);
+          nextWorker = (nextWorker + 1) % workers.size();
+          candidateFutures.add(submit(worker, assumptions, pK, candidate, checkedKeys));
+        }
+        futures.add(candidateFutures);
+      }
+
+      List<InductionResult<CandidateInvariant>> results = new ArrayList<>(pCandidates.size());
+      for (int i = 0; i < pCandidates.size(); i++) {
+        InductionResult<CandidateInvariant> result = getFirstResult(futures.get(i));
+        if (result.isSuccessful()) {
+          hardCandidates.remove(pCandidates.get(i));
+        } else {
+          hardCandidates.add(pCandidates.get(i));
+        }
+        results.add(result);
+      }
+      return results;
+
+    } finally {
+      // does nothing for checks that are already running or finished
+      for (List<ListenableFuture<InductionResult<CandidateInvariant>>> candidateFutures :
+          futures) {
+        candidateFutures.forEach(f -> f.cancel(false));
+      }
+    }
+  }
+
+  private static ListenableFuture<InductionResult<CandidateInvariant>> submit(
+      Worker pWorker,
+      Iterable<CandidateInvariant> pAssumptions,
+      int pK,
+      CandidateInvariant pCandidate,
+      Set<Object> pCheckedKeys) {
+    return pWorker.executor.submit(
+        () -> pWorker.prover.check(pAssumptions, pK, pCandidate, pCheckedKeys));
+  }
+
+  private static InductionResult<CandidateInvariant> getFirstResult(
+      List<ListenableFuture<InductionResult<CandidateInvariant>>> pFutures)
+      throws CPAException, InterruptedException, SolverException {
+    ExecutionException firstException = null;
+    for (ListenableFuture<InductionResult<CandidateInvariant>> f :
+        Futures.inCompletionOrder(pFutures)) {
+      try {
+        InductionResult<CandidateInvariant> result = f.get();
+        // stop the other provers of a race, if they did not start yet
+        pFutures.forEach(other -> other.cancel(false));
+        return result;
+      } catch (ExecutionException e) {
+        // another prover may still succeed
+        if (firstException == null) {
+          firstException = e;
+        }
+      }
+    }
+    Throwable cause = firstException.getCause();
+    Throwables.throwIfInstanceOf(cause, SolverException.class);
+    Throwables.propagateIfPossible(cause, CPAException.class, InterruptedException.class);
+    throw new UnexpectedCheckedException("induction check", cause);
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      workers.forEach(Worker::close);
+    }
+  }
+}
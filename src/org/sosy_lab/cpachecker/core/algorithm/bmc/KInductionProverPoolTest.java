@@ -0,0 +1,274 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.KInductionProverPool.StepCaseProver;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.CandidateInvariant;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.SymbolicCandiateInvariant;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+public class KInductionProverPoolTest {
+
+  private static final int K = 3;
+
+  /** The result of a single check of a {@link FakeProver}. */
+  private interface Check {
+    InductionResult<CandidateInvariant> apply(CandidateInvariant pCandidate, int pCall)
+        throws CPAException, InterruptedException, SolverException;
+  }
+
+  /** Prover that records the checked candidates and answers as defined by the test. */
+  private static class FakeProver implements StepCaseProver {
+
+    private final Check check;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<CandidateInvariant> checked =
+        Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    FakeProver(Check pCheck) {
+      check = pCheck;
+    }
+
+    @Override
+    public InductionResult<CandidateInvariant> check(
+        Iterable<CandidateInvariant> pPredecessorAssumptions,
+        int pK,
+        CandidateInvariant pCandidateInvariant,
+        Set<Object> pCheckedKeys)
+        throws CPAException, InterruptedException, SolverException {
+      assertThat(pK).isEqualTo(K);
+      assertThat(pPredecessorAssumptions).contains(pCandidateInvariant);
+      checked.add(pCandidateInvariant);
+      return check.apply(pCandidateInvariant, calls.getAndIncrement());
+    }
+
+    @Override
+    public void close() {
+      closed.countDown();
+    }
+  }
+
+  private static InductionResult<CandidateInvariant> success(CandidateInvariant pCandidate) {
+    return InductionResult.getSuccessful(pCandidate);
+  }
+
+  private static InductionResult<CandidateInvariant> failure() {
+    return InductionResult.getFailed(ImmutableList.of(mock(SymbolicCandiateInvariant.class)), K);
+  }
+
+  private static List<CandidateInvariant> candidates(int pCount) {
+    List<CandidateInvariant> result = new ArrayList<>(pCount);
+    for (int i = 0; i < pCount; i++) {
+      result.add(mock(CandidateInvariant.class));
+    }
+    return result;
+  }
+
+  private static List<InductionResult<CandidateInvariant>> checkAll(
+      KInductionProverPool pPool, List<CandidateInvariant> pCandidates)
+      throws CPAException, InterruptedException, SolverException {
+    return pPool.checkAll(pCandidates, ImmutableSet.of(), K, ImmutableSet.of());
+  }
+
+  @Test
+  public void resultsInCandidateOrder() throws Exception {
+    // the first check only finishes after the checks of the other provers
+    CountDownLatch othersFinished = new CountDownLatch(2);
+    FakeProver first =
+        new FakeProver(
+            (candidate, call) -> {
+              if (call == 0) {
+                othersFinished.await();
+              }
+              return success(candidate);
+            });
+    Check other =
+        (candidate, call) -> {
+          othersFinished.countDown();
+          return success(candidate);
+        };
+    FakeProver second = new FakeProver(other);
+    FakeProver third = new FakeProver(other);
+    List<CandidateInvariant> candidates = candidates(4);
+
+    List<InductionResult<CandidateInvariant>> results;
+    try (KInductionProverPool pool =
+        new KInductionProverPool(ImmutableList.of(first, second, third), false)) {
+      results = checkAll(pool, candidates);
+    }
+
+    assertThat(results).hasSize(candidates.size());
+    for (int i = 0; i < candidates.size(); i++) {
+      assertThat(results.get(i).getInvariantRefinement()).isSameInstanceAs(candidates.get(i));
+    }
+    // round-robin distribution
+    assertThat(first.checked).containsExactly(candidates.get(0), candidates.get(3)).inOrder();
+    assertThat(second.checked).containsExactly(candidates.get(1));
+    assertThat(third.checked).containsExactly(candidates.get(2));
+  }
+
+  @Test
+  public void confirmedCandidatesAreAssumed() throws Exception {
+    CandidateInvariant confirmed = mock(CandidateInvariant.class);
+    List<CandidateInvariant> candidates = candidates(2);
+    List<Iterable<CandidateInvariant>> assumptions =
+        Collections.synchronizedList(new ArrayList<>());
+    StepCaseProver prover =
+        new FakeProver((candidate, call) -> success(candidate)) {
+          @Override
+          public InductionResult<CandidateInvariant> check(
+              Iterable<CandidateInvariant> pPredecessorAssumptions,
+              int pK,
+              CandidateInvariant pCandidateInvariant,
+              Set<Object> pCheckedKeys)
+              throws CPAException, InterruptedException, SolverException {
+            assumptions.add(pPredecessorAssumptions);
+            return super.check(pPredecessorAssumptions, pK, pCandidateInvariant, pCheckedKeys);
+          }
+        };
+
+    try (KInductionProverPool pool = new KInductionProverPool(ImmutableList.of(prover), false)) {
+      pool.checkAll(candidates, ImmutableList.of(confirmed), K, ImmutableSet.of());
+    }
+
+    // candidates confirmed in the same call are not assumed for the others
+    assertThat(assumptions)
+        .containsExactly(
+            ImmutableSet.of(confirmed, candidates.get(0)),
+            ImmutableSet.of(confirmed, candidates.get(1)))
+        .inOrder();
+  }
+
+  @Test
+  public void hardCandidateIsRaced() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    // fails the first check, and the race is only finished after the other prover answered
+    FakeProver slow =
+        new FakeProver(
+            (candidate, call) -> {
+              if (call > 0) {
+                release.await();
+              }
+              return failure();
+            });
+    FakeProver fast = new FakeProver((candidate, call) -> success(candidate));
+    CandidateInvariant candidate = mock(CandidateInvariant.class);
+
+    try (KInductionProverPool pool =
+        new KInductionProverPool(ImmutableList.of(slow, fast), true)) {
+      assertThat(checkAll(pool, ImmutableList.of(candidate)).get(0).isSuccessful()).isFalse();
+      assertThat(slow.checked).containsExactly(candidate);
+      assertThat(fast.checked).isEmpty();
+
+      InductionResult<CandidateInvariant> result =
+          checkAll(pool, ImmutableList.of(candidate)).get(0);
+      assertThat(result.isSuccessful()).isTrue();
+      assertThat(fast.checked).containsExactly(candidate);
+      release.countDown();
+    }
+
+    // the lost race did not break the pool: the provers are still closed
+    assertThat(slow.closed.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(fast.closed.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void hardCandidateIsNotRacedIfDisabled() throws Exception {
+    FakeProver first = new FakeProver((candidate, call) -> failure());
+    FakeProver second = new FakeProver((candidate, call) -> failure());
+    CandidateInvariant candidate = mock(CandidateInvariant.class);
+
+    try (KInductionProverPool pool =
+        new KInductionProverPool(ImmutableList.of(first, second), false)) {
+      checkAll(pool, ImmutableList.of(candidate));
+      checkAll(pool, ImmutableList.of(candidate));
+    }
+
+    assertThat(first.checked).containsExactly(candidate);
+    assertThat(second.checked).containsExactly(candidate);
+  }
+
+  @Test(expected = SolverException.class)
+  public void solverExceptionIsPropagated() throws Exception {
+    FakeProver failing =
+        new FakeProver(
+            (candidate, call) -> {
+              throw new SolverException("test");
+            });
+    FakeProver working = new FakeProver((candidate, call) -> success(candidate));
+
+    try (KInductionProverPool pool =
+        new KInductionProverPool(ImmutableList.of(working, failing), false)) {
+      checkAll(pool, candidates(2));
+    }
+  }
+
+  @Test(expected = CPAException.class)
+  public void cpaExceptionIsPropagated() throws Exception {
+    FakeProver failing =
+        new FakeProver(
+            (candidate, call) -> {
+              throw new CPAException("test");
+            });
+
+    try (KInductionProverPool pool = new KInductionProverPool(ImmutableList.of(failing), false)) {
+      checkAll(pool, candidates(1));
+    }
+  }
+
+  @Test
+  public void raceIgnoresFailingProver() throws Exception {
+    FakeProver failing =
+        new FakeProver(
+            (candidate, call) -> {
+              if (call > 0) {
+                throw new SolverException("test");
+              }
+              return failure();
+            });
+    FakeProver working = new FakeProver((candidate, call) -> success(candidate));
+    CandidateInvariant candidate = mock(CandidateInvariant.class);
+
+    try (KInductionProverPool pool =
+        new KInductionProverPool(ImmutableList.of(failing, working), true)) {
+      checkAll(pool, ImmutableList.of(candidate));
+      assertThat(checkAll(pool, ImmutableList.of(candidate)).get(0).isSuccessful()).isTrue();
+    }
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc.pdr;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Checks the queries of lemma propagation (i.e., whether a frame clause can be pushed to the next
+ * frame) in parallel.
+ *
+ * <p>All queries that are checked together share a common part (the transition and the frame
+ * invariants) and differ only in the clause-specific part. The queries are created by the caller
+ * with its own formula manager and transferred as SMT-LIB strings to a work-stealing pool of
+ * threads, where idle threads take over the remaining queries. Each thread has its own solver
+ * instance, which is created lazily and closed when the thread terminates, and keeps the shared
+ * part of the last queries on its solver stack, such that it is parsed only once per thread and
+ * frame. Note that the pool terminates threads that were idle for some time, so their solvers
+ * are created again if needed later.
+ */
+final class ParallelFramePropagation implements AutoCloseable {
+
+  /** A thread of the pool, which owns the solver that it uses. */
+  private final class PropagationThread extends ForkJoinWorkerThread {
+
+    private @Nullable Solver threadSolver = null;
+    private @Nullable ProverEnvironment prover = null;
+
+    // the shared part of the queries that is currently on the solver stack
+    private @Nullable String pushedBase = null;
+
+    private PropagationThread(ForkJoinPool pPool) {
+      super(pPool);
+    }
+
+    private boolean isUnsat(String pBase, String pQuery)
+        throws InvalidConfigurationException, SolverException, InterruptedException {
+      if (prover == null) {
+        threadSolver = Solver.create(config, logger, shutdownNotifier);
+        prover = threadSolver.newProverEnvironment();
+        solverCreations.inc();
+      }
+      FormulaManagerView fmgr = threadSolver.getFormulaManager();
+      if (!pBase.equals(pushedBase)) {
+        if (pushedBase != null) {
+          prover.pop();
+          frameSwitches.inc();
+        }
+        pushedBase = null;
+        prover.push(fmgr.parse(pBase));
+        pushedBase = pBase;
+      }
+      prover.push(fmgr.parse(pQuery));
+      try {
+        return prover.isUnsat();
+      } finally {
+        prover.pop();
+      }
+    }
+
+    @Override
+    protected void onTermination(Throwable pException) {
+      try {
+        if (prover != null) {
+          prover.close();
+        }
+        if (threadSolver != null) {
+          threadSolver.close();
+        }
+      } finally {
+        super.onTermination(pException);
+      }
+    }
+  }
+
+  private final Configuration config;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  private final StatCounter frameSwitches;
+  private final StatCounter solverCreations;
+
+  private final ForkJoinPool pool;
+  private boolean closed = false;
+
+  /**
+   * Create a new pool.
+   *
+   * @param pThreads the number of threads (and solver instances) to use.
+   * @param pFrameSwitches counts how often a thread had to replace the shared part on its solver
+   *     stack, i.e., how often the threads alternated between the queries of different frames.
+   * @param pSolverCreations counts how often a thread created its solver, which is also
+   *     necessary after the pool replaced an idle thread.
+   */
+  ParallelFramePropagation(
+      int pThreads,
+      StatCounter pFrameSwitches,
+      StatCounter pSolverCreations,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier) {
+    frameSwitches = pFrameSwitches;
+    solverCreations = pSolverCreations;
+    config = pConfig;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    pool = new ForkJoinPool(pThreads, PropagationThread::new, null, false);
+  }
+
+  /**
+   * Checks the conjunction of the shared part with each of the given queries for satisfiability.
+   *
+   * @param pFmgr the formula manager of the given formulas.
+   * @param pBase the part that is shared by all queries.
+   * @param pQueries the clause-specific parts of the queries.
+   * @return for each query, in the same order, whether its conjunction with the shared part is
+   *     unsatisfiable.
+   */
+  List<Boolean> checkUnsat(
+      FormulaManagerView pFmgr, BooleanFormula pBase, List<BooleanFormula> pQueries)
+      throws CPAException, InterruptedException, SolverException {
+    checkState(!closed);
+    String base = pFmgr.dumpFormula(pBase).toString();
+    List<Future<Boolean>> futures = new ArrayList<>(pQueries.size());
+    try {
+      for (BooleanFormula query : pQueries) {
+        String dumpedQuery = pFmgr.dumpFormula(query).toString();
+        futures.add(
+            pool.submit(
+                () -> ((PropagationThread) Thread.currentThread()).isUnsat(base, dumpedQuery)));
+      }
+
+      List<Boolean> results = new ArrayList<>(futures.size());
+      for (Future<Boolean> future : futures) {
+        results.add(getResult(future));
+      }
+      return results;
+
+    } finally {
+      // does nothing for checks that are already finished
+      futures.forEach(f -> f.cancel(false));
+    }
+  }
+
+  private static boolean getResult(Future<Boolean> pFuture)
+      throws CPAException, InterruptedException, SolverException {
+    try {
+      return pFuture.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof InvalidConfigurationException) {
+        throw new CPAException(
+            "Could not create solver for parallel lemma propagation: " + cause.getMessage(),
+            cause);
+      }
+      Throwables.throwIfInstanceOf(cause, SolverException.class);
+      Throwables.propagateIfPossible(cause, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("lemma propagation", cause);
+    }
+  }
+
+  @VisibleForTesting
+  boolean isTerminated() {
+    return pool.isTerminated();
+  }
+
+  /**
+   * Shut down the pool and wait until all threads have terminated and closed their solvers.
+   * Queries that are still running (e.g., because another query of the same call failed) are
+   * finished first.
+   */
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      pool.shutdown();
+      boolean interrupted = false;
+      try {
+        while (!pool.isTerminated()) {
+          try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
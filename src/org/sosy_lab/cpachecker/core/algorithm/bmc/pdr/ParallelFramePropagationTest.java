@@ -0,0 +1,155 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc.pdr;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+public class ParallelFramePropagationTest {
+
+  private final LogManager logger = LogManager.createTestLogManager();
+  private final ShutdownNotifier notifier = ShutdownNotifier.createDummy();
+
+  private final StatCounter frameSwitches = new StatCounter("frame switches");
+  private final StatCounter solverCreations = new StatCounter("solver creations");
+
+  private Configuration config;
+  private Solver solver;
+  private FormulaManagerView fmgr;
+  private IntegerFormulaManager imgr;
+  private IntegerFormula x;
+
+  @Before
+  public void setUp() throws Exception {
+    config =
+        TestDataTools.configurationForTest().setOption("solver.solver", "SMTINTERPOL").build();
+    solver = Solver.create(config, logger, notifier);
+    fmgr = solver.getFormulaManager();
+    imgr = fmgr.getIntegerFormulaManager();
+    x = imgr.makeVariable("x");
+  }
+
+  @After
+  public void tearDown() {
+    solver.close();
+  }
+
+  private ParallelFramePropagation createPropagation(int pThreads) {
+    return new ParallelFramePropagation(
+        pThreads, frameSwitches, solverCreations, config, logger, notifier);
+  }
+
+  /** x > pBound */
+  private BooleanFormula greaterThan(int pBound) {
+    return imgr.greaterThan(x, imgr.makeNumber(pBound));
+  }
+
+  /** x < pBound */
+  private BooleanFormula lessThan(int pBound) {
+    return imgr.lessThan(x, imgr.makeNumber(pBound));
+  }
+
+  @Test
+  public void resultsInQueryOrder() throws Exception {
+    BooleanFormula base = greaterThan(10);
+    List<BooleanFormula> queries = new ArrayList<>();
+    List<Boolean> expected = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      queries.add(lessThan(i));
+      // x > 10 && x < i is unsatisfiable for i <= 11
+      expected.add(i <= 11);
+    }
+
+    List<Boolean> results;
+    try (ParallelFramePropagation propagation = createPropagation(4)) {
+      results = propagation.checkUnsat(fmgr, base, queries);
+    }
+
+    assertThat(results).containsExactlyElementsIn(expected).inOrder();
+    assertThat(solverCreations.getValue()).isAtLeast(1);
+    assertThat(solverCreations.getValue()).isAtMost(4);
+    // all queries share the same base
+    assertThat(frameSwitches.getValue()).isEqualTo(0);
+  }
+
+  @Test
+  public void frameSwitchesAreCountedSeparately() throws Exception {
+    List<BooleanFormula> queries = ImmutableList.of(lessThan(0), lessThan(20));
+
+    try (ParallelFramePropagation propagation = createPropagation(1)) {
+      assertThat(propagation.checkUnsat(fmgr, greaterThan(10), queries))
+          .containsExactly(true, false)
+          .inOrder();
+      assertThat(solverCreations.getValue()).isEqualTo(1);
+      assertThat(frameSwitches.getValue()).isEqualTo(0);
+
+      // same base, nothing needs to be encoded again
+      propagation.checkUnsat(fmgr, greaterThan(10), queries);
+      assertThat(solverCreations.getValue()).isEqualTo(1);
+      assertThat(frameSwitches.getValue()).isEqualTo(0);
+
+      // the base of another frame replaces the old one on the solver stack
+      assertThat(propagation.checkUnsat(fmgr, greaterThan(30), queries))
+          .containsExactly(true, true)
+          .inOrder();
+      assertThat(solverCreations.getValue()).isEqualTo(1);
+      assertThat(frameSwitches.getValue()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void closeWaitsForThreads() throws Exception {
+    ParallelFramePropagation propagation = createPropagation(4);
+    propagation.checkUnsat(fmgr, greaterThan(10), ImmutableList.of(lessThan(0), lessThan(20)));
+
+    propagation.close();
+    assertThat(propagation.isTerminated()).isTrue();
+
+    // closing again does nothing
+    propagation.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void closedPropagationCannotBeUsed() throws Exception {
+    ParallelFramePropagation propagation = createPropagation(2);
+    propagation.close();
+    propagation.checkUnsat(fmgr, greaterThan(10), ImmutableList.of(lessThan(0)));
+  }
+}
@@ -58,6 +58,7 @@ import java.util.stream.Stream;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -127,6 +128,7 @@ import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImp
 import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
@@ -169,6 +171,12 @@ public class PdrAlgorithm implements Algorithm {
 
     private final Timer satCheck = new Timer();
     private final Timer errorPathCreation = new Timer();
+    private final Timer parallelPropagation = new Timer();
+    private final StatCounter parallelPropagationChecks =
+        new StatCounter("Parallel propagation checks");
+    private final StatCounter sharedLemmas = new StatCounter("Lemmas pushed in parallel");
+    private final StatCounter frameSwitches = new StatCounter("Frame switches in threads");
+    private final StatCounter solverCreations = new StatCounter("Solvers created in threads");
 
     @Override
     public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
@@ -178,6 +186,13 @@ public class PdrAlgorithm implements Algorithm {
       if (errorPathCreation.getNumberOfIntervals() > 0) {
         pOut.println("Time for error path creation:        " + errorPathCreation);
       }
+      if (parallelPropagation.getNumberOfIntervals() > 0) {
+        pOut.println("Time for parallel propagation:       " + parallelPropagation);
+        pOut.println("Parallel propagation checks:         " + parallelPropagationChecks);
+        pOut.println("Lemmas pushed in parallel:           " + sharedLemmas);
+        pOut.println("Frame switches in threads:           " + frameSwitches);
+        pOut.println("Solvers created in threads:          " + solverCreations);
+      }
     }
 
     @Override
@@ -301,8 +316,10 @@ public class PdrAlgorithm implements Algorithm {
     boolean producedNewRootInvariants = true;
 
     try (FrameSet frameSet =
-        new FrameSet(
-            solver, EnumSet.of(ProverOptions.GENERATE_MODELS, ProverOptions.GENERATE_UNSAT_CORE))) {
+            new FrameSet(
+                solver,
+                EnumSet.of(ProverOptions.GENERATE_MODELS, ProverOptions.GENERATE_UNSAT_CORE));
+        ParallelFramePropagation parallelPropagation = createParallelPropagation()) {
       learnClause(frameSet, 0, pTransitionRelation.getInitiationAssertion());
 
       while (producedNewRootInvariants) {
@@ -324,18 +341,28 @@ public class PdrAlgorithm implements Algorithm {
                 Sets.union(
                     frameInvariants, Collections.singleton(getCurrentInvariant(pTransitionRelation)));
             List<CandidateInvariant> toPush = new ArrayList<>();
-            for (CandidateInvariant frameClause : frameSet.getPushableFrameClauses(i)) {
-              InductionResult<CandidateInvariant> pushAttempt =
-                  checkInduction(
-                      frameProver,
+            if (parallelPropagation != null) {
+              toPush.addAll(
+                  getPushableClauses(
+                      parallelPropagation,
                       frameInvariants,
                       pTransitionRelation,
-                      frameClause,
-                      InvariantStrengthenings.noStrengthening(),
-                      StandardLiftings.NO_LIFTING);
-              if (pushAttempt.isSuccessful()) {
-                toPush.add(frameClause);
-                propagated = true;
+                      frameSet.getPushableFrameClauses(i)));
+              propagated |= !toPush.isEmpty();
+            } else {
+              for (CandidateInvariant frameClause : frameSet.getPushableFrameClauses(i)) {
+                InductionResult<CandidateInvariant> pushAttempt =
+                    checkInduction(
+                        frameProver,
+                        frameInvariants,
+                        pTransitionRelation,
+                        frameClause,
+                        InvariantStrengthenings.noStrengthening(),
+                        StandardLiftings.NO_LIFTING);
+                if (pushAttempt.isSuccessful()) {
+                  toPush.add(frameClause);
+                  propagated = true;
+                }
               }
             }
 
@@ -369,6 +396,66 @@ public class PdrAlgorithm implements Algorithm {
     return status;
   }
 
+  private @Nullable ParallelFramePropagation createParallelPropagation() {
+    int threads = basicPdrOptions.getPropagationThreads();
+    if (threads == -1) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    if (threads <= 1) {
+      return null;
+    }
+    return new ParallelFramePropagation(
+        threads, stats.frameSwitches, stats.solverCreations, config, logger, shutdownNotifier);
+  }
+
+  /**
+   * Checks in parallel which of the given frame clauses can be pushed to the next frame, i.e.,
+   * which of them are inductive relative to the given frame invariants. This is equivalent to
+   * calling {@link #checkInduction} without strengthening and lifting for each clause.
+   */
+  private List<CandidateInvariant> getPushableClauses(
+      ParallelFramePropagation pParallelPropagation,
+      Set<CandidateInvariant> pFrameInvariants,
+      TotalTransitionRelation pTransitionRelation,
+      Iterable<? extends CandidateInvariant> pFrameClauses)
+      throws SolverException, InterruptedException, CPAException {
+    List<CandidateInvariant> clauses = ImmutableList.copyOf(pFrameClauses);
+    if (clauses.isEmpty()) {
+      return ImmutableList.of();
+    }
+
+    BooleanFormula base =
+        bfmgr.and(
+            pTransitionRelation.getTransitionFormula(),
+            pTransitionRelation.getPredecessorAssertions(pFrameInvariants));
+    List<BooleanFormula> queries = new ArrayList<>(clauses.size());
+    for (CandidateInvariant clause : clauses) {
+      queries.add(
+          bfmgr.and(
+              pTransitionRelation.getPredecessorAssertion(clause),
+              BMCHelper.disjoinStateViolationAssertions(
+                  bfmgr, pTransitionRelation.getSuccessorViolationAssertions(clause))));
+    }
+
+    List<Boolean> results;
+    stats.parallelPropagation.start();
+    try {
+      results = pParallelPropagation.checkUnsat(fmgr, base, queries);
+    } finally {
+      stats.parallelPropagation.stop();
+    }
+
+    List<CandidateInvariant> pushable = new ArrayList<>();
+    for (int i = 0; i < clauses.size(); i++) {
+      stats.parallelPropagationChecks.inc();
+      if (results.get(i)) {
+        pushable.add(clauses.get(i));
+        stats.sharedLemmas.inc();
+      }
+    }
+    return pushable;
+  }
+
   /**
    * Adjusts the conditions of those CPAs that support the adjustment of conditions.
    *
@@ -1330,6 +1417,16 @@ public class PdrAlgorithm implements Algorithm {
     private ConditionAdjustmentCriterion conditionAdjustmentCriterion =
         ConditionAdjustmentCriterion.NEVER;
 
+    @Option(
+      secure = true,
+      description =
+          "Number of threads for checking in parallel which frame clauses can be pushed to the"
+              + " next frame, each with its own solver instance."
+              + " -1 uses the number of available processors, 0 and 1 propagate sequentially."
+    )
+    @IntegerOption(min = -1)
+    private int propagationThreads = 1;
+
     private BasicPdrOptions(Configuration pConfig) throws InvalidConfigurationException {
       pConfig.inject(this);
     }
@@ -1357,6 +1454,10 @@ public class PdrAlgorithm implements Algorithm {
     public ConditionAdjustmentCriterion getConditionAdjustmentCriterion() {
       return conditionAdjustmentCriterion;
     }
+
+    public int getPropagationThreads() {
+      return propagationThreads;
+    }
   }
 
   private enum LiftingStrategyFactories {
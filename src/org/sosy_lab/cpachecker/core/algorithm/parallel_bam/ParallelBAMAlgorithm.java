@@ -44,8 +44,10 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -95,6 +97,14 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
   )
   private int numberOfThreads = -1;
 
+  @Option(
+    description =
+        "execute the analysis of blocks with the most waiting callers first, "
+            + "instead of executing the analyses in the order of their creation.",
+    secure = true
+  )
+  private boolean prioritizeBlocks = false;
+
   @Option(description = "export number of running RSE instances as CSV", secure = true)
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path runningRSESeriesFile = Paths.get("RSESeries.csv");
@@ -144,7 +154,19 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
             .setDaemon(true) // for killing hanging threads at program exit
             .setNameFormat("ParallelBAM-thread-%d")
             .build();
-    final ExecutorService pool = Executors.newFixedThreadPool(numberOfCores, threadFactory);
+    final ExecutorService pool;
+    if (prioritizeBlocks) {
+      pool =
+          new ThreadPoolExecutor(
+              numberOfCores,
+              numberOfCores,
+              0L,
+              TimeUnit.MILLISECONDS,
+              new PriorityBlockingQueue<>(11, PrioritizedBlockTask.ORDER),
+              threadFactory);
+    } else {
+      pool = Executors.newFixedThreadPool(numberOfCores, threadFactory);
+    }
     final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
     final AtomicBoolean terminateAnalysis = new AtomicBoolean(false);
     final AtomicInteger scheduledJobs = new AtomicInteger(0);
@@ -163,6 +185,7 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
             true,
             reachedSetMapping,
             pool,
+            prioritizeBlocks,
             algorithmFactory,
             shutdownNotifier,
             stats,
@@ -341,6 +364,7 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
     final AtomicInteger numActiveThreads = new AtomicInteger(0);
     final StatHist histActiveThreads = new StatHist("Active threads");
     final StatHist executionCounter = new StatHist("RSE execution counter");
+    final StatHist waitingCallers = new StatHist("Waiting callers of scheduled RSE");
     private final StatCounter unfinishedRSEcounter = new StatCounter("unfinished reached-sets");
 
     final StatisticsSeries<Integer> runningRSESeries =
@@ -351,6 +375,9 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
       StatisticsUtils.write(pOut, 0, 50, "max number of executors", numMaxRSE);
       StatisticsUtils.write(pOut, 0, 50, histActiveThreads);
       StatisticsUtils.write(pOut, 0, 50, executionCounter);
+      if (prioritizeBlocks) {
+        StatisticsUtils.write(pOut, 0, 50, waitingCallers);
+      }
       StatisticsUtils.write(pOut, 0, 50, unfinishedRSEcounter);
       StatisticsUtils.write(pOut, 0, 50, wallTime);
       StatisticsUtils.write(pOut, 0, 50, threadTime);
@@ -0,0 +1,56 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A task for the thread pool of {@link ParallelBAMAlgorithm} that knows how many callers wait for
+ * the result of its block. Tasks whose result unblocks more callers are executed first, tasks with
+ * the same number of callers are executed in the order of their creation.
+ */
+class PrioritizedBlockTask implements Runnable {
+
+  static final Comparator<Runnable> ORDER =
+      Comparator.comparingInt((Runnable r) -> -((PrioritizedBlockTask) r).waitingCallers)
+          .thenComparingLong(r -> ((PrioritizedBlockTask) r).sequenceNumber);
+
+  private static final AtomicLong sequenceNumbers = new AtomicLong(0);
+
+  private final Runnable delegate;
+  private final int waitingCallers;
+  private final long sequenceNumber;
+
+  PrioritizedBlockTask(Runnable pDelegate, int pWaitingCallers) {
+    delegate = pDelegate;
+    waitingCallers = pWaitingCallers;
+    sequenceNumber = sequenceNumbers.getAndIncrement();
+  }
+
+  @Override
+  public void run() {
+    delegate.run();
+  }
+}
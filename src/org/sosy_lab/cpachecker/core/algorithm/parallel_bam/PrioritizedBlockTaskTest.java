@@ -0,0 +1,93 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class PrioritizedBlockTaskTest {
+
+  @Test
+  public void moreWaitingCallersFirst() throws Exception {
+    List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    // the same kind of pool as used by ParallelBAMAlgorithm, but with a single thread
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(11, PrioritizedBlockTask.ORDER));
+    try {
+      // blocks the only thread until all other tasks are queued
+      pool.execute(
+          new PrioritizedBlockTask(
+              () -> {
+                started.countDown();
+                try {
+                  release.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              },
+              0));
+      started.await();
+
+      int[] waitingCallers = {0, 2, 1, 5, 2, 0};
+      for (int i = 0; i < waitingCallers.length; i++) {
+        final int id = i;
+        pool.execute(new PrioritizedBlockTask(() -> executed.add(id), waitingCallers[i]));
+      }
+      release.countDown();
+    } finally {
+      pool.shutdown();
+      assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // ties keep the order of creation
+    assertThat(executed).containsExactly(3, 1, 4, 2, 0, 5).inOrder();
+  }
+
+  @Test
+  public void orderOfTasksWithEqualPriority() {
+    PrioritizedBlockTask first = new PrioritizedBlockTask(() -> {}, 3);
+    PrioritizedBlockTask second = new PrioritizedBlockTask(() -> {}, 3);
+    PrioritizedBlockTask urgent = new PrioritizedBlockTask(() -> {}, 4);
+
+    assertThat(PrioritizedBlockTask.ORDER.compare(first, second)).isLessThan(0);
+    assertThat(PrioritizedBlockTask.ORDER.compare(second, first)).isGreaterThan(0);
+    assertThat(PrioritizedBlockTask.ORDER.compare(urgent, first)).isLessThan(0);
+    assertThat(PrioritizedBlockTask.ORDER.compare(first, first)).isEqualTo(0);
+  }
+}
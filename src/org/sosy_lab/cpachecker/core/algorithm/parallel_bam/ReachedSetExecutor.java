@@ -44,6 +44,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -101,6 +102,14 @@ class ReachedSetExecutor {
 
   private final ExecutorService pool;
 
+  /**
+   * The executor for tasks of this RSE. Either the pool itself, or a wrapper that prioritizes the
+   * tasks by the number of callers waiting for this RSE.
+   */
+  private final Executor executor;
+
+  private final boolean prioritizeBlocks;
+
   private final BAMCPAWithBreakOnMissingBlock bamcpa;
   private final AlgorithmFactory algorithmFactory;
   private final ShutdownNotifier shutdownNotifier;
@@ -137,6 +146,12 @@ class ReachedSetExecutor {
   private final Multimap<ReachedSetExecutor, AbstractState> dependingFrom =
       LinkedHashMultimap.create();
 
+  /**
+   * The number of entries in {@link #dependingFrom}. It is updated together with the mapping, but
+   * can be read without its lock, because tasks are scheduled while other locks are held.
+   */
+  private final AtomicInteger waitingCallers = new AtomicInteger(0);
+
   /** This future contains the list of tasks to be executed with this RSE. */
   private CompletableFuture<Void> waitingTask;
 
@@ -147,6 +162,7 @@ class ReachedSetExecutor {
       boolean pIsMainReachedSet,
       ConcurrentMap<ReachedSet, ReachedSetExecutor> pReachedSetMapping,
       ExecutorService pPool,
+      boolean pPrioritizeBlocks,
       AlgorithmFactory pAlgorithmFactory,
       ShutdownNotifier pShutdownNotifier,
       ParallelBAMStatistics pStats,
@@ -160,6 +176,8 @@ class ReachedSetExecutor {
     isMainReachedSet = pIsMainReachedSet;
     reachedSetMapping = pReachedSetMapping;
     pool = pPool;
+    prioritizeBlocks = pPrioritizeBlocks;
+    executor = prioritizeBlocks ? this::executePrioritized : pPool;
     algorithmFactory = pAlgorithmFactory;
     shutdownNotifier = pShutdownNotifier;
     stats = pStats;
@@ -179,7 +197,7 @@ class ReachedSetExecutor {
     terminationCheckTimer = stats.terminationCheckTime.getNewTimer();
 
     // initialization with a NOOP, more tasks are appended later
-    waitingTask = CompletableFuture.runAsync(() -> {}, pool);
+    waitingTask = CompletableFuture.runAsync(() -> {}, executor);
   }
 
   public Runnable asRunnable() {
@@ -198,7 +216,18 @@ class ReachedSetExecutor {
 
   synchronized void addNewTask(Runnable r) {
     scheduledJobs.incrementAndGet();
-    waitingTask = waitingTask.thenRunAsync(r, pool).exceptionally(new ExceptionHandler(this));
+    waitingTask = waitingTask.thenRunAsync(r, executor).exceptionally(new ExceptionHandler(this));
+  }
+
+  private void executePrioritized(Runnable r) {
+    int waitingCallers = getNumberOfWaitingCallers();
+    stats.waitingCallers.insertValue(waitingCallers);
+    pool.execute(new PrioritizedBlockTask(r, waitingCallers));
+  }
+
+  /** Returns the number of states in other RSEs that wait for the result of this RSE. */
+  private int getNumberOfWaitingCallers() {
+    return waitingCallers.get();
   }
 
   /** use only for debugging and exception handling */
@@ -405,6 +434,7 @@ class ReachedSetExecutor {
         registerJob(parent.getKey(), parent.getKey().asRunnable(parent.getValue()));
       }
       dependingFrom.clear();
+      waitingCallers.set(0);
     }
   }
 
@@ -413,7 +443,9 @@ class ReachedSetExecutor {
     logger.logf(level, "%s :: %s -> %s", this, this, subRse);
     dependsOn.add(pBsme.getState());
     synchronized (subRse.dependingFrom) {
-      subRse.dependingFrom.put(this, pBsme.getState());
+      if (subRse.dependingFrom.put(this, pBsme.getState())) {
+        subRse.waitingCallers.incrementAndGet();
+      }
     }
   }
 
@@ -525,6 +557,7 @@ class ReachedSetExecutor {
             false, // mainReachedSet is never nested in another reached-set
             reachedSetMapping,
             pool,
+            prioritizeBlocks,
             algorithmFactory,
             shutdownNotifier,
             stats,
@@ -34,13 +34,12 @@ import java.io.Writer;
 import java.util.Map.Entry;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.types.Type;
-import org.sosy_lab.cpachecker.util.globalinfo.CFAInfo;
-import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.globalinfo.CFANodeReference;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
 class LocalizedRefinablePrecision extends RefinablePrecision {
 
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
 
   /**
    * the immutable collection that determines which variables are tracked at a specific location -
@@ -143,7 +142,7 @@ class LocalizedRefinablePrecision extends RefinablePrecision {
 
     out.writeInt(rawPrecision.size());
     for (Entry<CFANode, MemoryLocation> e : rawPrecision.entries()) {
-      out.writeInt(e.getKey().getNodeNumber());
+      out.writeObject(CFANodeReference.of(e.getKey()));
       out.writeObject(e.getValue());
     }
   }
@@ -151,11 +150,12 @@ class LocalizedRefinablePrecision extends RefinablePrecision {
   @SuppressWarnings("UnusedVariable") // parameter is required by API
   private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
     in.defaultReadObject();
-    CFAInfo cfa = GlobalInfo.getInstance().getCFAInfo().orElseThrow();
     ImmutableMultimap.Builder<CFANode, MemoryLocation> precisionBuilder =
         ImmutableMultimap.builder();
-    for (int i = 0; i < in.readInt(); i++) {
-      precisionBuilder.put(cfa.getNodeByNodeNumber(in.readInt()), (MemoryLocation) in.readObject());
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      CFANode node = ((CFANodeReference) in.readObject()).resolve();
+      precisionBuilder.put(node, (MemoryLocation) in.readObject());
     }
     rawPrecision = precisionBuilder.build();
   }
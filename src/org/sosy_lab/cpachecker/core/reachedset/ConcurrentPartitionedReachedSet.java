@@ -0,0 +1,365 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.AbstractSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.PriorityWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+
+/**
+ * Thread-safe implementation of the reached set that partitions states like {@link
+ * PartitionedReachedSet}, such that one analysis can add and expand states from several threads.
+ *
+ * <p>The states and their precisions are kept in a {@link ConcurrentHashMap}, and each partition
+ * is a concurrent set, so querying partitions (as done for merge and stop) does not need any
+ * locks. Partitions without states are removed. There is a single waitlist, created by the
+ * configured {@link WaitlistFactory}, such that states are taken from it in the same global order
+ * as from {@link PartitionedReachedSet}, for all traversal strategies. The waitlist is guarded by
+ * its own lock, which is held only for the waitlist operations themselves.
+ *
+ * <p>In contrast to the other reached-set implementations, the iteration order of all states and
+ * of the states in a partition is not the insertion order, and iterators are weakly consistent
+ * (they never throw {@link java.util.ConcurrentModificationException}). Methods that remove
+ * states ({@link #remove(AbstractState)}, {@link #clear()}, etc.) are thread-safe, but they should
+ * be called only while no other thread expands states, e.g., during refinement.
+ */
+@ThreadSafe
+public class ConcurrentPartitionedReachedSet implements ReachedSet {
+
+  /** Partition key used for states that return null as their key. */
+  private static final Object NULL_KEY = new Object();
+
+  private static final class Partition {
+
+    private final Object key;
+    private final Set<AbstractState> states = ConcurrentHashMap.newKeySet();
+
+    /** Whether this partition was removed from the reached set and must not be used anymore. */
+    @GuardedBy("this")
+    private boolean removed = false;
+
+    private Partition(Object pKey) {
+      key = pKey;
+    }
+  }
+
+  private final ConcurrentMap<AbstractState, Precision> reached = new ConcurrentHashMap<>();
+  private final Set<AbstractState> unmodifiableReached =
+      Collections.unmodifiableSet(reached.keySet());
+  private final ConcurrentMap<Object, Partition> partitions = new ConcurrentHashMap<>();
+
+  @GuardedBy("waitlist")
+  private final Waitlist waitlist;
+
+  private final AtomicReference<@Nullable AbstractState> firstState = new AtomicReference<>();
+  private volatile @Nullable AbstractState lastState = null;
+
+  public ConcurrentPartitionedReachedSet(WaitlistFactory pWaitlistFactory) {
+    waitlist = pWaitlistFactory.createWaitlistInstance();
+  }
+
+  private static Object getPartitionKey(AbstractState pState) {
+    assert pState instanceof Partitionable
+        : "Partitionable states necessary for ConcurrentPartitionedReachedSet";
+    Object key = ((Partitionable) pState).getPartitionKey();
+    return key == null ? NULL_KEY : key;
+  }
+
+  private Partition getOrCreatePartition(Object pKey) {
+    return partitions.computeIfAbsent(pKey, Partition::new);
+  }
+
+  @Override
+  public void add(AbstractState pState, Precision pPrecision) throws IllegalArgumentException {
+    checkNotNull(pState);
+    checkNotNull(pPrecision);
+
+    Precision previousPrecision = reached.putIfAbsent(pState, pPrecision);
+
+    if (previousPrecision == null) {
+      // State was not in the reached set before, and no other thread added it concurrently.
+      Object key = getPartitionKey(pState);
+      while (true) {
+        Partition partition = getOrCreatePartition(key);
+        synchronized (partition) {
+          if (!partition.removed) {
+            partition.states.add(pState);
+            break;
+          }
+        }
+        // partition was removed concurrently, retry with a new one
+      }
+      synchronized (waitlist) {
+        waitlist.add(pState);
+      }
+      firstState.compareAndSet(null, pState);
+      lastState = pState;
+
+    } else {
+      // State was already in the reached set (cf. DefaultReachedSet#add),
+      // nothing to do except checking the precision.
+      checkArgument(
+          pPrecision.equals(previousPrecision),
+          "State added to reached set which is already contained, but with a different precision");
+    }
+  }
+
+  @Override
+  public void addAll(Iterable<Pair<AbstractState, Precision>> pToAdd) {
+    for (Pair<AbstractState, Precision> pair : pToAdd) {
+      add(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  @Override
+  public void reAddToWaitlist(AbstractState pState) {
+    checkNotNull(pState);
+    checkArgument(reached.containsKey(pState), "State has to be in the reached set");
+
+    synchronized (waitlist) {
+      if (!waitlist.contains(pState)) {
+        waitlist.add(pState);
+      }
+    }
+  }
+
+  @Override
+  public void updatePrecision(AbstractState pState, Precision pNewPrecision) {
+    checkNotNull(pState);
+    checkNotNull(pNewPrecision);
+
+    checkArgument(
+        reached.replace(pState, pNewPrecision) != null,
+        "State needs to be in the reached set in order to change the precision.");
+  }
+
+  @Override
+  public void remove(AbstractState pState) {
+    checkNotNull(pState);
+    firstState.compareAndSet(pState, null);
+    if (pState.equals(lastState)) {
+      lastState = null;
+    }
+    if (reached.remove(pState) == null) {
+      return;
+    }
+    synchronized (waitlist) {
+      waitlist.remove(pState);
+    }
+    Partition partition = partitions.get(getPartitionKey(pState));
+    if (partition != null) {
+      synchronized (partition) {
+        partition.states.remove(pState);
+        if (partition.states.isEmpty()) {
+          partition.removed = true;
+          partitions.remove(partition.key, partition);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void removeAll(Iterable<? extends AbstractState> pToRemove) {
+    for (AbstractState state : pToRemove) {
+      remove(state);
+    }
+  }
+
+  @Override
+  public void removeOnlyFromWaitlist(AbstractState pState) {
+    checkNotNull(pState);
+    synchronized (waitlist) {
+      waitlist.remove(pState);
+    }
+  }
+
+  @Override
+  public void clear() {
+    firstState.set(null);
+    lastState = null;
+    for (Partition partition : partitions.values()) {
+      synchronized (partition) {
+        partition.removed = true;
+      }
+    }
+    partitions.clear();
+    synchronized (waitlist) {
+      waitlist.clear();
+    }
+    reached.clear();
+  }
+
+  @Override
+  public AbstractState popFromWaitlist() {
+    AbstractState state = pollFromWaitlist();
+    if (state == null) {
+      throw new NoSuchElementException("Waitlist is empty");
+    }
+    return state;
+  }
+
+  /**
+   * Atomically check whether the waitlist is not empty and remove the next state. This should be
+   * used instead of {@link #hasWaitingState()} and {@link #popFromWaitlist()} if several threads
+   * take states from the waitlist.
+   *
+   * @return the next state of the waitlist, or null if the waitlist is empty
+   */
+  public @Nullable AbstractState pollFromWaitlist() {
+    synchronized (waitlist) {
+      return waitlist.isEmpty() ? null : waitlist.pop();
+    }
+  }
+
+  @Override
+  public boolean hasWaitingState() {
+    synchronized (waitlist) {
+      return !waitlist.isEmpty();
+    }
+  }
+
+  /** Returns a snapshot of the current waitlist. */
+  @Override
+  public Collection<AbstractState> getWaitlist() {
+    synchronized (waitlist) {
+      return ImmutableList.copyOf(waitlist);
+    }
+  }
+
+  @Override
+  public Set<AbstractState> asCollection() {
+    return unmodifiableReached;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return unmodifiableReached.iterator();
+  }
+
+  @Override
+  public Collection<Precision> getPrecisions() {
+    return Collections.unmodifiableCollection(reached.values());
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState pState) {
+    Partition partition = partitions.get(getPartitionKey(checkNotNull(pState)));
+    return partition == null
+        ? ImmutableList.of()
+        : Collections.unmodifiableCollection(partition.states);
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(CFANode pLocation) {
+    checkNotNull(pLocation);
+    return asCollection();
+  }
+
+  public int getNumberOfPartitions() {
+    return partitions.size();
+  }
+
+  @Override
+  public @Nullable AbstractState getFirstState() {
+    return firstState.get();
+  }
+
+  @Override
+  public @Nullable AbstractState getLastState() {
+    return lastState;
+  }
+
+  @Override
+  public Precision getPrecision(AbstractState pState) {
+    checkNotNull(pState);
+    Precision prec = reached.get(pState);
+    checkArgument(prec != null, "State not in reached set:\n%s", pState);
+    return prec;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+    reached.forEach(pAction);
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    checkNotNull(pState);
+    return reached.containsKey(pState);
+  }
+
+  @Override
+  public int size() {
+    return reached.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return reached.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return reached.keySet().toString();
+  }
+
+  @Override
+  public ImmutableMap<String, AbstractStatValue> getStatistics() {
+    synchronized (waitlist) {
+      if (waitlist instanceof AbstractSortedWaitlist) {
+        return ImmutableMap.copyOf(((AbstractSortedWaitlist<?>) waitlist).getDelegationCounts());
+
+      } else if (waitlist instanceof PriorityWaitlist) {
+        return ImmutableMap.copyOf(((PriorityWaitlist) waitlist).getStatistics());
+
+      } else {
+        return ImmutableMap.of();
+      }
+    }
+  }
+}
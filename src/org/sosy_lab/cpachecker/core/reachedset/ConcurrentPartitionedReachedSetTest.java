@@ -0,0 +1,197 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class ConcurrentPartitionedReachedSetTest {
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  /** State that is only equal to itself and belongs to the given partition. */
+  private static class TestState implements AbstractState, Partitionable {
+
+    private final int partition;
+
+    TestState(int pPartition) {
+      partition = pPartition;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return partition;
+    }
+
+    @Override
+    public String toString() {
+      return "state in partition " + partition;
+    }
+  }
+
+  @Test
+  public void traversalOrderWithinPartition() {
+    ConcurrentPartitionedReachedSet reached =
+        new ConcurrentPartitionedReachedSet(TraversalMethod.DFS);
+    TestState older = new TestState(0);
+    TestState newer = new TestState(0);
+    reached.add(older, PRECISION);
+    reached.add(newer, PRECISION);
+
+    assertThat(reached.getWaitlist()).containsExactly(older, newer);
+    assertThat(reached.popFromWaitlist()).isSameInstanceAs(newer);
+    assertThat(reached.popFromWaitlist()).isSameInstanceAs(older);
+    assertThat(reached.hasWaitingState()).isFalse();
+    assertThat(reached.pollFromWaitlist()).isNull();
+    assertThat(reached.getReached(older)).containsExactly(older, newer);
+  }
+
+  @Test
+  public void globalTraversalOrder() {
+    // the configured order applies across partitions, like in PartitionedReachedSet
+    TestState a = new TestState(0);
+    TestState b = new TestState(1);
+    TestState c = new TestState(0);
+
+    ConcurrentPartitionedReachedSet dfs = new ConcurrentPartitionedReachedSet(TraversalMethod.DFS);
+    dfs.add(a, PRECISION);
+    dfs.add(b, PRECISION);
+    dfs.add(c, PRECISION);
+    assertThat(dfs.popFromWaitlist()).isSameInstanceAs(c);
+    assertThat(dfs.popFromWaitlist()).isSameInstanceAs(b);
+    assertThat(dfs.popFromWaitlist()).isSameInstanceAs(a);
+
+    ConcurrentPartitionedReachedSet bfs = new ConcurrentPartitionedReachedSet(TraversalMethod.BFS);
+    bfs.add(a, PRECISION);
+    bfs.add(b, PRECISION);
+    bfs.add(c, PRECISION);
+    assertThat(bfs.popFromWaitlist()).isSameInstanceAs(a);
+    assertThat(bfs.popFromWaitlist()).isSameInstanceAs(b);
+    assertThat(bfs.popFromWaitlist()).isSameInstanceAs(c);
+  }
+
+  @Test
+  public void emptyPartitionsAreRemoved() {
+    ConcurrentPartitionedReachedSet reached =
+        new ConcurrentPartitionedReachedSet(TraversalMethod.BFS);
+    TestState a = new TestState(0);
+    TestState b = new TestState(1);
+    reached.add(a, PRECISION);
+    reached.add(b, PRECISION);
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(2);
+
+    reached.remove(a);
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(1);
+    assertThat(reached.getReached(a)).isEmpty();
+    assertThat(reached.getWaitlist()).containsExactly(b);
+
+    // the partition is created again if needed
+    TestState c = new TestState(0);
+    reached.add(c, PRECISION);
+    assertThat(reached.getReached(a)).containsExactly(c);
+    assertThat(reached.getWaitlist()).containsExactly(b, c);
+    assertThat(reached.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void reAddToWaitlist() {
+    ConcurrentPartitionedReachedSet reached =
+        new ConcurrentPartitionedReachedSet(TraversalMethod.BFS);
+    TestState a = new TestState(0);
+    reached.add(a, PRECISION);
+    assertThat(reached.popFromWaitlist()).isSameInstanceAs(a);
+
+    reached.reAddToWaitlist(a);
+    reached.reAddToWaitlist(a);
+    assertThat(reached.getWaitlist()).containsExactly(a);
+    assertThat(reached.pollFromWaitlist()).isSameInstanceAs(a);
+    assertThat(reached.hasWaitingState()).isFalse();
+  }
+
+  @Test
+  public void concurrentAddAndPoll() throws Exception {
+    final int threads = 4;
+    final int statesPerThread = 2000;
+    final int partitions = 10;
+    ConcurrentPartitionedReachedSet reached =
+        new ConcurrentPartitionedReachedSet(TraversalMethod.BFS);
+
+    // each thread adds its states and takes states from the waitlist in between
+    List<Callable<List<AbstractState>>> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      tasks.add(
+          () -> {
+            List<AbstractState> popped = new ArrayList<>();
+            for (int i = 0; i < statesPerThread; i++) {
+              reached.add(new TestState(i % partitions), PRECISION);
+              if (i % 2 == 0) {
+                AbstractState state = reached.pollFromWaitlist();
+                if (state != null) {
+                  popped.add(state);
+                }
+              }
+            }
+            return popped;
+          });
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    Set<AbstractState> popped = new HashSet<>();
+    int poppedCount = 0;
+    try {
+      for (Future<List<AbstractState>> result : executor.invokeAll(tasks)) {
+        popped.addAll(result.get());
+        poppedCount += result.get().size();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    AbstractState state;
+    while ((state = reached.pollFromWaitlist()) != null) {
+      popped.add(state);
+      poppedCount++;
+    }
+
+    // every state was taken from the waitlist exactly once
+    assertThat(reached.size()).isEqualTo(threads * statesPerThread);
+    assertThat(poppedCount).isEqualTo(threads * statesPerThread);
+    assertThat(popped).containsExactlyElementsIn(reached.asCollection());
+    assertThat(reached.hasWaitingState()).isFalse();
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(partitions);
+  }
+}
@@ -42,6 +42,7 @@ import org.sosy_lab.cpachecker.core.waitlist.ExplicitSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopIterationSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.PostorderSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.PriorityWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ReversePostorderSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.SMGSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ThreadingSortedWaitlist;
@@ -56,7 +57,7 @@ import org.sosy_lab.cpachecker.cpa.usage.storage.UsageConfiguration;
 public class ReachedSetFactory {
 
   private enum ReachedSetType {
-    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, USAGE
+    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, CONCURRENT, USAGE
   }
 
   @Option(
@@ -172,6 +173,16 @@ public class ReachedSetFactory {
   )
   private boolean useWeightedBranchOrder = false;
 
+  @Option(
+      secure = true,
+      name = "traversal.usePriority",
+      description =
+          "handle abstract states by a weighted sum of several criteria, which are configured "
+              + "with the options 'analysis.traversal.priority.*' (states with the lowest sum "
+              + "are handled first). The secondary strategy for states with the same sum "
+              + "is selected with 'analysis.traversal.order' and needs to be DFS or BFS.")
+  private boolean usePriority = false;
+
   @Option(
     secure = true,
     name = "traversal.useBlocks",
@@ -191,6 +202,8 @@ public class ReachedSetFactory {
             + "\nPARTITIONED: partitioning depending on CPAs (e.g Location, Callstack etc.)"
             + "\nPSEUDOPARTITIONED: based on PARTITIONED, uses additional info about the states' lattice "
             + "(maybe faster for some special analyses which use merge_sep and stop_sep"
+            + "\nCONCURRENT: like PARTITIONED, but thread-safe such that several threads "
+            + "can expand states of the same reached set"
   )
   private ReachedSetType reachedSet = ReachedSetType.PARTITIONED;
 
@@ -203,6 +216,7 @@ public class ReachedSetFactory {
   private @Nullable BlockConfiguration blockConfig;
   private @Nullable UsageConfiguration usageConfig;
   private WeightedRandomWaitlist.@Nullable WaitlistOptions weightedWaitlistOptions;
+  private PriorityWaitlist.@Nullable WaitlistOptions priorityWaitlistOptions;
   private final LogManager logger;
 
   public ReachedSetFactory(Configuration pConfig, LogManager pLogger)
@@ -225,11 +239,25 @@ public class ReachedSetFactory {
     } else {
       weightedWaitlistOptions = null;
     }
+    if (usePriority) {
+      if (traversalMethod != Waitlist.TraversalMethod.DFS
+          && traversalMethod != Waitlist.TraversalMethod.BFS) {
+        throw new InvalidConfigurationException(
+            "Option analysis.traversal.usePriority needs DFS or BFS as analysis.traversal.order");
+      }
+      priorityWaitlistOptions = new PriorityWaitlist.WaitlistOptions(pConfig);
+    } else {
+      priorityWaitlistOptions = null;
+    }
   }
 
   public ReachedSet create() {
     WaitlistFactory waitlistFactory = traversalMethod;
 
+    if (usePriority) {
+      waitlistFactory = PriorityWaitlist.factory(traversalMethod, priorityWaitlistOptions);
+    }
+
     if (useWeightedDepthOrder) {
       waitlistFactory =
           DepthBasedWeightedWaitlist.factory(waitlistFactory, weightedWaitlistOptions);
@@ -289,6 +317,9 @@ public class ReachedSetFactory {
     case PSEUDOPARTITIONED:
         reached = new PseudoPartitionedReachedSet(waitlistFactory);
         break;
+    case CONCURRENT:
+        reached = new ConcurrentPartitionedReachedSet(waitlistFactory);
+        break;
     case LOCATIONMAPPED:
         reached = new LocationMappedReachedSet(waitlistFactory);
         break;
@@ -145,18 +145,22 @@ public abstract class AbstractSortedWaitlist<K extends Comparable<K>> implements
   }
 
   private void addStatistics(Waitlist pWaitlist) {
+    Map<String, StatInt> delegCount;
     if (pWaitlist instanceof AbstractSortedWaitlist) {
-      Map<String, StatInt> delegCount =
-          ((AbstractSortedWaitlist<?>) pWaitlist).getDelegationCounts();
+      delegCount = ((AbstractSortedWaitlist<?>) pWaitlist).getDelegationCounts();
+    } else if (pWaitlist instanceof PriorityWaitlist) {
+      delegCount = ((PriorityWaitlist) pWaitlist).getStatistics();
+    } else {
+      return;
+    }
 
-      for (Entry<String, StatInt> e : delegCount.entrySet()) {
-        String key = e.getKey();
-        if (!delegationCounts.containsKey(key)) {
-          delegationCounts.put(key, e.getValue());
+    for (Entry<String, StatInt> e : delegCount.entrySet()) {
+      String key = e.getKey();
+      if (!delegationCounts.containsKey(key)) {
+        delegationCounts.put(key, e.getValue());
 
-        } else {
-          delegationCounts.get(key).add(e.getValue());
-        }
+      } else {
+        delegationCounts.get(key).add(e.getValue());
       }
     }
   }
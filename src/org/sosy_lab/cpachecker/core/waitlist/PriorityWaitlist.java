@@ -0,0 +1,435 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.loopbound.LoopBoundState;
+import org.sosy_lab.cpachecker.cpa.smg.SMGState;
+import org.sosy_lab.cpachecker.cpa.threading.ThreadingState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+
+/**
+ * Waitlist implementation that is backed by a binary heap and orders the abstract states by a cost
+ * that combines several weighted criteria: the cost of a state is the sum of the values of all
+ * criteria multiplied with their weights, and states with the lowest cost are considered first.
+ * States with the same cost are handled in DFS or BFS order.
+ *
+ * <p>In contrast to {@link AbstractSortedWaitlist}, there is only one heap for all states, and the
+ * position of each state in the heap is stored, such that {@link #remove(AbstractState)} and
+ * {@link #reprioritize(AbstractState)} need O(log n) time. The iterators created by this class
+ * are unmodifiable and do not return the states in order.
+ */
+public class PriorityWaitlist implements Waitlist {
+
+  /** A criterion that contributes to the cost of an abstract state. */
+  public interface Criterion {
+
+    String getName();
+
+    /** Compute the value of this criterion for the given state, 0 if it is not applicable. */
+    int getValue(AbstractState pState);
+  }
+
+  /** The criteria that are available via the configuration. */
+  public enum StandardCriterion implements Criterion {
+    CALLSTACK_DEPTH(
+        "callstack depth",
+        s -> {
+          CallstackState callstack = AbstractStates.extractStateByType(s, CallstackState.class);
+          return callstack != null ? callstack.getDepth() : 0;
+        }),
+    LOOPSTACK_DEPTH(
+        "loopstack depth",
+        s -> {
+          LoopBoundState loopstack = AbstractStates.extractStateByType(s, LoopBoundState.class);
+          return loopstack != null ? loopstack.getDepth() : 0;
+        }),
+    LOOP_ITERATIONS(
+        "loop iterations",
+        s -> {
+          LoopBoundState loopstack = AbstractStates.extractStateByType(s, LoopBoundState.class);
+          return loopstack != null ? loopstack.getMaxNumberOfIterationsInLoopstackFrame() : 0;
+        }),
+    REVERSE_POSTORDER(
+        "reverse postorder id",
+        s -> {
+          CFANode location = AbstractStates.extractLocation(s);
+          return location != null ? location.getReversePostorderId() : 0;
+        }),
+    THREADS(
+        "number of threads",
+        s -> {
+          ThreadingState threading = AbstractStates.extractStateByType(s, ThreadingState.class);
+          return threading != null ? threading.getThreadIds().size() : 0;
+        }),
+    HEAP_OBJECTS(
+        "number of heap objects",
+        s -> {
+          SMGState smg = AbstractStates.extractStateByType(s, SMGState.class);
+          return smg != null ? smg.getHeap().getHeapObjects().size() : 0;
+        });
+
+    private final String name;
+    private final ToIntFunction<AbstractState> function;
+
+    StandardCriterion(String pName, ToIntFunction<AbstractState> pFunction) {
+      name = pName;
+      function = pFunction;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public int getValue(AbstractState pState) {
+      return function.applyAsInt(pState);
+    }
+  }
+
+  @Options(prefix = "analysis.traversal.priority")
+  public static class WaitlistOptions {
+
+    @Option(
+        secure = true,
+        description =
+            "weight of the callstack depth for the priority waitlist "
+                + "(negative values prefer deeper states, needs CallstackCPA)")
+    private double callstackDepth = 0;
+
+    @Option(
+        secure = true,
+        description =
+            "weight of the loopstack depth for the priority waitlist "
+                + "(negative values prefer deeper states, needs LoopBoundCPA)")
+    private double loopstackDepth = 0;
+
+    @Option(
+        secure = true,
+        description =
+            "weight of the number of loop iterations for the priority waitlist "
+                + "(needs LoopBoundCPA)")
+    private double loopIterations = 0;
+
+    @Option(
+        secure = true,
+        description =
+            "weight of the reverse postorder id of the location for the priority waitlist "
+                + "(negative values prefer states that are further in the program)")
+    private double reversePostorder = 0;
+
+    @Option(
+        secure = true,
+        description =
+            "weight of the number of running threads for the priority waitlist "
+                + "(needs ThreadingCPA)")
+    private double threads = 0;
+
+    @Option(
+        secure = true,
+        description =
+            "weight of the number of heap objects for the priority waitlist (needs SMGCPA)")
+    private double heapObjects = 0;
+
+    private final ImmutableMap<Criterion, Double> weights;
+
+    public WaitlistOptions(Configuration pConfig) throws InvalidConfigurationException {
+      pConfig.inject(this);
+      ImmutableMap.Builder<Criterion, Double> builder = ImmutableMap.builder();
+      putIfUsed(builder, StandardCriterion.CALLSTACK_DEPTH, callstackDepth);
+      putIfUsed(builder, StandardCriterion.LOOPSTACK_DEPTH, loopstackDepth);
+      putIfUsed(builder, StandardCriterion.LOOP_ITERATIONS, loopIterations);
+      putIfUsed(builder, StandardCriterion.REVERSE_POSTORDER, reversePostorder);
+      putIfUsed(builder, StandardCriterion.THREADS, threads);
+      putIfUsed(builder, StandardCriterion.HEAP_OBJECTS, heapObjects);
+      weights = builder.build();
+    }
+
+    private static void putIfUsed(
+        ImmutableMap.Builder<Criterion, Double> pBuilder, Criterion pCriterion, double pWeight)
+        throws InvalidConfigurationException {
+      if (Double.isNaN(pWeight) || Double.isInfinite(pWeight)) {
+        throw new InvalidConfigurationException(
+            "Invalid weight " + pWeight + " for " + pCriterion.getName() + " in priority waitlist");
+      }
+      if (pWeight != 0) {
+        pBuilder.put(pCriterion, pWeight);
+      }
+    }
+
+    public ImmutableMap<Criterion, Double> getWeights() {
+      return weights;
+    }
+  }
+
+  private static final class HeapEntry {
+
+    private final AbstractState state;
+    private final long sequenceNumber;
+    private int[] values;
+    private double cost;
+    private int index;
+
+    private HeapEntry(AbstractState pState, long pSequenceNumber) {
+      state = pState;
+      sequenceNumber = pSequenceNumber;
+    }
+  }
+
+  private final Criterion[] criteria;
+  private final double[] weights;
+
+  /** whether states with the same cost are handled in DFS (newest first) or BFS order */
+  private final boolean newestFirst;
+
+  private final List<HeapEntry> heap = new ArrayList<>();
+  private final Map<AbstractState, HeapEntry> entries = new HashMap<>();
+  private long nextSequenceNumber = 0;
+
+  private final StatInt[] poppedValues;
+
+  /**
+   * Create a new waitlist.
+   *
+   * @param pWeights the criteria and their weights, states with the lowest weighted sum are
+   *     considered first
+   * @param pSecondaryStrategy the order of states with the same cost, either DFS or BFS
+   */
+  public PriorityWaitlist(
+      ImmutableMap<? extends Criterion, Double> pWeights, TraversalMethod pSecondaryStrategy) {
+    checkArgument(
+        pSecondaryStrategy == TraversalMethod.DFS || pSecondaryStrategy == TraversalMethod.BFS,
+        "Unsupported secondary strategy %s for priority waitlist",
+        pSecondaryStrategy);
+    newestFirst = pSecondaryStrategy == TraversalMethod.DFS;
+    criteria = new Criterion[pWeights.size()];
+    weights = new double[pWeights.size()];
+    poppedValues = new StatInt[pWeights.size()];
+    int i = 0;
+    for (Entry<? extends Criterion, Double> entry : pWeights.entrySet()) {
+      criteria[i] = entry.getKey();
+      weights[i] = entry.getValue();
+      poppedValues[i] =
+          new StatInt(
+              StatKind.AVG,
+              "Priority waitlist: " + entry.getKey().getName() + " of popped states");
+      i++;
+    }
+  }
+
+  public static WaitlistFactory factory(
+      TraversalMethod pSecondaryStrategy, WaitlistOptions pConfig) {
+    return () -> new PriorityWaitlist(pConfig.getWeights(), pSecondaryStrategy);
+  }
+
+  private void computeCost(HeapEntry pEntry) {
+    int[] values = new int[criteria.length];
+    double cost = 0;
+    for (int i = 0; i < criteria.length; i++) {
+      values[i] = criteria[i].getValue(pEntry.state);
+      cost += weights[i] * values[i];
+    }
+    pEntry.values = values;
+    pEntry.cost = cost;
+  }
+
+  /** Whether the first entry needs to be handled before the second one. */
+  private boolean isBefore(HeapEntry pFirst, HeapEntry pSecond) {
+    int cmp = Double.compare(pFirst.cost, pSecond.cost);
+    if (cmp != 0) {
+      return cmp < 0;
+    }
+    return newestFirst
+        ? pFirst.sequenceNumber > pSecond.sequenceNumber
+        : pFirst.sequenceNumber < pSecond.sequenceNumber;
+  }
+
+  private void set(int pIndex, HeapEntry pEntry) {
+    heap.set(pIndex, pEntry);
+    pEntry.index = pIndex;
+  }
+
+  private void siftUp(HeapEntry pEntry) {
+    int index = pEntry.index;
+    while (index > 0) {
+      int parentIndex = (index - 1) / 2;
+      HeapEntry parent = heap.get(parentIndex);
+      if (!isBefore(pEntry, parent)) {
+        break;
+      }
+      set(index, parent);
+      index = parentIndex;
+    }
+    set(index, pEntry);
+  }
+
+  private void siftDown(HeapEntry pEntry) {
+    int index = pEntry.index;
+    int size = heap.size();
+    while (true) {
+      int childIndex = 2 * index + 1;
+      if (childIndex >= size) {
+        break;
+      }
+      HeapEntry child = heap.get(childIndex);
+      if (childIndex + 1 < size && isBefore(heap.get(childIndex + 1), child)) {
+        childIndex++;
+        child = heap.get(childIndex);
+      }
+      if (!isBefore(child, pEntry)) {
+        break;
+      }
+      set(index, child);
+      index = childIndex;
+    }
+    set(index, pEntry);
+  }
+
+  /** Remove the entry from the heap, the entry map is not changed. */
+  private void removeFromHeap(HeapEntry pEntry) {
+    HeapEntry last = heap.remove(heap.size() - 1);
+    if (last != pEntry) {
+      set(pEntry.index, last);
+      siftUp(last);
+      siftDown(last);
+    }
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    if (entries.containsKey(pState)) {
+      reprioritize(pState);
+      return;
+    }
+    HeapEntry entry = new HeapEntry(pState, nextSequenceNumber++);
+    computeCost(entry);
+    entry.index = heap.size();
+    heap.add(entry);
+    entries.put(pState, entry);
+    siftUp(entry);
+  }
+
+  /**
+   * Compute the cost of a state in the waitlist again and move it to its new position, e.g.,
+   * because a criterion depends on mutable information.
+   *
+   * @return whether the state is contained in the waitlist
+   */
+  public boolean reprioritize(AbstractState pState) {
+    HeapEntry entry = entries.get(pState);
+    if (entry == null) {
+      return false;
+    }
+    computeCost(entry);
+    siftUp(entry);
+    siftDown(entry);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    heap.clear();
+    entries.clear();
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return entries.containsKey(pState);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return heap.isEmpty();
+  }
+
+  @Override
+  public AbstractState pop() {
+    if (heap.isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    HeapEntry first = heap.get(0);
+    removeFromHeap(first);
+    entries.remove(first.state);
+    for (int i = 0; i < criteria.length; i++) {
+      poppedValues[i].setNextValue(first.values[i]);
+    }
+    return first.state;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    HeapEntry entry = entries.remove(pState);
+    if (entry == null) {
+      return false;
+    }
+    removeFromHeap(entry);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return heap.size();
+  }
+
+  /**
+   * Returns the statistics about the values of each criterion for the popped states, with the
+   * names of the statistics as keys.
+   */
+  public Map<String, StatInt> getStatistics() {
+    Map<String, StatInt> result = new LinkedHashMap<>();
+    for (StatInt values : poppedValues) {
+      result.put(values.getTitle(), values);
+    }
+    return result;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterators.unmodifiableIterator(Iterators.transform(heap.iterator(), e -> e.state));
+  }
+
+  @Override
+  public String toString() {
+    return Iterables.toString(this);
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.PriorityWaitlist.Criterion;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+
+public class PriorityWaitlistTest {
+
+  /** State with two mutable values that are used as criteria. */
+  private static class TestState implements AbstractState {
+
+    private int first;
+    private int second;
+
+    TestState(int pFirst, int pSecond) {
+      first = pFirst;
+      second = pSecond;
+    }
+
+    @Override
+    public String toString() {
+      return "(" + first + ", " + second + ")";
+    }
+  }
+
+  private static final Criterion FIRST = criterion("first", s -> ((TestState) s).first);
+  private static final Criterion SECOND = criterion("second", s -> ((TestState) s).second);
+
+  private static Criterion criterion(String pName, ToIntFunction<AbstractState> pFunction) {
+    return new Criterion() {
+      @Override
+      public String getName() {
+        return pName;
+      }
+
+      @Override
+      public int getValue(AbstractState pState) {
+        return pFunction.applyAsInt(pState);
+      }
+    };
+  }
+
+  private static PriorityWaitlist create(TraversalMethod pSecondaryStrategy) {
+    return new PriorityWaitlist(ImmutableMap.of(FIRST, 1.0, SECOND, -2.0), pSecondaryStrategy);
+  }
+
+  @Test
+  public void weightedOrder() {
+    PriorityWaitlist waitlist = create(TraversalMethod.DFS);
+    TestState cost3 = new TestState(3, 0);
+    TestState costMinus1 = new TestState(1, 1);
+    TestState cost0 = new TestState(0, 0);
+    waitlist.add(cost3);
+    waitlist.add(costMinus1);
+    waitlist.add(cost0);
+
+    assertThat(waitlist.size()).isEqualTo(3);
+    assertThat(waitlist).containsExactly(cost3, costMinus1, cost0);
+    assertThat(waitlist.pop()).isSameInstanceAs(costMinus1);
+    assertThat(waitlist.pop()).isSameInstanceAs(cost0);
+    assertThat(waitlist.pop()).isSameInstanceAs(cost3);
+    assertThat(waitlist.isEmpty()).isTrue();
+
+    StatInt firstValues = waitlist.getStatistics().get("Priority waitlist: first of popped states");
+    assertThat(firstValues.getValueCount()).isEqualTo(3L);
+    assertThat(firstValues.getValueSum()).isEqualTo(4L);
+  }
+
+  @Test
+  public void secondaryStrategy() {
+    TestState older = new TestState(0, 0);
+    TestState newer = new TestState(0, 0);
+
+    PriorityWaitlist dfs = create(TraversalMethod.DFS);
+    dfs.add(older);
+    dfs.add(newer);
+    assertThat(dfs.pop()).isSameInstanceAs(newer);
+
+    PriorityWaitlist bfs = create(TraversalMethod.BFS);
+    bfs.add(older);
+    bfs.add(newer);
+    assertThat(bfs.pop()).isSameInstanceAs(older);
+  }
+
+  @Test
+  public void removeAndReprioritize() {
+    PriorityWaitlist waitlist = create(TraversalMethod.BFS);
+    TestState a = new TestState(1, 0);
+    TestState b = new TestState(2, 0);
+    TestState c = new TestState(3, 0);
+    waitlist.add(a);
+    waitlist.add(b);
+    waitlist.add(c);
+
+    assertThat(waitlist.remove(a)).isTrue();
+    assertThat(waitlist.remove(a)).isFalse();
+    assertThat(waitlist.contains(a)).isFalse();
+
+    c.first = 0;
+    assertThat(waitlist.reprioritize(c)).isTrue();
+    assertThat(waitlist.reprioritize(a)).isFalse();
+    assertThat(waitlist.pop()).isSameInstanceAs(c);
+    assertThat(waitlist.pop()).isSameInstanceAs(b);
+    assertThat(waitlist.isEmpty()).isTrue();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void popFromEmptyWaitlist() {
+    PriorityWaitlist waitlist = create(TraversalMethod.DFS);
+    waitlist.add(new TestState(0, 0));
+    waitlist.pop();
+    waitlist.pop();
+  }
+
+  @Test
+  public void randomOperations() {
+    Random random = new Random(0);
+    PriorityWaitlist waitlist = create(TraversalMethod.BFS);
+    List<TestState> states = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      TestState state = new TestState(random.nextInt(100), random.nextInt(10));
+      states.add(state);
+      waitlist.add(state);
+    }
+    for (int i = 0; i < 300; i++) {
+      assertThat(waitlist.remove(states.remove(random.nextInt(states.size())))).isTrue();
+    }
+    assertThat(waitlist.size()).isEqualTo(states.size());
+
+    int lastCost = Integer.MIN_VALUE;
+    while (!waitlist.isEmpty()) {
+      TestState state = (TestState) waitlist.pop();
+      int cost = state.first - 2 * state.second;
+      assertThat(cost).isAtLeast(lastCost);
+      assertThat(states.remove(state)).isTrue();
+      lastCost = cost;
+    }
+    assertThat(states).isEmpty();
+  }
+}
@@ -33,7 +33,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.graph.Traverser;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -56,14 +55,14 @@ import org.sosy_lab.cpachecker.util.AbstractStates;
 public class ARGState extends AbstractSingleWrapperState
     implements Comparable<ARGState>, Graphable, Splitable{
 
-  private static final long serialVersionUID = 2608287648397165040L;
+  private static final long serialVersionUID = -3619235740618392165L;
 
-  // We use a List here although we would like to have a Set
-  // because ArrayList is much more memory efficient than e.g. LinkedHashSet.
-  // Also these collections are small and so a slow contains() method won't hurt.
+  // We do not use collection objects here because of their memory overhead,
+  // cf. CompactStateSet for the representation.
+  // Also these sets are small and so a slow contains() method won't hurt.
   // To enforce set semantics, do not add elements except through addparent()!
-  private final Collection<ARGState> children = new ArrayList<>(1);
-  private final Collection<ARGState> parents = new ArrayList<>(1);
+  private @Nullable Object children = null;
+  private @Nullable Object parents = null;
 
   private ARGState mCoveredBy = null;
   private Set<ARGState> mCoveredByThis = null; // lazy initialization because rarely needed
@@ -98,7 +97,12 @@ public class ARGState extends AbstractSingleWrapperState
    * @return A unmodifiable collection of ARGStates without duplicates.
    */
   public Collection<ARGState> getParents() {
-    return Collections.unmodifiableCollection(parents);
+    return new CompactStateSet.View() {
+      @Override
+      @Nullable Object get() {
+        return parents;
+      }
+    };
   }
 
   public void addParent(ARGState pOtherParent) {
@@ -106,12 +110,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (!parents.contains(pOtherParent)) {
-      assert !pOtherParent.children.contains(this);
-      parents.add(pOtherParent);
-      pOtherParent.children.add(this);
+    if (!CompactStateSet.contains(parents, pOtherParent)) {
+      assert !CompactStateSet.contains(pOtherParent.children, this);
+      parents = CompactStateSet.add(parents, pOtherParent);
+      pOtherParent.children = CompactStateSet.add(pOtherParent.children, this);
     } else {
-      assert pOtherParent.children.contains(this);
+      assert CompactStateSet.contains(pOtherParent.children, this);
     }
   }
 
@@ -121,7 +125,12 @@ public class ARGState extends AbstractSingleWrapperState
    */
   public Collection<ARGState> getChildren() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    return Collections.unmodifiableCollection(children);
+    return new CompactStateSet.View() {
+      @Override
+      @Nullable Object get() {
+        return children;
+      }
+    };
   }
 
   /**
@@ -300,10 +309,10 @@ public class ARGState extends AbstractSingleWrapperState
   }
 
   void deleteChild(ARGState child) {
-    assert (children.contains(child));
-    assert (child.parents.contains(this));
-    children.remove(child);
-    child.parents.remove(this);
+    assert CompactStateSet.contains(children, child);
+    assert CompactStateSet.contains(child.parents, this);
+    children = CompactStateSet.remove(children, child);
+    child.parents = CompactStateSet.remove(child.parents, this);
   }
 
   // counterexample
@@ -391,9 +400,9 @@ public class ARGState extends AbstractSingleWrapperState
     sb.append(stateId);
     if (!destroyed) {
       sb.append(", Parents: ");
-      sb.append(stateIdsOf(parents));
+      sb.append(stateIdsOf(getParents()));
       sb.append(", Children: ");
-      sb.append(stateIdsOf(children));
+      sb.append(stateIdsOf(getChildren()));
 
       if (mCoveredBy != null) {
         sb.append(", Covered by: ");
@@ -478,18 +487,18 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // clear children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this));
-      child.parents.remove(this);
+    for (ARGState child : getChildren()) {
+      assert CompactStateSet.contains(child.parents, this);
+      child.parents = CompactStateSet.remove(child.parents, this);
     }
-    children.clear();
+    children = null;
 
     // clear parents
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this));
-      parent.children.remove(this);
+    for (ARGState parent : getParents()) {
+      assert CompactStateSet.contains(parent.children, this);
+      parent.children = CompactStateSet.remove(parent.children, this);
     }
-    parents.clear();
+    parents = null;
   }
 
   /**
@@ -509,19 +518,19 @@ public class ARGState extends AbstractSingleWrapperState
     assert !this.equals(replacement) : "Don't replace ARGState " + this + " with itself";
 
     // copy children
-    for (ARGState child : children) {
-      assert child.parents.contains(this) : "Inconsistent ARG at " + this;
-      child.parents.remove(this);
+    for (ARGState child : getChildren()) {
+      assert CompactStateSet.contains(child.parents, this) : "Inconsistent ARG at " + this;
+      child.parents = CompactStateSet.remove(child.parents, this);
       child.addParent(replacement);
     }
-    children.clear();
+    children = null;
 
-    for (ARGState parent : parents) {
-      assert parent.children.contains(this) : "Inconsistent ARG at " + this;
-      parent.children.remove(this);
+    for (ARGState parent : getParents()) {
+      assert CompactStateSet.contains(parent.children, this) : "Inconsistent ARG at " + this;
+      parent.children = CompactStateSet.remove(parent.children, this);
       replacement.addParent(parent);
     }
-    parents.clear();
+    parents = null;
 
     if (mCoveredByThis != null) {
       if (replacement.mCoveredByThis == null) {
@@ -578,12 +587,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (parents.contains(pOtherParent)) {
-      assert pOtherParent.children.contains(this);
-      parents.remove(pOtherParent);
-      pOtherParent.children.remove(this);
+    if (CompactStateSet.contains(parents, pOtherParent)) {
+      assert CompactStateSet.contains(pOtherParent.children, this);
+      parents = CompactStateSet.remove(parents, pOtherParent);
+      pOtherParent.children = CompactStateSet.remove(pOtherParent.children, this);
     } else {
-      assert !pOtherParent.children.contains(this) : "Problem detected!";
+      assert !CompactStateSet.contains(pOtherParent.children, this) : "Problem detected!";
     }
   }
 }
@@ -0,0 +1,101 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Test;
+
+public class ARGStateTest {
+
+  @Test
+  public void testAddAndRemoveChildren() {
+    ARGState root = new ARGState(null, null);
+    List<ARGState> children = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      children.add(new ARGState(null, root));
+      assertThat(root.getChildren()).containsExactlyElementsIn(children).inOrder();
+    }
+
+    root.deleteChild(children.get(4));
+    children.remove(4);
+    assertThat(root.getChildren()).containsExactlyElementsIn(children).inOrder();
+
+    for (ARGState child : children) {
+      assertThat(child.getParents()).containsExactly(root);
+    }
+  }
+
+  @Test
+  public void testViewIsLive() {
+    ARGState root = new ARGState(null, null);
+    Collection<ARGState> children = root.getChildren();
+    assertThat(children).isEmpty();
+
+    ARGState child1 = new ARGState(null, root);
+    ARGState child2 = new ARGState(null, root);
+    assertThat(children).containsExactly(child1, child2).inOrder();
+
+    child1.removeFromARG();
+    assertThat(children).containsExactly(child2);
+  }
+
+  @Test
+  public void testModificationDuringIteration() {
+    ARGState root = new ARGState(null, null);
+    ImmutableList<ARGState> children =
+        ImmutableList.of(
+            new ARGState(null, root), new ARGState(null, root), new ARGState(null, root));
+
+    List<ARGState> visited = new ArrayList<>();
+    for (ARGState child : root.getChildren()) {
+      visited.add(child);
+      child.removeFromARG();
+      new ARGState(null, root);
+    }
+    assertThat(visited).containsExactlyElementsIn(children).inOrder();
+    assertThat(root.getChildren()).hasSize(3);
+  }
+
+  @Test
+  public void testReplaceInARG() {
+    ARGState parent1 = new ARGState(null, null);
+    ARGState parent2 = new ARGState(null, null);
+    ARGState state = new ARGState(null, parent1);
+    state.addParent(parent2);
+    ARGState child = new ARGState(null, state);
+
+    ARGState replacement = new ARGState(null, null);
+    state.replaceInARGWith(replacement);
+
+    assertThat(replacement.getParents()).containsExactly(parent1, parent2).inOrder();
+    assertThat(replacement.getChildren()).containsExactly(child);
+    assertThat(parent1.getChildren()).containsExactly(replacement);
+    assertThat(child.getParents()).containsExactly(replacement);
+  }
+}
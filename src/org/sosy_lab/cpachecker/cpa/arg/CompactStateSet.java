@@ -0,0 +1,200 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Memory-efficient representation of the small sets of parents and children of an {@link
+ * ARGState}. ARGs can have tens of millions of states, and most of them have exactly one parent
+ * and at most two children, so the per-state overhead of collection objects matters a lot.
+ *
+ * <p>A set is stored in a plain field of type {@link Object}, which is either
+ *
+ * <ul>
+ *   <li><code>null</code> for the empty set,
+ *   <li>a single {@link ARGState}, or
+ *   <li>an {@link ARGState} array whose elements are followed by <code>null</code> values (spare
+ *       capacity).
+ * </ul>
+ *
+ * The methods of this class take the current value of such a field and return the new value that
+ * should be stored in it. Elements are kept in insertion order. Elements are compared by identity,
+ * which is consistent with {@link ARGState#equals(Object)}.
+ *
+ * <p>Arrays are never shrunk or reordered in place, only appended to, such that iterators (which
+ * remember the size when they are created) are not affected by later modifications. This is
+ * important because parents and children are often modified while iterating over a view.
+ */
+final class CompactStateSet {
+
+  private static final ARGState[] EMPTY = new ARGState[0];
+
+  private CompactStateSet() {}
+
+  static int size(@Nullable Object pSet) {
+    if (pSet == null) {
+      return 0;
+    } else if (pSet instanceof ARGState) {
+      return 1;
+    } else {
+      ARGState[] array = (ARGState[]) pSet;
+      int size = array.length;
+      while (size > 0 && array[size - 1] == null) {
+        size--;
+      }
+      return size;
+    }
+  }
+
+  static boolean contains(@Nullable Object pSet, ARGState pState) {
+    if (pSet == null) {
+      return false;
+    } else if (pSet instanceof ARGState) {
+      return pSet == pState;
+    } else {
+      for (ARGState element : (ARGState[]) pSet) {
+        if (element == pState) {
+          return true;
+        } else if (element == null) {
+          return false;
+        }
+      }
+      return false;
+    }
+  }
+
+  /** Add an element, which must not be contained in the set yet. */
+  static Object add(@Nullable Object pSet, ARGState pState) {
+    assert !contains(pSet, pState);
+    if (pSet == null) {
+      return pState;
+    } else if (pSet instanceof ARGState) {
+      return new ARGState[] {(ARGState) pSet, pState};
+    } else {
+      ARGState[] array = (ARGState[]) pSet;
+      int size = size(array);
+      if (size == array.length) {
+        array = Arrays.copyOf(array, size + (size >> 1) + 1);
+      }
+      array[size] = pState;
+      return array;
+    }
+  }
+
+  /** Remove an element if present. */
+  static @Nullable Object remove(@Nullable Object pSet, ARGState pState) {
+    if (pSet == null) {
+      return null;
+    } else if (pSet instanceof ARGState) {
+      return pSet == pState ? null : pSet;
+    } else {
+      ARGState[] array = (ARGState[]) pSet;
+      int size = size(array);
+      int index = -1;
+      for (int i = 0; i < size; i++) {
+        if (array[i] == pState) {
+          index = i;
+          break;
+        }
+      }
+      if (index < 0) {
+        return pSet;
+      }
+      switch (size) {
+        case 1:
+          return null;
+        case 2:
+          return array[1 - index];
+        default:
+          // copy instead of shifting in place, existing iterators may still use the old array
+          ARGState[] result = new ARGState[size - 1];
+          System.arraycopy(array, 0, result, 0, index);
+          System.arraycopy(array, index + 1, result, index, size - index - 1);
+          return result;
+      }
+    }
+  }
+
+  private static ARGState[] toArray(@Nullable Object pSet) {
+    if (pSet == null) {
+      return EMPTY;
+    } else if (pSet instanceof ARGState) {
+      return new ARGState[] {(ARGState) pSet};
+    } else {
+      return (ARGState[]) pSet;
+    }
+  }
+
+  /**
+   * Unmodifiable collection view of a set that is stored in a field. The view reads the field on
+   * each access, so it reflects later modifications like the views of regular collections.
+   */
+  abstract static class View extends AbstractCollection<ARGState> {
+
+    abstract @Nullable Object get();
+
+    @Override
+    public int size() {
+      return CompactStateSet.size(get());
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return get() == null;
+    }
+
+    @Override
+    public boolean contains(Object pO) {
+      return pO instanceof ARGState && CompactStateSet.contains(get(), (ARGState) pO);
+    }
+
+    @Override
+    public Iterator<ARGState> iterator() {
+      Object set = get();
+      ARGState[] array = toArray(set);
+      int size = CompactStateSet.size(set);
+      return new Iterator<>() {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+          return next < size;
+        }
+
+        @Override
+        public ARGState next() {
+          if (next >= size) {
+            throw new NoSuchElementException();
+          }
+          return array[next++];
+        }
+      };
+    }
+  }
+}
@@ -98,6 +98,20 @@ public class WitnessExporterTest {
     newWitnessTester("rule60_list2.i", ExpectedVerdict.FALSE).performTest();
   }
 
+  @Test(timeout = 90000)
+  public void multivar_true_streaming() throws Exception {
+    newWitnessTester("multivar.i", ExpectedVerdict.TRUE)
+        .addOverrideOption("cpa.arg.witness.streamingExport", "true")
+        .performTest();
+  }
+
+  @Test(timeout = 90000)
+  public void rule60_list2_false_streaming() throws Exception {
+    newWitnessTester("rule60_list2.i", ExpectedVerdict.FALSE)
+        .addOverrideOption("cpa.arg.witness.streamingExport", "true")
+        .performTest();
+  }
+
   private static void performTest(
       String pFilename,
       String pSpecification,
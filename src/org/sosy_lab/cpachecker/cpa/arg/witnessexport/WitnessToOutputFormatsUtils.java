@@ -26,8 +26,10 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,6 +42,7 @@ import org.sosy_lab.cpachecker.cpa.slab.SLARGToDotWriter;
 import org.sosy_lab.cpachecker.util.NumericIdProvider;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlWriter;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
@@ -56,6 +59,11 @@ public class WitnessToOutputFormatsUtils {
    * @param pTarget where to append the GraphML
    */
   public static void writeToGraphMl(Witness witness, Appendable pTarget) throws IOException {
+    if (witness.getWitnessOptions().streamingExport()) {
+      writeToGraphMlStreaming(witness, pTarget);
+      return;
+    }
+
     // Write elements
     final GraphMlBuilder doc;
     try {
@@ -196,6 +204,140 @@ public class WitnessToOutputFormatsUtils {
     }
   }
 
+  /**
+   * Write the witness as GraphML without building a DOM tree first. The output contains the same
+   * nodes, edges, and data as the one of {@link #writeElementsOfGraphToDoc(GraphMlBuilder,
+   * Witness)}, but node data that stems from entering edges needs to be known when a node is
+   * written, so we determine the set of nodes whose leaving edges are exported upfront.
+   */
+  private static void writeToGraphMlStreaming(Witness witness, Appendable pTarget)
+      throws IOException {
+    String entryStateNodeId = witness.getEntryStateNodeId();
+
+    Set<KeyDef> usedKeys = EnumSet.of(KeyDef.INVARIANT, KeyDef.INVARIANTSCOPE);
+    Set<String> expandedNodes = getExpandedNodes(witness, usedKeys);
+
+    // write elements in the same order as writeElementsOfGraphToDoc
+    GraphMlWriter writer =
+        new GraphMlWriter(
+            witness.getWitnessType(),
+            witness.getOriginFile(),
+            witness.getCfa(),
+            witness.getMetaData(),
+            usedKeys,
+            pTarget);
+    Set<String> writtenNodes = Sets.newHashSetWithExpectedSize(expandedNodes.size());
+    Deque<String> waitlist = Queues.newArrayDeque();
+    waitlist.push(entryStateNodeId);
+    writer.writeNode(
+        entryStateNodeId, NodeType.ONPATH, getNodeData(entryStateNodeId, witness, expandedNodes));
+    writtenNodes.add(entryStateNodeId);
+    while (!waitlist.isEmpty()) {
+      String source = waitlist.pop();
+      for (Edge edge : witness.getLeavingEdges().get(source)) {
+        String target = edge.getTarget();
+        if (writtenNodes.add(target)) {
+          writer.writeNode(target, NodeType.ONPATH, getNodeData(target, witness, expandedNodes));
+          if (expandedNodes.contains(target)) {
+            waitlist.push(target);
+          }
+        }
+        writer.writeEdge(edge.getSource(), target, getDataOfEdge(edge, ElementType.EDGE));
+      }
+    }
+    writer.finish();
+  }
+
+  /**
+   * Determine the nodes whose leaving edges are exported, and add all keys that are used in the
+   * exported elements to the given set.
+   */
+  private static Set<String> getExpandedNodes(Witness witness, Set<KeyDef> pUsedKeys) {
+    String entryStateNodeId = witness.getEntryStateNodeId();
+    if (witness.getWitnessOptions().exportNodeLabel()) {
+      pUsedKeys.add(KeyDef.LABEL);
+    }
+    if (!witness.getViolatedProperties().isEmpty()) {
+      pUsedKeys.add(KeyDef.VIOLATEDPROPERTY);
+    }
+    for (NodeFlag flag : witness.getNodeFlags().values()) {
+      pUsedKeys.add(flag.key);
+    }
+
+    Set<String> expandedNodes = Sets.newHashSet();
+    Set<String> nodes = Sets.newHashSet();
+    Deque<String> waitlist = Queues.newArrayDeque();
+    waitlist.push(entryStateNodeId);
+    nodes.add(entryStateNodeId);
+    while (!waitlist.isEmpty()) {
+      String source = waitlist.pop();
+      expandedNodes.add(source);
+      for (Edge edge : witness.getLeavingEdges().get(source)) {
+        pUsedKeys.addAll(edge.getLabel().getMapping().keySet());
+        if (nodes.add(edge.getTarget()) && !hasFalseInvariant(witness, edge.getTarget())) {
+          waitlist.push(edge.getTarget());
+        }
+      }
+    }
+    return expandedNodes;
+  }
+
+  private static boolean hasFalseInvariant(Witness witness, String pStateId) {
+    return witness.getInvariantExportStates().contains(pStateId)
+        && ExpressionTrees.getFalse().equals(witness.getStateInvariant(pStateId));
+  }
+
+  /**
+   * Compute the data of a node like {@link #createNewNode(GraphMlBuilder, String, Witness)},
+   * {@link #addInvariantsData(GraphMlBuilder, Element, String, Witness)}, and {@link
+   * #createNewEdge(GraphMlBuilder, Edge, Element)} together do.
+   */
+  private static List<Map.Entry<KeyDef, String>> getNodeData(
+      String pStateId, Witness witness, Set<String> pExpandedNodes) {
+    List<Map.Entry<KeyDef, String>> result = new ArrayList<>();
+    if (witness.getWitnessOptions().exportNodeLabel()) {
+      result.add(Maps.immutableEntry(KeyDef.LABEL, pStateId));
+    }
+    for (NodeFlag f : witness.getNodeFlags().get(pStateId)) {
+      result.add(Maps.immutableEntry(f.key, "true"));
+    }
+    for (Property violation : witness.getViolatedProperties().get(pStateId)) {
+      result.add(Maps.immutableEntry(KeyDef.VIOLATEDPROPERTY, violation.toString()));
+    }
+    if (witness.hasQuasiInvariant(pStateId)) {
+      result.add(
+          Maps.immutableEntry(KeyDef.INVARIANT, witness.getQuasiInvariant(pStateId).toString()));
+    }
+
+    if (witness.getInvariantExportStates().contains(pStateId)) {
+      ExpressionTree<Object> tree = witness.getStateInvariant(pStateId);
+      if (!tree.equals(ExpressionTrees.getTrue())) {
+        result.add(Maps.immutableEntry(KeyDef.INVARIANT, tree.toString()));
+        String scope = witness.getStateScopes().get(pStateId);
+        if (!isNullOrEmpty(scope) && !tree.equals(ExpressionTrees.getFalse())) {
+          result.add(Maps.immutableEntry(KeyDef.INVARIANTSCOPE, scope));
+        }
+      }
+    }
+
+    for (Edge edge : witness.getEnteringEdges().get(pStateId)) {
+      if (pExpandedNodes.contains(edge.getSource())) {
+        result.addAll(getDataOfEdge(edge, ElementType.NODE));
+      }
+    }
+    return result;
+  }
+
+  private static List<Map.Entry<KeyDef, String>> getDataOfEdge(Edge pEdge, ElementType pType) {
+    List<Map.Entry<KeyDef, String>> result = new ArrayList<>();
+    for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
+      if (entry.getKey().keyFor.equals(pType)) {
+        result.add(entry);
+      }
+    }
+    return result;
+  }
+
   private static Element createNewNode(
       GraphMlBuilder pDoc, String pEntryStateNodeId, Witness witness) {
     Element result = pDoc.createNodeElement(pEntryStateNodeId, NodeType.ONPATH);
@@ -403,6 +403,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       this.functionName = pFunctionName;
     }
 
+    String getFunctionName() {
+      return functionName;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       CFAEdge edge = pArgs.getCfaEdge();
@@ -732,6 +736,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       successorNodeNumber = pSuccessorNodeNumber;
     }
 
+    int getPredecessorNodeNumber() {
+      return predecessorNodeNumber;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       if (predecessorNodeNumber == pArgs.getCfaEdge().getPredecessor().getNodeNumber()
@@ -834,6 +842,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       matchPositiveCase = pMatchPositiveCase;
     }
 
+    boolean matchesPositiveCase() {
+      return matchPositiveCase;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       CFAEdge edge = pArgs.getCfaEdge();
@@ -1048,6 +1060,14 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
           .anyMatch(matchDescriptor);
     }
 
+    FunctionEntryNode getMainEntry() {
+      return mainEntry;
+    }
+
+    java.util.function.Predicate<FileLocation> getDescriptor() {
+      return matchDescriptor;
+    }
+
     @Override
     public String toString() {
       return "MATCH " + matchDescriptor;
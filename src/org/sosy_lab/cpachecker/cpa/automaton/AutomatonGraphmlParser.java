@@ -30,6 +30,9 @@ import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Maps;
@@ -50,7 +53,6 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -65,11 +67,13 @@ import java.util.logging.Level;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -115,11 +119,6 @@ import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
 import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
 import org.sosy_lab.cpachecker.util.expressions.ToCExpressionVisitor;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -1044,10 +1043,10 @@ public class AutomatonGraphmlParser {
     WitnessType graphType = getWitnessType(docDat.getGraph());
 
     // Extract the information on the automaton ----
-    Node nameAttribute = docDat.getGraph().getAttributes().getNamedItem("name");
+    String nameAttribute = docDat.getGraph().getAttribute("name");
     String automatonName = WITNESS_AUTOMATON_NAME;
     if (nameAttribute != null) {
-      automatonName += "_" + nameAttribute.getTextContent();
+      automatonName += "_" + nameAttribute;
     }
 
     Map<String, GraphMLState> states = new LinkedHashMap<>();
@@ -1055,7 +1054,7 @@ public class AutomatonGraphmlParser {
     Multimap<GraphMLState, GraphMLTransition> leavingTransitions = LinkedHashMultimap.create();
     NumericIdProvider numericIdProvider = NumericIdProvider.create();
     Set<GraphMLState> entryStates = new LinkedHashSet<>();
-    for (Node transition : docDat.getTransitions()) {
+    for (GraphMLElement transition : docDat.getTransitions()) {
       collectEdgeData(
           docDat,
           states,
@@ -1111,22 +1110,10 @@ public class AutomatonGraphmlParser {
 
   private GraphMLDocumentData parseXML(InputStream pInputStream)
       throws WitnessParseException, IOException {
-
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    return new GraphMLDocumentData(doc);
+    return GraphMLDocumentData.parse(pInputStream);
   }
 
-  private void checkFields(Node graphNode) throws IOException, WitnessParseException {
+  private void checkFields(GraphMLElement graphNode) throws IOException, WitnessParseException {
 
     checkHashSum(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.PROGRAMHASH));
     checkArchitecture(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.ARCHITECTURE));
@@ -1164,7 +1151,7 @@ public class AutomatonGraphmlParser {
     return functionExitMatcher;
   }
 
-  private static boolean entersLoopHead(Node pTransition) throws WitnessParseException {
+  private static boolean entersLoopHead(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> loopHeadFlags =
         GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENTERLOOPHEAD);
     if (!loopHeadFlags.isEmpty()) {
@@ -1211,7 +1198,7 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which line numbers to assume.
    * @return a predicate to match file locations based on the line numbers specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(Node pTransition)
+  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(GraphMLElement pTransition)
       throws WitnessParseException {
     Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
     checkParsable(
@@ -1265,7 +1252,7 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which character offset to assume.
    * @return a predicate to match file locations based on the offsets specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(Node pTransition) throws WitnessParseException {
+  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
@@ -1319,7 +1306,7 @@ public class AutomatonGraphmlParser {
    * @return an automaton-transition condition for specific branches of an assumption corresponding
    *     to the control case specified by the given transition.
    */
-  private static AutomatonBoolExpr getAssumeCaseMatcher(Node pTransition) throws WitnessParseException {
+  private static AutomatonBoolExpr getAssumeCaseMatcher(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> assumeCaseTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.CONTROLCASE);
 
     if (!assumeCaseTags.isEmpty()) {
@@ -1350,7 +1337,7 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> getThread(
-      Node pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
     return parseThreadId(pTransition, pNumericIdProvider, KeyDef.THREADID, "At most one threadId tag must be provided for each transition.");
   }
 
@@ -1366,7 +1353,7 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> parseThreadId(
-      Node pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
       throws WitnessParseException {
     Set<String> threadIdTags = GraphMLDocumentData.getDataOnNode(pTransition, pKey);
 
@@ -1412,7 +1399,7 @@ public class AutomatonGraphmlParser {
       Multimap<GraphMLState, GraphMLTransition> pLeavingEdges,
       Multimap<GraphMLState, GraphMLTransition> pEnteringEdges,
       NumericIdProvider pNumericThreadIdProvider,
-      Node pTransition)
+      GraphMLElement pTransition)
       throws WitnessParseException {
     String sourceStateId =
         GraphMLDocumentData.getAttributeValue(
@@ -1460,14 +1447,14 @@ public class AutomatonGraphmlParser {
     pLeavingEdges.put(source, transition);
     pEnteringEdges.put(target, transition);
 
-    Element sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
+    GraphMLElement sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
     if (sourceStateNode == null) {
       throw new WitnessParseException(
           String.format(
               "Source %s of transition %s does not exist.",
               sourceStateId, transitionToString(pTransition)));
     }
-    Element targetStateNode = pDocDat.getNodeWithId(targetStateId);
+    GraphMLElement targetStateNode = pDocDat.getNodeWithId(targetStateId);
     if (targetStateNode == null) {
       throw new WitnessParseException(
           String.format(
@@ -1503,14 +1490,14 @@ public class AutomatonGraphmlParser {
       GraphMLDocumentData pDocDat,
       Map<String, GraphMLState> pStates,
       String pStateId,
-      Optional<Node> pReference)
+      Optional<GraphMLElement> pReference)
       throws WitnessParseException {
     GraphMLState result = pStates.get(pStateId);
     if (result != null) {
       return result;
     }
 
-    Element stateNode = pDocDat.getNodeWithId(pStateId);
+    GraphMLElement stateNode = pDocDat.getNodeWithId(pStateId);
     if (stateNode == null) {
       final String message;
       if (pReference.isPresent()) {
@@ -1532,14 +1519,14 @@ public class AutomatonGraphmlParser {
         pStateId,
         candidates,
         candidateScope,
-        pDocDat.getNodeFlags(stateNode));
+        GraphMLDocumentData.getNodeFlags(stateNode));
 
     pStates.put(pStateId, result);
 
     return result;
   }
 
-  private static Optional<String> parseSingleDataValue(Node pEdge,
+  private static Optional<String> parseSingleDataValue(GraphMLElement pEdge,
       KeyDef pKey,
       String pErrorMessage) throws WitnessParseException {
     Set<String> values =
@@ -1555,7 +1542,7 @@ public class AutomatonGraphmlParser {
    * @param pAutomaton the GraphML graph node representing the witness automaton.
    * @return the witness-automaton type of an automaton represented as a GraphML graph.
    */
-  private WitnessType getWitnessType(Node pAutomaton) throws WitnessParseException {
+  private WitnessType getWitnessType(GraphMLElement pAutomaton) throws WitnessParseException {
     Set<String> witnessTypeText =
         GraphMLDocumentData.getDataOnNode(pAutomaton, KeyDef.WITNESS_TYPE);
     final WitnessType witnessType;
@@ -1579,26 +1566,24 @@ public class AutomatonGraphmlParser {
     return witnessType;
   }
 
-  private static String transitionToString(Node pTransition) {
+  private static String transitionToString(GraphMLElement pTransition) {
     if (pTransition == null) {
       return "null";
     }
-    NamedNodeMap attributes = pTransition.getAttributes();
-    if (attributes != null) {
-      Node id = attributes.getNamedItem("id");
-      if (id != null) {
-        return id.getNodeValue();
-      }
+    String id = pTransition.getAttribute("id");
+    if (id != null) {
+      return id;
     }
     return pTransition.toString();
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey)
       throws WitnessParseException {
     checkRequiredField(pGraphNode, pKey, false);
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
+  private static void checkRequiredField(
+      GraphMLElement pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
       throws WitnessParseException {
     Iterable<String> data = GraphMLDocumentData.getDataOnNode(pGraphNode, pKey);
     if (Iterables.isEmpty(data)) {
@@ -1951,98 +1936,126 @@ public class AutomatonGraphmlParser {
 
   }
 
-  private static class GraphMLDocumentData {
+  /**
+   * A GraphML element (graph, node, or edge) with its attributes and the values of its data
+   * children. We do not keep a DOM tree of the witness because it needs a lot of memory for large
+   * witnesses, and we store attributes and data in flat arrays for the same reason.
+   */
+  private static final class GraphMLElement {
 
-    private final Node graph;
+    private final GraphMLTag tag;
 
-    private final ImmutableMap<String, Element> idToNodeMap;
+    // alternating names and values
+    private final String[] attributes;
 
-    private final Iterable<Node> transitions;
+    // alternating keys and values, in document order
+    private final String[] data;
 
-    public GraphMLDocumentData(Document pDocument) throws WitnessParseException {
+    private GraphMLElement(GraphMLTag pTag, String[] pAttributes, String[] pData) {
+      tag = pTag;
+      attributes = pAttributes;
+      data = pData;
+    }
 
-      NodeList graphs = pDocument.getElementsByTagName(GraphMLTag.GRAPH.toString());
-      checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-      graph = Objects.requireNonNull(graphs.item(0));
+    @Nullable String getAttribute(String pName) {
+      for (int i = 0; i < attributes.length; i += 2) {
+        if (attributes[i].equals(pName)) {
+          return attributes[i + 1];
+        }
+      }
+      return null;
+    }
 
-      ImmutableMap.Builder<String, Element> idToNodeMapBuilder = ImmutableMap.builder();
-      NodeList nodes = pDocument.getElementsByTagName(GraphMLTag.NODE.toString());
-      for (Node stateNode : asIterable(nodes)) {
-        String stateId = getAttributeValue(stateNode, "id", "Every state needs an ID!");
-        idToNodeMapBuilder.put(stateId, (Element) stateNode);
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("<").append(tag);
+      for (int i = 0; i < attributes.length; i += 2) {
+        sb.append(' ').append(attributes[i]).append("=\"").append(attributes[i + 1]).append('"');
       }
-      idToNodeMap = idToNodeMapBuilder.build();
+      return sb.append('>').toString();
+    }
+  }
+
+  private static class GraphMLDocumentData {
+
+    private final GraphMLElement graph;
+
+    private final ImmutableMap<String, GraphMLElement> idToNodeMap;
+
+    private final ImmutableList<GraphMLElement> transitions;
 
-      transitions = asIterable(pDocument.getElementsByTagName(GraphMLTag.EDGE.toString()));
+    private GraphMLDocumentData(
+        GraphMLElement pGraph,
+        ImmutableMap<String, GraphMLElement> pIdToNodeMap,
+        ImmutableList<GraphMLElement> pTransitions) {
+      graph = pGraph;
+      idToNodeMap = pIdToNodeMap;
+      transitions = pTransitions;
     }
 
-    public Node getGraph() {
+    /**
+     * Parse a GraphML document with a StAX parser, i.e., without building a DOM tree, and create
+     * an index of its nodes.
+     */
+    static GraphMLDocumentData parse(InputStream pInputStream)
+        throws WitnessParseException, IOException {
+      Parser parser = new Parser(pInputStream, null);
+      return new GraphMLDocumentData(
+          parser.graph, parser.idToNodeMap.build(), parser.transitions.build());
+    }
+
+    /**
+     * Parse only the graph element and its data of a GraphML document. GraphML documents (and in
+     * particular all witnesses that are produced by CPAchecker) usually contain the graph data
+     * first, so reading stops at the first node or edge if the given key was already seen.
+     * Otherwise, the rest of the document is scanned for graph data, skipping nodes and edges.
+     */
+    static GraphMLElement parseGraphData(InputStream pInputStream, KeyDef pRequiredKey)
+        throws WitnessParseException, IOException {
+      return new Parser(pInputStream, pRequiredKey).graph;
+    }
+
+    public GraphMLElement getGraph() {
       return graph;
     }
 
-    public Iterable<Node> getTransitions() {
+    public Iterable<GraphMLElement> getTransitions() {
       return transitions;
     }
 
-    public EnumSet<NodeFlag> getNodeFlags(Element pStateNode) {
+    public static EnumSet<NodeFlag> getNodeFlags(GraphMLElement pStateNode) {
       EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
-
-      NodeList dataChilds = pStateNode.getElementsByTagName(GraphMLTag.DATA.toString());
-
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String key = attribute.getTextContent();
-        NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
+      for (int i = 0; i < pStateNode.data.length; i += 2) {
+        NodeFlag flag = NodeFlag.getNodeFlagByKey(pStateNode.data[i]);
         if (flag != null) {
           result.add(flag);
         }
       }
-
       return result;
     }
 
-    private static String getAttributeValue(Node of, String attributeName, String exceptionMessage)
+    private static String getAttributeValue(
+        GraphMLElement of, String attributeName, String exceptionMessage)
         throws WitnessParseException {
-      Node attribute = of.getAttributes().getNamedItem(attributeName);
+      String attribute = of.getAttribute(attributeName);
       if (attribute == null) {
         throw new WitnessParseException(exceptionMessage);
       }
-      return attribute.getTextContent();
+      return attribute;
     }
 
-    private @Nullable Element getNodeWithId(String nodeId) {
-      Element result = idToNodeMap.get(nodeId);
-      if (result == null
-          || !result.getTagName().equals(GraphMLTag.NODE.toString())) {
-        return null;
-      }
-      return result;
+    private @Nullable GraphMLElement getNodeWithId(String nodeId) {
+      return idToNodeMap.get(nodeId);
     }
 
-    private static Set<String> getDataOnNode(Node node, final KeyDef dataKey) {
+    private static Set<String> getDataOnNode(GraphMLElement node, final KeyDef dataKey) {
       Preconditions.checkNotNull(node);
-      Preconditions.checkArgument(node.getNodeType() == Node.ELEMENT_NODE);
-
-      Set<Node> dataNodes = findKeyedDataNode((Element) node, dataKey);
-
       Set<String> result = new LinkedHashSet<>();
-      for (Node n: dataNodes) {
-        result.add(n.getTextContent());
-      }
-      return result;
-    }
-
-    private static Set<Node> findKeyedDataNode(Element of, final KeyDef dataKey) {
-      Set<Node> result = new LinkedHashSet<>();
-      Set<Node> alternative = null;
-      NodeList dataChilds = of.getElementsByTagName(GraphMLTag.DATA.toString());
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String nodeKey = attribute.getTextContent();
+      String alternative = null;
+      for (int i = 0; i < node.data.length; i += 2) {
+        String nodeKey = node.data[i];
         if (nodeKey.equals(dataKey.id)) {
-          result.add(dataChild);
+          result.add(node.data[i + 1]);
           alternative = null;
         }
         // Backwards-compatibility: type/graph-type
@@ -2050,16 +2063,163 @@ public class AutomatonGraphmlParser {
             && result.isEmpty()
             && dataKey.equals(KeyDef.WITNESS_TYPE)
             && nodeKey.equals("type")) {
-          alternative = new LinkedHashSet<>();
-          alternative.add(dataChild);
+          alternative = node.data[i + 1];
         }
       }
       if (result.isEmpty() && alternative != null) {
-        return alternative;
+        return ImmutableSet.of(alternative);
       }
       return result;
     }
 
+    /** Single-use StAX-based reader for GraphML documents. */
+    private static class Parser {
+
+      private final boolean onlyGraphData;
+
+      /** If only graph data is read, the key that is needed for stopping at the first node. */
+      private final @Nullable KeyDef requiredGraphKey;
+
+      // Witnesses contain the same strings (keys, line numbers, node ids, etc.) many times.
+      private final Interner<String> strings = Interners.newStrongInterner();
+
+      private @Nullable GraphMLElement graph = null;
+      private final ImmutableMap.Builder<String, GraphMLElement> idToNodeMap =
+          ImmutableMap.builder();
+      private final Set<String> nodeIds = new HashSet<>();
+      private final ImmutableList.Builder<GraphMLElement> transitions = ImmutableList.builder();
+
+      // state while parsing
+      private @Nullable GraphMLTag graphTag = null;
+      private @Nullable GraphMLTag elementTag = null;
+      private final List<String> graphAttributes = new ArrayList<>();
+      private final List<String> graphData = new ArrayList<>();
+      private final List<String> elementAttributes = new ArrayList<>();
+      private final List<String> elementData = new ArrayList<>();
+
+      private Parser(InputStream pInputStream, @Nullable KeyDef pRequiredGraphKey)
+          throws WitnessParseException, IOException {
+        onlyGraphData = pRequiredGraphKey != null;
+        requiredGraphKey = pRequiredGraphKey;
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+          XMLStreamReader reader = factory.createXMLStreamReader(pInputStream);
+          try {
+            parse(reader);
+          } finally {
+            reader.close();
+          }
+        } catch (XMLStreamException e) {
+          if (e.getNestedException() instanceof IOException) {
+            throw (IOException) e.getNestedException();
+          }
+          throw new WitnessParseException(e);
+        }
+        checkParsable(graph != null, TOO_MANY_GRAPHS_ERROR_MESSAGE);
+      }
+
+      private void parse(XMLStreamReader reader) throws XMLStreamException, WitnessParseException {
+        while (reader.hasNext()) {
+          switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+              String startName = reader.getLocalName();
+              if (startName.equals(GraphMLTag.GRAPH.toString())) {
+                checkParsable(
+                    graph == null && graphTag == null, TOO_MANY_GRAPHS_ERROR_MESSAGE);
+                graphTag = GraphMLTag.GRAPH;
+                readAttributes(reader, graphAttributes);
+
+              } else if (startName.equals(GraphMLTag.NODE.toString())
+                  || startName.equals(GraphMLTag.EDGE.toString())) {
+                if (onlyGraphData && graphTag != null && hasRequiredGraphData()) {
+                  graph = createElement(graphTag, graphAttributes, graphData);
+                  return;
+                }
+                elementTag =
+                    startName.equals(GraphMLTag.NODE.toString())
+                        ? GraphMLTag.NODE
+                        : GraphMLTag.EDGE;
+                if (!onlyGraphData) {
+                  readAttributes(reader, elementAttributes);
+                }
+
+              } else if (startName.equals(GraphMLTag.DATA.toString())) {
+                String key = reader.getAttributeValue(null, "key");
+                checkParsable(key != null, "Every data element must have a key attribute!");
+                String value = reader.getElementText();
+                final List<String> data;
+                if (elementTag != null) {
+                  data = onlyGraphData ? null : elementData;
+                } else {
+                  data = graphTag != null ? graphData : null;
+                }
+                if (data != null) {
+                  data.add(strings.intern(key));
+                  data.add(strings.intern(value));
+                }
+              }
+              break;
+
+            case XMLStreamConstants.END_ELEMENT:
+              String endName = reader.getLocalName();
+              if (endName.equals(GraphMLTag.GRAPH.toString()) && graphTag != null) {
+                graph = createElement(graphTag, graphAttributes, graphData);
+                graphTag = null;
+                if (onlyGraphData) {
+                  return;
+                }
+
+              } else if (elementTag != null
+                  && endName.equals(elementTag.toString())
+                  && onlyGraphData) {
+                // graph data may follow, but nodes and edges are not needed
+                elementTag = null;
+
+              } else if (elementTag != null && endName.equals(elementTag.toString())) {
+                GraphMLElement element = createElement(elementTag, elementAttributes, elementData);
+                if (elementTag == GraphMLTag.NODE) {
+                  String stateId =
+                      getAttributeValue(element, "id", "Every state needs an ID!");
+                  checkParsable(nodeIds.add(stateId), "Duplicate state ID " + stateId);
+                  idToNodeMap.put(stateId, element);
+                } else {
+                  transitions.add(element);
+                }
+                elementTag = null;
+              }
+              break;
+
+            default:
+              break;
+          }
+        }
+      }
+
+      private boolean hasRequiredGraphData() {
+        GraphMLElement partialGraph =
+            new GraphMLElement(GraphMLTag.GRAPH, new String[0], graphData.toArray(new String[0]));
+        return !getDataOnNode(partialGraph, requiredGraphKey).isEmpty();
+      }
+
+      private void readAttributes(XMLStreamReader reader, List<String> pAttributes) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+          pAttributes.add(strings.intern(reader.getAttributeLocalName(i)));
+          pAttributes.add(strings.intern(reader.getAttributeValue(i)));
+        }
+      }
+
+      private static GraphMLElement createElement(
+          GraphMLTag pTag, List<String> pAttributes, List<String> pData) {
+        GraphMLElement result =
+            new GraphMLElement(
+                pTag, pAttributes.toArray(new String[0]), pData.toArray(new String[0]));
+        pAttributes.clear();
+        pData.clear();
+        return result;
+      }
+    }
   }
 
   public static boolean isGraphmlAutomatonFromConfiguration(Path pPath)
@@ -2111,20 +2271,9 @@ public class AutomatonGraphmlParser {
 
   private static AutomatonGraphmlCommon.WitnessType getWitnessType(InputStream pInputStream)
       throws InvalidConfigurationException, IOException {
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    // (The one) root node of the graph ----
-    NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
-    checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-    Node graphNode = graphs.item(0);
+    // (The one) root node of the graph, we do not need nodes and edges ----
+    GraphMLElement graphNode =
+        GraphMLDocumentData.parseGraphData(pInputStream, KeyDef.WITNESS_TYPE);
 
     checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
 
@@ -2236,34 +2385,4 @@ public class AutomatonGraphmlParser {
       throw pExceptionHandler.apply(e);
     }
   }
-
-
-  /** return a nice {@link Iterable} wrapping the interface {@link NodeList}. */
-  private static Iterable<Node> asIterable(final NodeList pNodeList) {
-    return new Iterable<>() {
-
-      private Integer length = null;
-
-      @Override
-      public Iterator<Node> iterator() {
-        return new Iterator<>() {
-
-          private int index = 0;
-
-          @Override
-          public boolean hasNext() {
-            if (length == null) {
-              length = pNodeList.getLength();
-            }
-            return index < length;
-          }
-
-          @Override
-          public Node next() {
-            return pNodeList.item(index++);
-          }
-        };
-      }
-    };
-  }
 }
@@ -60,6 +60,7 @@ import org.sosy_lab.cpachecker.cpa.threading.ThreadingState;
 import org.sosy_lab.cpachecker.cpa.threading.ThreadingTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatIntHist;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
@@ -79,6 +80,7 @@ public class AutomatonTransferRelation implements TransferRelation {
   private final TimerWrapper actionTime;
   private final TimerWrapper totalStrengthenTime;
   private final StatIntHist automatonSuccessors;
+  private final StatInt transitionCandidates;
 
   public AutomatonTransferRelation(
       ControlAutomatonCPA pCpa,
@@ -95,6 +97,7 @@ public class AutomatonTransferRelation implements TransferRelation {
     actionTime = pStats.actionTime.getNewTimer();
     totalStrengthenTime = pStats.totalStrengthenTime.getNewTimer();
     automatonSuccessors = pStats.automatonSuccessors;
+    transitionCandidates = pStats.transitionCandidates;
   }
 
   @Override
@@ -181,9 +184,17 @@ public class AutomatonTransferRelation implements TransferRelation {
     ImmutableSet.Builder<AutomatonState> lSuccessors = ImmutableSet.builderWithExpectedSize(2);
     AutomatonExpressionArguments exprArgs = new AutomatonExpressionArguments(state, state.getVars(), otherElements, edge, logger);
     boolean edgeMatched = false;
-    int failedMatches = 0;
     boolean nonDetState = state.getInternalState().isNonDetState();
 
+    List<AutomatonTransition> transitions = state.getInternalState().getTransitions();
+    AutomatonTransitionIndex transitionIndex = cpa.getTransitionIndex();
+    if (transitionIndex != null) {
+      transitions = transitionIndex.getCandidateTransitions(state.getInternalState(), edge);
+      transitionCandidates.setNextValue(transitions.size());
+    }
+    // transitions that are not candidates would not have matched
+    int failedMatches = state.getInternalState().getTransitions().size() - transitions.size();
+
     // these transitions cannot be evaluated until last, because they might have sideeffects on
     // other CPAs (dont want to execute them twice)
     // the transitionVariables have to be cached (produced during the match operation)
@@ -191,7 +202,7 @@ public class AutomatonTransferRelation implements TransferRelation {
     List<Pair<AutomatonTransition, Map<Integer, AAstNode>>> transitionsToBeTaken =
         new ArrayList<>(2);
 
-    for (AutomatonTransition t : state.getInternalState().getTransitions()) {
+    for (AutomatonTransition t : transitions) {
       exprArgs.clearTransitionVariables();
 
       matchTime.start();
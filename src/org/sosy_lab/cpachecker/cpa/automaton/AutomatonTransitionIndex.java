@@ -0,0 +1,337 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.LineMatcher;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
+
+/**
+ * Dispatch tables for the outgoing transitions of the states of an automaton, such that for a
+ * given CFA edge only those transitions need to be matched that can match the edge at all.
+ *
+ * <p>For each transition, the trigger is analyzed once for a necessary condition on the CFA edge
+ * (the predecessor node, the source lines, the function of the successor node, or the type of the
+ * edge), and the transition is put into the table of the respective keys. Transitions without
+ * such a condition are always candidates. Skipping a transition is safe because its trigger would
+ * have evaluated to false for the edge (both {@link AutomatonBoolExpr.And} and {@link
+ * AutomatonBoolExpr.Or} evaluate to false if the respective operands are false, even if the other
+ * operand cannot be evaluated). The candidates are returned in the original order of the
+ * transitions, such that the result of the transfer relation does not change.
+ */
+final class AutomatonTransitionIndex {
+
+  /** Line ranges longer than this are not indexed (for triggers) or not looked up (for edges). */
+  private static final int MAX_LINE_RANGE = 64;
+
+  /** Kinds of keys, in the order of their preference (more selective kinds first). */
+  private enum KeyType {
+    NODE,
+    ORIGIN_LINE,
+    LINE,
+    FUNCTION,
+    EDGE_TYPE,
+  }
+
+  private static final class Key {
+
+    private final KeyType type;
+    private final Object value;
+
+    private Key(KeyType pType, Object pValue) {
+      type = pType;
+      value = pValue;
+    }
+
+    private boolean isLine() {
+      return type == KeyType.ORIGIN_LINE || type == KeyType.LINE;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) pObj;
+      return type == other.type && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, value);
+    }
+
+    @Override
+    public String toString() {
+      return type + " " + value;
+    }
+  }
+
+  /** The dispatch tables of a single automaton state. */
+  private static final class StateIndex {
+
+    private final ImmutableList<AutomatonTransition> transitions;
+    private final ImmutableMap<Key, int[]> table;
+    private final int[] unindexed;
+
+    /** transitions in the table with line keys, used for edges with too many lines */
+    private final int[] lineIndexed;
+
+    private StateIndex(
+        ImmutableList<AutomatonTransition> pTransitions,
+        ImmutableMap<Key, int[]> pTable,
+        int[] pUnindexed,
+        int[] pLineIndexed) {
+      transitions = pTransitions;
+      table = pTable;
+      unindexed = pUnindexed;
+      lineIndexed = pLineIndexed;
+    }
+  }
+
+  private final Map<AutomatonInternalState, StateIndex> index = new IdentityHashMap<>();
+
+  /** main function that is used for computing the file locations of edges */
+  private @Nullable FunctionEntryNode mainEntry = null;
+
+  /**
+   * Create the dispatch tables for all states of the given automaton that have at least the given
+   * number of outgoing transitions.
+   */
+  AutomatonTransitionIndex(Automaton pAutomaton, int pMinTransitions) {
+    for (AutomatonInternalState state : pAutomaton.getStates()) {
+      if (state.getTransitions().size() >= pMinTransitions) {
+        index.put(state, buildStateIndex(state.getTransitions()));
+      }
+    }
+  }
+
+  private StateIndex buildStateIndex(ImmutableList<AutomatonTransition> pTransitions) {
+    Map<Key, List<Integer>> table = new HashMap<>();
+    List<Integer> unindexed = new ArrayList<>();
+    BitSet lineIndexed = new BitSet(pTransitions.size());
+    for (int i = 0; i < pTransitions.size(); i++) {
+      @Nullable Set<Key> keys = getNecessaryKeys(pTransitions.get(i).getTrigger());
+      if (keys == null) {
+        unindexed.add(i);
+      } else {
+        for (Key key : keys) {
+          table.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+          if (key.isLine()) {
+            lineIndexed.set(i);
+          }
+        }
+      }
+    }
+
+    ImmutableMap.Builder<Key, int[]> tableBuilder = ImmutableMap.builder();
+    table.forEach((key, transitions) -> tableBuilder.put(key, Ints.toArray(transitions)));
+    return new StateIndex(
+        pTransitions,
+        tableBuilder.build(),
+        Ints.toArray(unindexed),
+        lineIndexed.stream().toArray());
+  }
+
+  /**
+   * Compute a set of keys such that the given expression evaluates to false for all edges that
+   * have none of these keys.
+   *
+   * @return the keys, or null if no such condition can be derived
+   */
+  private @Nullable Set<Key> getNecessaryKeys(AutomatonBoolExpr pExpr) {
+    if (pExpr == AutomatonBoolExpr.FALSE) {
+      return ImmutableSet.of();
+
+    } else if (pExpr instanceof AutomatonBoolExpr.And) {
+      AutomatonBoolExpr.And and = (AutomatonBoolExpr.And) pExpr;
+      return moreSelective(getNecessaryKeys(and.a), getNecessaryKeys(and.b));
+
+    } else if (pExpr instanceof AutomatonBoolExpr.Or) {
+      // disjunctions of many edges are deeply nested, so collect the keys without recursion
+      Set<Key> keys = new HashSet<>();
+      Deque<AutomatonBoolExpr> disjuncts = new ArrayDeque<>();
+      disjuncts.push(pExpr);
+      while (!disjuncts.isEmpty()) {
+        AutomatonBoolExpr disjunct = disjuncts.pop();
+        if (disjunct instanceof AutomatonBoolExpr.Or) {
+          disjuncts.push(((AutomatonBoolExpr.Or) disjunct).b);
+          disjuncts.push(((AutomatonBoolExpr.Or) disjunct).a);
+        } else {
+          Set<Key> disjunctKeys = getNecessaryKeys(disjunct);
+          if (disjunctKeys == null) {
+            return null;
+          }
+          keys.addAll(disjunctKeys);
+        }
+      }
+      return keys;
+
+    } else if (pExpr instanceof AutomatonBoolExpr.MatchCFAEdgeNodes) {
+      int node = ((AutomatonBoolExpr.MatchCFAEdgeNodes) pExpr).getPredecessorNodeNumber();
+      return ImmutableSet.of(new Key(KeyType.NODE, node));
+
+    } else if (pExpr instanceof AutomatonBoolExpr.MatchLocationDescriptor) {
+      return getNecessaryKeys((AutomatonBoolExpr.MatchLocationDescriptor) pExpr);
+
+    } else if (pExpr instanceof AutomatonBoolExpr.MatchFunctionCall) {
+      String function = ((AutomatonBoolExpr.MatchFunctionCall) pExpr).getFunctionName();
+      return ImmutableSet.of(new Key(KeyType.FUNCTION, function));
+
+    } else if (pExpr == AutomatonBoolExpr.MatchAssumeEdge.INSTANCE
+        || (pExpr instanceof AutomatonBoolExpr.MatchAssumeCase
+            && !((AutomatonBoolExpr.MatchAssumeCase) pExpr).matchesPositiveCase())) {
+      // the positive case may also match edges that are treated as "while (1)"
+      return ImmutableSet.of(new Key(KeyType.EDGE_TYPE, CFAEdgeType.AssumeEdge));
+
+    } else if (pExpr == AutomatonBoolExpr.MatchJavaAssert.INSTANCE) {
+      return ImmutableSet.of(new Key(KeyType.EDGE_TYPE, CFAEdgeType.BlankEdge));
+    }
+    return null;
+  }
+
+  private @Nullable Set<Key> getNecessaryKeys(AutomatonBoolExpr.MatchLocationDescriptor pExpr) {
+    if (!(pExpr.getDescriptor() instanceof LineMatcher)) {
+      return null;
+    }
+    if (mainEntry == null) {
+      mainEntry = pExpr.getMainEntry();
+    } else if (!mainEntry.equals(pExpr.getMainEntry())) {
+      return null;
+    }
+    LineMatcher matcher = (LineMatcher) pExpr.getDescriptor();
+    if (matcher.getEndLineNumber() - matcher.getStartLineNumber() >= MAX_LINE_RANGE) {
+      return null;
+    }
+    KeyType type = matcher.isOrigin() ? KeyType.ORIGIN_LINE : KeyType.LINE;
+    Set<Key> keys = new HashSet<>();
+    for (int line = matcher.getStartLineNumber(); line <= matcher.getEndLineNumber(); line++) {
+      keys.add(new Key(type, line));
+    }
+    return keys;
+  }
+
+  /** Select the more selective condition of two conjuncts. */
+  private static @Nullable Set<Key> moreSelective(
+      @Nullable Set<Key> pKeysA, @Nullable Set<Key> pKeysB) {
+    if (pKeysA == null) {
+      return pKeysB;
+    } else if (pKeysB == null) {
+      return pKeysA;
+    }
+    int typeA = worstKeyType(pKeysA);
+    int typeB = worstKeyType(pKeysB);
+    if (typeA != typeB) {
+      return typeA < typeB ? pKeysA : pKeysB;
+    }
+    return pKeysA.size() <= pKeysB.size() ? pKeysA : pKeysB;
+  }
+
+  private static int worstKeyType(Set<Key> pKeys) {
+    int result = -1;
+    for (Key key : pKeys) {
+      result = Math.max(result, key.type.ordinal());
+    }
+    return result;
+  }
+
+  /**
+   * Return the transitions of the given state that need to be matched against the given edge, in
+   * their original order.
+   */
+  List<AutomatonTransition> getCandidateTransitions(AutomatonInternalState pState, CFAEdge pEdge) {
+    StateIndex stateIndex = index.get(pState);
+    if (stateIndex == null) {
+      return pState.getTransitions();
+    }
+
+    BitSet candidates = new BitSet(stateIndex.transitions.size());
+    addAll(candidates, stateIndex.unindexed);
+    addAll(
+        candidates,
+        stateIndex.table.get(new Key(KeyType.NODE, pEdge.getPredecessor().getNodeNumber())));
+    addAll(
+        candidates,
+        stateIndex.table.get(new Key(KeyType.FUNCTION, pEdge.getSuccessor().getFunctionName())));
+    addAll(candidates, stateIndex.table.get(new Key(KeyType.EDGE_TYPE, pEdge.getEdgeType())));
+    if (stateIndex.lineIndexed.length > 0) {
+      addLineCandidates(candidates, stateIndex, pEdge);
+    }
+
+    if (candidates.cardinality() == stateIndex.transitions.size()) {
+      return stateIndex.transitions;
+    }
+    List<AutomatonTransition> result = new ArrayList<>(candidates.cardinality());
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      result.add(stateIndex.transitions.get(i));
+    }
+    return result;
+  }
+
+  private void addLineCandidates(BitSet pCandidates, StateIndex pStateIndex, CFAEdge pEdge) {
+    for (FileLocation location :
+        AutomatonGraphmlCommon.getFileLocationsFromCfaEdge(pEdge, mainEntry)) {
+      int originStart = location.getStartingLineInOrigin();
+      int originEnd = location.getEndingLineInOrigin();
+      int start = location.getStartingLineNumber();
+      int end = location.getEndingLineNumber();
+      if (originEnd - originStart >= MAX_LINE_RANGE || end - start >= MAX_LINE_RANGE) {
+        addAll(pCandidates, pStateIndex.lineIndexed);
+        return;
+      }
+      for (int line = originStart; line <= originEnd; line++) {
+        addAll(pCandidates, pStateIndex.table.get(new Key(KeyType.ORIGIN_LINE, line)));
+      }
+      for (int line = start; line <= end; line++) {
+        addAll(pCandidates, pStateIndex.table.get(new Key(KeyType.LINE, line)));
+      }
+    }
+  }
+
+  private static void addAll(BitSet pCandidates, int @Nullable [] pTransitions) {
+    if (pTransitions != null) {
+      for (int i : pTransitions) {
+        pCandidates.set(i);
+      }
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+public class AutomatonTransitionIndexTest {
+
+  private static final int EDGES = 20;
+
+  private final List<CFAEdge> edges = new ArrayList<>();
+  private final List<AutomatonTransition> transitions = new ArrayList<>();
+  private AutomatonInternalState state;
+  private Automaton automaton;
+
+  @Before
+  public void setUp() throws Exception {
+    for (int i = 0; i < EDGES; i++) {
+      edges.add(
+          new BlankEdge(
+              "",
+              FileLocation.DUMMY,
+              CFANode.newDummyCFANode("f"),
+              CFANode.newDummyCFANode("f"),
+              "edge " + i));
+    }
+
+    // one transition per edge
+    for (CFAEdge edge : edges) {
+      transitions.add(transition(new AutomatonBoolExpr.MatchCFAEdgeNodes(edge)));
+    }
+    // transitions that are candidates for all edges, for some edges, or for no edge
+    transitions.add(transition(AutomatonBoolExpr.TRUE));
+    transitions.add(
+        transition(
+            new AutomatonBoolExpr.Or(
+                new AutomatonBoolExpr.MatchCFAEdgeNodes(edges.get(3)),
+                new AutomatonBoolExpr.MatchCFAEdgeNodes(edges.get(5)))));
+    transitions.add(
+        transition(
+            new AutomatonBoolExpr.And(
+                new AutomatonBoolExpr.MatchFunctionCall("f"),
+                new AutomatonBoolExpr.Negation(AutomatonBoolExpr.MatchAssumeEdge.INSTANCE))));
+    transitions.add(transition(AutomatonBoolExpr.MatchAssumeEdge.INSTANCE));
+    transitions.add(transition(new AutomatonBoolExpr.MatchFunctionCall("g")));
+
+    state = new AutomatonInternalState("init", transitions, false, true);
+    AutomatonInternalState small =
+        new AutomatonInternalState("small", ImmutableList.of(transitions.get(0)));
+    automaton = new Automaton("test", ImmutableMap.of(), ImmutableList.of(state, small), "init");
+  }
+
+  private static AutomatonTransition transition(AutomatonBoolExpr pTrigger) {
+    return new AutomatonTransition.Builder(pTrigger, AutomatonInternalState.BOTTOM).build();
+  }
+
+  @Test
+  public void candidatesInOriginalOrder() {
+    AutomatonTransitionIndex index = new AutomatonTransitionIndex(automaton, 2);
+
+    assertThat(index.getCandidateTransitions(state, edges.get(0)))
+        .containsExactly(transitions.get(0), transitions.get(EDGES), transitions.get(EDGES + 2))
+        .inOrder();
+    assertThat(index.getCandidateTransitions(state, edges.get(3)))
+        .containsExactly(
+            transitions.get(3),
+            transitions.get(EDGES),
+            transitions.get(EDGES + 1),
+            transitions.get(EDGES + 2))
+        .inOrder();
+  }
+
+  @Test
+  public void smallStatesAreNotIndexed() {
+    AutomatonTransitionIndex index = new AutomatonTransitionIndex(automaton, 2);
+    AutomatonInternalState small = automaton.getStates().get(1);
+    assertThat(index.getCandidateTransitions(small, edges.get(1)))
+        .isSameInstanceAs(small.getTransitions());
+
+    index = new AutomatonTransitionIndex(automaton, transitions.size() + 1);
+    assertThat(index.getCandidateTransitions(state, edges.get(1)))
+        .isSameInstanceAs(state.getTransitions());
+  }
+}
@@ -34,9 +34,11 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -149,12 +151,30 @@ public class ControlAutomatonCPA
   )
   private boolean topOnFinalSelfLoopingState = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Compile the transitions of the automaton states into dispatch tables "
+              + "(by CFA node, source line, function name and edge type), such that only "
+              + "transitions that can match a CFA edge are evaluated for it. "
+              + "This speeds up large automata like witnesses.")
+  private boolean useTransitionIndex = false;
+
+  @Option(
+      secure = true,
+      description =
+          "minimum number of outgoing transitions of an automaton state "
+              + "for which dispatch tables are created")
+  @IntegerOption(min = 1)
+  private int transitionIndexMinSize = 16;
+
   private final Automaton automaton;
   private final AutomatonState topState;
   private final AutomatonState bottomState;
 
   private final AbstractDomain automatonDomain;
   private final AutomatonStatistics stats;
+  private final @Nullable AutomatonTransitionIndex transitionIndex;
   private final CFA cfa;
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
@@ -189,6 +209,10 @@ public class ControlAutomatonCPA
 
     automatonDomain = new FlatLatticeDomain(topState);
     stats = new AutomatonStatistics(automaton);
+    transitionIndex =
+        useTransitionIndex
+            ? new AutomatonTransitionIndex(automaton, transitionIndexMinSize)
+            : null;
 
     if (export) {
       if (dotExportFile != null) {
@@ -321,6 +345,10 @@ public class ControlAutomatonCPA
     return new AutomatonTransferRelation(this, logger, cfa.getMachineModel(), stats);
   }
 
+  @Nullable AutomatonTransitionIndex getTransitionIndex() {
+    return transitionIndex;
+  }
+
   public AutomatonState getBottomState() {
     return this.bottomState;
   }
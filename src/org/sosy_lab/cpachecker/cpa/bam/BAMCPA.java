@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.cpa.bam;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import java.util.Collection;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -42,11 +43,13 @@ import org.sosy_lab.cpachecker.core.defaults.AutomaticCPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMBlockSummaryStore;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheAggressiveImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheImpl;
@@ -66,6 +69,7 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
   private final ProofChecker wrappedProofChecker;
   private final BAMDataManager data;
   private final BAMPCCManager bamPccManager;
+  private final @Nullable BAMBlockSummaryStore summaryStore;
 
   @Option(name = "handleRecursiveProcedures", secure = true,
       description = "BAM allows to analyse recursive procedures. This strongly depends on the underlying CPA. "
@@ -109,6 +113,10 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
     }
     data = new BAMDataManagerImpl(cache, pReachedSetFactory, pLogger);
 
+    // summaries of recursive procedures depend on the fixpoint iteration and cannot be reused
+    summaryStore =
+        handleRecursiveProcedures ? null : BAMBlockSummaryStore.create(config, pLogger);
+
     bamPccManager = new BAMPCCManager(
         wrappedProofChecker,
         config,
@@ -166,6 +174,20 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
     return data;
   }
 
+  /** Returns the persistent store for block summaries, or null if it is disabled. */
+  @Nullable
+  BAMBlockSummaryStore getSummaryStore() {
+    return summaryStore;
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    if (summaryStore != null) {
+      pStatsCollection.add(summaryStore);
+    }
+    super.collectStatistics(pStatsCollection);
+  }
+
   public BAMPCCManager getBamPccManager() {
     return bamPccManager;
   }
@@ -38,8 +38,10 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheConcurrent;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheSynchronized;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerConcurrent;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerSynchronized;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
@@ -56,6 +58,14 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
   )
   private boolean breakForMissingBlock = true;
 
+  @Option(
+    secure = true,
+    description =
+        "use concurrent data structures for the BAM cache and data manager "
+            + "instead of synchronizing all accesses with a single lock"
+  )
+  private boolean useConcurrentCache = false;
+
   private final BAMCache cache;
   private final BAMDataManager data;
 
@@ -71,8 +81,13 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
     super(pCpa, pConfig, pLogger, pShutdownNotifier, pSpecification, pCfa);
     pConfig.inject(this);
 
-    cache = new BAMCacheSynchronized(pConfig, getReducer(), pLogger);
-    data = new BAMDataManagerSynchronized(cache, reachedsetFactory, pLogger);
+    if (useConcurrentCache) {
+      cache = new BAMCacheConcurrent(pConfig, getReducer());
+      data = new BAMDataManagerConcurrent(cache, reachedsetFactory, pLogger);
+    } else {
+      cache = new BAMCacheSynchronized(pConfig, getReducer(), pLogger);
+      data = new BAMDataManagerSynchronized(cache, reachedsetFactory, pLogger);
+    }
   }
 
   @Override
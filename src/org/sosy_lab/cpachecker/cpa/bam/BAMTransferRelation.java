@@ -29,6 +29,7 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.isTargetState;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
@@ -50,6 +51,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperTransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMBlockSummaryStore;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackTransferRelation;
@@ -74,6 +76,8 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
 
   private final boolean searchTargetStatesOnExit;
 
+  private final @Nullable BAMBlockSummaryStore summaryStore;
+
   public BAMTransferRelation(
       BAMCPA bamCpa,
       ShutdownNotifier pShutdownNotifier,
@@ -89,6 +93,7 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
     bamPccManager = pBamPccManager;
     stats = bamCpa.getStatistics();
     searchTargetStatesOnExit = pSearchTargetStatesOnExit;
+    summaryStore = bamCpa.getSummaryStore();
   }
 
   @Override
@@ -317,7 +322,15 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
           Level.FINEST,
           "Cache miss: starting recursive CPAAlgorithm with new initial reached-set.");
       reached = entry.getReachedSet();
-      reducedResult = performCompositeAnalysisWithCPAAlgorithm(reached, innerSubtree);
+      @Nullable
+      final Set<AbstractState> storedResult =
+          loadStoredSummary(reached, reducedInitialState, reducedInitialPrecision, innerSubtree);
+      if (storedResult != null) {
+        reducedResult = storedResult;
+      } else {
+        reducedResult = performCompositeAnalysisWithCPAAlgorithm(reached, innerSubtree);
+        storeSummary(reached, reducedResult, innerSubtree);
+      }
       assert reducedResult != null;
       statesForFurtherAnalysis = filterResultStatesForFurtherAnalysis(reducedResult, null);
 
@@ -370,6 +383,55 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
     return Pair.of(statesForFurtherAnalysis, reached);
   }
 
+  /**
+   * Rebuild the reached-set of a block from a summary of a previous run, if available. The reached
+   * set then only consists of the root state and the exit states, the inner ARG of the block is
+   * not known.
+   *
+   * @return the exit states of the block, or null if there is no stored summary.
+   */
+  private @Nullable Set<AbstractState> loadStoredSummary(
+      final ReachedSet reached,
+      final AbstractState reducedInitialState,
+      final Precision reducedInitialPrecision,
+      final Block innerSubtree) {
+    if (summaryStore == null) {
+      return null;
+    }
+    final List<Pair<AbstractState, Precision>> exitStates =
+        summaryStore.get(innerSubtree, reducedInitialState, reducedInitialPrecision);
+    if (exitStates == null) {
+      return null;
+    }
+    logger.log(Level.FINEST, "Reusing stored summary for block", innerSubtree);
+    final ARGState root = (ARGState) reached.getFirstState();
+    reached.removeOnlyFromWaitlist(root);
+    final Set<AbstractState> returnStates = new LinkedHashSet<>();
+    for (Pair<AbstractState, Precision> exitState : exitStates) {
+      final ARGState argExitState = new ARGState(exitState.getFirst(), root);
+      reached.add(argExitState, exitState.getSecond());
+      reached.removeOnlyFromWaitlist(argExitState);
+      returnStates.add(argExitState);
+    }
+    return returnStates;
+  }
+
+  /** Store the summary of a completely analyzed block that does not contain target states. */
+  private void storeSummary(
+      final ReachedSet reached, final Set<AbstractState> exitStates, final Block innerSubtree) {
+    if (summaryStore == null
+        || reached.hasWaitingState()
+        || Iterables.any(reached, IS_TARGET_STATE)) {
+      return;
+    }
+    final AbstractState root = reached.getFirstState();
+    final List<Pair<AbstractState, Precision>> exitStatesWithPrecision = new ArrayList<>();
+    for (AbstractState exitState : exitStates) {
+      exitStatesWithPrecision.add(Pair.of(exitState, reached.getPrecision(exitState)));
+    }
+    summaryStore.put(innerSubtree, root, reached.getPrecision(root), exitStatesWithPrecision);
+  }
+
   /**
    * We try to get a smaller set of states for further analysis.
    *
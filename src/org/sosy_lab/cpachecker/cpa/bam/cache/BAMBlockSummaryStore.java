@@ -0,0 +1,522 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.globalinfo.CFANodeReference;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+
+/**
+ * Store for block summaries of BAM that is kept in a file and thus can be reused across runs of
+ * CPAchecker, e.g., for regression verification of a program where most functions are unchanged.
+ *
+ * <p>A summary maps a block, its reduced entry state, and its reduced precision to the reduced exit
+ * states of the block and their precisions. Blocks are identified by a hash of their structure
+ * (functions, edge types, and code of the edges between their nodes) and referenced variables,
+ * nested blocks are included because their nodes are part of the block. The hash does not depend
+ * on node numbers, which change whenever another part of the program changes. States and
+ * precisions are stored with Java serialization (like proofs for PCC), thus only analyses whose
+ * states and precisions are {@link java.io.Serializable} can profit from the store. The streams of
+ * the store replace the {@link CFANodeReference}s in the serialized states by the position of the
+ * node in the block, states that refer to nodes outside the block are not stored.
+ *
+ * <p>A loaded summary does not contain the inner ARG of the block. Thus only summaries without
+ * target states are stored, and the store is disabled if refinement, counterexample checks, or
+ * proof generation is configured, which would need the inner ARG of the blocks.
+ *
+ * <p>File format: {@link #MAGIC}, the format version, and the hash of the configuration, followed
+ * by records of the key hash, the length of the serialized exit states and precisions, and the
+ * serialized exit states and precisions.
+ */
+@Options(prefix = "cpa.bam.summaryStore")
+public final class BAMBlockSummaryStore implements Statistics {
+
+  private static final long MAGIC = 0x4350414253756d6dL; // "CPABSumm"
+  private static final int FORMAT_VERSION = 3;
+  private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+  private static final int HASH_BYTES = HASH_FUNCTION.bits() / Byte.SIZE;
+
+  /** Prefix of options that are not part of the invalidation key. */
+  private static final String OWN_OPTIONS_PREFIX = "cpa.bam.summaryStore.";
+
+  /** Options that need the inner ARG of blocks, which loaded summaries do not have. */
+  private static final ImmutableList<String> OPTIONS_NEEDING_INNER_ARG =
+      ImmutableList.of(
+          "analysis.algorithm.CEGAR",
+          "analysis.checkCounterexamples",
+          "analysis.checkCounterexamplesWithBDDCPARestriction",
+          "pcc.proofgen.doPCC");
+
+  @Option(
+      secure = true,
+      description =
+          "file for storing block summaries of BAM persistently across runs (disabled if not "
+              + "set). The file is read at startup and updated at the end, and it is ignored "
+              + "if the configuration differs. Only summaries without target states are stored. "
+              + "The store is not used together with refinement, counterexample checks, or "
+              + "proof generation.")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path file = null;
+
+  private final LogManager logger;
+  private final HashCode invalidationKey;
+
+  /** Serialized exit states read from the file. */
+  private final Map<HashCode, byte[]> storedSummaries = new HashMap<>();
+
+  /** Serialized exit states computed in this run, in the order in which they were added. */
+  private final Map<HashCode, byte[]> newSummaries = new LinkedHashMap<>();
+
+  /** The nodes of a block in the order that is used for serialization, and the block hash. */
+  private static final class BlockInfo {
+    private final ImmutableList<CFANode> nodes;
+    private final ImmutableMap<Integer, Integer> positions;
+    private final HashCode hash;
+
+    private BlockInfo(
+        ImmutableList<CFANode> pNodes, ImmutableMap<Integer, Integer> pPositions, HashCode pHash) {
+      nodes = pNodes;
+      positions = pPositions;
+      hash = pHash;
+    }
+  }
+
+  /** Serialized reference to a node by its position in the block. */
+  private static final class BlockNodeReference implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final int position;
+
+    private BlockNodeReference(int pPosition) {
+      position = pPosition;
+    }
+  }
+
+  /** Stream that lets states refer to nodes by their position in the block. */
+  private static final class BlockOutputStream extends ObjectOutputStream {
+
+    private final BlockInfo blockInfo;
+
+    private BlockOutputStream(OutputStream pOut, BlockInfo pBlockInfo) throws IOException {
+      super(pOut);
+      blockInfo = pBlockInfo;
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object pObj) throws IOException {
+      if (pObj instanceof CFANodeReference) {
+        Integer position = blockInfo.positions.get(((CFANodeReference) pObj).getNodeNumber());
+        if (position == null) {
+          throw new NotSerializableException("Reference to node outside of block: " + pObj);
+        }
+        return new BlockNodeReference(position);
+      }
+      return pObj;
+    }
+  }
+
+  /** Stream that resolves the positions written by {@link BlockOutputStream}. */
+  private static final class BlockInputStream extends ObjectInputStream {
+
+    private final BlockInfo blockInfo;
+
+    private BlockInputStream(InputStream pIn, BlockInfo pBlockInfo) throws IOException {
+      super(pIn);
+      blockInfo = pBlockInfo;
+      enableResolveObject(true);
+    }
+
+    @Override
+    protected Object resolveObject(Object pObj) throws IOException {
+      if (pObj instanceof BlockNodeReference) {
+        int position = ((BlockNodeReference) pObj).position;
+        if (position < 0 || position >= blockInfo.nodes.size()) {
+          throw new InvalidObjectException("Unknown node position " + position);
+        }
+        return CFANodeReference.of(blockInfo.nodes.get(position));
+      }
+      return pObj;
+    }
+  }
+
+  private final Map<Block, BlockInfo> blockInfos = new HashMap<>();
+
+  /** Whether the existing file content is valid for this run and can be appended to. */
+  private boolean fileIsCompatible = false;
+
+  private final StatCounter loadedSummaries = new StatCounter("Number of summaries read from file");
+  private final StatCounter hits = new StatCounter("Number of reused summaries");
+  private final StatCounter misses = new StatCounter("Number of missing summaries");
+  private final StatCounter unserializable =
+      new StatCounter("Number of non-serializable block entries");
+
+  private BAMBlockSummaryStore(Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    invalidationKey = HASH_FUNCTION.hashString(buildInvalidationKey(pConfig), UTF_8);
+  }
+
+  /**
+   * Create an instance and read the stored summaries if the store is enabled in the configuration,
+   * otherwise return null.
+   */
+  public static @Nullable BAMBlockSummaryStore create(Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    BAMBlockSummaryStore store = new BAMBlockSummaryStore(pConfig, pLogger);
+    if (store.file == null) {
+      return null;
+    }
+    for (String option : OPTIONS_NEEDING_INNER_ARG) {
+      if (Boolean.parseBoolean(Strings.nullToEmpty(pConfig.getProperty(option)).trim())) {
+        pLogger.logf(
+            Level.WARNING,
+            "Block-summary store of BAM is disabled because of option %s, "
+                + "which needs the inner ARG of blocks.",
+            option);
+        return null;
+      }
+    }
+    store.load();
+    return store;
+  }
+
+  private static String buildInvalidationKey(Configuration pConfig) {
+    List<String> options = new ArrayList<>();
+    for (String line : Splitter.on('\n').omitEmptyStrings().split(pConfig.asPropertiesString())) {
+      if (!line.startsWith(OWN_OPTIONS_PREFIX)) {
+        options.add(line.trim());
+      }
+    }
+    options.sort(null);
+    return String.join("\n", options);
+  }
+
+  private BlockInfo getBlockInfo(Block pBlock) {
+    return blockInfos.computeIfAbsent(pBlock, BAMBlockSummaryStore::computeBlockInfo);
+  }
+
+  private static BlockInfo computeBlockInfo(Block pBlock) {
+    // Node numbers are global, but their order within a function does not change
+    // if other functions change, so this order does not depend on the rest of the program.
+    ImmutableList<CFANode> nodes =
+        ImmutableList.sortedCopyOf(
+            Comparator.comparing(CFANode::getFunctionName).thenComparing(Comparator.naturalOrder()),
+            pBlock.getNodes());
+    ImmutableMap.Builder<Integer, Integer> positionsBuilder = ImmutableMap.builder();
+    for (int i = 0; i < nodes.size(); i++) {
+      positionsBuilder.put(nodes.get(i).getNodeNumber(), i);
+    }
+    ImmutableMap<Integer, Integer> positions = positionsBuilder.build();
+
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    for (CFANode node : nodes) {
+      hasher.putString(node.getFunctionName(), UTF_8).putByte((byte) 0);
+      hasher.putBoolean(pBlock.isCallNode(node)).putBoolean(pBlock.isReturnNode(node));
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        CFANode successor = edge.getSuccessor();
+        hasher
+            .putInt(positions.getOrDefault(successor.getNodeNumber(), -1))
+            .putString(successor.getFunctionName(), UTF_8)
+            .putByte((byte) 0)
+            .putString(edge.getEdgeType().name(), UTF_8)
+            .putByte((byte) 0)
+            .putString(edge.getDescription(), UTF_8)
+            .putByte((byte) 0);
+      }
+    }
+    for (String variable : ImmutableList.sortedCopyOf(pBlock.getVariables())) {
+      hasher.putString(variable, UTF_8).putByte((byte) 0);
+    }
+    return new BlockInfo(nodes, positions, hasher.hash());
+  }
+
+  /** Returns the key of a block entry, or null if the entry cannot be serialized. */
+  private @Nullable HashCode computeKey(
+      BlockInfo pBlockInfo, AbstractState pReducedEntryState, Precision pReducedPrecision) {
+    try {
+      return HASH_FUNCTION
+          .newHasher()
+          .putBytes(pBlockInfo.hash.asBytes())
+          .putBytes(
+              serialize(
+                  pBlockInfo,
+                  ImmutableList.of(unwrap(pReducedEntryState)),
+                  ImmutableList.of(pReducedPrecision)))
+          .hash();
+    } catch (IOException e) {
+      // most likely a NotSerializableException, the analysis does not support serialization
+      unserializable.inc();
+      logger.logDebugException(e, "Cannot serialize block entry");
+      return null;
+    }
+  }
+
+  /**
+   * Returns the reduced exit states (without ARG) and their precisions that were stored for the
+   * given block entry, or null if there is no stored summary.
+   */
+  public @Nullable List<Pair<AbstractState, Precision>> get(
+      Block pBlock, AbstractState pReducedEntryState, Precision pReducedPrecision) {
+    BlockInfo blockInfo = getBlockInfo(pBlock);
+    HashCode key = computeKey(blockInfo, pReducedEntryState, pReducedPrecision);
+    if (key == null) {
+      return null;
+    }
+    byte[] summary = newSummaries.get(key);
+    if (summary == null) {
+      summary = storedSummaries.get(key);
+    }
+    if (summary == null) {
+      misses.inc();
+      return null;
+    }
+    try (ObjectInputStream in =
+        new BlockInputStream(new ByteArrayInputStream(summary), blockInfo)) {
+      @SuppressWarnings("unchecked")
+      List<AbstractState> exitStates = (List<AbstractState>) in.readObject();
+      @SuppressWarnings("unchecked")
+      List<Precision> precisions = (List<Precision>) in.readObject();
+      if (exitStates.size() != precisions.size()) {
+        throw new InvalidObjectException("Number of exit states and precisions differs");
+      }
+      List<Pair<AbstractState, Precision>> result = new ArrayList<>(exitStates.size());
+      for (int i = 0; i < exitStates.size(); i++) {
+        result.add(Pair.of(exitStates.get(i), precisions.get(i)));
+      }
+      hits.inc();
+      return result;
+    } catch (IOException
+        | ClassNotFoundException
+        | ClassCastException e) {
+      logger.logDebugException(e, "Cannot read stored block summary");
+      misses.inc();
+      return null;
+    }
+  }
+
+  /** Store the reduced exit states and their precisions of a completely analyzed block entry. */
+  public void put(
+      Block pBlock,
+      AbstractState pReducedEntryState,
+      Precision pReducedPrecision,
+      Collection<Pair<AbstractState, Precision>> pReducedExitStates) {
+    BlockInfo blockInfo = getBlockInfo(pBlock);
+    HashCode key = computeKey(blockInfo, pReducedEntryState, pReducedPrecision);
+    if (key == null || storedSummaries.containsKey(key)) {
+      return;
+    }
+    List<AbstractState> exitStates = new ArrayList<>(pReducedExitStates.size());
+    List<Precision> precisions = new ArrayList<>(pReducedExitStates.size());
+    for (Pair<AbstractState, Precision> exitState : pReducedExitStates) {
+      exitStates.add(unwrap(exitState.getFirst()));
+      precisions.add(exitState.getSecond());
+    }
+    try {
+      newSummaries.put(key, serialize(blockInfo, exitStates, precisions));
+    } catch (IOException e) {
+      unserializable.inc();
+      logger.logDebugException(e, "Cannot serialize block summary");
+    }
+  }
+
+  private static AbstractState unwrap(AbstractState pState) {
+    return pState instanceof ARGState ? ((ARGState) pState).getWrappedState() : pState;
+  }
+
+  /** Serialize the states and precisions, referring to nodes by their position in the block. */
+  private static byte[] serialize(
+      BlockInfo pBlockInfo, List<AbstractState> pStates, List<Precision> pPrecisions)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new BlockOutputStream(bytes, pBlockInfo)) {
+      out.writeObject(pStates);
+      out.writeObject(pPrecisions);
+    }
+    return bytes.toByteArray();
+  }
+
+  private void load() {
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    try (InputStream is = Files.newInputStream(file);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+      byte[] storedKey = new byte[HASH_BYTES];
+      if (in.readLong() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        logger.log(Level.INFO, "Ignoring block-summary store", file, "with unknown format.");
+        return;
+      }
+      in.readFully(storedKey);
+      if (!HashCode.fromBytes(storedKey).equals(invalidationKey)) {
+        logger.log(
+            Level.INFO,
+            "Ignoring block-summary store",
+            file,
+            "because it was created with a different configuration.");
+        return;
+      }
+      fileIsCompatible = true;
+
+      byte[] hash = new byte[HASH_BYTES];
+      while (true) {
+        try {
+          in.readFully(hash);
+        } catch (EOFException e) {
+          break; // regular end of file
+        }
+        byte[] summary = new byte[in.readInt()];
+        in.readFully(summary);
+        storedSummaries.put(HashCode.fromBytes(hash), summary);
+        loadedSummaries.inc();
+      }
+      logger.log(Level.FINE, "Read", storedSummaries.size(), "block summaries from", file);
+
+    } catch (EOFException e) {
+      // a truncated file, e.g., from an aborted run, keep the complete records
+      logger.log(Level.INFO, "Block-summary store", file, "is truncated.");
+      fileIsCompatible = false;
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not read block-summary store");
+      fileIsCompatible = false;
+    }
+  }
+
+  /** Write the summaries of this run to the file (if there are new ones). */
+  void store() {
+    if (newSummaries.isEmpty()) {
+      return;
+    }
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Map<HashCode, byte[]> summaries;
+      StandardOpenOption mode;
+      if (fileIsCompatible) {
+        // common case: just append new summaries
+        summaries = newSummaries;
+        mode = StandardOpenOption.APPEND;
+      } else {
+        summaries = new LinkedHashMap<>(storedSummaries);
+        summaries.putAll(newSummaries);
+        mode = StandardOpenOption.TRUNCATE_EXISTING;
+      }
+      try (OutputStream os = Files.newOutputStream(file, StandardOpenOption.CREATE, mode);
+          DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+        if (!fileIsCompatible) {
+          out.writeLong(MAGIC);
+          out.writeInt(FORMAT_VERSION);
+          out.write(invalidationKey.asBytes());
+        }
+        for (Entry<HashCode, byte[]> entry : summaries.entrySet()) {
+          out.write(entry.getKey().asBytes());
+          out.writeInt(entry.getValue().length);
+          out.write(entry.getValue());
+        }
+      }
+      storedSummaries.putAll(newSummaries);
+      newSummaries.clear();
+      fileIsCompatible = true;
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write block-summary store");
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsUtils.write(pOut, 0, 50, loadedSummaries);
+    StatisticsUtils.write(pOut, 0, 50, hits);
+    StatisticsUtils.write(pOut, 0, 50, misses);
+    StatisticsUtils.write(pOut, 0, 50, unserializable);
+    StatisticsUtils.write(pOut, 0, 50, "Number of new summaries", newSummaries.size());
+  }
+
+  @Override
+  public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
+    store();
+  }
+
+  @Override
+  public String getName() {
+    return "BAM block-summary store";
+  }
+}
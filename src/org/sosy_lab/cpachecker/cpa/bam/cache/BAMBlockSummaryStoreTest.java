@@ -0,0 +1,199 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.util.CFATraversal;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class BAMBlockSummaryStoreTest {
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  private static final String[] PROGRAM = {
+    "int f(int x) {",
+    "  if (x > 0) {",
+    "    return 1;",
+    "  }",
+    "  return 0;",
+    "}",
+    "int main() {",
+    "  return f(1);",
+    "}"
+  };
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final LogManager logger = LogManager.createTestLogManager();
+  private Path file;
+
+  @Before
+  public void setUp() {
+    file = tempFolder.getRoot().toPath().resolve("summaries.bin");
+  }
+
+  private Configuration config(String... pOptions) throws Exception {
+    ConfigurationBuilder builder =
+        TestDataTools.configurationForTest()
+            .setOption("cpa.bam.summaryStore.file", file.toString());
+    for (int i = 0; i < pOptions.length; i += 2) {
+      builder.setOption(pOptions[i], pOptions[i + 1]);
+    }
+    return builder.build();
+  }
+
+  /** A block that consists of function f. */
+  private static Block makeBlock(CFA pCfa) {
+    FunctionEntryNode entry = pCfa.getFunctionHead("f");
+    Set<CFANode> nodes = CFATraversal.dfs().ignoreFunctionCalls().collectNodesReachableFrom(entry);
+    return new Block(
+        ImmutableSet.of(), ImmutableSet.of(entry), ImmutableSet.of(entry.getExitNode()), nodes);
+  }
+
+  /** A serializable state that refers to the entry node of function f. */
+  private static AbstractState makeState(CFA pCfa) {
+    return new CallstackState(null, "f", pCfa.getFunctionHead("f"));
+  }
+
+  private void storeSummary(CFA pCfa) throws Exception {
+    BAMBlockSummaryStore store = BAMBlockSummaryStore.create(config(), logger);
+    assertThat(store).isNotNull();
+    Block block = makeBlock(pCfa);
+    store.put(
+        block,
+        makeState(pCfa),
+        PRECISION,
+        ImmutableList.of(Pair.of(makeState(pCfa), PRECISION)));
+    store.store();
+  }
+
+  @Test
+  public void summaryIsReusedAfterRenumbering() throws Exception {
+    CFA oldCfa = TestDataTools.makeCFA(PROGRAM);
+    storeSummary(oldCfa);
+
+    // parsing the program again creates new node numbers
+    CFA newCfa = TestDataTools.makeCFA(PROGRAM);
+    assertThat(newCfa.getFunctionHead("f").getNodeNumber())
+        .isNotEqualTo(oldCfa.getFunctionHead("f").getNodeNumber());
+    GlobalInfo.getInstance().storeCFA(newCfa);
+
+    BAMBlockSummaryStore store = BAMBlockSummaryStore.create(config(), logger);
+    List<Pair<AbstractState, Precision>> summary =
+        store.get(makeBlock(newCfa), makeState(newCfa), PRECISION);
+
+    assertThat(summary).hasSize(1);
+    CallstackState exitState = (CallstackState) summary.get(0).getFirst();
+    assertThat(exitState.getCallNode()).isSameInstanceAs(newCfa.getFunctionHead("f"));
+    assertThat(summary.get(0).getSecond()).isEqualTo(PRECISION);
+  }
+
+  @Test
+  public void changedBlockIsNotReused() throws Exception {
+    CFA oldCfa = TestDataTools.makeCFA(PROGRAM);
+    storeSummary(oldCfa);
+
+    CFA newCfa =
+        TestDataTools.makeCFA(
+            "int f(int x) {",
+            "  if (x > 1) {",
+            "    return 1;",
+            "  }",
+            "  return 0;",
+            "}",
+            "int main() {",
+            "  return f(1);",
+            "}");
+    GlobalInfo.getInstance().storeCFA(newCfa);
+
+    BAMBlockSummaryStore store = BAMBlockSummaryStore.create(config(), logger);
+    assertThat(store.get(makeBlock(newCfa), makeState(newCfa), PRECISION)).isNull();
+  }
+
+  @Test
+  public void stateOutsideOfBlockIsNotStored() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    GlobalInfo.getInstance().storeCFA(cfa);
+    Block block = makeBlock(cfa);
+    AbstractState outside = new CallstackState(null, "main", cfa.getMainFunction());
+
+    BAMBlockSummaryStore store = BAMBlockSummaryStore.create(config(), logger);
+    store.put(block, outside, PRECISION, ImmutableList.of(Pair.of(outside, PRECISION)));
+    assertThat(store.get(block, outside, PRECISION)).isNull();
+  }
+
+  @Test
+  public void otherStreamsUseNodeNumbers() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    GlobalInfo.getInstance().storeCFA(cfa);
+    FunctionEntryNode entry = cfa.getFunctionHead("f");
+
+    // serialization outside of the store is not affected by the numbering of the store
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(makeState(cfa));
+    }
+    CallstackState state;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      state = (CallstackState) in.readObject();
+    }
+    assertThat(state.getCallNode()).isSameInstanceAs(entry);
+  }
+
+  @Test
+  public void disabledWithRefinement() throws Exception {
+    assertThat(BAMBlockSummaryStore.create(config("analysis.algorithm.CEGAR", "true"), logger))
+        .isNull();
+    assertThat(BAMBlockSummaryStore.create(config("analysis.checkCounterexamples", "true"), logger))
+        .isNull();
+  }
+}
@@ -77,8 +77,8 @@ public interface BAMCache extends Statistics {
 
   class BAMCacheEntry {
     private final ReachedSet rs;
-    private Set<AbstractState> exitStates;
-    private ARGState rootOfBlock;
+    private volatile Set<AbstractState> exitStates;
+    private volatile ARGState rootOfBlock;
 
     protected BAMCacheEntry(ReachedSet pRs) {
       rs = Preconditions.checkNotNull(pRs);
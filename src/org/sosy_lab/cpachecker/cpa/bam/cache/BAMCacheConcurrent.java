@@ -0,0 +1,254 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatHist;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+
+/**
+ * A cache that can be accessed by several threads without a global lock. In contrast to {@link
+ * BAMCacheSynchronized}, threads accessing different blocks do not block each other.
+ *
+ * <p>The cache does not guarantee that a check for an entry and a following insertion are atomic.
+ * Callers that need this guarantee have to synchronize on their own.
+ */
+@Options(prefix = "cpa.bam")
+public class BAMCacheConcurrent implements BAMCache {
+
+  @Option(
+      secure = true,
+      description =
+          "If enabled, the reached set cache is analysed "
+              + "for each cache miss to find the cause of the miss.")
+  private boolean gatherCacheMissStatistics = false;
+
+  private final ConcurrentMap<AbstractStateHash, BAMCacheEntry> preciseReachedCache =
+      new ConcurrentHashMap<>();
+
+  /** The last analyzed entry is only meaningful per thread. */
+  private final ThreadLocal<BAMCacheEntry> lastAnalyzedEntry = new ThreadLocal<>();
+
+  private final Reducer reducer;
+
+  private final StatCounter cacheMisses = new StatCounter("Number of cache misses");
+  private final StatCounter partialCacheHits = new StatCounter("Number of partial cache hits");
+  private final StatCounter fullCacheHits = new StatCounter("Number of full cache hits");
+  private final StatCounter abstractionCausedMisses =
+      new StatCounter("Number of abstraction caused misses");
+  private final StatCounter precisionCausedMisses =
+      new StatCounter("Number of precision caused misses");
+  private final StatCounter noSimilarCausedMisses =
+      new StatCounter("Number of misses with no similar elements");
+  private final ThreadSafeTimerContainer accessTimer =
+      new ThreadSafeTimerContainer("Time for cache-access");
+
+  public BAMCacheConcurrent(Configuration pConfig, Reducer pReducer)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    reducer = checkNotNull(pReducer);
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState stateKey, Precision precisionKey, Block context, ReachedSet rs) {
+    TimerWrapper timer = accessTimer.getNewTimer();
+    timer.start();
+    try {
+      BAMCacheEntry entry = new BAMCacheEntry(rs);
+      preciseReachedCache.put(new AbstractStateHash(stateKey, precisionKey, context), entry);
+      return entry;
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState stateKey, Precision precisionKey, Block context) {
+    TimerWrapper timer = accessTimer.getNewTimer();
+    timer.start();
+    try {
+      BAMCacheEntry entry =
+          preciseReachedCache.get(new AbstractStateHash(stateKey, precisionKey, context));
+      lastAnalyzedEntry.set(entry);
+      if (entry == null) {
+        cacheMisses.inc();
+        if (gatherCacheMissStatistics) {
+          findCacheMissCause(stateKey, precisionKey, context);
+        }
+      } else if (entry.getExitStates() == null) {
+        // we have cached a partly computed reached-set
+        partialCacheHits.inc();
+      } else {
+        fullCacheHits.inc();
+      }
+      return entry;
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    BAMCacheEntry entry = lastAnalyzedEntry.get();
+    return entry == null ? null : entry.getRootOfBlock();
+  }
+
+  /**
+   * Classifies a cache miss like {@link BAMCacheImpl}. Entries inserted concurrently may or may not
+   * be seen, which only affects the statistics.
+   */
+  private void findCacheMissCause(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    for (AbstractStateHash cacheKey : preciseReachedCache.keySet()) {
+      // searchKey != cacheKey, check whether it is the same if we ignore the precision
+      if (cacheKey.equals(new AbstractStateHash(pStateKey, cacheKey.precisionKey, pContext))) {
+        precisionCausedMisses.inc();
+        return;
+      }
+
+      // Precision was not the cause. Check abstraction.
+      if (cacheKey.equals(new AbstractStateHash(cacheKey.stateKey, pPrecisionKey, pContext))) {
+        abstractionCausedMisses.inc();
+        return;
+      }
+    }
+    noSimilarCausedMisses.inc();
+  }
+
+  @Override
+  public boolean containsPreciseKey(AbstractState stateKey, Precision precisionKey, Block context) {
+    return preciseReachedCache.containsKey(new AbstractStateHash(stateKey, precisionKey, context));
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    return Collections2.transform(preciseReachedCache.values(), BAMCacheEntry::getReachedSet);
+  }
+
+  @Override
+  public void clear() {
+    preciseReachedCache.clear();
+    lastAnalyzedEntry.remove();
+  }
+
+  private final class AbstractStateHash {
+
+    private final Object wrappedHash;
+    private final Block context;
+    private final AbstractState stateKey;
+    private final Precision precisionKey;
+
+    AbstractStateHash(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+      wrappedHash = reducer.getHashCodeForState(pStateKey, pPrecisionKey);
+      context = checkNotNull(pContext);
+      stateKey = pStateKey;
+      precisionKey = pPrecisionKey;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof AbstractStateHash)) {
+        return false;
+      }
+      AbstractStateHash other = (AbstractStateHash) pObj;
+      return context.equals(other.context) && wrappedHash.equals(other.wrappedHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return wrappedHash.hashCode() * 17 + context.hashCode();
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    long sumCalls = cacheMisses.getValue() + partialCacheHits.getValue() + fullCacheHits.getValue();
+
+    StatHist argStats = new StatHist("Total size of all ARGs");
+    for (UnmodifiableReachedSet subreached : getAllCachedReachedStates()) {
+      argStats.insertValue(subreached.size());
+    }
+
+    StatisticsUtils.write(out, 0, 50, argStats);
+    StatisticsUtils.write(out, 0, 50, "Total number of recursive CPA calls", sumCalls);
+    for (StatCounter counter : ImmutableList.of(cacheMisses, partialCacheHits, fullCacheHits)) {
+      StatisticsUtils.write(
+          out,
+          1,
+          50,
+          counter.getTitle(),
+          counter.getValue() + " (" + toPercent(counter.getValue(), sumCalls) + " of all calls)");
+    }
+    if (gatherCacheMissStatistics) {
+      StatisticsUtils.write(out, 0, 50, "Cause for cache misses", "");
+      for (StatCounter counter :
+          ImmutableList.of(abstractionCausedMisses, precisionCausedMisses, noSimilarCausedMisses)) {
+        StatisticsUtils.write(
+            out,
+            1,
+            50,
+            counter.getTitle(),
+            counter.getValue()
+                + " ("
+                + toPercent(counter.getValue(), cacheMisses.getValue())
+                + " of all misses)");
+      }
+    }
+    StatisticsUtils.write(out, 0, 50, accessTimer);
+  }
+
+  @Override
+  public @Nullable String getName() {
+    return "BAMCache";
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class BAMCacheConcurrentTest {
+
+  private static final int THREADS = 4;
+  private static final int ENTRIES_PER_THREAD = 200;
+
+  private static final Block BLOCK =
+      new Block(ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of());
+
+  private static BAMCacheConcurrent createCache(boolean pGatherCacheMissStatistics)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption(
+                "cpa.bam.gatherCacheMissStatistics", Boolean.toString(pGatherCacheMissStatistics))
+            .build();
+    // the hash of a state is the state and the precision themselves
+    Reducer reducer = mock(Reducer.class);
+    when(reducer.getHashCodeForState(any(), any()))
+        .thenAnswer(
+            invocation ->
+                ImmutableList.of(invocation.getArgument(0), invocation.getArgument(1)));
+    return new BAMCacheConcurrent(config, reducer);
+  }
+
+  private static String statistics(BAMCache pCache) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    pCache.printStatistics(
+        new PrintStream(out, true), Result.UNKNOWN, mock(UnmodifiableReachedSet.class));
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void concurrentPutAndGet() throws Exception {
+    BAMCacheConcurrent cache = createCache(false);
+    Precision precision = mock(Precision.class);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Void>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        Callable<Void> task =
+            () -> {
+              for (int i = 0; i < ENTRIES_PER_THREAD; i++) {
+                AbstractState state = mock(AbstractState.class);
+                ReachedSet reached = mock(ReachedSet.class);
+                assertThat(cache.get(state, precision, BLOCK)).isNull();
+                BAMCacheEntry entry = cache.put(state, precision, BLOCK, reached);
+                assertThat(cache.containsPreciseKey(state, precision, BLOCK)).isTrue();
+                assertThat(cache.get(state, precision, BLOCK)).isSameInstanceAs(entry);
+                assertThat(entry.getReachedSet()).isSameInstanceAs(reached);
+              }
+              return null;
+            };
+        results.add(pool.submit(task));
+      }
+      for (Future<Void> result : results) {
+        result.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertThat(cache.getAllCachedReachedStates()).hasSize(THREADS * ENTRIES_PER_THREAD);
+    String statistics = statistics(cache);
+    assertThat(statistics)
+        .containsMatch("Number of cache misses: +" + THREADS * ENTRIES_PER_THREAD + " ");
+    assertThat(statistics)
+        .containsMatch("Number of partial cache hits: +" + THREADS * ENTRIES_PER_THREAD + " ");
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void lastAnalyzedEntryIsPerThread() throws Exception {
+    BAMCacheConcurrent cache = createCache(false);
+    Precision precision = mock(Precision.class);
+    AbstractState state = mock(AbstractState.class);
+    ARGState root = mock(ARGState.class);
+    cache.put(state, precision, BLOCK, mock(ReachedSet.class)).setRootOfBlock(root);
+    assertThat(cache.get(state, precision, BLOCK)).isNotNull();
+
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      // a miss in another thread does not overwrite the entry of this thread
+      pool.submit(() -> cache.get(mock(AbstractState.class), precision, BLOCK)).get();
+    } finally {
+      pool.shutdownNow();
+    }
+    assertThat(cache.getLastAnalyzedBlock()).isSameInstanceAs(root);
+  }
+
+  @Test
+  public void cacheMissCauses() throws Exception {
+    BAMCacheConcurrent cache = createCache(true);
+    AbstractState state = mock(AbstractState.class);
+    Precision precision = mock(Precision.class);
+    cache.put(state, precision, BLOCK, mock(ReachedSet.class));
+
+    assertThat(cache.get(state, mock(Precision.class), BLOCK)).isNull();
+    assertThat(cache.get(mock(AbstractState.class), precision, BLOCK)).isNull();
+    assertThat(cache.get(mock(AbstractState.class), mock(Precision.class), BLOCK)).isNull();
+
+    String statistics = statistics(cache);
+    assertThat(statistics).containsMatch("Number of precision caused misses: +1 ");
+    assertThat(statistics).containsMatch("Number of abstraction caused misses: +1 ");
+    assertThat(statistics).containsMatch("Number of misses with no similar elements: +1 ");
+  }
+
+  @Test
+  public void cacheMissCausesAreOnlyGatheredIfEnabled() throws Exception {
+    BAMCacheConcurrent cache = createCache(false);
+    cache.put(mock(AbstractState.class), mock(Precision.class), BLOCK, mock(ReachedSet.class));
+    assertThat(cache.get(mock(AbstractState.class), mock(Precision.class), BLOCK)).isNull();
+
+    String statistics = statistics(cache);
+    assertThat(statistics).containsMatch("Number of cache misses: +1 ");
+    assertThat(statistics).doesNotContain("caused misses");
+  }
+}
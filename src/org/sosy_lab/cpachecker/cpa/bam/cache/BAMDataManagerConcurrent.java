@@ -0,0 +1,270 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+
+/**
+ * Data structures required for BAM, based on concurrent maps instead of a single global lock like
+ * {@link BAMDataManagerSynchronized}.
+ *
+ * <p>Each single operation is thread-safe. As in {@link BAMDataManagerImpl}, states of a
+ * reached-set are only registered and replaced by the thread that currently analyzes this
+ * reached-set, thus no further synchronization is required for sequences of operations on the same
+ * state.
+ */
+public class BAMDataManagerConcurrent implements BAMDataManager {
+
+  private final LogManager logger;
+  private final BAMCache bamCache;
+  private final ReachedSetFactory reachedSetFactory;
+
+  /** Mapping of non-reduced initial states and exit states to {@link ReachedSet}. */
+  private final ConcurrentMap<AbstractState, Map<AbstractState, ReachedSet>>
+      initialStateToReachedSet = new ConcurrentHashMap<>();
+
+  /** Mapping of reduced initial states to non-reduced initial states. */
+  private final ConcurrentMap<AbstractState, Set<AbstractState>> reducedToNonReduced =
+      new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<AbstractState, BlockExitData> expandedStateToBlockExit =
+      new ConcurrentHashMap<>();
+
+  private static class BlockExitData {
+
+    private final AbstractState reducedState;
+    private final Block block;
+    private final Precision expandedPrecision;
+
+    BlockExitData(AbstractState pReducedState, Block pBlock, Precision pExpandedPrecision) {
+      reducedState = pReducedState;
+      block = pBlock;
+      expandedPrecision = pExpandedPrecision;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Data <%s, %s, %s>", reducedState, block, expandedPrecision);
+    }
+  }
+
+  public BAMDataManagerConcurrent(
+      BAMCache pArgCache, ReachedSetFactory pReachedSetFactory, LogManager pLogger) {
+    bamCache = pArgCache;
+    reachedSetFactory = pReachedSetFactory;
+    logger = pLogger;
+  }
+
+  @Override
+  public void replaceStateInCaches(
+      AbstractState oldState, AbstractState newState, boolean oldStateMustExist) {
+    if (oldState.equals(newState)) {
+      return; // nothing to do
+    }
+    if (oldStateMustExist || expandedStateToBlockExit.containsKey(oldState)) {
+      final BlockExitData entry = expandedStateToBlockExit.remove(oldState);
+      if (entry != null) { // concurrent maps do not support null values
+        expandedStateToBlockExit.put(newState, entry);
+      }
+    }
+  }
+
+  @Override
+  public BAMCacheEntry createAndRegisterNewReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context) {
+    final ReachedSet reached = reachedSetFactory.create();
+    reached.add(initialState, initialPrecision);
+    return bamCache.put(initialState, initialPrecision, context, reached);
+  }
+
+  @Override
+  public ReachedSetFactory getReachedSetFactory() {
+    return reachedSetFactory;
+  }
+
+  @Override
+  public void registerExpandedState(
+      AbstractState expandedState,
+      Precision expandedPrecision,
+      AbstractState reducedState,
+      Block innerBlock) {
+    BlockExitData previousValue =
+        expandedStateToBlockExit.put(
+            expandedState, new BlockExitData(reducedState, innerBlock, expandedPrecision));
+    assert previousValue == null
+        : "expanded state was registered before with data " + previousValue;
+  }
+
+  @Override
+  public boolean alreadyReturnedFromSameBlock(AbstractState state, Block block) {
+    BlockExitData data = expandedStateToBlockExit.get(state);
+    while (data != null) {
+      if (block == data.block) {
+        return true;
+      }
+      data = expandedStateToBlockExit.get(data.reducedState);
+    }
+    return false;
+  }
+
+  @Override
+  public AbstractState getInnermostState(AbstractState state) {
+    BlockExitData data = expandedStateToBlockExit.get(state);
+    while (data != null) {
+      state = data.reducedState;
+      data = expandedStateToBlockExit.get(state);
+    }
+    return state;
+  }
+
+  @Override
+  public List<AbstractState> getExpandedStatesList(AbstractState state) {
+    List<AbstractState> lst = new ArrayList<>();
+    BlockExitData data;
+    while ((data = expandedStateToBlockExit.get(state)) != null) {
+      lst.add(state);
+      state = data.reducedState;
+    }
+    return Lists.reverse(lst);
+  }
+
+  @Override
+  public void registerInitialState(
+      AbstractState initialState, AbstractState exitState, ReachedSet reachedSet) {
+    ReachedSet oldReachedSet =
+        initialStateToReachedSet
+            .computeIfAbsent(initialState, k -> new ConcurrentHashMap<>())
+            .put(exitState, reachedSet);
+    if (oldReachedSet != null && oldReachedSet != reachedSet) {
+      logger.logf(
+          Level.ALL,
+          "New root state %s with exit state %s overrides old reachedset %s with new reachedset %s.",
+          initialState,
+          exitState,
+          oldReachedSet.getFirstState(),
+          reachedSet.getFirstState());
+    }
+    reducedToNonReduced
+        .computeIfAbsent(reachedSet.getFirstState(), k -> ConcurrentHashMap.newKeySet())
+        .add(initialState);
+  }
+
+  @Override
+  public ReachedSet getReachedSetForInitialState(
+      AbstractState initialState, AbstractState exitState) {
+    Map<AbstractState, ReachedSet> exitStateToReachedSet =
+        initialStateToReachedSet.get(initialState);
+    assert exitStateToReachedSet != null && exitStateToReachedSet.containsKey(exitState)
+        : "no block matching states: " + initialState + " -> " + exitState;
+    ReachedSet reached = checkNotNull(exitStateToReachedSet.get(exitState));
+    assert reached.contains(exitState)
+        : "reachedset should contain exit state for block: " + exitState;
+    return reached;
+  }
+
+  @Override
+  public boolean hasInitialState(AbstractState state) {
+    Map<AbstractState, ReachedSet> exitStateToReachedSet = initialStateToReachedSet.get(state);
+    return exitStateToReachedSet != null && !exitStateToReachedSet.isEmpty();
+  }
+
+  @Override
+  public ImmutableSet<AbstractState> getNonReducedInitialStates(AbstractState pReducedState) {
+    Set<AbstractState> nonReduced = reducedToNonReduced.get(pReducedState);
+    return nonReduced == null ? ImmutableSet.of() : ImmutableSet.copyOf(nonReduced);
+  }
+
+  @Override
+  public AbstractState getReducedStateForExpandedState(AbstractState state) {
+    assert hasExpandedState(state) : "no match for state: " + state;
+    return expandedStateToBlockExit.get(state).reducedState;
+  }
+
+  @Override
+  public Block getInnerBlockForExpandedState(AbstractState state) {
+    assert hasExpandedState(state) : "no match for state: " + state;
+    return expandedStateToBlockExit.get(state).block;
+  }
+
+  @Override
+  public boolean hasExpandedState(AbstractState state) {
+    return expandedStateToBlockExit.containsKey(state);
+  }
+
+  @Override
+  public BAMCache getCache() {
+    return bamCache;
+  }
+
+  @Override
+  public @Nullable Precision getExpandedPrecisionForState(AbstractState pState) {
+    final BlockExitData data = expandedStateToBlockExit.get(pState);
+    return data == null ? null : data.expandedPrecision;
+  }
+
+  @Override
+  public void clear() {
+    initialStateToReachedSet.clear();
+    expandedStateToBlockExit.clear();
+    bamCache.clear();
+    reducedToNonReduced.clear();
+  }
+
+  @Override
+  public boolean addUncachedBlockEntry(CFANode pNode) {
+    // uncached block entries are not supported for parallel BAM, see BAMDataManagerSynchronized
+    return true;
+  }
+
+  @Override
+  public boolean isUncachedBlockEntry(CFANode pNode) {
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "BAM DATA MANAGER (%d initial states, %d expanded states)",
+        initialStateToReachedSet.size(), expandedStateToBlockExit.size());
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+
+public class BAMDataManagerConcurrentTest {
+
+  private static final int THREADS = 4;
+  private static final int DEPTH = 100;
+
+  private BAMDataManagerConcurrent data;
+  private ExecutorService pool;
+
+  @Before
+  public void setUp() {
+    data =
+        new BAMDataManagerConcurrent(
+            mock(BAMCache.class), mock(ReachedSetFactory.class), LogManager.createTestLogManager());
+    pool = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  private static Block newBlock() {
+    return new Block(ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of());
+  }
+
+  /** Runs the task in all threads at the same time and returns the results in thread order. */
+  private <T> List<T> runConcurrently(Callable<T> pTask) throws Exception {
+    CyclicBarrier start = new CyclicBarrier(THREADS);
+    List<Future<T>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(
+          pool.submit(
+              () -> {
+                start.await();
+                return pTask.call();
+              }));
+    }
+    List<T> results = new ArrayList<>();
+    for (Future<T> future : futures) {
+      results.add(future.get());
+    }
+    return results;
+  }
+
+  @Test
+  public void concurrentExpandedStates() throws Exception {
+    Precision precision = mock(Precision.class);
+    List<List<AbstractState>> chains =
+        runConcurrently(
+            () -> {
+              // each thread builds its own chain of nested block exits
+              List<AbstractState> chain = new ArrayList<>();
+              AbstractState reduced = mock(AbstractState.class);
+              chain.add(reduced);
+              for (int i = 0; i < DEPTH; i++) {
+                AbstractState expanded = mock(AbstractState.class);
+                data.registerExpandedState(expanded, precision, reduced, newBlock());
+                chain.add(expanded);
+                reduced = expanded;
+              }
+              return chain;
+            });
+
+    for (List<AbstractState> chain : chains) {
+      AbstractState innermost = chain.get(0);
+      AbstractState outermost = chain.get(DEPTH);
+      assertThat(data.hasExpandedState(innermost)).isFalse();
+      assertThat(data.getInnermostState(outermost)).isSameInstanceAs(innermost);
+      assertThat(data.getExpandedStatesList(outermost))
+          .containsExactlyElementsIn(chain.subList(1, DEPTH + 1))
+          .inOrder();
+      assertThat(data.getReducedStateForExpandedState(outermost))
+          .isSameInstanceAs(chain.get(DEPTH - 1));
+      assertThat(data.getExpandedPrecisionForState(outermost)).isSameInstanceAs(precision);
+    }
+  }
+
+  @Test
+  public void concurrentInitialStates() throws Exception {
+    AbstractState reducedState = mock(AbstractState.class);
+    ReachedSet reached = mock(ReachedSet.class);
+    when(reached.getFirstState()).thenReturn(reducedState);
+    when(reached.contains(any())).thenReturn(true);
+
+    List<List<AbstractState>> registered =
+        runConcurrently(
+            () -> {
+              List<AbstractState> initialStates = new ArrayList<>();
+              for (int i = 0; i < DEPTH; i++) {
+                AbstractState initialState = mock(AbstractState.class);
+                AbstractState exitState = mock(AbstractState.class);
+                data.registerInitialState(initialState, exitState, reached);
+                assertThat(data.getReachedSetForInitialState(initialState, exitState))
+                    .isSameInstanceAs(reached);
+                initialStates.add(initialState);
+              }
+              return initialStates;
+            });
+
+    // no registration of another thread got lost
+    List<AbstractState> allInitialStates = new ArrayList<>();
+    registered.forEach(allInitialStates::addAll);
+    assertThat(data.getNonReducedInitialStates(reducedState))
+        .containsExactlyElementsIn(allInitialStates);
+    for (AbstractState initialState : allInitialStates) {
+      assertThat(data.hasInitialState(initialState)).isTrue();
+    }
+  }
+}
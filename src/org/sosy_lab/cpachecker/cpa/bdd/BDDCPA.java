@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.cpa.bdd;
 import java.util.Collection;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -53,6 +54,7 @@ import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.util.predicates.bdd.BDDManagerFactory;
 import org.sosy_lab.cpachecker.util.predicates.regions.NamedRegionManager;
 import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
+import org.sosy_lab.cpachecker.util.predicates.regions.ThreadLocalCachingRegionManager;
 
 @Options(prefix="cpa.bdd")
 public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider {
@@ -93,6 +95,23 @@ public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsPro
     description = "reduce and expand BDD states for BAM, otherwise use plain identity")
   private boolean useBlockAbstraction = false;
 
+  @Option(
+      secure = true,
+      description =
+          "allow computing successors from several threads concurrently "
+              + "(cf. cpa.parallel.threadSafeTransferRelation). BDD operations are only "
+              + "executed in parallel with a thread-safe BDD package (bdd.package=PJBDD), "
+              + "accesses to other packages are sequentialized.")
+  private boolean threadSafe = false;
+
+  @Option(
+      secure = true,
+      description =
+          "number of results of BDD operations that are cached for each thread "
+              + "if cpa.bdd.threadSafe is enabled, 0 disables the caches")
+  @IntegerOption(min = 0)
+  private int threadCacheSize = 10000;
+
   private BDDCPA(CFA pCfa, Configuration pConfig, LogManager pLogger, ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
     pConfig.inject(this);
@@ -102,7 +121,15 @@ public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsPro
     cfa               = pCfa;
     shutdownNotifier  = pShutdownNotifier;
 
-    RegionManager rmgr = new BDDManagerFactory(config, logger).createRegionManager();
+    RegionManager rmgr;
+    if (threadSafe) {
+      rmgr = new BDDManagerFactory(config, logger).createThreadSafeRegionManager();
+      if (threadCacheSize > 0) {
+        rmgr = new ThreadLocalCachingRegionManager(rmgr, threadCacheSize);
+      }
+    } else {
+      rmgr = new BDDManagerFactory(config, logger).createRegionManager();
+    }
 
     precision         = VariableTrackingPrecision.createStaticPrecision(config, cfa.getVarClassification(), getClass());
 
@@ -152,6 +179,10 @@ public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsPro
 
   @Override
   public TransferRelation getTransferRelation() {
+    if (threadSafe) {
+      return new ThreadLocalBDDTransferRelation(
+          () -> new BDDTransferRelation(manager, bvmgr, predmgr, cfa, bitsize, bvComputer));
+    }
     return new BDDTransferRelation(manager, bvmgr, predmgr, cfa, bitsize, bvComputer);
   }
 
@@ -26,7 +26,10 @@ import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.logging.Level;
@@ -41,7 +44,10 @@ import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Triple;
 import org.sosy_lab.cpachecker.util.predicates.regions.NamedRegionManager;
+import org.sosy_lab.cpachecker.util.predicates.regions.Region;
 import org.sosy_lab.cpachecker.util.variableclassification.Partition;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
 
@@ -141,9 +147,28 @@ final class BDDStatistics implements Statistics {
     out.println("Number of intEq partitions:       " + intEq.size());
     out.println("Number of intAdd partitions:      " + intAdd.size());
     out.println("Number of all partitions:         " + varClass.getPartitions().size());
+    out.println("Number of BDD nodes in states:    " + countNodes(reached));
     manager.printStatistics(out);
   }
 
+  /** Count the BDD nodes of all states, nodes that are shared between states are counted once. */
+  private int countNodes(UnmodifiableReachedSet reached) {
+    Set<Region> visited = new HashSet<>();
+    Deque<Region> waitlist = new ArrayDeque<>();
+    for (BDDState state : AbstractStates.projectToType(reached, BDDState.class)) {
+      waitlist.push(state.getRegion());
+    }
+    while (!waitlist.isEmpty()) {
+      Region region = waitlist.pop();
+      if (!region.isTrue() && !region.isFalse() && visited.add(region)) {
+        Triple<Region, Region, Region> node = manager.getIfThenElse(region);
+        waitlist.push(node.getSecond());
+        waitlist.push(node.getThird());
+      }
+    }
+    return visited.size();
+  }
+
   @Override
   public String getName() {
     return "BDDCPA";
@@ -37,7 +37,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
-import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.globalinfo.CFANodeReference;
 
 /**
  * Abstract state that stores callstack information by maintaning a single-linked list of states
@@ -53,7 +53,7 @@ import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
 public class CallstackState
     implements AbstractState, Partitionable, AbstractQueryableState, Serializable {
 
-  private static final long serialVersionUID = 3629687385150064994L;
+  private static final long serialVersionUID = -1794950271458498406L;
 
   protected final @Nullable CallstackState previousState;
   protected final String currentFunction;
@@ -151,14 +151,12 @@ public class CallstackState
 
   private void writeObject(java.io.ObjectOutputStream out) throws IOException {
     out.defaultWriteObject();
-    out.writeInt(callerNode.getNodeNumber());
+    out.writeObject(CFANodeReference.of(callerNode));
   }
 
   @SuppressWarnings("UnusedVariable") // parameter is required by API
   private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
     in.defaultReadObject();
-    int nodeNumber = in.readInt();
-    callerNode =
-        GlobalInfo.getInstance().getCFAInfo().orElseThrow().getNodeByNodeNumber(nodeNumber);
+    callerNode = ((CFANodeReference) in.readObject()).resolve();
   }
 }
@@ -71,7 +71,7 @@ class FormulaSlicingStatistics implements Statistics {
   @Override
   public void printStatistics(PrintStream out, Result result, UnmodifiableReachedSet reached) {
     printTimer(out, propagation, "propagating formulas",
-        cachingPathFormulaManager.pathFormulaCacheHits);
+        cachingPathFormulaManager.getPathFormulaCacheHits());
 
     printTimer(out, inductiveWeakening, "inductive weakening",
         cachedInductiveWeakenings);
@@ -52,6 +52,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
 import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.sosy_lab.cpachecker.util.globalinfo.CFAInfo;
+import org.sosy_lab.cpachecker.util.globalinfo.CFANodeReference;
 import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
 
 public class LocationState implements AbstractStateWithLocation, AbstractQueryableState, Partitionable, Serializable {
@@ -216,7 +217,7 @@ public class LocationState implements AbstractStateWithLocation, AbstractQueryab
   // no equals and hashCode because there is always only one element per CFANode
 
   private Object writeReplace() {
-    return new SerialProxy(locationNode.getNodeNumber());
+    return new SerialProxy(CFANodeReference.of(locationNode));
   }
 
   /**
@@ -230,16 +231,16 @@ public class LocationState implements AbstractStateWithLocation, AbstractQueryab
   }
 
   private static class SerialProxy implements Serializable {
-    private static final long serialVersionUID = 6889568471468710163L;
-    private final int nodeNumber;
+    private static final long serialVersionUID = -4296458323427543871L;
+    private final CFANodeReference node;
 
-    public SerialProxy(int nodeNumber) {
-      this.nodeNumber = nodeNumber;
+    public SerialProxy(CFANodeReference node) {
+      this.node = node;
     }
 
-    private Object readResolve() {
+    private Object readResolve() throws InvalidObjectException {
       CFAInfo cfaInfo = GlobalInfo.getInstance().getCFAInfo().orElseThrow();
-      return cfaInfo.getLocationStateFactory().getState(cfaInfo.getNodeByNodeNumber(nodeNumber));
+      return cfaInfo.getLocationStateFactory().getState(node.resolve());
     }
   }
 }
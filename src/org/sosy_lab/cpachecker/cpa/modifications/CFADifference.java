@@ -0,0 +1,168 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.modifications;
+
+import static org.sosy_lab.cpachecker.cfa.model.CFAEdgeType.FunctionCallEdge;
+import static org.sosy_lab.cpachecker.cfa.model.CFAEdgeType.FunctionReturnEdge;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+/**
+ * The difference between a given CFA and an original CFA, computed on the CFA level with the same
+ * matching of edges as {@link ModificationsTransferRelation}, but without building an ARG.
+ *
+ * <p>A node of the given CFA is modified if one of its leaving edges has no matching edge in the
+ * original CFA. A node is affected if a program path through this node contains a modified node.
+ * All paths through unaffected nodes also exist in the original program.
+ *
+ * <p>The affected nodes are computed context-sensitively in the style of interprocedural slicing:
+ * the nodes before a modification are those of the enclosing functions that can reach it, those of
+ * their callers up to the program entry, and those of the functions called on the way. Leaving a
+ * called function is only possible back to the call site from which it was entered (via the
+ * summary edge), so other callers of a called function are not affected. The nodes after a
+ * modification are computed in the same way.
+ */
+public final class CFADifference {
+
+  private final ImmutableSet<CFANode> modifiedNodes;
+  private final ImmutableSet<CFANode> affectedNodes;
+
+  private CFADifference(
+      ImmutableSet<CFANode> pModifiedNodes, ImmutableSet<CFANode> pAffectedNodes) {
+    modifiedNodes = pModifiedNodes;
+    affectedNodes = pAffectedNodes;
+  }
+
+  /**
+   * Compute the difference of the given CFA to the original CFA.
+   *
+   * @param pIgnoreDeclarations whether added and removed declarations are ignored
+   */
+  public static CFADifference compute(
+      CFA pGivenCfa,
+      CFA pOriginalCfa,
+      boolean pIgnoreDeclarations,
+      ShutdownNotifier pShutdownNotifier)
+      throws CPATransferException, InterruptedException {
+    ModificationsTransferRelation transfer =
+        ModificationsTransferRelation.forCFAs(pGivenCfa, pOriginalCfa, pIgnoreDeclarations);
+
+    // explore the product of both CFAs as long as no modification is found
+    Set<CFANode> modified = new HashSet<>();
+    Set<AbstractState> visited = new HashSet<>();
+    Deque<ModificationsState> waitlist = new ArrayDeque<>();
+    ModificationsState initialState =
+        new ModificationsState(pGivenCfa.getMainFunction(), pOriginalCfa.getMainFunction());
+    visited.add(initialState);
+    waitlist.push(initialState);
+
+    while (!waitlist.isEmpty()) {
+      pShutdownNotifier.shutdownIfNecessary();
+      ModificationsState state = waitlist.pop();
+      CFANode node = state.getLocationInGivenCfa();
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        for (AbstractState successor :
+            transfer.getAbstractSuccessorsForEdge(state, SingletonPrecision.getInstance(), edge)) {
+          ModificationsState succ = (ModificationsState) successor;
+          if (succ.hasModification()) {
+            modified.add(node);
+          } else if (visited.add(succ)) {
+            waitlist.push(succ);
+          }
+        }
+      }
+    }
+
+    Set<CFANode> affected = backwardClosure(modified);
+    affected.addAll(forwardClosure(modified));
+    return new CFADifference(ImmutableSet.copyOf(modified), ImmutableSet.copyOf(affected));
+  }
+
+  /** Returns the nodes on paths from the program entry to one of the given nodes. */
+  private static Set<CFANode> backwardClosure(Set<CFANode> pStart) {
+    // first ascend to the callers, skipping calls via summary edges,
+    // then descend into the skipped calls without ascending to other callers
+    Set<CFANode> callers =
+        closure(
+            pStart, CFAUtils::allEnteringEdges, CFAEdge::getPredecessor, FunctionReturnEdge);
+    return closure(callers, CFAUtils::allEnteringEdges, CFAEdge::getPredecessor, FunctionCallEdge);
+  }
+
+  /** Returns the nodes on paths from one of the given nodes to the program exit. */
+  private static Set<CFANode> forwardClosure(Set<CFANode> pStart) {
+    // first ascend to the callers, skipping calls via summary edges,
+    // then descend into the skipped calls without ascending to other callers
+    Set<CFANode> callers =
+        closure(pStart, CFAUtils::allLeavingEdges, CFAEdge::getSuccessor, FunctionCallEdge);
+    return closure(callers, CFAUtils::allLeavingEdges, CFAEdge::getSuccessor, FunctionReturnEdge);
+  }
+
+  private static Set<CFANode> closure(
+      Set<CFANode> pStart,
+      Function<CFANode, Iterable<CFAEdge>> pEdges,
+      Function<CFAEdge, CFANode> pNext,
+      CFAEdgeType pIgnoredEdgeType) {
+    Set<CFANode> reached = new HashSet<>(pStart);
+    Deque<CFANode> waitlist = new ArrayDeque<>(pStart);
+    while (!waitlist.isEmpty()) {
+      for (CFAEdge edge : pEdges.apply(waitlist.pop())) {
+        if (edge.getEdgeType() != pIgnoredEdgeType) {
+          CFANode next = pNext.apply(edge);
+          if (reached.add(next)) {
+            waitlist.push(next);
+          }
+        }
+      }
+    }
+    return reached;
+  }
+
+  /** Returns the nodes of the given CFA at which a modification starts. */
+  public ImmutableSet<CFANode> getModifiedNodes() {
+    return modifiedNodes;
+  }
+
+  /** Returns the nodes of the given CFA that lie on a path through a modified node. */
+  public ImmutableSet<CFANode> getAffectedNodes() {
+    return affectedNodes;
+  }
+
+  public boolean isAffected(CFANode pNode) {
+    return affectedNodes.contains(pNode);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.modifications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFADifferenceTest {
+
+  private static final ImmutableList<String> HELPER_AND_F =
+      ImmutableList.of(
+          "extern int __VERIFIER_nondet_int();",
+          "int helper(int x) {",
+          "  return x + 1;",
+          "}",
+          "int f(int x) {",
+          "  if (x > %d) {",
+          "    return helper(x);",
+          "  }",
+          "  return 0;",
+          "}");
+
+  /** Function g is called in another branch than f, but calls the same helper function. */
+  private static final ImmutableList<String> G_AND_MAIN =
+      ImmutableList.of(
+          "int g(int x) {",
+          "  int y = helper(x);",
+          "  return y * 2;",
+          "}",
+          "int main() {",
+          "  int r;",
+          "  if (__VERIFIER_nondet_int()) {",
+          "    r = f(1);",
+          "  } else {",
+          "    r = g(1);",
+          "  }",
+          "  return r;",
+          "}");
+
+  /** The program, where the condition in f compares with the given bound. */
+  private static CFA makeCFA(int pBound) throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (String line : HELPER_AND_F) {
+      lines.add(String.format(line, pBound));
+    }
+    lines.addAll(G_AND_MAIN);
+    return TestDataTools.makeCFA(lines.toArray(new String[0]));
+  }
+
+  private static CFADifference compute(CFA pGivenCfa, CFA pOriginalCfa) throws Exception {
+    return CFADifference.compute(pGivenCfa, pOriginalCfa, false, ShutdownNotifier.createDummy());
+  }
+
+  private static FluentIterable<CFANode> nodesOf(CFA pCfa, String pFunction) {
+    return FluentIterable.from(pCfa.getAllNodes())
+        .filter(node -> node.getFunctionName().equals(pFunction));
+  }
+
+  @Test
+  public void unchangedProgram() throws Exception {
+    CFADifference difference = compute(makeCFA(0), makeCFA(0));
+    assertThat(difference.getModifiedNodes()).isEmpty();
+    assertThat(difference.getAffectedNodes()).isEmpty();
+  }
+
+  @Test
+  public void affectedNodesOfChangedFunction() throws Exception {
+    CFA cfa = makeCFA(1);
+    CFADifference difference = compute(cfa, makeCFA(0));
+
+    assertThat(difference.getModifiedNodes()).isNotEmpty();
+    assertThat(nodesOf(cfa, "f")).containsAtLeastElementsIn(difference.getModifiedNodes());
+
+    // every path through f is affected, including the call of helper and the way to and from f
+    assertThat(difference.getAffectedNodes()).containsAtLeastElementsIn(nodesOf(cfa, "f"));
+    assertThat(difference.getAffectedNodes()).containsAtLeastElementsIn(nodesOf(cfa, "helper"));
+    assertThat(difference.getAffectedNodes()).contains(cfa.getMainFunction());
+    assertThat(difference.getAffectedNodes()).contains(cfa.getMainFunction().getExitNode());
+  }
+
+  @Test
+  public void otherCallersOfCalledFunctionAreNotAffected() throws Exception {
+    CFA cfa = makeCFA(1);
+    CFADifference difference = compute(cfa, makeCFA(0));
+
+    // g is only reachable in the other branch, leaving helper does not lead into g
+    for (CFANode node : nodesOf(cfa, "g")) {
+      assertThat(difference.isAffected(node)).isFalse();
+    }
+  }
+}
@@ -27,8 +27,6 @@ import com.google.common.collect.ImmutableList;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.Map;
-import java.util.Set;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -53,7 +51,6 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.exceptions.ParserException;
-import org.sosy_lab.cpachecker.util.CFATraversal;
 
 @Options(prefix = "differential")
 public class ModificationsCPA implements ConfigurableProgramAnalysis {
@@ -101,20 +98,8 @@ public class ModificationsCPA implements ConfigurableProgramAnalysis {
       cfaForComparison =
           cfaCreator.parseFileAndCreateCFA(ImmutableList.of(originalProgram.toString()));
 
-      if (ignoreDeclarations) {
-        CFATraversal.DeclarationCollectingCFAVisitor varDeclCollect =
-            new CFATraversal.DeclarationCollectingCFAVisitor();
-        CFATraversal.dfs().traverse(cfaForComparison.getMainFunction(), varDeclCollect);
-        Map<String, Set<String>> origFunToDeclNames = varDeclCollect.getVisitedDeclarations();
-
-        varDeclCollect = new CFATraversal.DeclarationCollectingCFAVisitor();
-        CFATraversal.dfs().traverse(pCfa.getMainFunction(), varDeclCollect);
-        transfer =
-            new ModificationsTransferRelation(
-                true, origFunToDeclNames, varDeclCollect.getVisitedDeclarations());
-      } else {
-        transfer = new ModificationsTransferRelation();
-      }
+      transfer =
+          ModificationsTransferRelation.forCFAs(pCfa, cfaForComparison, ignoreDeclarations);
 
     } catch (ParserException pE) {
       throw new InvalidConfigurationException("Parser error for originalProgram", pE);
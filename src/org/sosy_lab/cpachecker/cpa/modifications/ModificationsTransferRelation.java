@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
@@ -40,6 +41,7 @@ import org.sosy_lab.cpachecker.core.defaults.SingleEdgeTransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.CFATraversal;
 import org.sosy_lab.cpachecker.util.CFAUtils;
 
 public class ModificationsTransferRelation extends SingleEdgeTransferRelation {
@@ -61,6 +63,27 @@ public class ModificationsTransferRelation extends SingleEdgeTransferRelation {
     this(false, ImmutableMap.of(), ImmutableMap.of());
   }
 
+  /**
+   * Create the transfer relation for comparing the given CFA with the original CFA.
+   *
+   * @param pIgnoreDeclarations whether added and removed declarations are ignored
+   */
+  public static ModificationsTransferRelation forCFAs(
+      final CFA pGivenCfa, final CFA pOriginalCfa, final boolean pIgnoreDeclarations) {
+    if (!pIgnoreDeclarations) {
+      return new ModificationsTransferRelation();
+    }
+    CFATraversal.DeclarationCollectingCFAVisitor varDeclCollect =
+        new CFATraversal.DeclarationCollectingCFAVisitor();
+    CFATraversal.dfs().traverse(pOriginalCfa.getMainFunction(), varDeclCollect);
+    Map<String, Set<String>> origFunToDeclNames = varDeclCollect.getVisitedDeclarations();
+
+    varDeclCollect = new CFATraversal.DeclarationCollectingCFAVisitor();
+    CFATraversal.dfs().traverse(pGivenCfa.getMainFunction(), varDeclCollect);
+    return new ModificationsTransferRelation(
+        true, origFunToDeclNames, varDeclCollect.getVisitedDeclarations());
+  }
+
   @Override
   public Collection<? extends AbstractState> getAbstractSuccessorsForEdge(
       AbstractState pState, Precision pPrecision, CFAEdge pCfaEdge)
@@ -29,10 +29,13 @@ import static com.google.common.base.Predicates.equalTo;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.Charset;
@@ -105,6 +108,8 @@ public class PredicateAbstractionManager {
     public int numSymbolicAbstractions = 0; // precision completely empty, no computation
     public int numSatCheckAbstractions = 0; // precision was {false}, only sat check
     public int numCallsAbstractionCached = 0; // result was cached, no computation
+    public int numCallsAbstractionSharedCached = 0; // result was in shared cache
+    public int numCallsAbstractionSharedCachedForeign = 0; // ... and computed by another analysis
     public int numInductivePathFormulaCacheUsed = 0; // loop was cached, no new computation
 
     public int numTotalPredicates = 0;
@@ -177,6 +182,16 @@ public class PredicateAbstractionManager {
   @Option(secure=true, name = "abs.useCache", description = "use caching of abstractions")
   private boolean useCache = true;
 
+  @Option(
+    secure = true,
+    name = "abs.sharedCache",
+    description =
+        "share cached abstractions between all analyses that run in the same JVM, "
+            + "e.g., in parallel or sequentially with restarts. "
+            + "Requires cpa.predicate.abs.useCache."
+  )
+  private boolean useSharedCache = false;
+
   @Option(secure=true, name="refinement.splitItpAtoms",
       description="split each arithmetic equality into two inequalities when extracting predicates from interpolants")
   private boolean splitItpAtoms = false;
@@ -204,6 +219,12 @@ public class PredicateAbstractionManager {
   // 1: predicate is true
   private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
+  private final @Nullable SharedPredicateAbstractionCache sharedCache;
+  private final int sharedCacheProducerId;
+
+  // canonical dumps of the instantiated predicates for the keys of the shared cache
+  private final @Nullable Cache<BooleanFormula, String> sharedCachePredicateDumps;
+
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
       PathFormulaManager pPfmgr,
@@ -253,6 +274,23 @@ public class PredicateAbstractionManager {
       cartesianAbstractionCache = null;
     }
 
+    if (useSharedCache) {
+      if (!useCache) {
+        throw new InvalidConfigurationException(
+            "Option cpa.predicate.abs.sharedCache requires cpa.predicate.abs.useCache.");
+      }
+      sharedCache = SharedPredicateAbstractionCache.getInstance();
+      sharedCacheProducerId = SharedPredicateAbstractionCache.newProducerId();
+      sharedCachePredicateDumps =
+          CacheBuilder.newBuilder()
+              .maximumSize(SharedPredicateAbstractionCache.MAXIMUM_SIZE)
+              .build();
+    } else {
+      sharedCache = null;
+      sharedCacheProducerId = -1;
+      sharedCachePredicateDumps = null;
+    }
+
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
   }
 
@@ -363,6 +401,8 @@ public class PredicateAbstractionManager {
 
     // caching
     Pair<BooleanFormula, ImmutableSet<BooleanFormula>> absKey = null;
+    HashCode sharedAbsKey = null;
+    HashCode sharedFormulaKey = null;
     if (useCache) {
       ImmutableSet<BooleanFormula> instantiatedPreds =
           Collections3.transformedImmutableSetCopy(
@@ -385,8 +425,40 @@ public class PredicateAbstractionManager {
         return result;
       }
 
+      if (sharedCache != null) {
+        // dumping is expensive, so do it only once for both keys
+        String formulaDump = SharedPredicateAbstractionCache.dumpFormula(fmgr, f);
+        List<String> predicateDumps = new ArrayList<>(instantiatedPreds.size());
+        for (BooleanFormula pred : instantiatedPreds) {
+          predicateDumps.add(
+              sharedCachePredicateDumps
+                  .asMap()
+                  .computeIfAbsent(
+                      pred, p -> SharedPredicateAbstractionCache.dumpFormula(fmgr, p)));
+        }
+        sharedAbsKey =
+            SharedPredicateAbstractionCache.computeAbstractionKey(
+                abstractionType.name(), formulaDump, predicateDumps);
+        sharedFormulaKey = SharedPredicateAbstractionCache.computeFormulaKey(formulaDump);
+        result = getAbstractionFromSharedCache(sharedAbsKey, ssa, pathFormula);
+        if (result != null) {
+          abstractionCache.put(absKey, result);
+          return result;
+        }
+      }
+
       boolean unsatisfiable = unsatisfiabilityCache.contains(symbFormula)
                             || unsatisfiabilityCache.contains(f);
+      if (!unsatisfiable && sharedCache != null) {
+        Integer producer = sharedCache.getUnsatProducer(sharedFormulaKey);
+        if (producer != null) {
+          unsatisfiable = true;
+          stats.numCallsAbstractionSharedCached++;
+          if (producer != sharedCacheProducerId) {
+            stats.numCallsAbstractionSharedCachedForeign++;
+          }
+        }
+      }
       if (unsatisfiable) {
         // block is infeasible
         logger.log(Level.FINEST, "Block feasibility of abstraction", stats.numCallsAbstraction, "was cached and is false.");
@@ -444,6 +516,14 @@ public class PredicateAbstractionManager {
       if (result.isFalse()) {
         unsatisfiabilityCache.add(f);
       }
+
+      if (sharedCache != null) {
+        sharedCache.putAbstraction(
+            sharedAbsKey, fmgr.dumpFormula(result.asFormula()).toString(), sharedCacheProducerId);
+        if (result.isFalse()) {
+          sharedCache.putUnsat(sharedFormulaKey, sharedCacheProducerId);
+        }
+      }
     }
 
     long abstractionTime = TimeSpan.sum(stats.abstractionSolveTime.getLengthOfLastInterval(),
@@ -509,6 +589,42 @@ public class PredicateAbstractionManager {
     return symbolicAbs;
   }
 
+  /**
+   * Look up an abstraction in the shared cache and convert it into an {@link AbstractionFormula}
+   * of this analysis.
+   *
+   * @return the abstraction or null if it is not cached
+   */
+  private @Nullable AbstractionFormula getAbstractionFromSharedCache(
+      HashCode pKey, SSAMap pSsa, PathFormula pPathFormula) throws InterruptedException {
+    SharedPredicateAbstractionCache.Entry entry = sharedCache.getAbstraction(pKey);
+    if (entry == null) {
+      return null;
+    }
+
+    BooleanFormula stateFormula;
+    try {
+      stateFormula = fmgr.parse(entry.abstraction);
+    } catch (IllegalArgumentException e) {
+      // the formula may contain symbols that this analysis does not know, e.g., due to a different
+      // encoding of the program; this is not an error, we simply compute the abstraction ourselves
+      logger.logDebugException(e, "Could not parse abstraction from shared cache");
+      return null;
+    }
+    Region region = amgr.convertFormulaToRegion(stateFormula);
+
+    stats.numCallsAbstractionCached++;
+    stats.numCallsAbstractionSharedCached++;
+    if (entry.producer != sharedCacheProducerId) {
+      stats.numCallsAbstractionSharedCachedForeign++;
+    }
+    logger.log(Level.FINEST, "Abstraction", stats.numCallsAbstraction, "was in shared cache");
+
+    AbstractionFormula result = makeAbstractionFormula(region, pSsa, pPathFormula);
+    logger.log(Level.ALL, "Abstraction result is", result.asFormula());
+    return result;
+  }
+
   private BooleanFormula getFormulaFromPathFormula(PathFormula pathFormula) {
     BooleanFormula symbFormula = pathFormula.getFormula();
 
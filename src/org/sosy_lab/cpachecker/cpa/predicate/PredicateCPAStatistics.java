@@ -269,6 +269,10 @@ class PredicateCPAStatistics implements Statistics {
       out.println("  Times precision was empty:       " + valueWithPercentage(as.numSymbolicAbstractions, as.numCallsAbstraction));
       out.println("  Times precision was {false}:     " + valueWithPercentage(as.numSatCheckAbstractions, as.numCallsAbstraction));
       out.println("  Times result was cached:         " + valueWithPercentage(as.numCallsAbstractionCached, as.numCallsAbstraction));
+      if (as.numCallsAbstractionSharedCached > 0) {
+        out.println("    from shared cache:             " + valueWithPercentage(as.numCallsAbstractionSharedCached, as.numCallsAbstractionCached));
+        out.println("    computed by other analyses:    " + valueWithPercentage(as.numCallsAbstractionSharedCachedForeign, as.numCallsAbstractionSharedCached));
+      }
       out.println("  Times cartesian abs was used:    " + valueWithPercentage(as.cartesianAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times boolean abs was used:      " + valueWithPercentage(as.booleanAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times result was 'false':        " + valueWithPercentage(statistics.numAbstractionsFalse.getUpdateCount(), numAbstractions));
@@ -295,6 +299,9 @@ class PredicateCPAStatistics implements Statistics {
     out.println("Number of SMT sat checks:          " + solver.satChecks);
     out.println("  trivial:                         " + solver.trivialSatChecks);
     out.println("  cached:                          " + solver.cachedSatChecks);
+    if (solver.persistentlyCachedSatChecks > 0) {
+      out.println("  from persistent cache:           " + solver.persistentlyCachedSatChecks);
+    }
     out.println();
     out.println("Max ABE block size:                       " + statistics.blockSize.getMaxValue());
     put(out, 0, statistics.blockSize);
@@ -0,0 +1,172 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Cache for predicate abstractions that is shared by all instances of {@link
+ * PredicateAbstractionManager} in this JVM, e.g., by the analyses that are run in parallel by
+ * {@link org.sosy_lab.cpachecker.core.algorithm.ParallelAlgorithm} or one after another by
+ * {@link org.sosy_lab.cpachecker.core.algorithm.RestartAlgorithm}.
+ *
+ * <p>Each analysis has its own solver and formula instances, so neither keys nor values can
+ * contain formulas. Keys are hashes of the canonical SMT-LIB dumps of the abstracted formula and
+ * the predicates, values are SMT-LIB dumps of the abstraction results, which are parsed again by
+ * the analysis that uses them. The cache is thread-safe and bounded by {@link #MAXIMUM_SIZE}, which
+ * does not depend on the configuration of any single analysis.
+ */
+final class SharedPredicateAbstractionCache {
+
+  private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+  /** Maximum number of entries in each of the caches. */
+  static final long MAXIMUM_SIZE = 100000;
+
+  /** The instance used by all analyses. */
+  private static final SharedPredicateAbstractionCache INSTANCE =
+      new SharedPredicateAbstractionCache();
+
+  /** For distinguishing the analyses (or rather their abstraction managers). */
+  private static final AtomicInteger nextProducerId = new AtomicInteger();
+
+  /** A cached abstraction result. */
+  static final class Entry {
+    /** SMT-LIB dump of the uninstantiated abstraction formula. */
+    final String abstraction;
+
+    /** Id of the abstraction manager that computed this entry. */
+    final int producer;
+
+    private Entry(String pAbstraction, int pProducer) {
+      abstraction = pAbstraction;
+      producer = pProducer;
+    }
+  }
+
+  private final Cache<HashCode, Entry> abstractions;
+
+  /**
+   * Hashes of formulas that are known to be unsatisfiable, together with the id of the abstraction
+   * manager that found this out.
+   */
+  private final Cache<HashCode, Integer> unsatisfiableFormulas;
+
+  private SharedPredicateAbstractionCache() {
+    abstractions =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+    unsatisfiableFormulas =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+  }
+
+  static SharedPredicateAbstractionCache getInstance() {
+    return INSTANCE;
+  }
+
+  /** Get a fresh id for an abstraction manager, to be used as producer of entries. */
+  static int newProducerId() {
+    return nextProducerId.getAndIncrement();
+  }
+
+  /**
+   * Dump the given formula for {@link #computeAbstractionKey} and {@link #computeFormulaKey}. The
+   * dump is expensive for large formulas, so callers should compute it only once.
+   */
+  static String dumpFormula(FormulaManagerView pFmgr, BooleanFormula pFormula) {
+    return pFmgr.dumpFormulaCanonically(pFormula);
+  }
+
+  /**
+   * Compute the key for an abstraction of the given (instantiated) formula with respect to the
+   * given (instantiated) predicates. The order of the predicates is irrelevant.
+   *
+   * @param pFormulaDump the result of {@link #dumpFormula} for the formula
+   * @param pPredicateDumps the results of {@link #dumpFormula} for the predicates, which callers
+   *     should cache per predicate because the same predicates are used for many abstractions
+   */
+  static HashCode computeAbstractionKey(
+      String pAbstractionType, String pFormulaDump, Collection<String> pPredicateDumps) {
+    List<String> predicates = new ArrayList<>(pPredicateDumps);
+    predicates.sort(null);
+
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    hasher.putString(pAbstractionType, UTF_8).putByte((byte) 0);
+    hasher.putString(pFormulaDump, UTF_8).putByte((byte) 0);
+    for (String predicate : predicates) {
+      hasher.putString(predicate, UTF_8).putByte((byte) 0);
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Compute the key of a formula for {@link #getUnsatProducer(HashCode)}.
+   *
+   * @param pFormulaDump the result of {@link #dumpFormula} for the formula
+   */
+  static HashCode computeFormulaKey(String pFormulaDump) {
+    return HASH_FUNCTION.hashString(pFormulaDump, UTF_8);
+  }
+
+  @Nullable Entry getAbstraction(HashCode pKey) {
+    return abstractions.getIfPresent(pKey);
+  }
+
+  void putAbstraction(HashCode pKey, String pAbstraction, int pProducer) {
+    abstractions.put(pKey, new Entry(pAbstraction, pProducer));
+  }
+
+  /**
+   * Check whether a formula is known to be unsatisfiable.
+   *
+   * @return the id of the abstraction manager that found the formula to be unsatisfiable, or null
+   *     if this is not known
+   */
+  @Nullable Integer getUnsatProducer(HashCode pFormulaKey) {
+    return unsatisfiableFormulas.getIfPresent(pFormulaKey);
+  }
+
+  void putUnsat(HashCode pFormulaKey, int pProducer) {
+    unsatisfiableFormulas.put(pFormulaKey, pProducer);
+  }
+}
@@ -40,8 +40,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.defaults.LatticeAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
-import org.sosy_lab.cpachecker.util.globalinfo.CFAInfo;
-import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.globalinfo.CFANodeReference;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
 public class ReachingDefState implements AbstractState, Serializable,
@@ -385,7 +384,7 @@ public class ReachingDefState implements AbstractState, Serializable,
 
   public static class ProgramDefinitionPoint implements DefinitionPoint, Serializable {
 
-    private static final long serialVersionUID = -7601382286840053882L;
+    private static final long serialVersionUID = 4460181767264128470L;
     private transient CFANode entry;
     private transient CFANode exit;
 
@@ -425,17 +424,15 @@ public class ReachingDefState implements AbstractState, Serializable,
     }
 
     private void writeObject(java.io.ObjectOutputStream out) throws IOException {
-      out.writeInt(entry.getNodeNumber());
-      out.writeInt(exit.getNodeNumber());
+      out.writeObject(CFANodeReference.of(entry));
+      out.writeObject(CFANodeReference.of(exit));
     }
 
     @SuppressWarnings("UnusedVariable") // parameter is required by API
-    private void readObject(java.io.ObjectInputStream in) throws IOException {
-      int nodeNumber = in.readInt();
-      CFAInfo cfaInfo = GlobalInfo.getInstance().getCFAInfo().orElseThrow();
-      entry = cfaInfo.getNodeByNodeNumber(nodeNumber);
-      nodeNumber = in.readInt();
-      exit = cfaInfo.getNodeByNodeNumber(nodeNumber);
+    private void readObject(java.io.ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+      entry = ((CFANodeReference) in.readObject()).resolve();
+      exit = ((CFANodeReference) in.readObject()).resolve();
     }
 
   }
@@ -170,10 +170,19 @@ public class SMGCPA
   public StopOperator getStopOperator() {
     switch (stopType) {
       case "END_BLOCK":
-        return new SMGStopOperator(getAbstractDomain());
+        return new SMGStopOperator(
+            getAbstractDomain(),
+            true,
+            options.isPrefilterCoverageChecks(),
+            options.isHeapAbstractionEnabled(),
+            stats);
       case "NEVER":
         return StopNeverOperator.getInstance();
       case "SEP":
+        if (options.isPrefilterCoverageChecks()) {
+          return new SMGStopOperator(
+              getAbstractDomain(), false, true, options.isHeapAbstractionEnabled(), stats);
+        }
         return new StopSepOperator(getAbstractDomain());
       default:
         throw new AssertionError("unknown stoptype for SMGCPA");
@@ -80,7 +80,7 @@ public final class SMGIntersectStates {
     mapping1.map(SMGNullObject.INSTANCE, SMGNullObject.INSTANCE);
     mapping2.map(SMGNullObject.INSTANCE, SMGNullObject.INSTANCE);
 
-    destSMG = new CLangSMG(heap1.getMachineModel());
+    destSMG = new CLangSMG(heap1.getMachineModel(), heap1.isHasValueEdgeIndexByOffset());
   }
 
   /**
@@ -211,6 +211,21 @@ public class SMGOptions {
           "Handle external variables with incomplete type (extern int array[]) as external allocation")
   private boolean handleIncompleteExternalVariableAsExternalAllocation = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Store the has-value edges of each SMG object sorted by offset. This speeds up reading "
+              + "and writing fields of objects with many fields, e.g., large arrays and structs.")
+  private boolean indexHasValueEdgesByOffset = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Compare cheap structural fingerprints of SMG states (stack frames, number of variables, "
+              + "heap objects) before checking coverage in the stop operator, "
+              + "and skip the full check for states that cannot cover each other.")
+  private boolean prefilterCoverageChecks = false;
+
   public enum SMGExportLevel {
     NEVER,
     LEAF,
@@ -329,4 +344,12 @@ public class SMGOptions {
   public boolean isHandleUnknownDereferenceAsSafe() {
     return handleUnknownDereferenceAsSafe;
   }
+
+  public boolean isIndexHasValueEdgesByOffset() {
+    return indexHasValueEdgesByOffset;
+  }
+
+  public boolean isPrefilterCoverageChecks() {
+    return prefilterCoverageChecks;
+  }
 }
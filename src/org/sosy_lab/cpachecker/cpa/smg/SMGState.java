@@ -121,6 +121,12 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
   private final SMGOptions options;
   private final long sizeOfVoidPointerInBits;
 
+  /**
+   * Computed on the first call of {@link #getFingerprint()}, i.e., only for states that are not
+   * modified anymore. Copies of this state compute their own fingerprint.
+   */
+  private volatile @Nullable SMGStateFingerprint fingerprint = null;
+
   private void issueMemoryError(String pMessage, boolean pUndefinedBehavior) {
     if (options.isMemoryErrorTarget()) {
       logger.log(Level.FINE, pMessage);
@@ -160,7 +166,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     this(
         pLogger,
         pOptions,
-        new CLangSMG(pMachineModel),
+        new CLangSMG(pMachineModel, pOptions.isIndexHasValueEdgesByOffset()),
         ID_COUNTER.getFreshId(),
         ImmutableMap.of());
   }
@@ -1222,8 +1228,11 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
 
     SMGEdgeHasValue new_edge = new SMGEdgeHasValue(pSizeInBits, pOffset, pObject, pValue);
 
-    // Check if the edge is  not present already
-    SMGEdgeHasValueFilter filter = SMGEdgeHasValueFilter.objectFilter(pObject);
+    // Check if the edge is  not present already,
+    // only edges overlapping with the new edge are relevant here.
+    SMGEdgeHasValueFilter filter =
+        SMGEdgeHasValueFilter.objectFilter(pObject)
+            .filterOverlappingWith(pOffset, pOffset + pSizeInBits);
 
     Set<SMGEdgeHasValue> edges = heap.getHVEdges(filter);
     if (edges.contains(new_edge)) {
@@ -1265,6 +1274,21 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     return blockEnded;
   }
 
+  /**
+   * Returns the fingerprint of this state for prefiltering coverage checks. This must only be
+   * called for states that are not modified afterwards, e.g., states in the reached set or
+   * states that are checked for coverage, because the fingerprint is computed only once.
+   */
+  SMGStateFingerprint getFingerprint() {
+    SMGStateFingerprint result = fingerprint;
+    if (result == null) {
+      // concurrent calls may compute it twice, but with the same result
+      result = SMGStateFingerprint.of(this);
+      fingerprint = result;
+    }
+    return result;
+  }
+
   public static class SMGStateEdgePair {
 
     private final SMGState smgState;
@@ -1705,37 +1729,39 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
 
     long targetRangeSize = pTargetOffset + copyRange;
 
-    SMGEdgeHasValueFilter filterSource = SMGEdgeHasValueFilter.objectFilter(pSource);
-    SMGEdgeHasValueFilter filterTarget = SMGEdgeHasValueFilter.objectFilter(pTarget);
+    SMGEdgeHasValueFilter filterSource =
+        SMGEdgeHasValueFilter.objectFilter(pSource)
+            .filterOverlappingWith(pSourceOffset, pSourceLastCopyBitOffset);
+    SMGEdgeHasValueFilter filterTarget =
+        SMGEdgeHasValueFilter.objectFilter(pTarget)
+            .filterOverlappingWith(pTargetOffset, targetRangeSize);
 
     // Remove all target edges in range
     for (SMGEdgeHasValue edge : getHVEdges(filterTarget)) {
-      if (edge.overlapsWith(pTargetOffset, targetRangeSize)) {
-        heap.removeHasValueEdge(edge);
+      heap.removeHasValueEdge(edge);
 
-        // Shrink overlapping zero edge
-        if (edge.getValue() == SMGZeroValue.INSTANCE) {
-          SMGObject object = edge.getObject();
-
-          long zeroEdgeOffset = edge.getOffset();
-          if (zeroEdgeOffset < pTargetOffset) {
-            heap.addHasValueEdge(
-                new SMGEdgeHasValue(
-                    Math.toIntExact(pTargetOffset - zeroEdgeOffset),
-                    zeroEdgeOffset,
-                    object,
-                    SMGZeroValue.INSTANCE));
-          }
+      // Shrink overlapping zero edge
+      if (edge.getValue() == SMGZeroValue.INSTANCE) {
+        SMGObject object = edge.getObject();
+
+        long zeroEdgeOffset = edge.getOffset();
+        if (zeroEdgeOffset < pTargetOffset) {
+          heap.addHasValueEdge(
+              new SMGEdgeHasValue(
+                  Math.toIntExact(pTargetOffset - zeroEdgeOffset),
+                  zeroEdgeOffset,
+                  object,
+                  SMGZeroValue.INSTANCE));
+        }
 
-          long zeroEdgeOffset2 = zeroEdgeOffset + edge.getSizeInBits();
-          if (targetRangeSize < zeroEdgeOffset2) {
-            heap.addHasValueEdge(
-                new SMGEdgeHasValue(
-                    Math.toIntExact(zeroEdgeOffset2 - targetRangeSize),
-                    targetRangeSize,
-                    object,
-                    SMGZeroValue.INSTANCE));
-          }
+        long zeroEdgeOffset2 = zeroEdgeOffset + edge.getSizeInBits();
+        if (targetRangeSize < zeroEdgeOffset2) {
+          heap.addHasValueEdge(
+              new SMGEdgeHasValue(
+                  Math.toIntExact(zeroEdgeOffset2 - targetRangeSize),
+                  targetRangeSize,
+                  object,
+                  SMGZeroValue.INSTANCE));
         }
       }
     }
@@ -1743,11 +1769,8 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     // Shift the source edge offset depending on the target range offset
     long copyShift = pTargetOffset - pSourceOffset;
     for (SMGEdgeHasValue edge : getHVEdges(filterSource)) {
-      if (edge.overlapsWith(pSourceOffset, pSourceLastCopyBitOffset)) {
-        long offset = edge.getOffset() + copyShift;
-        newSMGState =
-            writeValue0(pTarget, offset, edge.getSizeInBits(), edge.getValue()).getState();
-      }
+      long offset = edge.getOffset() + copyShift;
+      newSMGState = writeValue0(pTarget, offset, edge.getSizeInBits(), edge.getValue()).getState();
     }
 
     performConsistencyCheck(SMGRuntimeCheck.FULL);
@@ -0,0 +1,151 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg;
+
+import com.google.common.collect.ImmutableList;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.UnmodifiableCLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+
+/**
+ * A cheap structural summary of an {@link UnmodifiableSMGState} that allows to rule out coverage
+ * between two states without running {@link SMGState#isLessOrEqual}.
+ *
+ * <p>The fingerprint only contains properties that are necessary conditions for coverage. If
+ * {@link #mayBeCoveredBy} returns false, the expensive check would also fail. The conditions
+ * differ depending on whether coverage is computed via {@link
+ * org.sosy_lab.cpachecker.cpa.smg.join.SMGJoin} (heap abstraction enabled) or via {@link
+ * org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual}.
+ */
+final class SMGStateFingerprint {
+
+  /** states with error predicates are never covered and never cover another state. */
+  private final boolean hasErrorPredicates;
+
+  /** function names of the stack frames, starting with the top-most frame. */
+  private final ImmutableList<String> functionNames;
+
+  /** number of objects (variables and return object) per stack frame, same order as above. */
+  private final int[] stackObjectCounts;
+
+  private final int globalsCount;
+  private final int heapObjectCount;
+  private final int heapObjectsHash;
+  private final int validHeapObjectsHash;
+
+  private SMGStateFingerprint(
+      boolean pHasErrorPredicates,
+      ImmutableList<String> pFunctionNames,
+      int[] pStackObjectCounts,
+      int pGlobalsCount,
+      int pHeapObjectCount,
+      int pHeapObjectsHash,
+      int pValidHeapObjectsHash) {
+    hasErrorPredicates = pHasErrorPredicates;
+    functionNames = pFunctionNames;
+    stackObjectCounts = pStackObjectCounts;
+    globalsCount = pGlobalsCount;
+    heapObjectCount = pHeapObjectCount;
+    heapObjectsHash = pHeapObjectsHash;
+    validHeapObjectsHash = pValidHeapObjectsHash;
+  }
+
+  static SMGStateFingerprint of(UnmodifiableSMGState pState) {
+    UnmodifiableCLangSMG heap = pState.getHeap();
+
+    ImmutableList.Builder<String> functionNames = ImmutableList.builder();
+    int[] stackObjectCounts = new int[heap.getStackFrames().size()];
+    int i = 0;
+    for (CLangStackFrame frame : heap.getStackFrames()) {
+      functionNames.add(frame.getFunctionDeclaration().getOrigName());
+      stackObjectCounts[i++] = frame.getAllObjects().size();
+    }
+
+    int validHeapObjectsHash = 0;
+    for (SMGObject object : heap.getHeapObjects()) {
+      if (heap.isObjectValid(object)) {
+        validHeapObjectsHash += object.hashCode();
+      }
+    }
+
+    return new SMGStateFingerprint(
+        !pState.getErrorPredicateRelation().isEmpty(),
+        functionNames.build(),
+        stackObjectCounts,
+        heap.getGlobalObjects().size(),
+        heap.getHeapObjects().size(),
+        heap.getHeapObjects().hashCode(),
+        validHeapObjectsHash);
+  }
+
+  /**
+   * Returns false if the state with this fingerprint is definitely not less or equal to the state
+   * with the given fingerprint, and true if the full check is required.
+   *
+   * @param pReached fingerprint of the (potentially) covering state
+   * @param pHeapAbstraction whether coverage is computed by joining the SMGs
+   */
+  boolean mayBeCoveredBy(SMGStateFingerprint pReached, boolean pHeapAbstraction) {
+    if (hasErrorPredicates || pReached.hasErrorPredicates) {
+      return false;
+    }
+    return pHeapAbstraction
+        ? mayBeJoinCoveredBy(pReached)
+        : mayBeLessOrEqualCoveredBy(pReached);
+  }
+
+  /**
+   * The join can only have status EQUAL or RIGHT_ENTAIL if all global variables of this state exist
+   * in the reached state and if the common stack frames belong to the same functions.
+   */
+  private boolean mayBeJoinCoveredBy(SMGStateFingerprint pReached) {
+    if (globalsCount > pReached.globalsCount) {
+      return false;
+    }
+    int commonFrames = Math.min(functionNames.size(), pReached.functionNames.size());
+    return functionNames
+        .subList(0, commonFrames)
+        .equals(pReached.functionNames.subList(0, commonFrames));
+  }
+
+  /**
+   * {@link org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual} requires identical heap objects
+   * with identical validity, identical stack frames, and that the reached state does not have more
+   * global or stack variables than this state.
+   */
+  private boolean mayBeLessOrEqualCoveredBy(SMGStateFingerprint pReached) {
+    if (heapObjectCount != pReached.heapObjectCount
+        || heapObjectsHash != pReached.heapObjectsHash
+        || validHeapObjectsHash != pReached.validHeapObjectsHash
+        || globalsCount < pReached.globalsCount
+        || !functionNames.equals(pReached.functionNames)) {
+      return false;
+    }
+    for (int i = 0; i < stackObjectCounts.length; i++) {
+      if (stackObjectCounts[i] < pReached.stackObjectCounts[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMGTest;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
+
+public class SMGStateFingerprintTest {
+
+  private static final LogManager logger = LogManager.createTestLogManager();
+
+  private SMGOptions options;
+  private CLangSMG smg1;
+  private CLangSMG smg2;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    options = new SMGOptions(Configuration.defaultConfiguration());
+    smg1 = new CLangSMG(MachineModel.LINUX32);
+    smg2 = new CLangSMG(MachineModel.LINUX32);
+    smg1.addStackFrame(CLangSMGTest.DUMMY_FUNCTION);
+    smg2.addStackFrame(CLangSMGTest.DUMMY_FUNCTION);
+  }
+
+  private SMGStateFingerprint fingerprint(CLangSMG pSmg) {
+    return SMGStateFingerprint.of(new SMGState(logger, options, pSmg, 0, ImmutableMap.of()));
+  }
+
+  /**
+   * Check that the fingerprints of both states give the same verdict as the real coverage check
+   * with heap abstraction (i.e., via {@link org.sosy_lab.cpachecker.cpa.smg.join.SMGJoin}).
+   */
+  private static void assertFingerprintMatchesJoin(CLangSMG pSmg, CLangSMG pReachedSmg)
+      throws Exception {
+    SMGOptions joinOptions =
+        new SMGOptions(
+            Configuration.builder().setOption("cpa.smg.enableHeapAbstraction", "true").build());
+    SMGState state = new SMGState(logger, joinOptions, pSmg.copyOf(), 0, ImmutableMap.of());
+    SMGState reachedState =
+        new SMGState(logger, joinOptions, pReachedSmg.copyOf(), 1, ImmutableMap.of());
+    boolean mayBeCovered =
+        state.getFingerprint().mayBeCoveredBy(reachedState.getFingerprint(), true);
+
+    assertThat(mayBeCovered).isEqualTo(state.isLessOrEqual(reachedState));
+  }
+
+  @Test
+  public void equalStatesMayCoverEachOther() {
+    SMGRegion global = new SMGRegion(32, "global");
+    smg1.addGlobalObject(global);
+    smg2.addGlobalObject(global);
+
+    assertThat(fingerprint(smg1).mayBeCoveredBy(fingerprint(smg2), false)).isTrue();
+    assertThat(fingerprint(smg1).mayBeCoveredBy(fingerprint(smg2), true)).isTrue();
+    assertThat(SMGIsLessOrEqual.isLessOrEqual(smg2, smg1)).isTrue();
+  }
+
+  @Test
+  public void differentHeapObjects() {
+    SMGRegion heapObject = new SMGRegion(32, "heap");
+    smg1.addHeapObject(heapObject);
+    smg1.setValidity(heapObject, true);
+
+    assertThat(fingerprint(smg1).mayBeCoveredBy(fingerprint(smg2), false)).isFalse();
+    assertThat(SMGIsLessOrEqual.isLessOrEqual(smg2, smg1)).isFalse();
+
+    smg2.addHeapObject(heapObject);
+    smg2.setValidity(heapObject, false);
+
+    assertThat(fingerprint(smg1).mayBeCoveredBy(fingerprint(smg2), false)).isFalse();
+    assertThat(SMGIsLessOrEqual.isLessOrEqual(smg2, smg1)).isFalse();
+
+    smg2.setValidity(heapObject, true);
+
+    assertThat(fingerprint(smg1).mayBeCoveredBy(fingerprint(smg2), false)).isTrue();
+  }
+
+  @Test
+  public void additionalGlobals() throws Exception {
+    smg1.addGlobalObject(new SMGRegion(32, "global"));
+
+    // SMGIsLessOrEqual allows additional variables in the covered state,
+    assertThat(fingerprint(smg1).mayBeCoveredBy(fingerprint(smg2), false)).isTrue();
+    assertThat(fingerprint(smg2).mayBeCoveredBy(fingerprint(smg1), false)).isFalse();
+    assertThat(SMGIsLessOrEqual.isLessOrEqual(smg1, smg2)).isFalse();
+
+    // the join has its own rules, which the fingerprint must follow in both directions
+    assertFingerprintMatchesJoin(smg1, smg2);
+    assertFingerprintMatchesJoin(smg2, smg1);
+  }
+
+  @Test
+  public void differentStacks() {
+    smg1.addStackFrame(CLangSMGTest.DUMMY_FUNCTION);
+
+    assertThat(fingerprint(smg1).mayBeCoveredBy(fingerprint(smg2), false)).isFalse();
+    assertThat(fingerprint(smg2).mayBeCoveredBy(fingerprint(smg1), false)).isFalse();
+  }
+}
@@ -36,6 +36,10 @@ public class SMGStatistics implements Statistics {
 
   final StatCounter abstractions = new StatCounter("Number of abstraction computations");
   final StatTimer totalAbstraction = new StatTimer("Total time for abstraction computation");
+  final StatCounter coverageCandidates =
+      new StatCounter("Number of states considered for coverage");
+  final StatCounter coverageChecksAvoided =
+      new StatCounter("Number of coverage checks avoided by fingerprint");
 
   @Override
   public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
@@ -45,6 +49,10 @@ public class SMGStatistics implements Statistics {
     put(pOut, 1, SMGIsLessOrEqual.heapTimer);
     put(pOut, 0, abstractions);
     put(pOut, 0, totalAbstraction);
+    if (coverageCandidates.getValue() > 0) {
+      put(pOut, 0, coverageCandidates);
+      put(pOut, 1, coverageChecksAvoided);
+    }
   }
 
   @Override
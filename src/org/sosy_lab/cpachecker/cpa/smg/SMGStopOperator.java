@@ -24,26 +24,65 @@
 package org.sosy_lab.cpachecker.cpa.smg;
 
 import java.util.Collection;
-import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
-public class SMGStopOperator extends StopSepOperator{
-  /**
-   * Creates a stop-sep operator based on the given partial order
-   */
-  public SMGStopOperator(AbstractDomain d) {
-    super(d);
+/**
+ * Stop-sep operator for SMGs. Optionally, states are only covered at the end of a block, and
+ * candidates for coverage are prefiltered with an {@link SMGStateFingerprint}, such that the
+ * expensive check {@link SMGState#isLessOrEqual} is only run for structurally compatible states.
+ * The reached states are still iterated one by one (there is no index by fingerprint), only the
+ * comparison of incompatible states becomes cheap.
+ */
+public class SMGStopOperator implements StopOperator {
+
+  private final AbstractDomain domain;
+  private final boolean onlyAtBlockEnd;
+  private final boolean prefilter;
+  private final boolean heapAbstraction;
+  private final SMGStatistics stats;
+
+  public SMGStopOperator(
+      AbstractDomain pDomain,
+      boolean pOnlyAtBlockEnd,
+      boolean pPrefilter,
+      boolean pHeapAbstraction,
+      SMGStatistics pStats) {
+    domain = pDomain;
+    onlyAtBlockEnd = pOnlyAtBlockEnd;
+    prefilter = pPrefilter;
+    heapAbstraction = pHeapAbstraction;
+    stats = pStats;
   }
 
   @Override
   public boolean stop(AbstractState el, Collection<AbstractState> reached, Precision precision)
       throws CPAException, InterruptedException {
-    if (el instanceof SMGState && !((UnmodifiableSMGState) el).isBlockEnded()) {
+    if (onlyAtBlockEnd && el instanceof SMGState && !((UnmodifiableSMGState) el).isBlockEnded()) {
       return false;
     }
-    return super.stop(el, reached, precision);
+
+    SMGStateFingerprint fingerprint = null;
+    if (prefilter && el instanceof SMGState) {
+      fingerprint = ((SMGState) el).getFingerprint();
+    }
+
+    for (AbstractState reachedState : reached) {
+      if (fingerprint != null && reachedState instanceof SMGState) {
+        stats.coverageCandidates.inc();
+        if (!fingerprint.mayBeCoveredBy(
+            ((SMGState) reachedState).getFingerprint(), heapAbstraction)) {
+          stats.coverageChecksAvoided.inc();
+          continue;
+        }
+      }
+      if (domain.isLessOrEqual(el, reachedState)) {
+        return true;
+      }
+    }
+    return false;
   }
 }
@@ -111,7 +111,19 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
    * pointing to it, and is empty otherwise.
    */
   public CLangSMG(MachineModel pMachineModel) {
-    super(pMachineModel);
+    this(pMachineModel, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * <p>Keeps consistency: yes
+   *
+   * @param pMachineModel A machine model for the SMG
+   * @param pHasValueEdgeIndexByOffset whether has-value edges are indexed by their offset
+   */
+  public CLangSMG(MachineModel pMachineModel, boolean pHasValueEdgeIndexByOffset) {
+    super(pMachineModel, pHasValueEdgeIndexByOffset);
     global_objects = PathCopyingPersistentTreeMap.of();
     heap_objects = PersistentSet.of();
     heap_objects = heap_objects.addAndCopy(SMGNullObject.INSTANCE);
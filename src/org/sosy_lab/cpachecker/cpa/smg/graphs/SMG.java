@@ -71,6 +71,9 @@ public class SMG implements UnmodifiableSMG {
 
   private final MachineModel machine_model;
 
+  /** whether {@link #hv_edges} is a {@link SMGHasValueEdgeOffsetMap}. */
+  private final boolean hasValueEdgeIndexByOffset;
+
   private final static SMGEdgePointsTo NULL_POINTER = new SMGEdgePointsTo(SMGZeroValue.INSTANCE, SMGNullObject.INSTANCE, 0);
 
   /**
@@ -82,9 +85,22 @@ public class SMG implements UnmodifiableSMG {
    */
   @VisibleForTesting
   public SMG(final MachineModel pMachineModel) {
+    this(pMachineModel, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * <p>Consistent after call: yes.
+   *
+   * @param pMachineModel A machine model this SMG uses.
+   * @param pHasValueEdgeIndexByOffset whether has-value edges are indexed by their offset.
+   */
+  public SMG(final MachineModel pMachineModel, final boolean pHasValueEdgeIndexByOffset) {
+    hasValueEdgeIndexByOffset = pHasValueEdgeIndexByOffset;
     objects = PersistentSet.of();
     values = PersistentSet.of();
-    hv_edges = new SMGHasValueEdgeSet();
+    hv_edges = createHasValueEdges();
     pt_edges = new SMGPointsToMap();
     validObjects = PersistentSet.of();
     externalObjectAllocation = PersistentSet.of();
@@ -103,6 +119,7 @@ public class SMG implements UnmodifiableSMG {
    */
   protected SMG(final SMG pHeap) {
     machine_model = pHeap.machine_model;
+    hasValueEdgeIndexByOffset = pHeap.hasValueEdgeIndexByOffset;
     hv_edges = pHeap.hv_edges;
     pt_edges = pHeap.pt_edges;
     neq = pHeap.neq;
@@ -457,6 +474,15 @@ public class SMG implements UnmodifiableSMG {
     return machine_model;
   }
 
+  @Override
+  public final boolean isHasValueEdgeIndexByOffset() {
+    return hasValueEdgeIndexByOffset;
+  }
+
+  private SMGHasValueEdges createHasValueEdges() {
+    return hasValueEdgeIndexByOffset ? new SMGHasValueEdgeOffsetMap() : new SMGHasValueEdgeSet();
+  }
+
   /**
    * Obtains a TreeMap offset to size signifying where the object bytes are nullified.
    *
@@ -614,7 +640,7 @@ public class SMG implements UnmodifiableSMG {
 
   protected void clearValuesHvePte() {
     values = PersistentSet.of();
-    hv_edges = new SMGHasValueEdgeSet();
+    hv_edges = createHasValueEdges();
     pt_edges = new SMGPointsToMap();
     neq = new NeqRelation();
     pathPredicate.clear();
@@ -0,0 +1,237 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentSortedMap;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+
+/**
+ * A collection of has-value-edges that keeps the edges of each {@link SMGObject} sorted by their
+ * offset. Lookups of edges at a given offset and of edges overlapping a given range only visit the
+ * edges in the relevant part of the object instead of all edges of the object.
+ */
+public class SMGHasValueEdgeOffsetMap implements SMGHasValueEdges {
+
+  private final PersistentSortedMap<SMGObject, ObjectEdges> map;
+
+  public SMGHasValueEdgeOffsetMap() {
+    map = PathCopyingPersistentTreeMap.of();
+  }
+
+  private SMGHasValueEdgeOffsetMap(PersistentSortedMap<SMGObject, ObjectEdges> pMap) {
+    map = pMap;
+  }
+
+  @Override
+  public SMGHasValueEdgeOffsetMap removeAllEdgesOfObjectAndCopy(SMGObject pObj) {
+    if (!map.containsKey(pObj)) {
+      return this;
+    }
+    return new SMGHasValueEdgeOffsetMap(map.removeAndCopy(pObj));
+  }
+
+  @Override
+  public SMGHasValueEdgeOffsetMap addEdgeAndCopy(SMGEdgeHasValue pEdge) {
+    SMGObject obj = pEdge.getObject();
+    @Nullable ObjectEdges old = map.get(obj);
+    ObjectEdges updated = old == null ? ObjectEdges.of(pEdge) : old.add(pEdge);
+    if (old == updated) {
+      return this;
+    }
+    return new SMGHasValueEdgeOffsetMap(map.putAndCopy(obj, updated));
+  }
+
+  @Override
+  public SMGHasValueEdgeOffsetMap removeEdgeAndCopy(SMGEdgeHasValue pEdge) {
+    SMGObject obj = pEdge.getObject();
+    @Nullable ObjectEdges old = map.get(obj);
+    if (old == null) {
+      return this;
+    }
+    @Nullable ObjectEdges updated = old.remove(pEdge);
+    if (old == updated) {
+      return this;
+    } else if (updated == null) {
+      return new SMGHasValueEdgeOffsetMap(map.removeAndCopy(obj));
+    } else {
+      return new SMGHasValueEdgeOffsetMap(map.putAndCopy(obj, updated));
+    }
+  }
+
+  @Override
+  public ImmutableSet<SMGEdgeHasValue> getHvEdges() {
+    ImmutableSet.Builder<SMGEdgeHasValue> builder = ImmutableSet.builder();
+    for (ObjectEdges edges : map.values()) {
+      builder.addAll(edges.asSet());
+    }
+    return builder.build();
+  }
+
+  @Override
+  public ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject) {
+    @Nullable ObjectEdges edges = map.get(pObject);
+    return edges == null ? ImmutableSet.of() : edges.asSet();
+  }
+
+  @Override
+  public ImmutableSet<SMGEdgeHasValue> getEdgesForObjectAtOffset(SMGObject pObject, long pOffset) {
+    @Nullable ObjectEdges edges = map.get(pObject);
+    if (edges == null) {
+      return ImmutableSet.of();
+    }
+    @Nullable ImmutableSet<SMGEdgeHasValue> atOffset = edges.byOffset.get(pOffset);
+    return atOffset == null ? ImmutableSet.of() : atOffset;
+  }
+
+  @Override
+  public ImmutableSet<SMGEdgeHasValue> getOverlappingEdges(
+      SMGObject pObject, long pStart, long pEnd) {
+    @Nullable ObjectEdges edges = map.get(pObject);
+    if (edges == null) {
+      return ImmutableSet.of();
+    }
+    // No edge is larger than maxSizeInBits, thus every edge starting at or before
+    // pStart - maxSizeInBits ends before pStart and cannot overlap.
+    // An edge starting exactly at pStart always overlaps, even for an empty range.
+    long from = pStart - edges.maxSizeInBits + 1;
+    long to = Math.max(pEnd, pStart + 1);
+    ImmutableSet.Builder<SMGEdgeHasValue> builder = ImmutableSet.builder();
+    for (ImmutableSet<SMGEdgeHasValue> atOffset : edges.byOffset.subMap(from, to).values()) {
+      for (SMGEdgeHasValue edge : atOffset) {
+        if (edge.overlapsWith(pStart, pEnd)) {
+          builder.add(edge);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public int hashCode() {
+    return map.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (pObj instanceof SMGHasValueEdgeOffsetMap) {
+      SMGHasValueEdgeOffsetMap other = (SMGHasValueEdgeOffsetMap) pObj;
+      return map.equals(other.map);
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return map.toString();
+  }
+
+  /** The edges of a single object, indexed by their offset. */
+  private static final class ObjectEdges {
+
+    private final PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> byOffset;
+
+    /**
+     * An upper bound for the size of all edges in {@link #byOffset}. The bound is not lowered when
+     * edges are removed, it is only used to limit the range of overlap queries.
+     */
+    private final long maxSizeInBits;
+
+    /** lazily computed set of all edges, see {@link #asSet()}. */
+    private @Nullable ImmutableSet<SMGEdgeHasValue> allEdges = null;
+
+    private ObjectEdges(
+        PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> pByOffset, long pMaxSizeInBits) {
+      byOffset = pByOffset;
+      maxSizeInBits = pMaxSizeInBits;
+    }
+
+    private static ObjectEdges of(SMGEdgeHasValue pEdge) {
+      PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> empty =
+          PathCopyingPersistentTreeMap.of();
+      return new ObjectEdges(
+          empty.putAndCopy(pEdge.getOffset(), ImmutableSet.of(pEdge)),
+          Math.max(1, pEdge.getSizeInBits()));
+    }
+
+    private ObjectEdges add(SMGEdgeHasValue pEdge) {
+      long offset = pEdge.getOffset();
+      @Nullable ImmutableSet<SMGEdgeHasValue> old = byOffset.get(offset);
+      ImmutableSet<SMGEdgeHasValue> fresh;
+      if (old == null) {
+        fresh = ImmutableSet.of(pEdge);
+      } else if (old.contains(pEdge)) {
+        return this;
+      } else {
+        fresh = ImmutableSet.<SMGEdgeHasValue>builder().addAll(old).add(pEdge).build();
+      }
+      return new ObjectEdges(
+          byOffset.putAndCopy(offset, fresh), Math.max(maxSizeInBits, pEdge.getSizeInBits()));
+    }
+
+    /** returns the updated edges, or <code>null</code> if no edge remains. */
+    private @Nullable ObjectEdges remove(SMGEdgeHasValue pEdge) {
+      long offset = pEdge.getOffset();
+      @Nullable ImmutableSet<SMGEdgeHasValue> old = byOffset.get(offset);
+      if (old == null || !old.contains(pEdge)) {
+        return this;
+      }
+      ImmutableSet<SMGEdgeHasValue> fresh =
+          ImmutableSet.copyOf(Iterables.filter(old, e -> !e.equals(pEdge)));
+      PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> updated =
+          fresh.isEmpty()
+              ? byOffset.removeAndCopy(offset)
+              : byOffset.putAndCopy(offset, fresh);
+      return updated.isEmpty() ? null : new ObjectEdges(updated, maxSizeInBits);
+    }
+
+    private ImmutableSet<SMGEdgeHasValue> asSet() {
+      ImmutableSet<SMGEdgeHasValue> result = allEdges;
+      if (result == null) {
+        result = ImmutableSet.copyOf(Iterables.concat(byOffset.values()));
+        allEdges = result;
+      }
+      return result;
+    }
+
+    @Override
+    public int hashCode() {
+      return byOffset.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof ObjectEdges && byOffset.equals(((ObjectEdges) pObj).byOffset);
+    }
+
+    @Override
+    public String toString() {
+      return byOffset.toString();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
+
+public class SMGHasValueEdgeOffsetMapTest {
+
+  private final SMGObject obj1 = new SMGRegion(256, "object1");
+  private final SMGObject obj2 = new SMGRegion(256, "object2");
+
+  private final SMGEdgeHasValue zero = new SMGEdgeHasValue(256, 0, obj1, SMGZeroValue.INSTANCE);
+  private final SMGEdgeHasValue at32 =
+      new SMGEdgeHasValue(32, 32, obj1, SMGKnownExpValue.valueOf(1));
+  private final SMGEdgeHasValue at64 =
+      new SMGEdgeHasValue(32, 64, obj1, SMGKnownExpValue.valueOf(2));
+  private final SMGEdgeHasValue at64small =
+      new SMGEdgeHasValue(8, 64, obj1, SMGKnownExpValue.valueOf(3));
+  private final SMGEdgeHasValue other = new SMGEdgeHasValue(32, 0, obj2, SMGZeroValue.INSTANCE);
+
+  private static SMGHasValueEdges addAll(SMGHasValueEdges pEdges, SMGEdgeHasValue... pNew) {
+    SMGHasValueEdges result = pEdges;
+    for (SMGEdgeHasValue edge : pNew) {
+      result = result.addEdgeAndCopy(edge);
+    }
+    return result;
+  }
+
+  @Test
+  public void testQueriesMatchSet() {
+    SMGHasValueEdges set = addAll(new SMGHasValueEdgeSet(), zero, at32, at64, at64small, other);
+    SMGHasValueEdges map =
+        addAll(new SMGHasValueEdgeOffsetMap(), zero, at32, at64, at64small, other);
+
+    assertThat(map.getHvEdges()).containsExactlyElementsIn(set.getHvEdges());
+    assertThat(map.getEdgesForObject(obj1)).containsExactly(zero, at32, at64, at64small);
+    assertThat(map.getEdgesForObjectAtOffset(obj1, 64)).containsExactly(at64, at64small);
+    assertThat(map.getEdgesForObjectAtOffset(obj1, 16)).isEmpty();
+
+    for (long start = 0; start < 128; start += 8) {
+      for (long end = start; end < 136; end += 8) {
+        assertThat(map.getOverlappingEdges(obj1, start, end))
+            .containsExactlyElementsIn(set.getOverlappingEdges(obj1, start, end));
+      }
+    }
+    assertThat(map.getOverlappingEdges(obj1, 72, 96)).containsExactly(zero, at64);
+  }
+
+  @Test
+  public void testRemove() {
+    SMGHasValueEdges map = addAll(new SMGHasValueEdgeOffsetMap(), zero, at64, at64small, other);
+
+    SMGHasValueEdges removed = map.removeEdgeAndCopy(at64small);
+    assertThat(removed.getEdgesForObject(obj1)).containsExactly(zero, at64);
+    assertThat(removed.removeEdgeAndCopy(at64small)).isSameInstanceAs(removed);
+    assertThat(removed).isEqualTo(addAll(new SMGHasValueEdgeOffsetMap(), other, at64, zero));
+
+    SMGHasValueEdges withoutObj1 = map.removeAllEdgesOfObjectAndCopy(obj1);
+    assertThat(withoutObj1.getHvEdges()).containsExactly(other);
+    assertThat(withoutObj1.getOverlappingEdges(obj1, 0, 256)).isEmpty();
+  }
+}
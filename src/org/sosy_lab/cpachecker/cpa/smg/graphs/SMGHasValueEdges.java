@@ -23,6 +23,8 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+
 import com.google.common.collect.ImmutableSet;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
@@ -45,4 +47,26 @@ public interface SMGHasValueEdges {
 
   /** get all outgoing edges of an {@link SMGObject}, e.g., all values of this object. */
   ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject);
+
+  /** get all outgoing edges of an {@link SMGObject} that start exactly at the given offset. */
+  default ImmutableSet<SMGEdgeHasValue> getEdgesForObjectAtOffset(
+      SMGObject pObject, long pOffset) {
+    return getEdgesForObject(pObject)
+        .stream()
+        .filter(edge -> edge.getOffset() == pOffset)
+        .collect(toImmutableSet());
+  }
+
+  /**
+   * get all outgoing edges of an {@link SMGObject} that overlap with the range from pStart
+   * (inclusive) to pEnd (exclusive), in the sense of {@link SMGEdgeHasValue#overlapsWith(long,
+   * long)}.
+   */
+  default ImmutableSet<SMGEdgeHasValue> getOverlappingEdges(
+      SMGObject pObject, long pStart, long pEnd) {
+    return getEdgesForObject(pObject)
+        .stream()
+        .filter(edge -> edge.overlapsWith(pStart, pEnd))
+        .collect(toImmutableSet());
+  }
 }
\ No newline at end of file
@@ -74,6 +74,12 @@ public interface UnmodifiableSMG {
 
   MachineModel getMachineModel();
 
+  /**
+   * Returns whether the has-value edges of this SMG are indexed by their offset, such that new
+   * SMGs derived from this one can use the same representation.
+   */
+  boolean isHasValueEdgeIndexByOffset();
+
   TreeMap<Long, Integer> getNullEdgesMapOffsetToSizeForObject(SMGObject pObj);
 
   boolean isPointer(SMGValue value);
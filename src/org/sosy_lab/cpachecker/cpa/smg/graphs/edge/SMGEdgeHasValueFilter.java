@@ -42,6 +42,8 @@ public class SMGEdgeHasValueFilter {
   private boolean valueComplement = false;
   private Long offset = null;
   private long sizeInBits = -1;
+  private Long overlapStart = null;
+  private long overlapEnd = -1;
 
   @VisibleForTesting
   public SMGEdgeHasValueFilter filterByObject(SMGObject pObject) {
@@ -66,6 +68,16 @@ public class SMGEdgeHasValueFilter {
     return this;
   }
 
+  /**
+   * Only keep edges overlapping with the range from pStart (inclusive) to pEnd (exclusive), see
+   * {@link SMGEdgeHasValue#overlapsWith(long, long)}.
+   */
+  public SMGEdgeHasValueFilter filterOverlappingWith(long pStart, long pEnd) {
+    overlapStart = pStart;
+    overlapEnd = pEnd;
+    return this;
+  }
+
   public SMGEdgeHasValueFilter filterBySize(long pSizeInBits) {
     Preconditions.checkArgument(pSizeInBits >= 0, "negative sizes not allowed for filtering");
     sizeInBits = pSizeInBits;
@@ -93,12 +105,20 @@ public class SMGEdgeHasValueFilter {
       return false;
     }
 
+    if (overlapStart != null && !pEdge.overlapsWith(overlapStart, overlapEnd)) {
+      return false;
+    }
+
     return true;
   }
 
   public Iterable<SMGEdgeHasValue> filter(SMGHasValueEdges pEdges) {
     Set<SMGEdgeHasValue> filtered;
-    if (object != null) {
+    if (object != null && offset != null) {
+      filtered = pEdges.getEdgesForObjectAtOffset(object, offset);
+    } else if (object != null && overlapStart != null) {
+      filtered = pEdges.getOverlappingEdges(object, overlapStart, overlapEnd);
+    } else if (object != null) {
       filtered = pEdges.getEdgesForObject(object);
     } else {
       filtered = pEdges.getHvEdges();
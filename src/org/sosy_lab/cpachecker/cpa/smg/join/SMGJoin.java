@@ -72,7 +72,7 @@ public final class SMGJoin {
       UnmodifiableSMGState pStateOfSmg2)
       throws SMGInconsistentException {
 
-    smg = new CLangSMG(opSMG1.getMachineModel());
+    smg = new CLangSMG(opSMG1.getMachineModel(), opSMG1.isHasValueEdgeIndexByOffset());
 
     // FIT-TR-2012-04, Alg 10, line 2
     SMGJoinStatus tmpStatus1 = joinGlobalVariables(opSMG1.getGlobalObjects(), opSMG2.getGlobalObjects());
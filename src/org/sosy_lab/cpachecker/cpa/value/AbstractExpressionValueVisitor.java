@@ -638,7 +638,7 @@ public abstract class AbstractExpressionValueVisitor
         long lVal = lNum.getNumber().longValue();
         long rVal = rNum.getNumber().longValue();
         long result = arithmeticOperation(lVal, rVal, op, calculationType, machineModel, logger);
-        return new NumericValue(result);
+        return NumericValue.valueOf(result);
       }
         case INT128: {
           BigInteger lVal = lNum.bigInteger();
@@ -756,7 +756,7 @@ public abstract class AbstractExpressionValueVisitor
     }
 
     // return 1 if expression holds, 0 otherwise
-    return new NumericValue(matchBooleanOperation(op, cmp) ? 1L : 0L);
+    return NumericValue.valueOf(matchBooleanOperation(op, cmp) ? 1L : 0L);
   }
 
   /** returns True, iff cmp fulfills the boolean operation. */
@@ -1455,7 +1455,12 @@ public abstract class AbstractExpressionValueVisitor
 
   @Override
   public Value visit(CIntegerLiteralExpression pE) throws UnrecognizedCodeException {
-    return new NumericValue(pE.getValue());
+    BigInteger value = pE.getValue();
+    if (value.bitLength() < SIZE_OF_JAVA_LONG) {
+      // most literals fit into a long, which allows the cheap cast of castPrimitiveInteger
+      return NumericValue.valueOf(value.longValue());
+    }
+    return new NumericValue(value);
   }
 
   @Override
@@ -2390,6 +2395,13 @@ public abstract class AbstractExpressionValueVisitor
       case INT:
       case CHAR:
         {
+          if (numericValue.hasPrimitiveIntegerValue()
+              && size > 0
+              && (size < SIZE_OF_JAVA_LONG
+                  || (size == SIZE_OF_JAVA_LONG && machineModel.isSigned(st)))) {
+            return castPrimitiveInteger(numericValue, size, machineModel.isSigned(st));
+          }
+
           if (isNan(numericValue)) {
             // result of conversion of NaN to integer is undefined
             return UnknownValue.getInstance();
@@ -2489,6 +2501,31 @@ public abstract class AbstractExpressionValueVisitor
     }
   }
 
+  /**
+   * Cast an integer that is stored in a primitive Java type to a type with at most 64 bits (or
+   * exactly 64 bits for signed types). This is the same as the general case of {@link
+   * #castNumeric}, but computed with primitive operations instead of {@link BigInteger}s.
+   */
+  private static NumericValue castPrimitiveInteger(
+      final NumericValue pValue, final int pSize, final boolean pSigned) {
+    final long value = pValue.longValue();
+    final long result;
+    if (pSize == SIZE_OF_JAVA_LONG) {
+      result = value;
+    } else if (pSigned) {
+      // keep the lowest bits and extend the sign
+      final int shift = SIZE_OF_JAVA_LONG - pSize;
+      result = (value << shift) >> shift;
+    } else {
+      result = value & ((1L << pSize) - 1);
+    }
+
+    if (result == value && pValue.getNumber() instanceof Long) {
+      return pValue; // nothing changes
+    }
+    return NumericValue.valueOf(result);
+  }
+
   private static Value convertToBool(final NumericValue pValue) {
     Number n = pValue.getNumber();
     if (isBooleanFalseRepresentation(n)) {
@@ -326,6 +326,36 @@ public class ExpressionValueVisitorTest {
     }
   }
 
+  /** checks that casts of long values give the same results as casts of BigIntegers */
+  @Test
+  public void checkPrimitiveIntegerCasts() {
+    ImmutableList<Long> values =
+        ImmutableList.of(
+            0L, 1L, -1L, 127L, 128L, -129L, 255L, 65535L, -65536L, 2147483648L, -2147483649L,
+            MAX_INT, -MAX_INT, Long.MAX_VALUE, Long.MIN_VALUE);
+    ImmutableList<CType> types =
+        ImmutableList.of(
+            S_CHAR, U_CHAR, S_SHORT_INT, U_SHORT_INT, S_INT, U_INT, S_LONG_INT, U_LONG_INT,
+            S_LONG_LONG_INT, U_LONG_LONG_INT);
+
+    for (long value : values) {
+      for (CType type : types) {
+        Value fromLong =
+            AbstractExpressionValueVisitor.castCValue(
+                NumericValue.valueOf(value), type, machineModel, logger, FileLocation.DUMMY);
+        Value fromBigInteger =
+            AbstractExpressionValueVisitor.castCValue(
+                new NumericValue(BigInteger.valueOf(value)),
+                type,
+                machineModel,
+                logger,
+                FileLocation.DUMMY);
+
+        assertThat(fromLong).isEqualTo(fromBigInteger);
+      }
+    }
+  }
+
   private void performMachineModelAgnosticChecksForFloats() {
     for (CType type : ImmutableList.of(FLOAT, DOUBLE)) {
       for (Float n : ImmutableList
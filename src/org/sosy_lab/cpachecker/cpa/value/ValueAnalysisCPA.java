@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -118,6 +119,14 @@ public class ValueAnalysisCPA extends AbstractCPA
       description = "Tells the value analysis how to handle unknown values.")
   private UnknownValueStrategy unknownValueStrategy = UnknownValueStrategy.DISCARD;
 
+  @Option(
+      secure = true,
+      description =
+          "intern memory locations and values of abstract states (hash-consing), "
+              + "such that equal entries are shared between states and comparisons "
+              + "of states can often be decided by reference equality")
+  private boolean hashConsing = false;
+
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ValueAnalysisCPA.class);
   }
@@ -142,6 +151,8 @@ public class ValueAnalysisCPA extends AbstractCPA
 
   private SymbolicStatistics symbolicStats;
 
+  private final @Nullable ValueAnalysisInterner interner;
+
   private ValueAnalysisCPA(Configuration config, LogManager logger,
       ShutdownNotifier pShutdownNotifier, CFA cfa) throws InvalidConfigurationException {
     super(DelegateAbstractDomain.<ValueAnalysisState>getInstance(), null);
@@ -158,6 +169,7 @@ public class ValueAnalysisCPA extends AbstractCPA
     errorPathAllocator = new ValueAnalysisConcreteErrorPathAllocator(config, logger, cfa.getMachineModel());
 
     unknownValueHandler = createUnknownValueHandler();
+    interner = hashConsing ? new ValueAnalysisInterner() : null;
 
     constraintsStrengthenOperator =
         new ConstraintsStrengthenOperator(config, logger);
@@ -273,7 +285,7 @@ public class ValueAnalysisCPA extends AbstractCPA
 
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
-    return new ValueAnalysisState(cfa.getMachineModel());
+    return new ValueAnalysisState(cfa.getMachineModel(), interner);
   }
 
   @Override
@@ -326,6 +338,9 @@ public class ValueAnalysisCPA extends AbstractCPA
       pStatsCollection.add(symbolicStats);
     }
     pStatsCollection.add(constraintsStrengthenOperator);
+    if (interner != null) {
+      pStatsCollection.add(interner);
+    }
     writer.collectStatistics(pStatsCollection);
   }
 
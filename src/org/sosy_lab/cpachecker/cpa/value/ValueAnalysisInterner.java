@@ -0,0 +1,87 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.io.PrintStream;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState.ValueAndType;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Hash-consing of the entries of {@link ValueAnalysisState}s. Equal memory locations and values
+ * are represented by the same instance, such that comparisons between states can often be decided
+ * by reference equality, and the assignments of many states share their entries.
+ *
+ * <p>Instances are only weakly referenced and can be used by several threads.
+ */
+final class ValueAnalysisInterner implements Statistics {
+
+  private final Interner<MemoryLocation> memoryLocations = Interners.newWeakInterner();
+  private final Interner<ValueAndType> values = Interners.newWeakInterner();
+
+  private final StatCounter internedMemoryLocations =
+      new StatCounter("Number of interned memory locations");
+  private final StatCounter sharedMemoryLocations =
+      new StatCounter("Number of shared memory locations");
+  private final StatCounter internedValues = new StatCounter("Number of interned values");
+  private final StatCounter sharedValues = new StatCounter("Number of shared values");
+
+  MemoryLocation intern(MemoryLocation pMemoryLocation) {
+    MemoryLocation result = memoryLocations.intern(pMemoryLocation);
+    internedMemoryLocations.inc();
+    if (result != pMemoryLocation) {
+      sharedMemoryLocations.inc();
+    }
+    return result;
+  }
+
+  ValueAndType intern(ValueAndType pValue) {
+    ValueAndType result = values.intern(pValue);
+    internedValues.inc();
+    if (result != pValue) {
+      sharedValues.inc();
+    }
+    return result;
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put(internedMemoryLocations)
+        .put(sharedMemoryLocations)
+        .put(internedValues)
+        .put(sharedValues);
+  }
+
+  @Override
+  public String getName() {
+    return "ValueAnalysisCPA hash-consing";
+  }
+}
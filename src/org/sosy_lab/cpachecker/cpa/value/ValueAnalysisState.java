@@ -102,28 +102,39 @@ public final class ValueAnalysisState
 
   private final @Nullable MachineModel machineModel;
 
+  /** Optional hash-consing of new entries, shared by all successors of a state. */
+  private final transient @Nullable ValueAnalysisInterner interner;
+
   public ValueAnalysisState(MachineModel pMachineModel) {
     this(
         checkNotNull(pMachineModel),
-        PathCopyingPersistentTreeMap.of());
+        PathCopyingPersistentTreeMap.of(),
+        null);
+  }
+
+  ValueAnalysisState(MachineModel pMachineModel, @Nullable ValueAnalysisInterner pInterner) {
+    this(checkNotNull(pMachineModel), PathCopyingPersistentTreeMap.of(), pInterner);
   }
 
   public ValueAnalysisState(
       Optional<MachineModel> pMachineModel,
       PersistentMap<MemoryLocation, ValueAndType> pConstantsMap) {
-    this(pMachineModel.orElse(null), pConstantsMap);
+    this(pMachineModel.orElse(null), pConstantsMap, null);
   }
 
   private ValueAnalysisState(
       @Nullable MachineModel pMachineModel,
-      PersistentMap<MemoryLocation, ValueAndType> pConstantsMap) {
+      PersistentMap<MemoryLocation, ValueAndType> pConstantsMap,
+      @Nullable ValueAnalysisInterner pInterner) {
     machineModel = pMachineModel;
     constantsMap = checkNotNull(pConstantsMap);
     hashCode = constantsMap.hashCode();
+    interner = pInterner;
   }
 
   private ValueAnalysisState(ValueAnalysisState state) {
     machineModel = state.machineModel;
+    interner = state.interner;
     constantsMap = checkNotNull(state.constantsMap);
     hashCode = state.hashCode;
     assert hashCode == constantsMap.hashCode();
@@ -144,7 +155,7 @@ public final class ValueAnalysisState
   }
 
   private void addToConstantsMap(
-      final MemoryLocation pMemLoc, final Value pValue, final @Nullable Type pType) {
+      MemoryLocation pMemLoc, final Value pValue, final @Nullable Type pType) {
 
     if (blacklist.contains(pMemLoc)
         || (pMemLoc.isReference() && blacklist.contains(pMemLoc.getReferenceStart()))) {
@@ -158,7 +169,14 @@ public final class ValueAnalysisState
     }
 
     ValueAndType valueAndType = new ValueAndType(checkNotNull(valueToAdd), pType);
+    if (interner != null) {
+      pMemLoc = interner.intern(pMemLoc);
+      valueAndType = interner.intern(valueAndType);
+    }
     ValueAndType oldValueAndType = constantsMap.get(pMemLoc);
+    if (oldValueAndType == valueAndType) {
+      return; // nothing changes, keep the shared map
+    }
     if (oldValueAndType != null) {
       hashCode -= (pMemLoc.hashCode() ^ oldValueAndType.hashCode());
     }
@@ -357,6 +375,9 @@ public final class ValueAnalysisState
    */
   @Override
   public ValueAnalysisState join(ValueAnalysisState reachedState) {
+    if (constantsMap == reachedState.constantsMap) {
+      return reachedState;
+    }
     PersistentMap<MemoryLocation, ValueAndType> newConstantsMap = PathCopyingPersistentTreeMap.of();
 
     for (Entry<MemoryLocation, ValueAndType> otherEntry : reachedState.constantsMap.entrySet()) {
@@ -372,7 +393,7 @@ public final class ValueAnalysisState
     if (newConstantsMap.size() == reachedState.constantsMap.size()) {
       return reachedState;
     } else {
-      return new ValueAnalysisState(machineModel, newConstantsMap);
+      return new ValueAnalysisState(machineModel, newConstantsMap, interner);
     }
   }
 
@@ -385,6 +406,11 @@ public final class ValueAnalysisState
   @Override
   public boolean isLessOrEqual(ValueAnalysisState other) {
 
+    // identical maps are shared between states that did not change
+    if (constantsMap == other.constantsMap) {
+      return true;
+    }
+
     // also, this element is not less or equal than the other element, if it contains less elements
     if (constantsMap.size() < other.constantsMap.size()) {
       return false;
@@ -402,8 +428,11 @@ public final class ValueAnalysisState
     // the tolerant way: ignore all type information. TODO really correct?
     for (Entry<MemoryLocation, ValueAndType> otherEntry : other.constantsMap.entrySet()) {
       MemoryLocation key = otherEntry.getKey();
-      Value otherValue = otherEntry.getValue().getValue();
       ValueAndType thisValueAndType = constantsMap.get(key);
+      if (thisValueAndType == otherEntry.getValue()) {
+        continue; // shared entry, e.g., from hash-consing
+      }
+      Value otherValue = otherEntry.getValue().getValue();
       if (thisValueAndType == null || !otherValue.equals(thisValueAndType.getValue())) {
         return false;
       }
@@ -428,7 +457,9 @@ public final class ValueAnalysisState
 
     ValueAnalysisState otherElement = (ValueAnalysisState) other;
     // hashCode is used as optimization: about 20% speedup when using many SingletonSets
-    return otherElement.hashCode == hashCode && otherElement.constantsMap.equals(constantsMap);
+    return otherElement.hashCode == hashCode
+        && (otherElement.constantsMap == constantsMap
+            || otherElement.constantsMap.equals(constantsMap));
   }
 
   @Override
@@ -757,6 +788,9 @@ public final class ValueAnalysisState
     private final Value value;
     private final Type type;
 
+    /** cached hash code, computed lazily because types are not serialized with stable hashes */
+    private transient int hashCode = 0;
+
     public ValueAndType(Value pValue, Type pType) {
       value = checkNotNull(pValue);
       type = pType;
@@ -780,12 +814,19 @@ public final class ValueAnalysisState
       }
 
       ValueAndType other = (ValueAndType) o;
-      return Objects.equals(value, other.value) && Objects.equals(type, other.type);
+      return hashCode() == other.hashCode()
+          && Objects.equals(value, other.value)
+          && Objects.equals(type, other.type);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(value, type);
+      int result = hashCode;
+      if (result == 0) {
+        result = Objects.hash(value, type);
+        hashCode = result;
+      }
+      return result;
     }
 
     @Override
@@ -0,0 +1,88 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+public class ValueAnalysisStateTest {
+
+  private static final MemoryLocation X = MemoryLocation.valueOf("main", "x");
+  private static final MemoryLocation Y = MemoryLocation.valueOf("main", "y");
+
+  private final ValueAnalysisInterner interner = new ValueAnalysisInterner();
+
+  private ValueAnalysisState createState(long pX, long pY) {
+    ValueAnalysisState state = new ValueAnalysisState(MachineModel.LINUX32, interner);
+    state.assignConstant(
+        MemoryLocation.valueOf("main", "x"), new NumericValue(pX), CNumericTypes.INT);
+    state.assignConstant(
+        MemoryLocation.valueOf("main", "y"), new NumericValue(pY), CNumericTypes.INT);
+    return state;
+  }
+
+  @Test
+  public void internedEntriesAreShared() {
+    ValueAnalysisState state1 = createState(1, 2);
+    ValueAnalysisState state2 = createState(1, 2);
+
+    assertThat(state1.getValueAndTypeFor(X)).isSameInstanceAs(state2.getValueAndTypeFor(X));
+    assertThat(state1.getValueAndTypeFor(Y)).isSameInstanceAs(state2.getValueAndTypeFor(Y));
+    assertThat(state1).isEqualTo(state2);
+    assertThat(state1.isLessOrEqual(state2)).isTrue();
+  }
+
+  @Test
+  public void comparisonWithAndWithoutInterning() {
+    ValueAnalysisState interned = createState(1, 2);
+    ValueAnalysisState plain = new ValueAnalysisState(MachineModel.LINUX32);
+    plain.assignConstant(X, new NumericValue(1), CNumericTypes.INT);
+
+    assertThat(interned.isLessOrEqual(plain)).isTrue();
+    assertThat(plain.isLessOrEqual(interned)).isFalse();
+
+    plain.assignConstant(Y, new NumericValue(2), CNumericTypes.INT);
+    assertThat(plain).isEqualTo(interned);
+    assertThat(plain.hashCode()).isEqualTo(interned.hashCode());
+  }
+
+  @Test
+  public void reassigningSameValueKeepsState() {
+    ValueAnalysisState state = createState(1, 2);
+    ValueAnalysisState copy = ValueAnalysisState.copyOf(state);
+    copy.assignConstant(X, new NumericValue(1), CNumericTypes.INT);
+
+    assertThat(copy.isLessOrEqual(state)).isTrue();
+    assertThat(state.join(copy)).isSameInstanceAs(copy);
+
+    copy.assignConstant(X, new NumericValue(3), CNumericTypes.INT);
+    assertThat(copy.isLessOrEqual(state)).isFalse();
+    assertThat(state.join(copy).getSize()).isEqualTo(1);
+  }
+}
@@ -40,7 +40,20 @@ public class NumericValue implements Value, Serializable {
 
   private static final long serialVersionUID = -3829943575180448170L;
 
-  private Number number;
+  private final Number number;
+
+  /** Lowest and highest integer value for which {@link #valueOf(long)} returns shared instances. */
+  private static final int CACHE_LOW = -128;
+
+  private static final int CACHE_HIGH = 1024;
+
+  private static final NumericValue[] CACHE = new NumericValue[CACHE_HIGH - CACHE_LOW + 1];
+
+  static {
+    for (int i = 0; i < CACHE.length; i++) {
+      CACHE[i] = new NumericValue((long) (i + CACHE_LOW));
+    }
+  }
 
   /**
    * Creates a new <code>NumericValue</code>.
@@ -50,6 +63,28 @@ public class NumericValue implements Value, Serializable {
     number = pNumber;
   }
 
+  /**
+   * Returns a <code>NumericValue</code> holding the given integer as {@link Long}. Small values are
+   * shared, such that the common cases of arithmetic and comparisons do not allocate new objects.
+   */
+  public static NumericValue valueOf(long pValue) {
+    if (pValue >= CACHE_LOW && pValue <= CACHE_HIGH) {
+      return CACHE[(int) pValue - CACHE_LOW];
+    }
+    return new NumericValue(pValue);
+  }
+
+  /**
+   * Returns whether the stored number is an integer of a Java primitive type (i.e., a {@link Long},
+   * {@link Integer}, {@link Short}, or {@link Byte}), such that {@link #longValue()} is exact.
+   */
+  public boolean hasPrimitiveIntegerValue() {
+    return number instanceof Long
+        || number instanceof Integer
+        || number instanceof Short
+        || number instanceof Byte;
+  }
+
   /**
    * Returns the number stored in the container.
    *
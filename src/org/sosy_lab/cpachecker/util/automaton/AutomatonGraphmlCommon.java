@@ -27,9 +27,13 @@ import static org.sosy_lab.common.collect.Collections3.transformedImmutableListC
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
@@ -56,6 +60,9 @@ import java.util.Set;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -342,6 +349,53 @@ public class AutomatonGraphmlCommon {
     return BaseEncoding.base16().lowerCase().encode(hash.asBytes());
   }
 
+  /** Compute the data elements of the graph element of a witness, in the order of the output. */
+  private static List<Map.Entry<KeyDef, String>> getGraphData(
+      WitnessType pGraphType, CFA pCfa, VerificationTaskMetaData pVerificationTaskMetaData)
+      throws IOException {
+    List<Map.Entry<KeyDef, String>> result = new ArrayList<>();
+    result.add(Maps.immutableEntry(KeyDef.WITNESS_TYPE, pGraphType.toString()));
+    result.add(Maps.immutableEntry(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
+    result.add(
+        Maps.immutableEntry(KeyDef.PRODUCER, pVerificationTaskMetaData.getProducerString()));
+
+    int nSpecs = 0;
+    for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
+      result.add(Maps.immutableEntry(KeyDef.SPECIFICATION, property.toString()));
+      ++nSpecs;
+    }
+
+    for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
+      result.add(
+          Maps.immutableEntry(
+              KeyDef.SPECIFICATION,
+              MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
+      ++nSpecs;
+    }
+
+    if (nSpecs == 0) {
+      result.add(Maps.immutableEntry(KeyDef.SPECIFICATION, "TRUE"));
+    }
+
+    for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
+      result.add(Maps.immutableEntry(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
+    }
+
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Maps.immutableEntry(KeyDef.PROGRAMFILE, programFile.toString()));
+    }
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Maps.immutableEntry(KeyDef.PROGRAMHASH, computeHash(programFile)));
+    }
+
+    result.add(Maps.immutableEntry(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
+    ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
+    result.add(
+        Maps.immutableEntry(
+            KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+    return result;
+  }
+
   public static String computeSha1Hash(Path pPath) throws IOException {
     @SuppressWarnings("deprecation") // SHA1 is required by witness format
     HashCode hash = MoreFiles.asByteSource(pPath).hash(Hashing.sha1());
@@ -380,47 +434,10 @@ public class AutomatonGraphmlCommon {
       graph = doc.createElement("graph");
       root.appendChild(graph);
       graph.setAttribute("edgedefault", "directed");
-      graph.appendChild(createDataElement(KeyDef.WITNESS_TYPE, pGraphType.toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.PRODUCER, pVerificationTaskMetaData.getProducerString()));
-
-      int nSpecs = 0;
-      for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, property.toString()));
-        ++nSpecs;
-      }
-
-      for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
-        graph.appendChild(
-            createDataElement(
-                KeyDef.SPECIFICATION,
-                MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
-        ++nSpecs;
-      }
-
-      if (nSpecs == 0) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, "TRUE"));
-      }
-
-      for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
-        graph.appendChild(createDataElement(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
-      }
-
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMFILE, programFile.toString()));
+      for (Map.Entry<KeyDef, String> data :
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData)) {
+        graph.appendChild(createDataElement(data.getKey(), data.getValue()));
       }
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMHASH, computeHash(programFile)));
-      }
-
-      graph.appendChild(
-          createDataElement(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
-      ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
-      graph.appendChild(
-          createDataElement(
-              KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
     }
 
     private void defineKey(KeyDef pKeyDef) {
@@ -525,6 +542,159 @@ public class AutomatonGraphmlCommon {
 
   }
 
+  /**
+   * Writes a GraphML witness incrementally, in contrast to {@link GraphMlBuilder}, which builds a
+   * DOM tree of the whole witness in memory before serializing it. Nodes and edges are written
+   * directly to the target when they are added, and each of them needs to be added completely at
+   * once. Because GraphML requires the key definitions before the graph, the set of keys that will
+   * be used for nodes and edges needs to be given upfront.
+   */
+  public static class GraphMlWriter {
+
+    private final XMLStreamWriter writer;
+
+    public GraphMlWriter(
+        WitnessType pGraphType,
+        @Nullable String pDefaultSourceFileName,
+        CFA pCfa,
+        VerificationTaskMetaData pVerificationTaskMetaData,
+        Set<KeyDef> pUsedKeys,
+        Appendable pTarget)
+        throws IOException {
+      List<Map.Entry<KeyDef, String>> graphData =
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData);
+
+      Set<KeyDef> keys = EnumSet.of(KeyDef.ORIGINFILE);
+      keys.addAll(pUsedKeys);
+      for (KeyDef keyDef : KeyDef.values()) {
+        if (keyDef.keyFor == ElementType.GRAPH) {
+          keys.add(keyDef);
+        }
+      }
+
+      try {
+        writer =
+            XMLOutputFactory.newInstance().createXMLStreamWriter(CharStreams.asWriter(pTarget));
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeCharacters("\n");
+        writer.writeStartElement("graphml");
+        writer.writeNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+        writer.writeDefaultNamespace("http://graphml.graphdrawing.org/xmlns");
+
+        for (KeyDef keyDef : keys) {
+          writeKeyDef(
+              keyDef,
+              keyDef == KeyDef.ORIGINFILE
+                  ? Optional.ofNullable(pDefaultSourceFileName)
+                  : Optional.empty());
+        }
+
+        startElement(1, GraphMLTag.GRAPH);
+        writer.writeAttribute("edgedefault", "directed");
+        writeData(2, graphData);
+      } catch (XMLStreamException e) {
+        throw toIOException(e);
+      }
+    }
+
+    private void startElement(int pIndentation, GraphMLTag pTag) throws XMLStreamException {
+      writer.writeCharacters("\n" + Strings.repeat(" ", pIndentation));
+      writer.writeStartElement(pTag.toString());
+    }
+
+    private void endElement(int pIndentation) throws XMLStreamException {
+      writer.writeCharacters("\n" + Strings.repeat(" ", pIndentation));
+      writer.writeEndElement();
+    }
+
+    private void writeKeyDef(KeyDef pKeyDef, Optional<String> pDefaultValue)
+        throws XMLStreamException {
+      startElement(1, GraphMLTag.KEY);
+      writer.writeAttribute("id", pKeyDef.id);
+      writer.writeAttribute("for", pKeyDef.keyFor.toString());
+      writer.writeAttribute("attr.name", pKeyDef.attrName);
+      writer.writeAttribute("attr.type", pKeyDef.attrType);
+
+      String defaultValue = pDefaultValue.orElse(pKeyDef.defaultValue);
+      if (defaultValue != null) {
+        startElement(2, GraphMLTag.DEFAULT);
+        writer.writeCharacters(defaultValue);
+        writer.writeEndElement();
+        endElement(1);
+      } else {
+        writer.writeEndElement();
+      }
+    }
+
+    private void writeData(int pIndentation, Iterable<Map.Entry<KeyDef, String>> pData)
+        throws XMLStreamException {
+      for (Map.Entry<KeyDef, String> data : pData) {
+        startElement(pIndentation, GraphMLTag.DATA);
+        writer.writeAttribute("key", data.getKey().id);
+        writer.writeCharacters(data.getValue());
+        writer.writeEndElement();
+      }
+    }
+
+    private void writeElement(
+        GraphMLTag pTag, Map<String, String> pAttributes, List<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      try {
+        startElement(2, pTag);
+        for (Map.Entry<String, String> attribute : pAttributes.entrySet()) {
+          writer.writeAttribute(attribute.getKey(), attribute.getValue());
+        }
+        if (pData.isEmpty()) {
+          writer.writeEndElement();
+        } else {
+          writeData(3, pData);
+          endElement(2);
+        }
+      } catch (XMLStreamException e) {
+        throw toIOException(e);
+      }
+    }
+
+    /** Write a node with the given data. All keys need to be declared in the constructor. */
+    public void writeNode(String pNodeId, NodeType pNodeType, List<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      if (pNodeType != defaultNodeType) {
+        pData =
+            ImmutableList.<Map.Entry<KeyDef, String>>builder()
+                .add(Maps.immutableEntry(KeyDef.NODETYPE, pNodeType.toString()))
+                .addAll(pData)
+                .build();
+      }
+      writeElement(GraphMLTag.NODE, ImmutableMap.of("id", pNodeId), pData);
+    }
+
+    /** Write an edge with the given data. All keys need to be declared in the constructor. */
+    public void writeEdge(String pFrom, String pTo, List<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      writeElement(GraphMLTag.EDGE, ImmutableMap.of("source", pFrom, "target", pTo), pData);
+    }
+
+    /** Finish the document. No elements may be written afterwards. */
+    public void finish() throws IOException {
+      try {
+        endElement(1);
+        endElement(0);
+        writer.writeCharacters("\n");
+        writer.writeEndDocument();
+        writer.flush();
+      } catch (XMLStreamException e) {
+        throw toIOException(e);
+      }
+    }
+
+    private static IOException toIOException(XMLStreamException e) {
+      if (e.getNestedException() instanceof IOException) {
+        return (IOException) e.getNestedException();
+      }
+      return new IOException(e);
+    }
+  }
+
   public static boolean handleAsEpsilonEdge(CFAEdge pEdge, CFAEdgeWithAdditionalInfo
       pAdditionalInfo) {
     if (pAdditionalInfo != null && !pAdditionalInfo.getInfos().isEmpty()) {
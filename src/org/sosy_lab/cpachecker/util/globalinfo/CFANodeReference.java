@@ -0,0 +1,68 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.globalinfo;
+
+import java.io.InvalidObjectException;
+import java.io.Serializable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+/**
+ * Serialized form of a reference to a {@link CFANode}: the node number, which is resolved with the
+ * CFA from {@link GlobalInfo}. States write these references as objects instead of writing the
+ * node numbers directly, such that a stream can replace them (cf. {@link
+ * java.io.ObjectOutputStream#replaceObject(Object)}), e.g., for renumbering the nodes.
+ */
+public final class CFANodeReference implements Serializable {
+
+  private static final long serialVersionUID = -2383566471940931416L;
+
+  private final int nodeNumber;
+
+  public CFANodeReference(int pNodeNumber) {
+    nodeNumber = pNodeNumber;
+  }
+
+  public static CFANodeReference of(CFANode pNode) {
+    return new CFANodeReference(pNode.getNodeNumber());
+  }
+
+  public int getNodeNumber() {
+    return nodeNumber;
+  }
+
+  /** Return the referenced node of the current CFA. */
+  public CFANode resolve() throws InvalidObjectException {
+    CFANode node =
+        GlobalInfo.getInstance().getCFAInfo().orElseThrow().getNodeByNodeNumber(nodeNumber);
+    if (node == null) {
+      throw new InvalidObjectException("Unknown node N" + nodeNumber);
+    }
+    return node;
+  }
+
+  @Override
+  public String toString() {
+    return "N" + nodeNumber;
+  }
+}
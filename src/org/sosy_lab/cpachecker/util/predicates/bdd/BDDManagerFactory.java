@@ -23,12 +23,14 @@
  */
 package org.sosy_lab.cpachecker.util.predicates.bdd;
 
+import java.util.logging.Level;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.util.predicates.regions.CountingRegionManager;
+import org.sosy_lab.cpachecker.util.predicates.regions.DynamicReorderingRegionManager;
 import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
 import org.sosy_lab.cpachecker.util.predicates.regions.SynchronizedRegionManager;
 import org.sosy_lab.cpachecker.util.predicates.regions.TimedRegionManager;
@@ -74,6 +76,14 @@ public class BDDManagerFactory {
           "Count accesses for the BDD library. " + "Counting works for concurrent accesses.")
   private boolean countLibraryAccess = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Reorder the BDD variables during the analysis whenever the number of BDD nodes "
+              + "has grown too much (cf. options bdd.reordering.*). "
+              + "Only supported by packages that report their number of nodes (JavaBDD).")
+  private boolean dynamicReordering = false;
+
   private final Configuration config;
   private final LogManager logger;
 
@@ -85,6 +95,29 @@ public class BDDManagerFactory {
   }
 
   public RegionManager createRegionManager() throws InvalidConfigurationException {
+    return createRegionManager(synchronizeLibraryAccess);
+  }
+
+  /**
+   * Create a RegionManager that can be used by several threads concurrently. Only PJBDD supports
+   * concurrent operations (with a concurrent unique table), accesses to all other packages are
+   * sequentialized.
+   */
+  public RegionManager createThreadSafeRegionManager() throws InvalidConfigurationException {
+    boolean isThreadSafe = bddPackage.equals("PJBDD");
+    if (!isThreadSafe) {
+      logger.log(
+          Level.WARNING,
+          "BDD package",
+          bddPackage,
+          "does not support concurrent operations, all accesses to it will be sequentialized.",
+          "Use bdd.package=PJBDD for parallel BDD operations.");
+    }
+    return createRegionManager(synchronizeLibraryAccess || !isThreadSafe);
+  }
+
+  private RegionManager createRegionManager(boolean pSynchronize)
+      throws InvalidConfigurationException {
     RegionManager rmgr;
     if (bddPackage.equals("SYLVAN")) {
       rmgr = new SylvanBDDRegionManager(config, logger);
@@ -93,13 +126,24 @@ public class BDDManagerFactory {
     } else {
       rmgr = new JavaBDDRegionManager(bddPackage, config, logger);
     }
+    if (dynamicReordering) {
+      if (DynamicReorderingRegionManager.isSupported(rmgr)) {
+        rmgr = new DynamicReorderingRegionManager(rmgr, config, logger);
+      } else {
+        logger.log(
+            Level.WARNING,
+            "BDD package",
+            bddPackage,
+            "does not report its number of nodes, dynamic reordering is disabled.");
+      }
+    }
     if (measureLibraryAccess) {
       rmgr = new TimedRegionManager(rmgr);
     }
     if (countLibraryAccess) {
       rmgr = new CountingRegionManager(rmgr);
     }
-    if (synchronizeLibraryAccess) {
+    if (pSynchronize) {
       rmgr = new SynchronizedRegionManager(rmgr);
     }
     return rmgr;
@@ -469,6 +469,16 @@ class JavaBDDRegionManager implements RegionManager {
     return factory.getVersion();
   }
 
+  @Override
+  public long getNodeCount() {
+    try {
+      return factory.getNodeNum();
+    } catch (UnsupportedOperationException e) {
+      // not all factories support this
+      return -1;
+    }
+  }
+
   @Override
   public void setVarOrder(ImmutableIntArray pVarOrder) {
     int[] order = new int[varcount];
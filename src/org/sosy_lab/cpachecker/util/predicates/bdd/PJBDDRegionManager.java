@@ -117,6 +117,11 @@ public class PJBDDRegionManager implements RegionManager {
     return bddCreator.getVersion();
   }
 
+  @Override
+  public long getNodeCount() {
+    return -1; // not provided by PJBDD
+  }
+
   @Override
   public void setVarOrder(ImmutableIntArray pOrder) {
     bddCreator.setVarOrder(pOrder.asList());
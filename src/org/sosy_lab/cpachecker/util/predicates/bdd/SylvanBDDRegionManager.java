@@ -349,6 +349,11 @@ class SylvanBDDRegionManager implements RegionManager {
     return String.format("Sylvan (%d threads)", threads);
   }
 
+  @Override
+  public long getNodeCount() {
+    return -1; // not provided by JSylvan
+  }
+
   private class SylvanBDDRegionBuilder implements RegionBuilder {
 
     // Invariants:
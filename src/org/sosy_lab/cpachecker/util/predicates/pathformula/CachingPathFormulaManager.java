@@ -25,12 +25,21 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import java.io.PrintStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import org.sosy_lab.common.time.Timer;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
@@ -41,6 +50,8 @@ import org.sosy_lab.cpachecker.exceptions.UnrecognizedCFAEdgeException;
 import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
@@ -48,85 +59,204 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ *
+ * <p>By default the cache is unbounded. It can be limited either by the number of entries
+ * or by the estimated size of the cached formulas, in which case the least-recently used
+ * entries are evicted. The cache is thread-safe, such that it can be used by all threads that
+ * share this instance, but it is never shared with other instances, because their formulas may
+ * belong to different solver instances or be created with a different encoding.
  */
+@Options(prefix = "cpa.predicate.pathFormulaCache")
 public class CachingPathFormulaManager implements PathFormulaManager {
 
-  public final Timer pathFormulaComputationTimer = new Timer();
-  public int pathFormulaCacheHits = 0;
+  public enum CacheWeight {
+    /** Each cache entry counts as 1. */
+    ENTRIES,
+    /**
+     * Each cache entry counts as the length of the cached path formula,
+     * i.e., the number of edges that were encoded in it, which is a cheap estimate
+     * for the size of the formula.
+     */
+    FORMULA_LENGTH,
+  }
 
-  public final PathFormulaManager delegate;
+  @Option(
+      secure = true,
+      description =
+          "maximum size of the path-formula cache (0 for unbounded), "
+              + "measured as given by cpa.predicate.pathFormulaCache.weight. "
+              + "If the limit is reached, the least-recently used entries are evicted.")
+  @IntegerOption(min = 0)
+  private long maximumSize = 0;
+
+  @Option(secure = true, description = "how to measure the size of the path-formula cache")
+  private CacheWeight weight = CacheWeight.ENTRIES;
+
+  private enum Operation {
+    AND,
+    AND_WITH_CONDITIONS,
+    OR,
+    EMPTY
+  }
 
-  private final Map<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>> andFormulaWithConditionsCache
-            = new HashMap<>();
-  private final Map<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache
-            = new HashMap<>();
+  /**
+   * Key of the cache. Keys for {@link Operation#OR} do not depend on the order of the arguments,
+   * such that a disjunction is computed only once for both orders.
+   */
+  private static final class CacheKey {
+
+    private final Operation operation;
+    private final Object first;
+    private final @Nullable Object second;
+    private final int hashCode;
+
+    private CacheKey(Operation pOperation, Object pFirst, @Nullable Object pSecond) {
+      operation = pOperation;
+      first = pFirst;
+      second = pSecond;
+      if (operation == Operation.OR) {
+        hashCode = 31 * operation.hashCode() + (first.hashCode() ^ second.hashCode());
+      } else {
+        hashCode = Objects.hash(operation, first, second);
+      }
+    }
 
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) pObj;
+      if (operation != other.operation || hashCode != other.hashCode) {
+        return false;
+      }
+      if (first.equals(other.first) && Objects.equals(second, other.second)) {
+        return true;
+      }
+      return operation == Operation.OR
+          && first.equals(other.second)
+          && second.equals(other.first);
+    }
 
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  public final ThreadSafeTimerContainer pathFormulaComputationTimer =
+      new ThreadSafeTimerContainer("Time for path formula computation");
+  private final ThreadLocal<TimerWrapper> threadComputationTimer =
+      ThreadLocal.withInitial(pathFormulaComputationTimer::getNewTimer);
+  private final LongAdder pathFormulaCacheHits = new LongAdder();
+
+  public final PathFormulaManager delegate;
+
+  private final Cache<CacheKey, Object> cache;
 
   private final PathFormula emptyFormula;
 
+  /** Create an instance with an unbounded cache. */
   public CachingPathFormulaManager(PathFormulaManager pDelegate) {
     delegate = pDelegate;
     emptyFormula = delegate.makeEmptyPathFormula();
+    cache = createCache();
+  }
+
+  /** Create an instance with a cache that is configured by the given configuration. */
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    delegate = pDelegate;
+    emptyFormula = delegate.makeEmptyPathFormula();
+    cache = createCache();
+  }
+
+  private Cache<CacheKey, Object> createCache() {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (maximumSize == 0) {
+      return builder.build();
+    }
+    switch (weight) {
+      case ENTRIES:
+        return builder.maximumSize(maximumSize).build();
+      case FORMULA_LENGTH:
+        return builder
+            .maximumWeight(maximumSize)
+            .weigher((CacheKey key, Object value) -> estimateSize(value))
+            .build();
+      default:
+        throw new AssertionError(weight);
+    }
+  }
+
+  private static int estimateSize(Object pCachedValue) {
+    final PathFormula formula;
+    if (pCachedValue instanceof PathFormula) {
+      formula = (PathFormula) pCachedValue;
+    } else {
+      formula = (PathFormula) ((Pair<?, ?>) pCachedValue).getFirstNotNull();
+    }
+    return Math.max(1, formula.getLength());
+  }
+
+  @SuppressWarnings("unchecked") // cache contains only values of the right type for each operation
+  private <T> @Nullable T getFromCache(Operation pOperation, Object pFirst, @Nullable Object pSecond) {
+    Object result = cache.getIfPresent(new CacheKey(pOperation, pFirst, pSecond));
+    if (result != null) {
+      pathFormulaCacheHits.increment();
+    }
+    return (T) result;
+  }
+
+  private void putIntoCache(
+      Operation pOperation, Object pFirst, @Nullable Object pSecond, Object pValue) {
+    cache.put(new CacheKey(pOperation, pFirst, pSecond), pValue);
   }
 
   @Override
   public Pair<PathFormula, ErrorConditions> makeAndWithErrorConditions(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
 
-    final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(formulaCacheKey);
+    Pair<PathFormula, ErrorConditions> result =
+        getFromCache(Operation.AND_WITH_CONDITIONS, pEdge, pOldFormula);
     if (result == null) {
-      pathFormulaComputationTimer.start();
+      TimerWrapper timer = threadComputationTimer.get();
+      timer.start();
       // compute new pathFormula with the operation on the edge
       result = delegate.makeAndWithErrorConditions(pOldFormula, pEdge);
-      pathFormulaComputationTimer.stop();
-      andFormulaWithConditionsCache.put(formulaCacheKey, result);
-
-    } else {
-      pathFormulaCacheHits++;
+      timer.stop();
+      putIntoCache(Operation.AND_WITH_CONDITIONS, pEdge, pOldFormula, result);
     }
     return result;
   }
 
   @Override
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
-    final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    PathFormula result = andFormulaCache.get(formulaCacheKey);
+    PathFormula result = getFromCache(Operation.AND, pEdge, pOldFormula);
     if (result == null) {
+      TimerWrapper timer = threadComputationTimer.get();
       try {
-      pathFormulaComputationTimer.start();
+      timer.start();
       // compute new pathFormula with the operation on the edge
       result = delegate.makeAnd(pOldFormula, pEdge);
-      andFormulaCache.put(formulaCacheKey, result);
+      putIntoCache(Operation.AND, pEdge, pOldFormula, result);
       } finally {
-        pathFormulaComputationTimer.stop();
+        timer.stop();
       }
-
-    } else {
-      pathFormulaCacheHits++;
     }
     return result;
   }
 
   @Override
   public PathFormula makeOr(PathFormula pF1, PathFormula pF2) throws InterruptedException {
-    final Pair<PathFormula, PathFormula> formulaCacheKey = Pair.of(pF1, pF2);
-
-    PathFormula result = orFormulaCache.get(formulaCacheKey);
-    if (result == null) {
-      // try again with other order
-      result = orFormulaCache.get(Pair.of(pF2, pF1));
-    }
-
+    // the cache key does not depend on the order of pF1 and pF2
+    PathFormula result = getFromCache(Operation.OR, pF1, pF2);
     if (result == null) {
       result = delegate.makeOr(pF1, pF2);
-      orFormulaCache.put(formulaCacheKey, result);
-    } else {
-      pathFormulaCacheHits++;
+      putIntoCache(Operation.OR, pF1, pF2, result);
     }
     return result;
   }
@@ -138,12 +268,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormula(PathFormula pOldFormula) {
-    PathFormula result = emptyFormulaCache.get(pOldFormula);
+    PathFormula result = getFromCache(Operation.EMPTY, pOldFormula, null);
     if (result == null) {
       result = delegate.makeEmptyPathFormula(pOldFormula);
-      emptyFormulaCache.put(pOldFormula, result);
-    } else {
-      pathFormulaCacheHits++;
+      putIntoCache(Operation.EMPTY, pOldFormula, null, result);
     }
     return result;
   }
@@ -205,10 +333,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public void clearCaches() {
-    andFormulaWithConditionsCache.clear();
-    andFormulaCache.clear();
-    orFormulaCache.clear();
-    emptyFormulaCache.clear();
+    cache.invalidateAll();
     delegate.clearCaches();
   }
 
@@ -223,10 +348,15 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     return delegate.buildImplicationTestAsUnsat(pF1, pF2);
   }
 
+  /** Number of results that were taken from the cache, for all threads. */
+  public long getPathFormulaCacheHits() {
+    return pathFormulaCacheHits.sum();
+  }
+
   @Override
   public void printStatistics(PrintStream out) {
-    int cacheHits = this.pathFormulaCacheHits;
-    int totalPathFormulaComputations =
+    long cacheHits = getPathFormulaCacheHits();
+    long totalPathFormulaComputations =
         this.pathFormulaComputationTimer.getNumberOfIntervals() + cacheHits;
     out.println(
         "Number of path formula cache hits:   "
@@ -234,6 +364,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
             + " ("
             + toPercent(cacheHits, totalPathFormulaComputations)
             + ")");
+    CacheStats cacheStats = cache.stats();
+    out.println("Size of path formula cache:          " + cache.size());
+    out.println("Number of path formula cache misses: " + cacheStats.missCount());
+    out.println("Path formula cache evictions:        " + cacheStats.evictionCount());
     out.println();
 
     out.println("Inside post operator:                  ");
@@ -0,0 +1,249 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.util.predicates.regions;
+
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.ImmutableIntArray;
+import java.io.PrintStream;
+import java.util.function.Function;
+import java.util.logging.Level;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.Triple;
+import org.sosy_lab.cpachecker.util.predicates.PredicateOrderingStrategy;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * RegionManager that reorders the BDD variables during the analysis, whenever the node table of the
+ * BDD library has grown by a given factor since the last reordering. The initial variable order
+ * (e.g., from {@link org.sosy_lab.cpachecker.cpa.bdd.BDDPartitionOrderer}) is often good in the
+ * beginning, but the BDDs that appear later in the analysis may need a different order.
+ *
+ * <p>The delegate needs to provide the node count ({@link RegionManager#getNodeCount()}) and to
+ * support the configured reordering strategy. This class is not thread-safe.
+ */
+@Options(prefix = "bdd.reordering")
+public class DynamicReorderingRegionManager implements RegionManager {
+
+  private static final ImmutableSet<PredicateOrderingStrategy> SUPPORTED_STRATEGIES =
+      ImmutableSet.of(
+          PredicateOrderingStrategy.FRAMEWORK_SIFT,
+          PredicateOrderingStrategy.FRAMEWORK_SIFTITE,
+          PredicateOrderingStrategy.FRAMEWORK_WIN2,
+          PredicateOrderingStrategy.FRAMEWORK_WIN2ITE,
+          PredicateOrderingStrategy.FRAMEWORK_WIN3,
+          PredicateOrderingStrategy.FRAMEWORK_WIN3ITE);
+
+  @Option(
+      secure = true,
+      description =
+          "reordering strategy of the BDD library that is used for dynamic reordering "
+              + "(sifting or window permutation)")
+  private PredicateOrderingStrategy strategy = PredicateOrderingStrategy.FRAMEWORK_SIFT;
+
+  @Option(
+      secure = true,
+      description =
+          "reorder whenever the number of BDD nodes grew by this factor since the last "
+              + "reordering")
+  private double growthFactor = 2.0;
+
+  @Option(secure = true, description = "minimum number of BDD nodes before the first reordering")
+  @IntegerOption(min = 1)
+  private int minNodes = 100000;
+
+  private final RegionManager delegate;
+  private final LogManager logger;
+
+  /** number of nodes at which the next reordering is started */
+  private long threshold;
+
+  private final StatTimer reorderTimer = new StatTimer("Time for dynamic reordering");
+  private long nodesBefore = 0;
+  private long nodesAfter = 0;
+
+  public DynamicReorderingRegionManager(
+      RegionManager pDelegate, Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (!SUPPORTED_STRATEGIES.contains(strategy)) {
+      throw new InvalidConfigurationException(
+          "Strategy " + strategy + " is not supported for dynamic reordering of BDDs");
+    }
+    if (growthFactor <= 1) {
+      throw new InvalidConfigurationException(
+          "Invalid value " + growthFactor + " for option bdd.reordering.growthFactor, "
+              + "needs to be greater than 1.");
+    }
+    delegate = pDelegate;
+    logger = pLogger;
+    threshold = minNodes;
+  }
+
+  /** Check whether the given RegionManager can be used for dynamic reordering. */
+  public static boolean isSupported(RegionManager pRegionManager) {
+    return pRegionManager.getNodeCount() >= 0;
+  }
+
+  /** Reorder if the node table has grown too much, called after each operation. */
+  private <T> T checkGrowth(T pResult) {
+    long nodes = delegate.getNodeCount();
+    if (nodes >= threshold) {
+      reorderTimer.start();
+      try {
+        delegate.reorder(strategy);
+      } finally {
+        reorderTimer.stop();
+      }
+      long reducedNodes = delegate.getNodeCount();
+      nodesBefore += nodes;
+      nodesAfter += reducedNodes;
+      threshold = Math.max(minNodes, (long) (reducedNodes * growthFactor));
+      logger.log(
+          Level.FINE,
+          "Reordered BDD variables, number of nodes changed from",
+          nodes,
+          "to",
+          reducedNodes);
+    }
+    return pResult;
+  }
+
+  @Override
+  public RegionBuilder builder(ShutdownNotifier pShutdownNotifier) {
+    return delegate.builder(pShutdownNotifier);
+  }
+
+  @Override
+  public Region makeTrue() {
+    return delegate.makeTrue();
+  }
+
+  @Override
+  public Region makeFalse() {
+    return delegate.makeFalse();
+  }
+
+  @Override
+  public Region makeNot(Region pF) {
+    return checkGrowth(delegate.makeNot(pF));
+  }
+
+  @Override
+  public Region makeAnd(Region pF1, Region pF2) {
+    return checkGrowth(delegate.makeAnd(pF1, pF2));
+  }
+
+  @Override
+  public Region makeOr(Region pF1, Region pF2) {
+    return checkGrowth(delegate.makeOr(pF1, pF2));
+  }
+
+  @Override
+  public Region makeEqual(Region pF1, Region pF2) {
+    return checkGrowth(delegate.makeEqual(pF1, pF2));
+  }
+
+  @Override
+  public Region makeUnequal(Region pF1, Region pF2) {
+    return checkGrowth(delegate.makeUnequal(pF1, pF2));
+  }
+
+  @Override
+  public Region makeIte(Region pF1, Region pF2, Region pF3) {
+    return checkGrowth(delegate.makeIte(pF1, pF2, pF3));
+  }
+
+  @Override
+  public Region makeExists(Region pF1, Region... pF2) {
+    return checkGrowth(delegate.makeExists(pF1, pF2));
+  }
+
+  @Override
+  public boolean entails(Region pF1, Region pF2) throws SolverException, InterruptedException {
+    return checkGrowth(delegate.entails(pF1, pF2));
+  }
+
+  @Override
+  public Region createPredicate() {
+    return delegate.createPredicate();
+  }
+
+  @Override
+  public Region fromFormula(
+      BooleanFormula pF, FormulaManagerView pFmgr, Function<BooleanFormula, Region> pAtomToRegion) {
+    return checkGrowth(delegate.fromFormula(pF, pFmgr, pAtomToRegion));
+  }
+
+  @Override
+  public Triple<Region, Region, Region> getIfThenElse(Region pF) {
+    return delegate.getIfThenElse(pF);
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut) {
+    writingStatisticsTo(pOut)
+        .put("Number of dynamic reorderings", reorderTimer.getUpdateCount())
+        .putIfUpdatedAtLeastOnce(reorderTimer)
+        .put("Number of BDD nodes before reorderings", nodesBefore)
+        .put("Number of BDD nodes after reorderings", nodesAfter)
+        .putIf(
+            nodesBefore > 0,
+            "Node reduction by dynamic reordering",
+            StatisticsUtils.toPercent(nodesBefore - nodesAfter, nodesBefore));
+    delegate.printStatistics(pOut);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public long getNodeCount() {
+    return delegate.getNodeCount();
+  }
+
+  @Override
+  public void setVarOrder(ImmutableIntArray pOrder) {
+    delegate.setVarOrder(pOrder);
+  }
+
+  @Override
+  public void reorder(PredicateOrderingStrategy pStrategy) {
+    delegate.reorder(pStrategy);
+  }
+
+  @Override
+  public Region replace(Region pRegion, Region[] pOldPredicates, Region[] pNewPredicates) {
+    return checkGrowth(delegate.replace(pRegion, pOldPredicates, pNewPredicates));
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.util.predicates.regions;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.bdd.BDDManagerFactory;
+
+public class DynamicReorderingRegionManagerTest {
+
+  private static final int PAIRS = 8;
+
+  @Test
+  public void reorderingKeepsRegions() throws Exception {
+    Configuration config =
+        Configuration.builder()
+            .setOption("bdd.package", "JAVA")
+            .setOption("bdd.dynamicReordering", "true")
+            .setOption("bdd.reordering.minNodes", "1")
+            .build();
+    RegionManager rmgr =
+        new BDDManagerFactory(config, LogManager.createTestLogManager()).createRegionManager();
+    assertThat(rmgr).isInstanceOf(DynamicReorderingRegionManager.class);
+
+    // (x1 & y1) | ... | (xn & yn) has exponential size if all x are ordered before all y
+    Region[] x = new Region[PAIRS];
+    Region[] y = new Region[PAIRS];
+    for (int i = 0; i < PAIRS; i++) {
+      x[i] = rmgr.createPredicate();
+    }
+    for (int i = 0; i < PAIRS; i++) {
+      y[i] = rmgr.createPredicate();
+    }
+    Region disjunction = rmgr.makeFalse();
+    for (int i = 0; i < PAIRS; i++) {
+      disjunction = rmgr.makeOr(disjunction, rmgr.makeAnd(x[i], y[i]));
+    }
+
+    for (int i = 0; i < PAIRS; i++) {
+      assertThat(rmgr.entails(rmgr.makeAnd(x[i], y[i]), disjunction)).isTrue();
+      assertThat(rmgr.entails(x[i], disjunction)).isFalse();
+    }
+    Region allX = rmgr.makeExists(disjunction, y);
+    assertThat(rmgr.makeNot(allX).isFalse()).isFalse();
+    assertThat(rmgr.makeAnd(disjunction, rmgr.makeNot(disjunction)).isFalse()).isTrue();
+  }
+}
@@ -282,6 +282,11 @@ public class NamedRegionManager implements RegionManager {
     return delegate.getVersion();
   }
 
+  @Override
+  public long getNodeCount() {
+    return delegate.getNodeCount();
+  }
+
   public Set<String> getPredicates() {
     synchronized (regionMap) {
       return ImmutableSet.copyOf(regionMap.keySet());
@@ -84,6 +84,13 @@ public interface RegionManager extends RegionCreator {
    */
   String getVersion();
 
+  /**
+   * Returns the number of nodes that are currently stored in the node table of the BDD library
+   * (including nodes that are not yet garbage collected), or -1 if the library does not provide
+   * this information.
+   */
+  long getNodeCount();
+
   /**
    * Sets the bdd variable ordering.
    *
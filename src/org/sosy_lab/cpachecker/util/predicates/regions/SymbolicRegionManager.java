@@ -240,6 +240,11 @@ public class SymbolicRegionManager implements RegionManager {
     return solver.getVersion();
   }
 
+  @Override
+  public long getNodeCount() {
+    return -1; // no BDDs
+  }
+
   @Override
   public void reorder(PredicateOrderingStrategy strategy) {
   }
@@ -158,6 +158,13 @@ public class SynchronizedRegionManager implements RegionManager {
     }
   }
 
+  @Override
+  public long getNodeCount() {
+    synchronized (delegate) {
+      return delegate.getNodeCount();
+    }
+  }
+
   @Override
   public void setVarOrder(ImmutableIntArray pOrder) {
     synchronized (delegate) {
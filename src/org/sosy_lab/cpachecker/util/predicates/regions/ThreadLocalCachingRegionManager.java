@@ -0,0 +1,274 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.util.predicates.regions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
+
+import com.google.common.primitives.ImmutableIntArray;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.util.Triple;
+import org.sosy_lab.cpachecker.util.predicates.PredicateOrderingStrategy;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * RegionManager that caches the results of the boolean operations of the delegate in a separate
+ * cache for each thread. Threads thus do not contend for a shared cache, and the delegate (which
+ * has to be thread-safe, e.g., a BDD package with a concurrent unique table) is only called for
+ * operations that the current thread did not compute recently.
+ *
+ * <p>Each cache keeps the most recently used results up to a fixed size. The caches keep their
+ * regions alive, so a garbage-collecting BDD package cannot free them.
+ */
+public class ThreadLocalCachingRegionManager implements RegionManager {
+
+  private enum Operation {
+    NOT,
+    AND,
+    OR,
+    EQUAL,
+    UNEQUAL,
+    ITE,
+    EXISTS,
+    ENTAILS
+  }
+
+  /** Key of a cached operation, regions are compared with their equals methods. */
+  private static final class OperationKey {
+
+    private final Operation operation;
+    private final Region[] operands;
+    private final int hashCode;
+
+    OperationKey(Operation pOperation, Region... pOperands) {
+      operation = pOperation;
+      operands = pOperands;
+      hashCode = 31 * operation.hashCode() + Arrays.hashCode(operands);
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof OperationKey)) {
+        return false;
+      }
+      OperationKey other = (OperationKey) pObj;
+      return hashCode == other.hashCode
+          && operation == other.operation
+          && Arrays.equals(operands, other.operands);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /** Cache that evicts the least recently used result. */
+  private static final class OperationCache extends LinkedHashMap<OperationKey, Object> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maximumSize;
+
+    OperationCache(int pMaximumSize) {
+      super(16, 0.75f, true);
+      maximumSize = pMaximumSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<OperationKey, Object> pEldest) {
+      return size() > maximumSize;
+    }
+  }
+
+  private final RegionManager delegate;
+  private final ThreadLocal<OperationCache> caches;
+
+  private final StatCounter threadCaches = new StatCounter("Number of per-thread caches");
+  private final StatCounter lookups = new StatCounter("Number of cached operations");
+  private final StatCounter hits = new StatCounter("Number of cache hits");
+
+  /**
+   * @param pDelegate a thread-safe RegionManager
+   * @param pCacheSize the maximum number of results that are cached per thread
+   */
+  public ThreadLocalCachingRegionManager(RegionManager pDelegate, int pCacheSize) {
+    checkArgument(pCacheSize > 0, "cache size must be positive");
+    delegate = pDelegate;
+    caches =
+        ThreadLocal.withInitial(
+            () -> {
+              threadCaches.inc();
+              return new OperationCache(pCacheSize);
+            });
+  }
+
+  private Region cached(OperationKey pKey, Supplier<Region> pOperation) {
+    OperationCache cache = caches.get();
+    lookups.inc();
+    Region result = (Region) cache.get(pKey);
+    if (result != null) {
+      hits.inc();
+      return result;
+    }
+    result = pOperation.get();
+    cache.put(pKey, result);
+    return result;
+  }
+
+  @Override
+  public RegionBuilder builder(ShutdownNotifier pShutdownNotifier) {
+    return delegate.builder(pShutdownNotifier);
+  }
+
+  @Override
+  public Region makeTrue() {
+    return delegate.makeTrue();
+  }
+
+  @Override
+  public Region makeFalse() {
+    return delegate.makeFalse();
+  }
+
+  @Override
+  public Region makeNot(Region pF) {
+    return cached(new OperationKey(Operation.NOT, pF), () -> delegate.makeNot(pF));
+  }
+
+  @Override
+  public Region makeAnd(Region pF1, Region pF2) {
+    return cached(new OperationKey(Operation.AND, pF1, pF2), () -> delegate.makeAnd(pF1, pF2));
+  }
+
+  @Override
+  public Region makeOr(Region pF1, Region pF2) {
+    return cached(new OperationKey(Operation.OR, pF1, pF2), () -> delegate.makeOr(pF1, pF2));
+  }
+
+  @Override
+  public Region makeEqual(Region pF1, Region pF2) {
+    return cached(
+        new OperationKey(Operation.EQUAL, pF1, pF2), () -> delegate.makeEqual(pF1, pF2));
+  }
+
+  @Override
+  public Region makeUnequal(Region pF1, Region pF2) {
+    return cached(
+        new OperationKey(Operation.UNEQUAL, pF1, pF2), () -> delegate.makeUnequal(pF1, pF2));
+  }
+
+  @Override
+  public Region makeIte(Region pF1, Region pF2, Region pF3) {
+    return cached(
+        new OperationKey(Operation.ITE, pF1, pF2, pF3), () -> delegate.makeIte(pF1, pF2, pF3));
+  }
+
+  @Override
+  public Region makeExists(Region pF1, Region... pF2) {
+    Region[] operands = new Region[pF2.length + 1];
+    operands[0] = pF1;
+    System.arraycopy(pF2, 0, operands, 1, pF2.length);
+    return cached(
+        new OperationKey(Operation.EXISTS, operands), () -> delegate.makeExists(pF1, pF2));
+  }
+
+  @Override
+  public boolean entails(Region pF1, Region pF2) throws SolverException, InterruptedException {
+    OperationKey key = new OperationKey(Operation.ENTAILS, pF1, pF2);
+    OperationCache cache = caches.get();
+    lookups.inc();
+    Boolean result = (Boolean) cache.get(key);
+    if (result != null) {
+      hits.inc();
+      return result;
+    }
+    // not via cached(), because entails may throw checked exceptions
+    result = delegate.entails(pF1, pF2);
+    cache.put(key, result);
+    return result;
+  }
+
+  @Override
+  public Region createPredicate() {
+    return delegate.createPredicate();
+  }
+
+  @Override
+  public Region fromFormula(
+      BooleanFormula pF, FormulaManagerView pFmgr, Function<BooleanFormula, Region> pAtomToRegion) {
+    return delegate.fromFormula(pF, pFmgr, pAtomToRegion);
+  }
+
+  @Override
+  public Triple<Region, Region, Region> getIfThenElse(Region pF) {
+    return delegate.getIfThenElse(pF);
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut) {
+    writingStatisticsTo(pOut)
+        .put(threadCaches)
+        .put(lookups)
+        .put(hits)
+        .put(
+            "Hit rate of per-thread caches",
+            StatisticsUtils.toPercent(hits.getValue(), lookups.getValue()));
+    delegate.printStatistics(pOut);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public long getNodeCount() {
+    return delegate.getNodeCount();
+  }
+
+  @Override
+  public void setVarOrder(ImmutableIntArray pOrder) {
+    delegate.setVarOrder(pOrder);
+  }
+
+  @Override
+  public void reorder(PredicateOrderingStrategy pStrategy) {
+    delegate.reorder(pStrategy);
+  }
+
+  @Override
+  public Region replace(Region pRegion, Region[] pOldPredicates, Region[] pNewPredicates) {
+    return delegate.replace(pRegion, pOldPredicates, pNewPredicates);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.util.predicates.regions;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.bdd.BDDManagerFactory;
+
+public class ThreadLocalCachingRegionManagerTest {
+
+  private RegionManager rmgr;
+  private Region a;
+  private Region b;
+  private Region c;
+
+  @Before
+  public void setUp() throws Exception {
+    LogManager logger = LogManager.createTestLogManager();
+    RegionManager delegate =
+        new BDDManagerFactory(Configuration.defaultConfiguration(), logger)
+            .createThreadSafeRegionManager();
+    rmgr = new ThreadLocalCachingRegionManager(delegate, 2);
+    a = rmgr.createPredicate();
+    b = rmgr.createPredicate();
+    c = rmgr.createPredicate();
+  }
+
+  @Test
+  public void cachedResults() throws Exception {
+    Region ab = rmgr.makeAnd(a, b);
+    assertThat(rmgr.makeAnd(a, b)).isEqualTo(ab);
+    assertThat(rmgr.entails(ab, a)).isTrue();
+    assertThat(rmgr.entails(ab, a)).isTrue();
+    assertThat(rmgr.entails(a, ab)).isFalse();
+
+    // more operations than fit into the cache
+    Region abc = rmgr.makeAnd(ab, c);
+    assertThat(rmgr.makeExists(abc, b, c)).isEqualTo(a);
+    assertThat(rmgr.makeNot(rmgr.makeNot(abc))).isEqualTo(abc);
+    assertThat(rmgr.makeAnd(a, b)).isEqualTo(ab);
+    assertThat(rmgr.makeOr(ab, rmgr.makeNot(ab)).isTrue()).isTrue();
+  }
+
+  @Test
+  public void concurrentOperations() throws Exception {
+    Region expected = rmgr.makeIte(a, b, c);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Region>> results = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        results.add(
+            executor.submit(
+                () -> rmgr.makeOr(rmgr.makeAnd(a, b), rmgr.makeAnd(rmgr.makeNot(a), c))));
+      }
+      for (Future<Region> result : results) {
+        assertThat(result.get()).isEqualTo(expected);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -201,6 +201,11 @@ public class TimedRegionManager implements RegionManager {
     return delegate.getVersion();
   }
 
+  @Override
+  public long getNodeCount() {
+    return delegate.getNodeCount();
+  }
+
   @Override
   public void setVarOrder(ImmutableIntArray pOrder) {
     orderingTimer.start();
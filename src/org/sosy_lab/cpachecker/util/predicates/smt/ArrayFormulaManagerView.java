@@ -126,7 +126,7 @@ public class ArrayFormulaManagerView extends BaseManagerView implements ArrayFor
           FTE extends FormulaType<TE>>
       ArrayFormula<TI, TE> makeArray(
           final String pName, final int pSsaIndex, final FTI pIndexType, final FTE pElementType) {
-    return makeArray(FormulaManagerView.makeName(pName, pSsaIndex), pIndexType, pElementType);
+    return makeArray(makeName(pName, pSsaIndex), pIndexType, pElementType);
   }
 
   /**
@@ -142,7 +142,7 @@ public class ArrayFormulaManagerView extends BaseManagerView implements ArrayFor
 
   public <TI extends Formula, TE extends Formula> ArrayFormula<TI, TE> makeArray(
       final String pName, final int pSsaIndex, final ArrayFormulaType<TI, TE> pType) {
-    return makeArray(FormulaManagerView.makeName(pName, pSsaIndex), pType);
+    return makeArray(makeName(pName, pSsaIndex), pType);
   }
 
   /**
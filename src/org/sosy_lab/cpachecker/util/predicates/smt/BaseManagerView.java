@@ -41,6 +41,11 @@ abstract class BaseManagerView {
     wrappingHandler = checkNotNull(pWrappingHandler);
   }
 
+  /** Return the name of the solver symbol for the given variable and SSA index. */
+  final String makeName(String pName, int pIdx) {
+    return wrappingHandler.getSymbolTable().getName(pName, pIdx);
+  }
+
   final boolean useBitvectors() {
     return wrappingHandler.useBitvectors();
   }
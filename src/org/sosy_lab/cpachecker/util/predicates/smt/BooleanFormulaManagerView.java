@@ -46,7 +46,7 @@ public class BooleanFormulaManagerView extends BaseManagerView implements Boolea
   }
 
   public BooleanFormula makeVariable(String pVar, int pI) {
-    return makeVariable(FormulaManagerView.makeName(pVar, pI));
+    return makeVariable(makeName(pVar, pI));
   }
 
   @Override
@@ -270,7 +270,7 @@ public class FloatingPointFormulaManagerView
   }
 
   public FloatingPointFormula makeVariable(String pVar, int idx, FormulaType.FloatingPointType pType) {
-    return manager.makeVariable(FormulaManagerView.makeName(pVar, idx), pType);
+    return manager.makeVariable(makeName(pVar, idx), pType);
   }
 
   @Override
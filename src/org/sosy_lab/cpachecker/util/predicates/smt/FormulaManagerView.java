@@ -944,7 +944,7 @@ public class FormulaManagerView {
 
   /** Create a variable with an SSA index. */
   public <T extends Formula> T makeVariable(FormulaType<T> formulaType, String name, int idx) {
-    return makeVariable(formulaType, makeName(name, idx));
+    return makeVariable(formulaType, wrappingHandler.getSymbolTable().getName(name, idx));
   }
 
   /**
@@ -953,7 +953,7 @@ public class FormulaManagerView {
    */
   public <T extends Formula> T makeVariableWithoutSSAIndex(
       FormulaType<T> formulaType, String name) {
-    return makeVariable(formulaType, makeNameNoIndex(name));
+    return makeVariable(formulaType, wrappingHandler.getSymbolTable().getNameWithoutIndex(name));
   }
 
   public IntegerFormulaManagerView getIntegerFormulaManager() throws UnsupportedOperationException {
@@ -1059,8 +1059,7 @@ public class FormulaManagerView {
   }
 
   // the character for separating name and index of a value
-  private static final char INDEX_SEPARATOR = '@';
-  private static final Splitter INDEX_SPLITTER = Splitter.on(INDEX_SEPARATOR);
+  static final char INDEX_SEPARATOR = '@';
 
   static String makeName(String name, int idx) {
     checkArgument(
@@ -1084,6 +1083,7 @@ public class FormulaManagerView {
    * are not allowed in the formula.
    */
   public <F extends Formula> F instantiate(F pF, final SSAMap pSsa) {
+    final SSASymbolTable symbols = wrappingHandler.getSymbolTable();
     return wrap(
         getFormulaType(pF),
         myFreeVariableNodeTransformer(
@@ -1102,7 +1102,7 @@ public class FormulaManagerView {
               final int reInstantiateWithIndex = pSsa.getIndex(pFullSymbolName);
 
               if (reInstantiateWithIndex > 0) {
-                return makeName(pFullSymbolName, reInstantiateWithIndex);
+                return symbols.getName(pFullSymbolName, reInstantiateWithIndex);
               } else {
                 // TODO throw exception
                 return pFullSymbolName;
@@ -1123,20 +1123,8 @@ public class FormulaManagerView {
    * @throws IllegalArgumentException thrown if the given name is invalid
    */
   public static Pair<String, OptionalInt> parseName(final String name) {
-    checkArgument(!name.isEmpty(), "Invalid empty name");
-    List<String> parts = INDEX_SPLITTER.splitToList(name);
-    if (parts.size() == 2) {
-      if (parts.get(1).isEmpty()) {
-        // Variable name ending in @ marks variables that should not be instantiated
-        return Pair.of(parts.get(0), OptionalInt.empty());
-      }
-      return Pair.of(parts.get(0), OptionalInt.of(Integer.parseInt(parts.get(1))));
-    } else if (parts.size() == 1) {
-      // TODO throw exception after forbidding such variable names
-      return Pair.of(parts.get(0), OptionalInt.empty());
-    } else {
-      throw new IllegalArgumentException("Not an instantiated variable nor constant: " + name);
-    }
+    SSASymbolTable.Symbol symbol = SSASymbolTable.parseName(name);
+    return Pair.of(symbol.getVariable(), symbol.getOptionalIndex());
   }
 
   /**
@@ -1155,15 +1143,16 @@ public class FormulaManagerView {
    * @return    Uninstantiated formula
    */
   public <F extends Formula> F uninstantiate(F f) {
+    final SSASymbolTable symbols = wrappingHandler.getSymbolTable();
     return wrap(
         getFormulaType(f),
         myFreeVariableNodeTransformer(
             unwrap(f),
             uninstantiateCache,
-            pArg0 ->
-                pArg0.charAt(pArg0.length() - 1) == INDEX_SEPARATOR
-                    ? pArg0
-                    : parseName(pArg0).getFirst()));
+            pArg0 -> {
+              SSASymbolTable.Symbol symbol = symbols.lookup(pArg0);
+              return symbol.isNeverInstantiated() ? pArg0 : symbol.getVariable();
+            }));
   }
 
   /**
@@ -1481,6 +1470,26 @@ public class FormulaManagerView {
     return manager.dumpFormula(pT);
   }
 
+  /**
+   * Dump a formula in SMT-LIB2 format such that the result does not depend on solver internals,
+   * e.g., for using it as key of caches that are shared between solver instances. The dump
+   * contains the declarations of all symbols before the actual assertion, but their order depends
+   * on the solver, so we sort them.
+   */
+  public String dumpFormulaCanonically(BooleanFormula pT) {
+    List<String> declarations = new ArrayList<>();
+    List<String> body = new ArrayList<>();
+    for (String line : Splitter.on('\n').split(dumpFormula(pT).toString())) {
+      if (line.startsWith("(declare-") || line.startsWith("(define-sort")) {
+        declarations.add(line);
+      } else {
+        body.add(line);
+      }
+    }
+    declarations.sort(null);
+    return Joiner.on('\n').join(declarations) + "\n" + Joiner.on('\n').join(body);
+  }
+
   public boolean isPurelyConjunctive(BooleanFormula t) {
     final BooleanFormulaVisitor<Boolean> isAtomicVisitor =
         new DefaultBooleanFormulaVisitor<>() {
@@ -1638,15 +1647,13 @@ public class FormulaManagerView {
    * SSA map.
    */
   public boolean isIntermediate(String varName, SSAMap ssa) {
-    Pair<String, OptionalInt> p = parseName(varName);
-    String name = p.getFirst();
-    OptionalInt idx = p.getSecond();
-    if (!idx.isPresent()) {
+    SSASymbolTable.Symbol symbol = wrappingHandler.getSymbolTable().lookup(varName);
+    if (!symbol.hasIndex()) {
       if (ssa.containsVariable(varName)) {
         return true;
       }
     } else {
-      if (idx.orElseThrow() != ssa.getIndex(name)) {
+      if (symbol.getIndex() != ssa.getIndex(symbol.getVariable())) {
         return true;
       }
     }
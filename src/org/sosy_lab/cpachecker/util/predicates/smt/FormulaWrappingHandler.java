@@ -55,6 +55,9 @@ final class FormulaWrappingHandler {
 
   private final FormulaManager manager;
 
+  // shared by all views of the same FormulaManagerView
+  private final SSASymbolTable symbolTable = new SSASymbolTable();
+
   FormulaWrappingHandler(
       FormulaManager pRawManager,
       Theory pEncodeBitvectorAs,
@@ -70,6 +73,10 @@ final class FormulaWrappingHandler {
     assert encodeFloatAs != Theory.BITVECTOR : "can not encode floats as bitvectors";
   }
 
+  SSASymbolTable getSymbolTable() {
+    return symbolTable;
+  }
+
   boolean useBitvectors() {
     return encodeBitvectorAs == Theory.BITVECTOR;
   }
@@ -128,7 +128,7 @@ public class FunctionFormulaManagerView extends BaseManagerView implements UFMan
 
   public <T extends Formula> T declareAndCallUninterpretedFunction(
       String pName, int idx, FormulaType<T> pReturnType, List<Formula> pArgs) {
-    String name = FormulaManagerView.makeName(pName, idx);
+    String name = makeName(pName, idx);
     return declareAndCallUF(name, pReturnType, pArgs);
   }
 
@@ -137,7 +137,7 @@ public class NumeralFormulaManagerView
   }
 
   public ResultFormulaType makeVariable(String pVar, int idx) {
-    return manager.makeVariable(FormulaManagerView.makeName(pVar, idx));
+    return manager.makeVariable(makeName(pVar, idx));
   }
 
   @Override
@@ -0,0 +1,489 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterators;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Ints;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Cache for results of satisfiability checks that is stored in a file and thus can be reused
+ * across runs of CPAchecker (e.g., when re-verifying slightly modified programs).
+ *
+ * <p>Queries are identified by the SHA-256 hash of a canonical SMT-LIB dump of the formula
+ * (declarations are sorted, because their order is not guaranteed to be stable).
+ * The file is only used if it was written with the same solver (name and version)
+ * and the same solver options, otherwise it is silently replaced.
+ *
+ * <p>File format: a header consisting of {@link #MAGIC}, the format version, and the hash of the
+ * invalidation key, followed by records of a query hash and one byte for the result
+ * (1 for unsat, 0 for sat). Records are appended in the order in which they were computed,
+ * such that the oldest ones can be dropped if the file grows beyond the size limit.
+ *
+ * <p>The records of the file are read once per JVM into a compact {@link StoredResults} table,
+ * which is shared by all instances that use the same file. Formulas are dumped only if there is
+ * a chance that the result is stored in the file, results of this run are dumped when they are
+ * written back.
+ */
+@Options(prefix = "solver.queryCache")
+final class PersistentSolverQueryCache {
+
+  private static final long MAGIC = 0x4350415143616368L; // "CPAQCach"
+  private static final int FORMAT_VERSION = 2;
+  private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+  private static final int HASH_BYTES = HASH_FUNCTION.bits() / Byte.SIZE;
+  private static final int HEADER_BYTES = Long.BYTES + Integer.BYTES + HASH_BYTES;
+  private static final int RECORD_BYTES = HASH_BYTES + 1;
+
+  /** Prefix of options that are part of the invalidation key. */
+  private static final String SOLVER_OPTIONS_PREFIX = "solver.";
+
+  /**
+   * The file contents that were read by instances that are still alive, such that each file is
+   * read only once even if there are several solver instances. Keys contain the file name, the
+   * invalidation key, the size limit, and the size and modification time of the file.
+   */
+  private static final Cache<String, StoredResults> loadedFiles =
+      CacheBuilder.newBuilder().weakValues().build();
+
+  /**
+   * Immutable table of the records of a file: the records in file order and an open-addressing
+   * hash table of record indices (plus one, 0 marks a free slot). Query hashes are already
+   * uniformly distributed, so their first bytes are used as hash code.
+   */
+  private static final class StoredResults {
+
+    private static final StoredResults EMPTY = new StoredResults(new byte[0], 0);
+
+    private final byte[] records;
+    private final int count;
+    private final int[] table;
+
+    private StoredResults(byte[] pRecords, int pCount) {
+      records = pRecords;
+      count = pCount;
+      table = new int[Integer.highestOneBit(Math.max(1, pCount) * 2 - 1) * 2];
+      for (int i = 0; i < count; i++) {
+        int slot = findSlot(records, i * RECORD_BYTES);
+        if (table[slot] == 0) {
+          table[slot] = i + 1;
+        } // else: duplicate record, the first one is used
+      }
+    }
+
+    /** Find the slot of the record with the given hash, or the free slot where it belongs. */
+    private int findSlot(byte[] pHash, int pOffset) {
+      int mask = table.length - 1;
+      int slot =
+          Ints.fromBytes(
+                  pHash[pOffset], pHash[pOffset + 1], pHash[pOffset + 2], pHash[pOffset + 3])
+              & mask;
+      while (table[slot] != 0
+          && !Arrays.equals(
+              records,
+              (table[slot] - 1) * RECORD_BYTES,
+              (table[slot] - 1) * RECORD_BYTES + HASH_BYTES,
+              pHash,
+              pOffset,
+              pOffset + HASH_BYTES)) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    @Nullable Boolean get(HashCode pKey) {
+      int slot = findSlot(pKey.asBytes(), 0);
+      if (table[slot] == 0) {
+        return null;
+      }
+      return records[table[slot] * RECORD_BYTES - 1] != 0;
+    }
+
+    boolean contains(HashCode pKey) {
+      return get(pKey) != null;
+    }
+
+    boolean isEmpty() {
+      return count == 0;
+    }
+  }
+
+  /** A result computed in this run, with the hash of the query if it is already known. */
+  private static final class NewResult {
+    private final boolean isUnsat;
+    private @Nullable HashCode key;
+
+    private NewResult(boolean pIsUnsat, @Nullable HashCode pKey) {
+      isUnsat = pIsUnsat;
+      key = pKey;
+    }
+  }
+
+  @Option(
+      secure = true,
+      description =
+          "file for storing results of satisfiability checks persistently across runs "
+              + "(disabled if not set). The file is read at startup and updated at the end, "
+              + "and it is ignored if the solver, its version, or its options differ.")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path file = null;
+
+  @Option(
+      secure = true,
+      description =
+          "maximum number of queries kept in the persistent solver-query cache, "
+              + "if there are more, the oldest ones are removed.")
+  @IntegerOption(min = 1)
+  private int maxEntries = 1_000_000;
+
+  private final LogManager logger;
+  private final FormulaManagerView fmgr;
+  private final HashCode invalidationKey;
+
+  /** Entries read from the file. */
+  private StoredResults storedResults = StoredResults.EMPTY;
+
+  /** Entries computed in this run, in the order in which they were added. */
+  private final Map<BooleanFormula, NewResult> newResults = new LinkedHashMap<>();
+
+  // the hash of the last query that was not found, such that put() does not need to compute it
+  private @Nullable BooleanFormula lastMissedFormula = null;
+  private @Nullable HashCode lastMissedKey = null;
+
+  // stats
+  int hits = 0;
+  int misses = 0;
+
+  private PersistentSolverQueryCache(
+      Configuration pConfig,
+      LogManager pLogger,
+      FormulaManagerView pFmgr,
+      String pSolverName,
+      String pSolverVersion)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    fmgr = pFmgr;
+    invalidationKey =
+        HASH_FUNCTION.hashString(
+            buildInvalidationKey(pConfig, pSolverName, pSolverVersion), UTF_8);
+  }
+
+  /**
+   * Create an instance and read the persistent cache if it is enabled in the configuration,
+   * otherwise return null.
+   */
+  static @Nullable PersistentSolverQueryCache create(
+      Configuration pConfig,
+      LogManager pLogger,
+      FormulaManagerView pFmgr,
+      String pSolverName,
+      String pSolverVersion)
+      throws InvalidConfigurationException {
+    PersistentSolverQueryCache cache =
+        new PersistentSolverQueryCache(pConfig, pLogger, pFmgr, pSolverName, pSolverVersion);
+    if (cache.file == null) {
+      return null;
+    }
+    cache.load();
+    return cache;
+  }
+
+  private static String buildInvalidationKey(
+      Configuration pConfig, String pSolverName, String pSolverVersion) {
+    List<String> solverOptions = new ArrayList<>();
+    for (String line : Splitter.on('\n').omitEmptyStrings().split(pConfig.asPropertiesString())) {
+      if (line.startsWith(SOLVER_OPTIONS_PREFIX)
+          && !line.startsWith(SOLVER_OPTIONS_PREFIX + "queryCache.")) {
+        solverOptions.add(line.trim());
+      }
+    }
+    solverOptions.sort(null);
+    return pSolverName + "\n" + pSolverVersion + "\n" + Joiner.on('\n').join(solverOptions);
+  }
+
+  private HashCode computeKey(BooleanFormula pFormula) {
+    return HASH_FUNCTION.hashString(fmgr.dumpFormulaCanonically(pFormula), UTF_8);
+  }
+
+  /**
+   * Look up whether the given formula is known to be unsatisfiable.
+   *
+   * @return the cached result (true for unsat), or null if the formula is not in the cache
+   */
+  @Nullable Boolean isUnsat(BooleanFormula pFormula) {
+    NewResult newResult = newResults.get(pFormula);
+    if (newResult != null) {
+      hits++;
+      return newResult.isUnsat;
+    }
+    if (storedResults.isEmpty()) {
+      // no need to compute the hash now
+      misses++;
+      return null;
+    }
+
+    HashCode key = computeKey(pFormula);
+    Boolean result = storedResults.get(key);
+    if (result == null) {
+      misses++;
+      lastMissedFormula = pFormula;
+      lastMissedKey = key;
+    } else {
+      hits++;
+    }
+    return result;
+  }
+
+  void put(BooleanFormula pFormula, boolean pIsUnsat) {
+    HashCode key = pFormula.equals(lastMissedFormula) ? lastMissedKey : null;
+    lastMissedFormula = null;
+    lastMissedKey = null;
+    newResults.putIfAbsent(pFormula, new NewResult(pIsUnsat, key));
+  }
+
+  private void load() {
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      String loadedFileKey =
+          Joiner.on('\0')
+              .join(
+                  file.toAbsolutePath(),
+                  invalidationKey,
+                  maxEntries,
+                  attributes.size(),
+                  attributes.lastModifiedTime());
+      storedResults = loadedFiles.get(loadedFileKey, this::readFile);
+      logger.log(
+          Level.FINE, "Read", storedResults.count, "entries from solver-query cache", file);
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not read solver-query cache");
+    } catch (ExecutionException e) {
+      logger.logUserException(Level.WARNING, e.getCause(), "Could not read solver-query cache");
+    }
+  }
+
+  private StoredResults readFile() throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        FileLock lock = channel.lock(0, Long.MAX_VALUE, true)) {
+      if (!hasCompatibleHeader(channel)) {
+        return StoredResults.EMPTY;
+      }
+      int count = (int) Math.min(maxEntries, getRecordCount(channel));
+      return new StoredResults(readRecords(channel, count), count);
+    }
+  }
+
+  /**
+   * Check whether the file has a valid header with the invalidation key of this run. Afterwards,
+   * the position of the channel is at the first record.
+   */
+  private boolean hasCompatibleHeader(FileChannel pChannel) throws IOException {
+    if (pChannel.size() < HEADER_BYTES) {
+      return false;
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    pChannel.position(0);
+    readFully(pChannel, header);
+    header.flip();
+    if (header.getLong() != MAGIC || header.getInt() != FORMAT_VERSION) {
+      logger.log(Level.INFO, "Ignoring solver-query cache", file, "with unknown format.");
+      return false;
+    }
+    byte[] storedKey = new byte[HASH_BYTES];
+    header.get(storedKey);
+    if (!Arrays.equals(storedKey, invalidationKey.asBytes())) {
+      logger.log(
+          Level.INFO,
+          "Ignoring solver-query cache",
+          file,
+          "because it was created with a different solver or different solver options.");
+      return false;
+    }
+    return true;
+  }
+
+  /** The number of complete records in the file (a partially written one is ignored). */
+  private static long getRecordCount(FileChannel pChannel) throws IOException {
+    return Math.max(0, pChannel.size() - HEADER_BYTES) / RECORD_BYTES;
+  }
+
+  /** Read the last pCount records of the file. */
+  private static byte[] readRecords(FileChannel pChannel, int pCount) throws IOException {
+    ByteBuffer records = ByteBuffer.allocate(pCount * RECORD_BYTES);
+    pChannel.position(HEADER_BYTES + (getRecordCount(pChannel) - pCount) * RECORD_BYTES);
+    readFully(pChannel, records);
+    return records.array();
+  }
+
+  /** Write the results of this run to the file (if there are new ones). */
+  void store() {
+    if (newResults.isEmpty()) {
+      return;
+    }
+
+    // compute missing hashes before locking the file
+    Map<HashCode, Boolean> toStore = new LinkedHashMap<>();
+    for (Map.Entry<BooleanFormula, NewResult> entry : newResults.entrySet()) {
+      NewResult newResult = entry.getValue();
+      if (newResult.key == null) {
+        newResult.key = computeKey(entry.getKey());
+      }
+      if (!storedResults.contains(newResult.key)) {
+        toStore.putIfAbsent(newResult.key, newResult.isUnsat);
+      }
+    }
+    if (toStore.isEmpty()) {
+      return;
+    }
+
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      try (FileChannel channel =
+              FileChannel.open(
+                  file,
+                  StandardOpenOption.CREATE,
+                  StandardOpenOption.READ,
+                  StandardOpenOption.WRITE);
+          FileLock lock = channel.lock()) {
+
+        // The file may have been changed by other runs since we read it,
+        // so we need to check it again while we hold the lock.
+        if (hasCompatibleHeader(channel)) {
+          long existing = getRecordCount(channel);
+          if (existing + toStore.size() <= maxEntries) {
+            // common case: just append new results (after other appended ones, if any,
+            // and overwriting a partially written record)
+            channel.truncate(HEADER_BYTES + existing * RECORD_BYTES);
+            channel.position(HEADER_BYTES + existing * RECORD_BYTES);
+            writeRecords(channel, toStore);
+          } else {
+            // keep the newest records of the file (including those of other runs)
+            int keep = (int) Math.min(existing, Math.max(0, maxEntries - toStore.size()));
+            byte[] kept = readRecords(channel, keep);
+            rewrite(channel, kept, toStore);
+          }
+        } else {
+          rewrite(channel, new byte[0], toStore);
+        }
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write solver-query cache");
+    }
+  }
+
+  /**
+   * Replace the file contents with a header, the given records of the old file and the new
+   * results, of which only the newest ones are written if there are more than allowed.
+   */
+  private void rewrite(FileChannel pChannel, byte[] pKeptRecords, Map<HashCode, Boolean> pNew)
+      throws IOException {
+    pChannel.truncate(0);
+    pChannel.position(0);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putLong(MAGIC).putInt(FORMAT_VERSION).put(invalidationKey.asBytes());
+    header.flip();
+    writeFully(pChannel, header);
+    writeFully(pChannel, ByteBuffer.wrap(pKeptRecords));
+
+    Map<HashCode, Boolean> newest = pNew;
+    if (pNew.size() > maxEntries) {
+      newest = new LinkedHashMap<>();
+      Iterator<Map.Entry<HashCode, Boolean>> entries = pNew.entrySet().iterator();
+      Iterators.advance(entries, pNew.size() - maxEntries);
+      entries.forEachRemaining(e -> newest.put(e.getKey(), e.getValue()));
+    }
+    writeRecords(pChannel, newest);
+  }
+
+  private static void writeRecords(FileChannel pChannel, Map<HashCode, Boolean> pEntries)
+      throws IOException {
+    ByteBuffer buffer =
+        ByteBuffer.allocate(Math.max(1, Math.min(pEntries.size(), 4096)) * RECORD_BYTES);
+    for (Map.Entry<HashCode, Boolean> entry : pEntries.entrySet()) {
+      if (buffer.remaining() < RECORD_BYTES) {
+        buffer.flip();
+        writeFully(pChannel, buffer);
+        buffer.clear();
+      }
+      buffer.put(entry.getKey().asBytes()).put((byte) (entry.getValue() ? 1 : 0));
+    }
+    buffer.flip();
+    writeFully(pChannel, buffer);
+  }
+
+  private static void writeFully(FileChannel pChannel, ByteBuffer pBuffer) throws IOException {
+    while (pBuffer.hasRemaining()) {
+      pChannel.write(pBuffer);
+    }
+  }
+
+  private static void readFully(FileChannel pChannel, ByteBuffer pBuffer) throws IOException {
+    while (pBuffer.hasRemaining()) {
+      if (pChannel.read(pBuffer) < 0) {
+        throw new EOFException();
+      }
+    }
+  }
+}
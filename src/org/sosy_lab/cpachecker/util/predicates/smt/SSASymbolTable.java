@@ -0,0 +1,233 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Symbol table for the variables in formulas, which maps pairs of variable name and SSA index to
+ * the names of the symbols in the solver and back.
+ *
+ * <p>The solver symbols keep the format that is described in {@link FormulaManagerView} (e.g.,
+ * "x@2", and "x@" for variables without SSA index), but each name is created only once per pair,
+ * and looking up the variable and the SSA index of a symbol does not need to split and parse the
+ * name again. Symbols that were not created by this table (e.g., variables without any SSA index)
+ * are parsed on lookup, and the most recently used of them are kept in a bounded cache.
+ *
+ * <p>There is one table for each {@link FormulaManagerView}. This class is thread-safe.
+ */
+final class SSASymbolTable {
+
+  /** A symbol of the solver, i.e., a variable name with an optional SSA index. */
+  static final class Symbol {
+
+    private static final int NO_INDEX = -1;
+    private static final int NEVER_INSTANTIATED = -2;
+
+    private final String variable;
+    private final int index;
+    private final String solverName;
+
+    private Symbol(String pVariable, int pIndex, String pSolverName) {
+      variable = pVariable;
+      index = pIndex;
+      solverName = pSolverName;
+    }
+
+    /** The name of the variable without SSA index. */
+    String getVariable() {
+      return variable;
+    }
+
+    /** The name of the symbol in the solver. */
+    String getSolverName() {
+      return solverName;
+    }
+
+    boolean hasIndex() {
+      return index >= 0;
+    }
+
+    int getIndex() {
+      checkArgument(hasIndex(), "Symbol %s has no SSA index", solverName);
+      return index;
+    }
+
+    OptionalInt getOptionalIndex() {
+      return hasIndex() ? OptionalInt.of(index) : OptionalInt.empty();
+    }
+
+    /** Whether this is a variable that should never get an SSA index (like "x@"). */
+    boolean isNeverInstantiated() {
+      return index == NEVER_INSTANTIATED;
+    }
+  }
+
+  /** Maximum number of symbols that were not created by this table and are kept. */
+  private static final int MAXIMUM_FOREIGN_SYMBOLS = 10000;
+
+  /** All symbols of one variable, the instantiated ones are indexed by their SSA index. */
+  private final class VariableSymbols {
+
+    private final String variable;
+    private volatile @Nullable Symbol withoutIndex = null;
+
+    /**
+     * Grows (under the lock of this object) by doubling, existing slots are filled in place. Reads
+     * do not need the lock, a missing symbol is looked up again under the lock.
+     */
+    private volatile AtomicReferenceArray<Symbol> instances = new AtomicReferenceArray<>(0);
+
+    private VariableSymbols(String pVariable) {
+      variable = pVariable;
+    }
+
+    Symbol get(int pIndex) {
+      AtomicReferenceArray<Symbol> current = instances;
+      if (pIndex < current.length()) {
+        Symbol symbol = current.get(pIndex);
+        if (symbol != null) {
+          return symbol;
+        }
+      }
+      synchronized (this) {
+        current = instances;
+        if (pIndex < current.length()) {
+          Symbol symbol = current.get(pIndex);
+          if (symbol != null) {
+            return symbol;
+          }
+        } else {
+          AtomicReferenceArray<Symbol> grown =
+              new AtomicReferenceArray<>(Math.max(pIndex + 1, 2 * current.length()));
+          for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+          }
+          current = grown;
+        }
+        Symbol symbol =
+            register(new Symbol(variable, pIndex, FormulaManagerView.makeName(variable, pIndex)));
+        current.set(pIndex, symbol);
+        instances = current;
+        return symbol;
+      }
+    }
+
+    Symbol getWithoutIndex() {
+      Symbol symbol = withoutIndex;
+      if (symbol == null) {
+        symbol =
+            register(
+                new Symbol(
+                    variable,
+                    Symbol.NEVER_INSTANTIATED,
+                    FormulaManagerView.makeNameNoIndex(variable)));
+        withoutIndex = symbol;
+      }
+      return symbol;
+    }
+  }
+
+  private final ConcurrentMap<String, VariableSymbols> byVariable = new ConcurrentHashMap<>();
+
+  /** The symbols that were created by this table. */
+  private final ConcurrentMap<String, Symbol> bySolverName = new ConcurrentHashMap<>();
+
+  /** Recently looked up symbols that were not created by this table. */
+  private final Cache<String, Symbol> foreignSymbols =
+      CacheBuilder.newBuilder().maximumSize(MAXIMUM_FOREIGN_SYMBOLS).build();
+
+  private Symbol register(Symbol pSymbol) {
+    Symbol existing = bySolverName.putIfAbsent(pSymbol.solverName, pSymbol);
+    return existing != null ? existing : pSymbol;
+  }
+
+  private VariableSymbols getVariableSymbols(String pVariable) {
+    VariableSymbols symbols = byVariable.get(pVariable);
+    if (symbols == null) {
+      symbols = byVariable.computeIfAbsent(pVariable, VariableSymbols::new);
+    }
+    return symbols;
+  }
+
+  /** Return the name of the solver symbol for the given variable and SSA index. */
+  String getName(String pVariable, int pIndex) {
+    checkArgument(pIndex >= 0, "Invalid index %s for variable %s", pIndex, pVariable);
+    return getVariableSymbols(pVariable).get(pIndex).solverName;
+  }
+
+  /** Return the name of the solver symbol for a variable that should never get an SSA index. */
+  String getNameWithoutIndex(String pVariable) {
+    return getVariableSymbols(pVariable).getWithoutIndex().solverName;
+  }
+
+  /**
+   * Return the symbol with the given solver name.
+   *
+   * @throws IllegalArgumentException if the name is not valid
+   */
+  Symbol lookup(String pSolverName) {
+    Symbol symbol = bySolverName.get(pSolverName);
+    if (symbol == null) {
+      symbol = foreignSymbols.getIfPresent(pSolverName);
+    }
+    if (symbol == null) {
+      symbol = parseName(pSolverName);
+      Symbol existing = foreignSymbols.asMap().putIfAbsent(pSolverName, symbol);
+      if (existing != null) {
+        symbol = existing;
+      }
+    }
+    return symbol;
+  }
+
+  /**
+   * Split a solver name into variable and SSA index without registering it in a symbol table.
+   *
+   * @throws IllegalArgumentException if the name is not valid
+   */
+  static Symbol parseName(String pSolverName) {
+    checkArgument(!pSolverName.isEmpty(), "Invalid empty name");
+    int separator = pSolverName.indexOf(FormulaManagerView.INDEX_SEPARATOR);
+    if (separator == -1) {
+      // TODO throw exception after forbidding such variable names
+      return new Symbol(pSolverName, Symbol.NO_INDEX, pSolverName);
+    }
+    if (pSolverName.indexOf(FormulaManagerView.INDEX_SEPARATOR, separator + 1) != -1) {
+      throw new IllegalArgumentException(
+          "Not an instantiated variable nor constant: " + pSolverName);
+    }
+    String variable = pSolverName.substring(0, separator);
+    if (separator == pSolverName.length() - 1) {
+      // Variable name ending in @ marks variables that should not be instantiated
+      return new Symbol(variable, Symbol.NEVER_INSTANTIATED, pSolverName);
+    }
+    int index = Integer.parseInt(pSolverName.substring(separator + 1));
+    return new Symbol(variable, index, pSolverName);
+  }
+}
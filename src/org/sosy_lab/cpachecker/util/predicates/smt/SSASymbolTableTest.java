@@ -0,0 +1,91 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.predicates.smt.SSASymbolTable.Symbol;
+
+public class SSASymbolTableTest {
+
+  private final SSASymbolTable table = new SSASymbolTable();
+
+  @Test
+  public void namesAreInterned() {
+    String name = table.getName("x", 3);
+    assertThat(name).isEqualTo("x@3");
+    assertThat(table.getName("x", 3)).isSameInstanceAs(name);
+    assertThat(table.getName("x", 100)).isEqualTo("x@100");
+    assertThat(table.getName("x", 3)).isSameInstanceAs(name);
+    assertThat(table.getNameWithoutIndex("x")).isEqualTo("x@");
+  }
+
+  @Test
+  public void manyIndices() {
+    // fill holes from the top, and then grow the table by single indices
+    String[] names = new String[1000];
+    for (int i = 499; i >= 0; i--) {
+      names[i] = table.getName("x", i);
+    }
+    for (int i = 500; i < names.length; i++) {
+      names[i] = table.getName("x", i);
+    }
+    for (int i = 0; i < names.length; i++) {
+      assertThat(table.getName("x", i)).isSameInstanceAs(names[i]);
+      assertThat(table.lookup(names[i]).getIndex()).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void lookupCreatedSymbol() {
+    Symbol symbol = table.lookup(table.getName("main::y", 7));
+    assertThat(symbol.getVariable()).isEqualTo("main::y");
+    assertThat(symbol.getIndex()).isEqualTo(7);
+    assertThat(symbol.isNeverInstantiated()).isFalse();
+
+    symbol = table.lookup(table.getNameWithoutIndex("z"));
+    assertThat(symbol.getVariable()).isEqualTo("z");
+    assertThat(symbol.hasIndex()).isFalse();
+    assertThat(symbol.isNeverInstantiated()).isTrue();
+  }
+
+  @Test
+  public void lookupUnknownSymbol() {
+    Symbol symbol = table.lookup("a@2");
+    assertThat(symbol.getVariable()).isEqualTo("a");
+    assertThat(symbol.getIndex()).isEqualTo(2);
+    assertThat(table.lookup("a@2")).isSameInstanceAs(symbol);
+
+    symbol = table.lookup("b");
+    assertThat(symbol.getVariable()).isEqualTo("b");
+    assertThat(symbol.hasIndex()).isFalse();
+    assertThat(symbol.isNeverInstantiated()).isFalse();
+  }
+
+  @Test
+  public void invalidNames() {
+    assertThrows(IllegalArgumentException.class, () -> table.lookup(""));
+    assertThrows(IllegalArgumentException.class, () -> table.lookup("a@1@2"));
+    assertThrows(IllegalArgumentException.class, () -> table.getName("a@1", 2));
+    assertThrows(IllegalArgumentException.class, () -> table.getName("a", -1));
+  }
+}
@@ -125,6 +125,9 @@ public final class Solver implements AutoCloseable {
   private final Map<Object, Map<Set<BooleanFormula>, Boolean>>
       groupedUnsatCache = new HashMap<>();
 
+  /** Cache for results of sat checks that is kept across runs, null if disabled. */
+  private final @Nullable PersistentSolverQueryCache persistentCache;
+
   private final LogManager logger;
 
   // stats
@@ -132,6 +135,7 @@ public final class Solver implements AutoCloseable {
   public int satChecks = 0;
   public int trivialSatChecks = 0;
   public int cachedSatChecks = 0;
+  public int persistentlyCachedSatChecks = 0;
 
   private Solver(
       Configuration config,
@@ -169,6 +173,9 @@ public final class Solver implements AutoCloseable {
         pLogger
     );
     bfmgr = fmgr.getBooleanFormulaManager();
+    persistentCache =
+        PersistentSolverQueryCache.create(
+            config, pLogger, fmgr, solver.toString(), solvingContext.getVersion());
 
     if (checkUFs) {
       ufCheckingProverOptions = new UFCheckingProverOptions(config);
@@ -214,6 +221,9 @@ public final class Solver implements AutoCloseable {
     fmgr = new FormulaManagerView(pContext.getFormulaManager(), pConfig, pLogger);
     bfmgr = fmgr.getBooleanFormulaManager();
     logger = pLogger;
+    persistentCache =
+        PersistentSolverQueryCache.create(
+            pConfig, pLogger, fmgr, solver.toString(), solvingContext.getVersion());
 
     if (checkUFs) {
       ufCheckingProverOptions = new UFCheckingProverOptions(pConfig);
@@ -377,7 +387,7 @@ public final class Solver implements AutoCloseable {
 
     solverTime.start();
     try {
-      result = isUnsatUncached(f);
+      result = isUnsatPersistentlyCached(f);
 
       unsatCache.put(f, result);
       return result;
@@ -445,12 +455,27 @@ public final class Solver implements AutoCloseable {
       opts = new ProverOptions[0];
     }
 
+    BooleanFormula query = persistentCache != null ? bfmgr.and(lemmas) : null;
+    if (persistentCache != null) {
+      Boolean cachedIsUnsat = persistentCache.isUnsat(query);
+      if (cachedIsUnsat != null) {
+        persistentlyCachedSatChecks++;
+        stored.put(ImmutableSet.copyOf(lemmas), cachedIsUnsat);
+        groupedUnsatCache.put(cacheKey, ImmutableMap.copyOf(stored));
+        return cachedIsUnsat;
+      }
+    }
+
     try (ProverEnvironment pe = newProverEnvironment(opts)){
       pe.push();
       for (BooleanFormula lemma : lemmas) {
         pe.addConstraint(lemma);
       }
-      if (pe.isUnsat()) {
+      boolean isUnsat = pe.isUnsat();
+      if (persistentCache != null) {
+        persistentCache.put(query, isUnsat);
+      }
+      if (isUnsat) {
         if (cacheUnsatCores) {
           stored.put(ImmutableSet.copyOf(pe.getUnsatCore()), true);
         } else {
@@ -492,6 +517,22 @@ public final class Solver implements AutoCloseable {
     }
   }
 
+  /** Check satisfiability with the persistent cache (if enabled) but without the in-memory one. */
+  private boolean isUnsatPersistentlyCached(BooleanFormula f)
+      throws SolverException, InterruptedException {
+    if (persistentCache == null) {
+      return isUnsatUncached(f);
+    }
+    Boolean result = persistentCache.isUnsat(f);
+    if (result != null) {
+      persistentlyCachedSatChecks++;
+      return result;
+    }
+    boolean isUnsat = isUnsatUncached(f);
+    persistentCache.put(f, isUnsat);
+    return isUnsat;
+  }
+
   private boolean isUnsatUncached(BooleanFormula f) throws SolverException, InterruptedException {
     try (ProverEnvironment prover = newProverEnvironment()) {
       prover.push(f);
@@ -527,6 +568,10 @@ public final class Solver implements AutoCloseable {
    */
   @Override
   public void close() {
+    if (persistentCache != null) {
+      persistentCache.store();
+    }
+
     // Reliably close both formula managers and re-throw exceptions,
     // such that no exception gets lost and both managers get closed.
     // Taken from https://stackoverflow.com/questions/24705055/wrapping-multiple-autocloseables